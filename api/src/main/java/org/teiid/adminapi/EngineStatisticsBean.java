@@ -66,6 +66,36 @@ public interface EngineStatisticsBean {
      */
     long getDiskReadCount();
 
+    /**
+     * Number of the disk reads that were served through memory mappings
+     * @return
+     */
+    long getMappedDiskReadCount();
+
+    /**
+     * Disk space currently memory mapped by the buffer manager
+     * @return
+     */
+    long getMappedDiskSpaceInMB();
+
+    /**
+     * Number of heap batches evicted by the buffer manager
+     * @return
+     */
+    long getEvictionCount();
+
+    /**
+     * Number of batch reads served from memory without a cache read
+     * @return
+     */
+    long getMemoryHitCount();
+
+    /**
+     * Number of batch reads that required a cache read
+     * @return
+     */
+    long getMemoryMissCount();
+
     /**
      * Total number of cache reads, includes disk and soft-cache references
      * @return
@@ -27,6 +27,11 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
     private long memoryUsedByActivePlansInKB;
     private long diskWriteCount;
     private long diskReadCount;
+    private long mappedDiskReadCount;
+    private long mappedDiskSpaceInMB;
+    private long evictionCount;
+    private long memoryHitCount;
+    private long memoryMissCount;
     private long cacheWriteCount;
     private long cacheReadCount;
     private long diskSpaceUsedInMB;
@@ -59,6 +64,31 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
         return diskReadCount;
     }
 
+    @Override
+    public long getMappedDiskReadCount() {
+        return mappedDiskReadCount;
+    }
+
+    @Override
+    public long getMappedDiskSpaceInMB() {
+        return mappedDiskSpaceInMB;
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public long getMemoryHitCount() {
+        return memoryHitCount;
+    }
+
+    @Override
+    public long getMemoryMissCount() {
+        return memoryMissCount;
+    }
+
     @Override
     public long getCacheReadCount() {
         return cacheReadCount;
@@ -109,6 +139,26 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
         this.diskReadCount = diskReadCount;
     }
 
+    public void setMappedDiskReadCount(long mappedDiskReadCount) {
+        this.mappedDiskReadCount = mappedDiskReadCount;
+    }
+
+    public void setMappedDiskSpaceInMB(long mappedDiskSpaceInMB) {
+        this.mappedDiskSpaceInMB = mappedDiskSpaceInMB;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public void setMemoryHitCount(long memoryHitCount) {
+        this.memoryHitCount = memoryHitCount;
+    }
+
+    public void setMemoryMissCount(long memoryMissCount) {
+        this.memoryMissCount = memoryMissCount;
+    }
+
     public void setCacheWriteCount(long cacheWriteCount) {
         this.cacheWriteCount = cacheWriteCount;
     }
@@ -141,6 +191,11 @@ public class EngineStatisticsMetadata extends AdminObjectImpl implements EngineS
         sb.append("; memoryUsedByActivePlansInKB ").append(memoryUsedByActivePlansInKB);//$NON-NLS-1$
         sb.append("; diskWriteCount ").append(diskWriteCount); //$NON-NLS-1$
         sb.append("; diskReadCount ").append(diskReadCount); //$NON-NLS-1$
+        sb.append("; mappedDiskReadCount ").append(mappedDiskReadCount); //$NON-NLS-1$
+        sb.append("; mappedDiskSpaceInMB ").append(mappedDiskSpaceInMB); //$NON-NLS-1$
+        sb.append("; evictionCount ").append(evictionCount); //$NON-NLS-1$
+        sb.append("; memoryHitCount ").append(memoryHitCount); //$NON-NLS-1$
+        sb.append("; memoryMissCount ").append(memoryMissCount); //$NON-NLS-1$
         sb.append("; cacheWriteCount ").append(cacheWriteCount); //$NON-NLS-1$
         sb.append("; cacheReadCount ").append(cacheReadCount); //$NON-NLS-1$
         sb.append("; diskSpaceUsedInMB ").append(diskSpaceUsedInMB); //$NON-NLS-1$
@@ -0,0 +1,100 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.client.BatchSerializer;
+
+/**
+ * Serialization of a results batch with the row based (5) and columnar (6) formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchSerializerBenchmark {
+
+    @Param({"narrow", "wide", "lob"})
+    public String shape;
+
+    @Param({"5", "6"})
+    public byte version;
+
+    @Param({"1024"})
+    public int rows;
+
+    private String[] types;
+    private List<List<?>> batch;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        switch (shape) {
+        case "narrow": //$NON-NLS-1$
+            types = DataGenerator.NARROW_TYPES;
+            batch = DataGenerator.narrowRows(rows);
+            break;
+        case "wide": //$NON-NLS-1$
+            types = DataGenerator.WIDE_TYPES;
+            batch = DataGenerator.wideRows(rows);
+            break;
+        default:
+            types = DataGenerator.LOB_TYPES;
+            batch = DataGenerator.lobRows(rows, 4096);
+            break;
+        }
+        serialized = write();
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(1 << 16);
+        ObjectOutputStream out = new ObjectOutputStream(baos);
+        BatchSerializer.writeBatch(out, types, batch, version);
+        out.close();
+        return baos.toByteArray();
+    }
+
+    @Benchmark
+    public List<List<Object>> read() throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized));
+        return BatchSerializer.readBatch(in, types, true);
+    }
+
+}
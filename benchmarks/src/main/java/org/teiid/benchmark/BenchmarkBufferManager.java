@@ -0,0 +1,69 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.impl.BufferFrontedFileStoreCache;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.common.buffer.impl.MemoryStorageManager;
+import org.teiid.common.buffer.impl.SplittableStorageManager;
+import org.teiid.core.TeiidComponentException;
+
+/**
+ * Creates {@link BufferManager}s for the benchmarks.  The storage is in memory
+ * so that results are not dominated by the local disk.
+ */
+public final class BenchmarkBufferManager {
+
+    private BenchmarkBufferManager() {
+    }
+
+    /**
+     * @param maxReserveKB the heap reserve, small values force batches into the buffer cache
+     * @param memoryBufferSpace the size in bytes of the buffer cache in front of the storage
+     */
+    public static BufferManagerImpl create(int maxReserveKB, long memoryBufferSpace) throws TeiidComponentException {
+        BufferManagerImpl bufferManager = new BufferManagerImpl();
+        bufferManager.setMaxReserveKB(maxReserveKB);
+        bufferManager.setMaxProcessingKB(Math.max(maxReserveKB/8, 64));
+        bufferManager.initialize();
+        bufferManager.setUseWeakReferences(false);
+
+        MemoryStorageManager storageManager = new MemoryStorageManager();
+        SplittableStorageManager ssm = new SplittableStorageManager(storageManager);
+        ssm.setMaxFileSizeDirect(MemoryStorageManager.MAX_FILE_SIZE);
+        BufferFrontedFileStoreCache fsc = new BufferFrontedFileStoreCache();
+        fsc.setBufferManager(bufferManager);
+        fsc.setDirect(false);
+        fsc.setMaxStorageObjectSize(1 << 20);
+        fsc.setMemoryBufferSpace(memoryBufferSpace);
+        fsc.setStorageManager(ssm);
+        fsc.initialize();
+        bufferManager.setCache(fsc);
+        return bufferManager;
+    }
+
+    /**
+     * @return a buffer manager with enough heap that the benchmark data stays in memory
+     */
+    public static BufferManagerImpl create() throws TeiidComponentException {
+        return create(1 << 18, 1 << 26);
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.TupleBuffer.TupleBufferTupleSource;
+import org.teiid.common.buffer.impl.BufferFrontedFileStoreCache;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.core.TeiidException;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * Writes and reads of a {@link TupleBuffer} of wide rows with a heap reserve small enough
+ * that batches are serialized to the {@link BufferFrontedFileStoreCache}.  With the smaller
+ * memory buffer space the blocks are also written through to storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferCacheBenchmark {
+
+    @Param({"50000"})
+    public int rows;
+
+    @Param({"4194304", "268435456"})
+    public long memoryBufferSpace;
+
+    private BufferManagerImpl bufferManager;
+    private List<ElementSymbol> elements;
+    private List<List<?>> data;
+    private TupleBuffer buffer;
+
+    @Setup
+    public void setup() throws TeiidException {
+        bufferManager = BenchmarkBufferManager.create(1024, memoryBufferSpace);
+        elements = DataGenerator.elements(DataGenerator.WIDE_TYPES);
+        data = DataGenerator.wideRows(rows);
+        buffer = write(data);
+        buffer.setForwardOnly(false);
+    }
+
+    private TupleBuffer write(List<List<?>> tuples) throws TeiidException {
+        TupleBuffer result = bufferManager.createTupleBuffer(elements, "bench", TupleSourceType.PROCESSOR); //$NON-NLS-1$
+        for (List<?> tuple : tuples) {
+            result.addTuple(tuple);
+        }
+        result.close();
+        return result;
+    }
+
+    @Benchmark
+    public long write() throws TeiidException {
+        TupleBuffer result = write(data);
+        long rowCount = result.getRowCount();
+        result.remove();
+        return rowCount;
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws TeiidException {
+        TupleBufferTupleSource ts = buffer.createIndexedTupleSource();
+        try {
+            List<?> tuple = null;
+            while ((tuple = ts.nextTuple()) != null) {
+                blackhole.consume(tuple);
+            }
+        } finally {
+            ts.closeSource();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.remove();
+        bufferManager.shutdown();
+    }
+
+}
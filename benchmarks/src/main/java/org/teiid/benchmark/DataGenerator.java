@@ -0,0 +1,194 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.teiid.core.types.ClobImpl;
+import org.teiid.core.types.ClobType;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.DataTypeManager.DefaultDataTypes;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * Deterministic data for the benchmarks.
+ * <br>
+ * All values are derived from a fixed seed so that results are comparable between runs and commits.
+ */
+public final class DataGenerator {
+
+    public static final long SEED = 20201107L;
+
+    public static final String[] NARROW_TYPES = new String[] {
+        DefaultDataTypes.INTEGER, DefaultDataTypes.STRING,
+    };
+
+    public static final String[] WIDE_TYPES = new String[] {
+        DefaultDataTypes.INTEGER, DefaultDataTypes.LONG, DefaultDataTypes.DOUBLE,
+        DefaultDataTypes.STRING, DefaultDataTypes.STRING, DefaultDataTypes.BOOLEAN,
+        DefaultDataTypes.SHORT, DefaultDataTypes.BIG_DECIMAL, DefaultDataTypes.DATE,
+        DefaultDataTypes.TIMESTAMP, DefaultDataTypes.FLOAT, DefaultDataTypes.STRING,
+    };
+
+    public static final String[] LOB_TYPES = new String[] {
+        DefaultDataTypes.INTEGER, DefaultDataTypes.STRING, DefaultDataTypes.CLOB,
+    };
+
+    private static final String[] CATEGORIES = new String[] {
+        "active", "inactive", "pending", "closed", "suspended", "archived", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+    };
+
+    /**
+     * Generates keys in [0, n) following a Zipf distribution, so that a few keys
+     * account for most of the values as is typical of foreign keys and grouping columns.
+     */
+    public static class ZipfGenerator {
+
+        private final double[] cdf;
+        private final Random random;
+
+        /**
+         * @param n the number of distinct keys
+         * @param skew the exponent, 0 is uniform and values around 1 are typical
+         */
+        public ZipfGenerator(int n, double skew, long seed) {
+            this.random = new Random(seed);
+            this.cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, skew);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        public int nextInt() {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return Math.min(index, cdf.length - 1);
+        }
+
+    }
+
+    private DataGenerator() {
+    }
+
+    /**
+     * @return keys that are either uniformly distributed over the row count or Zipf skewed
+     */
+    public static int[] keys(int count, boolean skewed) {
+        int[] result = new int[count];
+        if (skewed) {
+            ZipfGenerator zipf = new ZipfGenerator(count, 1.0, SEED);
+            for (int i = 0; i < count; i++) {
+                result[i] = zipf.nextInt();
+            }
+        } else {
+            Random random = new Random(SEED);
+            for (int i = 0; i < count; i++) {
+                result[i] = random.nextInt(count);
+            }
+        }
+        return result;
+    }
+
+    public static List<List<?>> narrowRows(int count) {
+        Random random = new Random(SEED);
+        List<List<?>> result = new ArrayList<List<?>>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Arrays.asList(i, string(random, 8, 24)));
+        }
+        return result;
+    }
+
+    /**
+     * Rows of {@link #WIDE_TYPES} with roughly 10% nulls in the nullable columns
+     * and a low cardinality category column.
+     */
+    public static List<List<?>> wideRows(int count) {
+        Random random = new Random(SEED);
+        long time = 1577836800000L;
+        List<List<?>> result = new ArrayList<List<?>>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Arrays.asList(
+                    i,
+                    random.nextLong(),
+                    random.nextDouble() * 10000,
+                    string(random, 8, 32),
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    random.nextBoolean(),
+                    nullable(random, (short)random.nextInt(Short.MAX_VALUE)),
+                    nullable(random, BigDecimal.valueOf(random.nextInt(1000000), 2)),
+                    new Date(time + random.nextInt(365) * 86400000L),
+                    nullable(random, new Timestamp(time + (random.nextLong() & 0xffffffffL))),
+                    random.nextFloat(),
+                    nullable(random, string(random, 0, 128))));
+        }
+        return result;
+    }
+
+    /**
+     * Rows of {@link #LOB_TYPES} with an inline clob of the given length
+     */
+    public static List<List<?>> lobRows(int count, int lobLength) {
+        Random random = new Random(SEED);
+        List<List<?>> result = new ArrayList<List<?>>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(Arrays.asList(i, string(random, 8, 24), new ClobType(new ClobImpl(string(random, lobLength, lobLength)))));
+        }
+        return result;
+    }
+
+    public static List<ElementSymbol> elements(String[] types) {
+        List<ElementSymbol> result = new ArrayList<ElementSymbol>(types.length);
+        for (int i = 0; i < types.length; i++) {
+            ElementSymbol es = new ElementSymbol("c" + i); //$NON-NLS-1$
+            es.setType(DataTypeManager.getDataTypeClass(types[i]));
+            result.add(es);
+        }
+        return result;
+    }
+
+    static String string(Random random, int minLength, int maxLength) {
+        int length = minLength + (maxLength > minLength ? random.nextInt(maxLength - minLength) : 0);
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char)('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    private static <T> T nullable(Random random, T value) {
+        if (random.nextInt(10) == 0) {
+            return null;
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teiid.core.TeiidException;
+import org.teiid.query.eval.CompiledExpression;
+import org.teiid.query.eval.Evaluator;
+import org.teiid.query.function.FunctionLibrary;
+import org.teiid.query.metadata.SystemMetadata;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.Function;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * Projection and selection over a batch of wide rows with the interpreted {@link Evaluator}
+ * and with {@link CompiledExpression}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    @Param({"1024"})
+    public int rows;
+
+    private List<List<?>> batch;
+    private Evaluator evaluator;
+    private Expression[] projection;
+    private CompiledExpression[] compiledProjection;
+    private Criteria selection;
+    private CompiledExpression compiledSelection;
+
+    @Setup
+    public void setup() {
+        batch = DataGenerator.wideRows(rows);
+        List<ElementSymbol> elements = DataGenerator.elements(DataGenerator.WIDE_TYPES);
+        Map<Expression, Integer> lookup = new HashMap<Expression, Integer>();
+        for (int i = 0; i < elements.size(); i++) {
+            lookup.put(elements.get(i), i);
+        }
+        evaluator = new Evaluator(lookup, null, new CommandContext());
+
+        //concat(upper(c3), 'x'), c0 * 2 + c0, c2 / 100
+        projection = new Expression[] {
+            function("concat", function("upper", elements.get(3)), new Constant("x")), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            function("+", function("*", elements.get(0), new Constant(2)), elements.get(0)), //$NON-NLS-1$ //$NON-NLS-2$
+            function("/", elements.get(2), new Constant(100.0)), //$NON-NLS-1$
+        };
+        compiledProjection = new CompiledExpression[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            compiledProjection[i] = CompiledExpression.compile(projection[i], lookup);
+        }
+
+        //c2 > 5000.0 and c4 <> 'closed'
+        selection = new CompoundCriteria(CompoundCriteria.AND,
+                new CompareCriteria(elements.get(2), CompareCriteria.GT, new Constant(5000.0)),
+                new CompareCriteria(elements.get(4), CompareCriteria.NE, new Constant("closed"))); //$NON-NLS-1$
+        compiledSelection = CompiledExpression.compile(selection, lookup);
+    }
+
+    private static Function function(String name, Expression... args) {
+        Class<?>[] types = new Class<?>[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = args[i].getType();
+        }
+        FunctionLibrary library = SystemMetadata.getInstance().getSystemFunctionManager().getSystemFunctionLibrary();
+        Function result = new Function(name, args);
+        result.setFunctionDescriptor(library.findFunction(name, types));
+        result.setType(result.getFunctionDescriptor().getReturnType());
+        return result;
+    }
+
+    @Benchmark
+    public void project(Blackhole blackhole) throws TeiidException {
+        for (List<?> tuple : batch) {
+            for (int i = 0; i < projection.length; i++) {
+                if (compiled) {
+                    blackhole.consume(compiledProjection[i].evaluate(tuple, evaluator));
+                } else {
+                    blackhole.consume(evaluator.evaluate(projection[i], tuple));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int select() throws TeiidException {
+        int count = 0;
+        for (List<?> tuple : batch) {
+            if (compiled ? compiledSelection.evaluateCriteria(tuple, evaluator) : evaluator.evaluate(selection, tuple)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
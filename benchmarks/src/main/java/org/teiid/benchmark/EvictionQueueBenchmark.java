@@ -0,0 +1,119 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.teiid.common.buffer.BaseCacheEntry;
+import org.teiid.common.buffer.CacheKey;
+import org.teiid.common.buffer.impl.EvictionQueue;
+
+/**
+ * Access and eviction against the {@link EvictionQueue} policies with a skewed access pattern.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvictionQueueBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Queue {
+
+        @Param({"65536"})
+        public int entries;
+
+        @Param({"LRFU", "SAMPLED"})
+        public EvictionQueue.Policy policy;
+
+        AtomicLong clock = new AtomicLong();
+        EvictionQueue<BaseCacheEntry> queue;
+        BaseCacheEntry[] values;
+
+        @Setup
+        public void setup() {
+            queue = EvictionQueue.create(policy, clock);
+            values = new BaseCacheEntry[entries];
+            for (int i = 0; i < entries; i++) {
+                values[i] = new BaseCacheEntry(new CacheKey((long)i, 0, 0));
+                queue.add(values[i]);
+            }
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Accessor {
+
+        DataGenerator.ZipfGenerator keys;
+
+        @Setup
+        public void setup(Queue queue, ThreadParams params) {
+            keys = new DataGenerator.ZipfGenerator(queue.entries, 1.0, DataGenerator.SEED + params.getThreadIndex());
+        }
+
+    }
+
+    @Benchmark
+    public void touch(Queue queue, Accessor accessor) {
+        access(queue, accessor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void touchConcurrent(Queue queue, Accessor accessor) {
+        access(queue, accessor);
+    }
+
+    private void access(Queue queue, Accessor accessor) {
+        BaseCacheEntry entry = queue.values[accessor.keys.nextInt()];
+        queue.clock.incrementAndGet();
+        queue.queue.touch(entry);
+    }
+
+    /**
+     * Evict the lowest priority entry and read it back in, as happens when the working
+     * set exceeds memory
+     */
+    @Benchmark
+    public BaseCacheEntry evict(Queue queue) {
+        BaseCacheEntry entry = queue.queue.firstEntry(true);
+        if (entry != null) {
+            queue.clock.incrementAndGet();
+            queue.queue.touch(entry);
+        }
+        return entry;
+    }
+
+}
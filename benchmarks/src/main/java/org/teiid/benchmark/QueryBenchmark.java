@@ -0,0 +1,141 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.adminapi.Model;
+import org.teiid.adminapi.impl.ModelMetaData;
+import org.teiid.adminapi.impl.SourceMappingMetadata;
+import org.teiid.runtime.EmbeddedConfiguration;
+import org.teiid.runtime.EmbeddedServer;
+import org.teiid.translator.loopback.LoopbackExecutionFactory;
+
+/**
+ * Full queries through an {@link EmbeddedServer} against the loopback translator.
+ * <br>
+ * The source returns generated rows without any I/O, so the results reflect planning,
+ * processing, buffering and the local JDBC layer.  Result set caching is disabled
+ * so that each invocation is fully processed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    private static final String DDL = "CREATE FOREIGN TABLE narrow (id integer, name string);" //$NON-NLS-1$
+            + "CREATE FOREIGN TABLE wide (id integer, l long, d double, s1 string, s2 string, b boolean, " //$NON-NLS-1$
+            + "sh short, bd bigdecimal, dt date, ts timestamp, f float, s3 string);"; //$NON-NLS-1$
+
+    public enum Query {
+        SCAN("SELECT id, name FROM narrow"), //$NON-NLS-1$
+        WIDE_SCAN("SELECT * FROM wide"), //$NON-NLS-1$
+        FILTER("SELECT id, name FROM narrow WHERE mod(id, 7) = 0 AND name LIKE '%a%'"), //$NON-NLS-1$
+        ORDER("SELECT id, name FROM narrow ORDER BY name DESC"), //$NON-NLS-1$
+        GROUP("SELECT mod(id, 100), count(*), max(name) FROM narrow GROUP BY mod(id, 100)"), //$NON-NLS-1$
+        JOIN("SELECT n.id, w.s1 FROM narrow n, wide w WHERE n.id = w.id OPTION MAKENOTDEP n, w"); //$NON-NLS-1$
+
+        private final String sql;
+
+        Query(String sql) {
+            this.sql = sql;
+        }
+
+    }
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param
+    public Query query;
+
+    private EmbeddedServer server;
+    private Connection connection;
+
+    @Setup
+    public void setup() throws Exception {
+        server = new EmbeddedServer();
+        EmbeddedConfiguration config = new EmbeddedConfiguration();
+        config.setUseDisk(false);
+        server.start(config);
+
+        LoopbackExecutionFactory loopback = new LoopbackExecutionFactory();
+        loopback.setRowCount(rows);
+        loopback.setIncrementRows(true);
+        loopback.start();
+        server.addTranslator("loopback", loopback); //$NON-NLS-1$
+
+        ModelMetaData model = new ModelMetaData();
+        model.setName("source"); //$NON-NLS-1$
+        model.setModelType(Model.Type.PHYSICAL);
+        model.addSourceMetadata("DDL", DDL); //$NON-NLS-1$
+        SourceMappingMetadata sm = new SourceMappingMetadata();
+        sm.setName("source"); //$NON-NLS-1$
+        sm.setTranslatorName("loopback"); //$NON-NLS-1$
+        model.addSourceMapping(sm);
+        server.deployVDB("bench", model); //$NON-NLS-1$
+
+        Properties props = new Properties();
+        props.setProperty("resultSetCacheMode", "false"); //$NON-NLS-1$ //$NON-NLS-2$
+        connection = server.getDriver().connect("jdbc:teiid:bench", props); //$NON-NLS-1$
+    }
+
+    @Benchmark
+    public long execute() throws SQLException {
+        long count = 0;
+        try (Statement s = connection.createStatement();
+                ResultSet rs = s.executeQuery(query.sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) {
+                    rs.getObject(i);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+        server.stop();
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.teiid.common.buffer.STree;
+import org.teiid.common.buffer.STree.InsertMode;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.core.TeiidException;
+import org.teiid.core.types.DataTypeManager.DefaultDataTypes;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * {@link STree} inserts, as used by temp tables and dup removal, and key lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class STreeBenchmark {
+
+    private static final String[] TYPES = new String[] {
+        DefaultDataTypes.INTEGER, DefaultDataTypes.STRING,
+    };
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean skewed;
+
+    private BufferManagerImpl bufferManager;
+    private List<ElementSymbol> elements;
+    private List<List<?>> data;
+    private List<List<?>> orderedData;
+    private List<List<?>> lookups;
+    private STree tree;
+
+    @Setup
+    public void setup() throws TeiidException {
+        bufferManager = BenchmarkBufferManager.create();
+        elements = DataGenerator.elements(TYPES);
+        int[] keys = DataGenerator.keys(rows, skewed);
+        List<List<?>> narrow = DataGenerator.narrowRows(rows);
+        data = new ArrayList<List<?>>(rows);
+        lookups = new ArrayList<List<?>>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(Arrays.asList(keys[i], narrow.get(i).get(1)));
+            lookups.add(Arrays.asList(keys[i]));
+        }
+        orderedData = narrow;
+        tree = bufferManager.createSTree(elements, "bench", 1); //$NON-NLS-1$
+        for (List<?> tuple : data) {
+            tree.insert(tuple, InsertMode.NEW, -1);
+        }
+    }
+
+    @Benchmark
+    public long insert() throws TeiidException {
+        return insert(data, InsertMode.NEW);
+    }
+
+    /**
+     * Inserts unique ascending keys, as done when loading a sorted result
+     */
+    @Benchmark
+    public long insertOrdered() throws TeiidException {
+        return insert(orderedData, InsertMode.ORDERED);
+    }
+
+    private long insert(List<List<?>> tuples, InsertMode mode) throws TeiidException {
+        STree result = bufferManager.createSTree(elements, "bench", 1); //$NON-NLS-1$
+        for (List<?> tuple : tuples) {
+            result.insert(tuple, mode, rows);
+        }
+        long rowCount = result.getRowCount();
+        result.remove();
+        return rowCount;
+    }
+
+    @Benchmark
+    public void find(Blackhole blackhole) throws TeiidException {
+        for (List<?> key : lookups) {
+            blackhole.consume(tree.find(key));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        tree.remove();
+        bufferManager.shutdown();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.impl.BufferManagerImpl;
+import org.teiid.core.TeiidException;
+import org.teiid.core.types.DataTypeManager.DefaultDataTypes;
+import org.teiid.query.processor.CollectionTupleSource;
+import org.teiid.query.processor.relational.SortUtility;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+/**
+ * A full sort through {@link SortUtility} of rows with uniform or skewed keys.
+ * The small memory setting forces multiple sublists and merge passes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortUtilityBenchmark {
+
+    private static final String[] TYPES = new String[] {
+        DefaultDataTypes.INTEGER, DefaultDataTypes.STRING, DefaultDataTypes.DOUBLE,
+    };
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean skewed;
+
+    @Param({"SORT", "DUP_REMOVE"})
+    public SortUtility.Mode mode;
+
+    @Param({"4096", "262144"})
+    public int maxReserveKB;
+
+    private BufferManagerImpl bufferManager;
+    private List<ElementSymbol> elements;
+    private List<List<?>> data;
+
+    @Setup
+    public void setup() throws TeiidException {
+        bufferManager = BenchmarkBufferManager.create(maxReserveKB, 1 << 26);
+        elements = DataGenerator.elements(TYPES);
+        int[] keys = DataGenerator.keys(rows, skewed);
+        List<List<?>> narrow = DataGenerator.narrowRows(rows);
+        data = new ArrayList<List<?>>(rows);
+        for (int i = 0; i < rows; i++) {
+            data.add(Arrays.asList(keys[i], narrow.get(i).get(1), (double)i));
+        }
+    }
+
+    @Benchmark
+    public long sort() throws TeiidException {
+        SortUtility sortUtility = new SortUtility(new CollectionTupleSource(data.iterator()),
+                elements.subList(0, 1), Collections.nCopies(1, Boolean.TRUE), mode, bufferManager, "bench", elements); //$NON-NLS-1$
+        TupleBuffer result = sortUtility.sort();
+        long rowCount = result.getRowCount();
+        result.remove();
+        return rowCount;
+    }
+
+    @TearDown
+    public void tearDown() {
+        bufferManager.shutdown();
+    }
+
+}
@@ -25,6 +25,7 @@ import java.io.ObjectOutput;
 import java.io.ObjectStreamConstants;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.sql.Array;
 import java.sql.SQLException;
 import java.sql.Time;
@@ -65,12 +66,16 @@ import org.teiid.jdbc.JDBCPlugin;
  * <li>version 3: starts with 8.6 and adds better repeated string performance
  * <li>version 4: starts with 8.10 and adds the geometry type
  * <li>version 5: starts with 11.2 and adds the geography and json types
+ * <li>version 6: starts with 17.0 and adds block encoding of fixed width numeric columns,
+ *   dictionary encoding of string columns, and the {@link ColumnarBatch} client representation
  * </ul>
  */
 public class BatchSerializer {
 
     public static final byte VERSION_GEOMETRY = (byte)4;
     public static final byte VERSION_GEOGRAPHY = (byte)5;
+    public static final byte VERSION_COLUMNAR = (byte)6;
+    //the version used for buffer storage - the columnar form is only used when negotiated with the client
     static final byte CURRENT_VERSION = VERSION_GEOGRAPHY;
 
     private BatchSerializer() {} // Uninstantiable
@@ -104,6 +109,16 @@ public class BatchSerializer {
         serializers.put(DataTypeManager.DefaultDataTypes.VARBINARY,        new ColumnSerializer[] {new BinaryColumnSerializer(), new BinaryColumnSerializer1()});
     }
 
+    private static final Map<String, ColumnSerializer> columnarSerializers = new HashMap<String, ColumnSerializer>();
+    static {
+        columnarSerializers.put(DataTypeManager.DefaultDataTypes.DOUBLE,    new DoubleColumnSerializer6());
+        columnarSerializers.put(DataTypeManager.DefaultDataTypes.FLOAT,     new FloatColumnSerializer6());
+        columnarSerializers.put(DataTypeManager.DefaultDataTypes.INTEGER,   new IntColumnSerializer6());
+        columnarSerializers.put(DataTypeManager.DefaultDataTypes.LONG,      new LongColumnSerializer6());
+        columnarSerializers.put(DataTypeManager.DefaultDataTypes.SHORT,     new ShortColumnSerializer6());
+        columnarSerializers.put(DataTypeManager.DefaultDataTypes.STRING,    new StringColumnSerializer6());
+    }
+
     private static ColumnSerializer arrayColumnSerializer = new ColumnSerializer() {
 
         @Override
@@ -375,6 +390,111 @@ public class BatchSerializer {
         }
     }
 
+    /**
+     * Dictionary encodes the column when there are enough repeated values,
+     * otherwise the values are written as with version 3.
+     */
+    private static class StringColumnSerializer6 extends StringColumnSerializer3 {
+
+        @Override
+        public void writeColumn(ObjectOutput out, int col,
+                List<? extends List<?>> batch, Map<Object, Integer> cache,
+                byte version) throws IOException {
+            writeIsNullData(out, col, batch);
+            Map<Object, Integer> dictionary = new HashMap<Object, Integer>();
+            List<Object> values = new ArrayList<Object>();
+            int[] codes = new int[batch.size()];
+            int count = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Object obj = batch.get(i).get(col);
+                if (obj == null) {
+                    continue;
+                }
+                Integer code = dictionary.get(obj);
+                if (code == null) {
+                    code = values.size();
+                    dictionary.put(obj, code);
+                    values.add(obj);
+                }
+                codes[count++] = code;
+            }
+            if (values.size() > count / 2) {
+                out.writeInt(-1);
+                for (int i = 0; i < batch.size(); i++) {
+                    Object obj = batch.get(i).get(col);
+                    if (obj != null) {
+                        writeObject(out, obj, cache, version);
+                    }
+                }
+                return;
+            }
+            out.writeInt(values.size());
+            for (Object obj : values) {
+                writeObject(out, obj, cache, version);
+            }
+            int width = getCodeWidth(values.size());
+            ByteBuffer buffer = ByteBuffer.allocate(count * width);
+            for (int i = 0; i < count; i++) {
+                if (width == 1) {
+                    buffer.put((byte)codes[i]);
+                } else if (width == 2) {
+                    buffer.putShort((short)codes[i]);
+                } else {
+                    buffer.putInt(codes[i]);
+                }
+            }
+            out.write(buffer.array(), 0, buffer.position());
+        }
+
+        @Override
+        public void readColumn(ObjectInput in, int col,
+                List<List<Object>> batch, byte[] isNull, List<Object> cache,
+                byte version) throws IOException, ClassNotFoundException {
+            readIsNullData(in, isNull);
+            int size = in.readInt();
+            if (size < 0) {
+                for (int i = 0; i < batch.size(); i++) {
+                    if (!isNullObject(isNull, i)) {
+                        batch.get(i).set(col, DataTypeManager.getCanonicalValue(readObject(in, cache, version)));
+                    }
+                }
+                return;
+            }
+            Object[] dictionary = new Object[size];
+            for (int i = 0; i < size; i++) {
+                dictionary[i] = DataTypeManager.getCanonicalValue(readObject(in, cache, version));
+            }
+            int width = getCodeWidth(size);
+            byte[] bytes = new byte[countNonNull(isNull, batch.size()) * width];
+            in.readFully(bytes);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            for (int i = 0; i < batch.size(); i++) {
+                if (isNullObject(isNull, i)) {
+                    continue;
+                }
+                int code;
+                if (width == 1) {
+                    code = buffer.get() & 0xff;
+                } else if (width == 2) {
+                    code = buffer.getShort() & 0xffff;
+                } else {
+                    code = buffer.getInt();
+                }
+                batch.get(i).set(col, dictionary[code]);
+            }
+        }
+
+        private static int getCodeWidth(int size) {
+            if (size <= 1 << 8) {
+                return 1;
+            }
+            if (size <= 1 << 16) {
+                return 2;
+            }
+            return 4;
+        }
+    }
+
     private static class NullColumnSerializer1 extends ColumnSerializer {
         @Override
         public void writeColumn(ObjectOutput out, int col,
@@ -558,6 +678,17 @@ public class BatchSerializer {
         return (isNull [ row / 8 ]         & (0x01 << (7 - (row % 8))))   != 0;
     }
 
+    /**
+     * Count the non-null values in the packed isNull data
+     */
+    static final int countNonNull(byte[] isNull, int rows) {
+        int nulls = 0;
+        for (int i = 0; i < isNull.length; i++) {
+            nulls += Integer.bitCount(isNull[i] & 0xff);
+        }
+        return rows - nulls;
+    }
+
     private static final boolean isNullObject(int row, byte b) {
         return (b         & (0x01 << (7 - (row % 8))))   != 0;
     }
@@ -599,6 +730,151 @@ public class BatchSerializer {
         }
     }
 
+    /**
+     * Writes the non-null values of a fixed width column as a single block
+     * and reads them into a primitive array of the {@link ColumnarBatch}.
+     * <br>
+     * The bytes are the same as the value by value serialization of the prior versions.
+     */
+    private static abstract class PrimitiveColumnSerializer extends ColumnSerializer {
+        private final int width;
+
+        PrimitiveColumnSerializer(int width) {
+            this.width = width;
+        }
+
+        @Override
+        public void writeColumn(ObjectOutput out, int col,
+                List<? extends List<?>> batch, Map<Object, Integer> cache,
+                byte version) throws IOException {
+            writeIsNullData(out, col, batch);
+            ByteBuffer buffer = ByteBuffer.allocate(batch.size() * width);
+            for (int i = 0; i < batch.size(); i++) {
+                Object obj = batch.get(i).get(col);
+                if (obj != null) {
+                    put(buffer, obj);
+                }
+            }
+            out.write(buffer.array(), 0, buffer.position());
+        }
+
+        @Override
+        public void readColumn(ObjectInput in, int col,
+                List<List<Object>> batch, byte[] isNull, List<Object> cache,
+                byte version) throws IOException {
+            //the null bitmap is retained by the batch
+            byte[] columnNulls = new byte[isNull.length];
+            in.readFully(columnNulls);
+            byte[] bytes = new byte[countNonNull(columnNulls, batch.size()) * width];
+            in.readFully(bytes);
+            ((ColumnarBatch)batch).setColumn(col, read(ByteBuffer.wrap(bytes), batch.size(), columnNulls), columnNulls);
+        }
+
+        protected abstract void put(ByteBuffer buffer, Object obj);
+
+        protected abstract Object read(ByteBuffer buffer, int rows, byte[] isNull);
+    }
+
+    private static class IntColumnSerializer6 extends PrimitiveColumnSerializer {
+        IntColumnSerializer6() {
+            super(4);
+        }
+        @Override
+        protected void put(ByteBuffer buffer, Object obj) {
+            buffer.putInt(((Integer)obj).intValue());
+        }
+        @Override
+        protected Object read(ByteBuffer buffer, int rows, byte[] isNull) {
+            int[] values = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                if (!isNullObject(isNull, i)) {
+                    values[i] = buffer.getInt();
+                }
+            }
+            return values;
+        }
+    }
+
+    private static class LongColumnSerializer6 extends PrimitiveColumnSerializer {
+        LongColumnSerializer6() {
+            super(8);
+        }
+        @Override
+        protected void put(ByteBuffer buffer, Object obj) {
+            buffer.putLong(((Long)obj).longValue());
+        }
+        @Override
+        protected Object read(ByteBuffer buffer, int rows, byte[] isNull) {
+            long[] values = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                if (!isNullObject(isNull, i)) {
+                    values[i] = buffer.getLong();
+                }
+            }
+            return values;
+        }
+    }
+
+    private static class ShortColumnSerializer6 extends PrimitiveColumnSerializer {
+        ShortColumnSerializer6() {
+            super(2);
+        }
+        @Override
+        protected void put(ByteBuffer buffer, Object obj) {
+            buffer.putShort(((Short)obj).shortValue());
+        }
+        @Override
+        protected Object read(ByteBuffer buffer, int rows, byte[] isNull) {
+            short[] values = new short[rows];
+            for (int i = 0; i < rows; i++) {
+                if (!isNullObject(isNull, i)) {
+                    values[i] = buffer.getShort();
+                }
+            }
+            return values;
+        }
+    }
+
+    private static class FloatColumnSerializer6 extends PrimitiveColumnSerializer {
+        FloatColumnSerializer6() {
+            super(4);
+        }
+        @Override
+        protected void put(ByteBuffer buffer, Object obj) {
+            buffer.putFloat(((Float)obj).floatValue());
+        }
+        @Override
+        protected Object read(ByteBuffer buffer, int rows, byte[] isNull) {
+            float[] values = new float[rows];
+            for (int i = 0; i < rows; i++) {
+                if (!isNullObject(isNull, i)) {
+                    values[i] = buffer.getFloat();
+                }
+            }
+            return values;
+        }
+    }
+
+    private static class DoubleColumnSerializer6 extends PrimitiveColumnSerializer {
+        DoubleColumnSerializer6() {
+            super(8);
+        }
+        @Override
+        protected void put(ByteBuffer buffer, Object obj) {
+            buffer.putDouble(((Double)obj).doubleValue());
+        }
+        @Override
+        protected Object read(ByteBuffer buffer, int rows, byte[] isNull) {
+            double[] values = new double[rows];
+            for (int i = 0; i < rows; i++) {
+                if (!isNullObject(isNull, i)) {
+                    values[i] = buffer.getDouble();
+                }
+            }
+            return values;
+        }
+    }
+
     private static class IntColumnSerializer extends ColumnSerializer {
         @Override
         protected void writeObject(ObjectOutput out, Object obj, Map<Object, Integer> cache, byte version) throws IOException {
@@ -868,6 +1144,12 @@ public class BatchSerializer {
     }
 
     private static ColumnSerializer getSerializer(String type, byte version) {
+        if (version >= VERSION_COLUMNAR) {
+            ColumnSerializer ser = columnarSerializers.get(type);
+            if (ser != null) {
+                return ser;
+            }
+        }
         ColumnSerializer[] sers = serializers.get(type);
         if (sers == null) {
             if (DataTypeManager.isArrayType(type)) {
@@ -925,6 +1207,15 @@ public class BatchSerializer {
     }
 
     public static List<List<Object>> readBatch(ObjectInput in, String[] types) throws IOException, ClassNotFoundException {
+        return readBatch(in, types, false);
+    }
+
+    /**
+     * Read a batch
+     * @param columnar if true and the batch was written with {@link #VERSION_COLUMNAR} or later,
+     * then the result will be a {@link ColumnarBatch}.  Otherwise a row based list is returned.
+     */
+    public static List<List<Object>> readBatch(ObjectInput in, String[] types, boolean columnar) throws IOException, ClassNotFoundException {
         int rows = 0;
         try {
             rows = in.readInt();
@@ -950,12 +1241,19 @@ public class BatchSerializer {
             version = in.readByte();
         }
         int columns = in.readInt();
-        List<List<Object>> batch = new ResizingArrayList<List<Object>>(rows);
+        List<List<Object>> batch = null;
+        ColumnarBatch columnarBatch = null;
+        if (version >= VERSION_COLUMNAR) {
+            columnarBatch = new ColumnarBatch(rows, columns);
+            batch = columnarBatch;
+        } else {
+            batch = new ResizingArrayList<List<Object>>(rows);
+            for (int currentRow = 0; currentRow < rows; currentRow++) {
+                batch.add(currentRow, Arrays.asList(new Object[columns]));
+            }
+        }
         int numBytes = rows/8;
         int extraRows = rows % 8;
-        for (int currentRow = 0; currentRow < rows; currentRow++) {
-            batch.add(currentRow, Arrays.asList(new Object[columns]));
-        }
         byte[] isNullBuffer = new byte[(extraRows > 0) ? numBytes + 1: numBytes];
         List<Object> cache = null;
         for (int col = 0; col < columns; col++) {
@@ -965,12 +1263,15 @@ public class BatchSerializer {
             }
             serializer.readColumn(in, col, batch, isNullBuffer, cache, version);
         }
+        if (columnarBatch != null && !columnar) {
+            return columnarBatch.toRows();
+        }
         return batch;
     }
 
     public static String getClientSafeType(String type,
             byte clientSerializationVersion) {
-        if (clientSerializationVersion == CURRENT_VERSION) {
+        if (clientSerializationVersion >= CURRENT_VERSION) {
             return type;
         }
         if (DataTypeManager.isArrayType(type)) {
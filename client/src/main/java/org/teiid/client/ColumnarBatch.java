@@ -0,0 +1,231 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.client;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A batch read from the columnar serialization.
+ * <br>
+ * Fixed width numeric columns are held in primitive arrays with a null bitmap
+ * and all other columns in object arrays.  The rows are views over the columns
+ * so that primitive values may be read without boxing.
+ */
+public class ColumnarBatch extends AbstractList<List<Object>> implements RandomAccess {
+
+    /**
+     * A row view over the columns of the batch
+     */
+    public final class Row extends AbstractList<Object> implements RandomAccess {
+
+        private final int row;
+
+        Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(int col) {
+            return getValue(row, col);
+        }
+
+        @Override
+        public Object set(int col, Object value) {
+            Object old = getValue(row, col);
+            setValue(row, col, value);
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+
+        /**
+         * @return the primitive type the column is held as, or null if the values are objects
+         */
+        public Class<?> getPrimitiveType(int col) {
+            return ColumnarBatch.this.getPrimitiveType(col);
+        }
+
+        public boolean isNull(int col) {
+            return ColumnarBatch.this.isNull(row, col);
+        }
+
+        public int getInt(int col) {
+            return ColumnarBatch.this.getInt(row, col);
+        }
+
+        public long getLong(int col) {
+            return ColumnarBatch.this.getLong(row, col);
+        }
+
+        public short getShort(int col) {
+            return ((short[])columns[col])[row];
+        }
+
+        public float getFloat(int col) {
+            return ((float[])columns[col])[row];
+        }
+
+        public double getDouble(int col) {
+            return ((double[])columns[col])[row];
+        }
+
+    }
+
+    private final Object[] columns;
+    private final byte[][] nulls;
+    private final Row[] rows;
+
+    public ColumnarBatch(int rowCount, int columnCount) {
+        this.columns = new Object[columnCount];
+        this.nulls = new byte[columnCount][];
+        for (int i = 0; i < columnCount; i++) {
+            this.columns[i] = new Object[rowCount];
+        }
+        this.rows = new Row[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            this.rows[i] = new Row(i);
+        }
+    }
+
+    @Override
+    public List<Object> get(int index) {
+        return rows[index];
+    }
+
+    @Override
+    public int size() {
+        return rows.length;
+    }
+
+    /**
+     * Set a column to a primitive array
+     * @param col
+     * @param values an int, long, short, float, or double array
+     * @param isNull the packed null bitmap for the column
+     */
+    void setColumn(int col, Object values, byte[] isNull) {
+        this.columns[col] = values;
+        this.nulls[col] = isNull;
+    }
+
+    public Class<?> getPrimitiveType(int col) {
+        if (nulls[col] == null) {
+            return null;
+        }
+        return columns[col].getClass().getComponentType();
+    }
+
+    public boolean isNull(int row, int col) {
+        byte[] isNull = nulls[col];
+        if (isNull == null) {
+            return ((Object[])columns[col])[row] == null;
+        }
+        return BatchSerializer.isNullObject(isNull, row);
+    }
+
+    /**
+     * Get the value of an int or short column
+     */
+    public int getInt(int row, int col) {
+        Object values = columns[col];
+        if (values instanceof short[]) {
+            return ((short[])values)[row];
+        }
+        return ((int[])values)[row];
+    }
+
+    /**
+     * Get the value of a long, int, or short column
+     */
+    public long getLong(int row, int col) {
+        Object values = columns[col];
+        if (values instanceof long[]) {
+            return ((long[])values)[row];
+        }
+        return getInt(row, col);
+    }
+
+    public Object getValue(int row, int col) {
+        Object values = columns[col];
+        if (nulls[col] == null) {
+            return ((Object[])values)[row];
+        }
+        if (BatchSerializer.isNullObject(nulls[col], row)) {
+            return null;
+        }
+        if (values instanceof int[]) {
+            return ((int[])values)[row];
+        }
+        if (values instanceof long[]) {
+            return ((long[])values)[row];
+        }
+        if (values instanceof double[]) {
+            return ((double[])values)[row];
+        }
+        if (values instanceof float[]) {
+            return ((float[])values)[row];
+        }
+        return ((short[])values)[row];
+    }
+
+    public void setValue(int row, int col, Object value) {
+        Object values = columns[col];
+        byte[] isNull = nulls[col];
+        if (isNull == null) {
+            ((Object[])values)[row] = value;
+            return;
+        }
+        int mask = 0x01 << (7 - (row % 8));
+        if (value == null) {
+            isNull[row / 8] |= mask;
+            return;
+        }
+        isNull[row / 8] &= ~mask;
+        Number n = (Number)value;
+        if (values instanceof int[]) {
+            ((int[])values)[row] = n.intValue();
+        } else if (values instanceof long[]) {
+            ((long[])values)[row] = n.longValue();
+        } else if (values instanceof double[]) {
+            ((double[])values)[row] = n.doubleValue();
+        } else if (values instanceof float[]) {
+            ((float[])values)[row] = n.floatValue();
+        } else {
+            ((short[])values)[row] = n.shortValue();
+        }
+    }
+
+    /**
+     * @return a row based copy of this batch
+     */
+    public List<List<Object>> toRows() {
+        List<List<Object>> result = new ResizingArrayList<List<Object>>(rows.length);
+        for (Row row : rows) {
+            result.add(Arrays.asList(row.toArray()));
+        }
+        return result;
+    }
+
+}
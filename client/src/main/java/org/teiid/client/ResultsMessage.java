@@ -113,7 +113,7 @@ public class ResultsMessage implements Externalizable {
         if (results == null && resultBytes != null) {
             try {
                 CompactObjectInputStream ois = new CompactObjectInputStream(new ByteArrayInputStream(resultBytes), ResultsMessage.class.getClassLoader());
-                results = BatchSerializer.readBatch(ois, dataTypes);
+                results = BatchSerializer.readBatch(ois, dataTypes, true);
             } catch (IOException e) {
                 throw TeiidSQLException.create(e);
             } catch (ClassNotFoundException e) {
@@ -253,7 +253,7 @@ public class ResultsMessage implements Externalizable {
         dataTypes = ExternalizeUtil.readStringArray(in);
 
         // Row data
-        results = BatchSerializer.readBatch(in, dataTypes);
+        results = BatchSerializer.readBatch(in, dataTypes, true);
 
         // Plan Descriptions
         planDescription = (PlanNode)in.readObject();
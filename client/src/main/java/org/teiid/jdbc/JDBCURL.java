@@ -91,9 +91,12 @@ public class JDBCURL {
                 TeiidURL.CONNECTION.KERBEROS_SERVICE_PRINCIPLE_NAME,
                 TeiidURL.CONNECTION.ENCRYPT_REQUESTS,
                 TeiidURL.CONNECTION.LOGIN_TIMEOUT,
+                TeiidURL.CONNECTION.MULTIPLEX_CONNECTIONS,
                 DatabaseMetaDataImpl.REPORT_AS_VIEWS,
                 DatabaseMetaDataImpl.NULL_SORT,
-                ResultSetImpl.DISABLE_FETCH_SIZE));
+                ResultSetImpl.DISABLE_FETCH_SIZE,
+                ResultSetImpl.PREFETCH_DEPTH,
+                ResultSetImpl.PREFETCH_MAX_MEMORY));
         props.addAll(EXECUTION_PROPERTIES.keySet());
         Map<String, String> result = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
         for (String string : props) {
@@ -301,6 +301,23 @@ public class PreparedStatementImpl extends StatementImpl implements TeiidPrepare
            return this.updateCounts;
     }
 
+    /**
+     * Submit the current batch as a single request without waiting for it to complete.
+     * The batch is cleared once submitted.
+     * <br>
+     * Large batches are not split, so this is intended for local connections.
+     */
+    public ResultsFuture<Boolean> submitExecuteBatch() throws SQLException {
+        if (batchParameterList == null || batchParameterList.isEmpty()) {
+            return booleanFuture(false);
+        }
+        try {
+            return executeSql(new String[] {this.prepareSql}, true, ResultsMode.UPDATECOUNT, false, null);
+        } finally {
+            batchParameterList.clear();
+        }
+    }
+
     static int[] concatArrays(int[] array1, int[] array2) {
         int length = array1.length;
         array1 = Arrays.copyOf(array1, length + array2.length);
@@ -25,6 +25,7 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.*;
 import java.util.Calendar;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
@@ -35,6 +36,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.ResultsMessage;
 import org.teiid.client.lob.LobChunkInputStream;
 import org.teiid.client.lob.StreamingLobChunckProducer;
@@ -63,9 +65,16 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     private static final int BEFORE_FIRST_ROW = 0;
 
     public static final String DISABLE_FETCH_SIZE = "disableResultSetFetchSize"; //$NON-NLS-1$
+    public static final String PREFETCH_DEPTH = "resultSetPrefetchDepth"; //$NON-NLS-1$
+    public static final String PREFETCH_MAX_MEMORY = "resultSetPrefetchMaxMemory"; //$NON-NLS-1$
+
+    private static final int ROW_SIZE_SAMPLE = 16;
 
     // the object which was last read from Results
     private Object currentValue;
+    // set when the current value was read from a columnar row without boxing
+    private ColumnarBatch.Row primitiveRow;
+    private int primitiveColumn;
 
     // This object represents metadata for this result set.
     private ResultSetMetaData rmetadata;
@@ -95,12 +104,20 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     private ResultsFuture<ResultsMessage> asynchResults;
     boolean asynch;
 
-    private ResultsFuture<ResultsMessage> prefetch;
+    //forward only batches requested ahead of the current batch, in row order
+    //a prefetch is added before its request is submitted, so that it is the next batch
+    //even while the submission is in progress
+    private LinkedList<ResultsFuture<ResultsMessage>> prefetched = new LinkedList<ResultsFuture<ResultsMessage>>();
     private boolean usePrefetch;
+    private int prefetchDepth = 1;
+    private long prefetchMaxMemory;
+    private volatile int rowSizeEstimate;
 
     private int skipTo;
 
     private static boolean DISABLE_FETCH_SIZE_DEFAULT = PropertiesUtils.getHierarchicalProperty("org.teiid." + DISABLE_FETCH_SIZE, false, Boolean.class); //$NON-NLS-1$
+    private static int PREFETCH_DEPTH_DEFAULT = PropertiesUtils.getHierarchicalProperty("org.teiid." + PREFETCH_DEPTH, 1, Integer.class); //$NON-NLS-1$
+    private static int PREFETCH_MAX_MEMORY_DEFAULT = PropertiesUtils.getHierarchicalProperty("org.teiid." + PREFETCH_MAX_MEMORY, 16384, Integer.class); //$NON-NLS-1$
 
     private Boolean disableFetchSize;
 
@@ -142,11 +159,45 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
         if (logger.isLoggable(Level.FINER)) {
             logger.finer("Creating ResultSet requestID: " + requestID + " beginRow: " + resultsMsg.getFirstRow() + " resultsColumns: " + resultColumns + " parameters: " + parameters); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
         }
-        this.usePrefetch = cursorType == ResultSet.TYPE_FORWARD_ONLY && !statement.useCallingThread();
+        if (cursorType == ResultSet.TYPE_FORWARD_ONLY && !statement.useCallingThread()) {
+            initPrefetch();
+        }
         this.maxRows = statement.getMaxRows();
         this.batchResults = new BatchResults(this, getCurrentBatch(resultsMsg), this.cursorType == ResultSet.TYPE_FORWARD_ONLY ? 1 : BatchResults.DEFAULT_SAVED_BATCHES);
     }
 
+    private void initPrefetch() throws SQLException {
+        this.usePrefetch = true;
+        this.prefetchDepth = PREFETCH_DEPTH_DEFAULT;
+        long maxMemory = PREFETCH_MAX_MEMORY_DEFAULT;
+        ConnectionImpl conn = statement.getConnection();
+        if (conn != null && conn.getConnectionProps() != null) {
+            this.prefetchDepth = PropertiesUtils.getIntProperty(conn.getConnectionProps(), PREFETCH_DEPTH, this.prefetchDepth);
+            maxMemory = PropertiesUtils.getIntProperty(conn.getConnectionProps(), PREFETCH_MAX_MEMORY, (int)maxMemory);
+        }
+        this.prefetchDepth = Math.max(1, this.prefetchDepth);
+        this.prefetchMaxMemory = maxMemory << 10;
+    }
+
+    /**
+     * Request batches ahead of their use even though the results are being
+     * consumed by the calling thread.  Only applies to forward only results
+     * and is intended for non-blocking consumers using {@link #submitNext()}, which
+     * would otherwise wait for each batch after the previous has been read.
+     */
+    public void enablePrefetch() throws SQLException {
+        checkClosed();
+        if (usePrefetch || asynch || cursorType != ResultSet.TYPE_FORWARD_ONLY) {
+            return;
+        }
+        initPrefetch();
+        int highest = batchResults.getHighestRowNumber();
+        if (batchResults.getFinalRowNumber() == -1 && parameters == 0
+                && (maxRows == 0 || highest < maxRows)) {
+            prefetch(null, highest + 1);
+        }
+    }
+
     public void setMaxFieldSize(int maxFieldSize) {
         this.maxFieldSize = maxFieldSize;
     }
@@ -165,6 +216,9 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
                 }
             }
             isClosed = true;
+            synchronized (prefetched) {
+                prefetched.clear();
+            }
         }
         //we can do this because the statement can only have a
         //single resultset open currently
@@ -234,12 +288,22 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
         if (hasNext != null) {
             return StatementImpl.booleanFuture(next());
         }
-        ResultsFuture<ResultsMessage> pendingResult = submitRequestBatch(batchResults.getCurrentRowNumber() + 1);
+        ResultsFuture<ResultsMessage> pendingResult = null;
+        synchronized (prefetched) {
+            pendingResult = prefetched.poll();
+        }
+        final boolean usedPrefetch = pendingResult != null;
+        if (pendingResult == null) {
+            pendingResult = submitRequestBatch(batchResults.getCurrentRowNumber() + 1);
+        }
         final ResultsFuture<Boolean> result = new ResultsFuture<Boolean>();
         pendingResult.addCompletionListener(new ResultsFuture.CompletionListener<ResultsMessage>() {
             @Override
             public void onCompletion(ResultsFuture<ResultsMessage> future) {
                 try {
+                    if (usedPrefetch) {
+                        resumePrefetch();
+                    }
                     batchResults.setBatch(processBatch(future.get()));
                     result.getResultsReceiver().receiveResults(next());
                 } catch (Throwable t) {
@@ -274,6 +338,9 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     }
 
     public Object getRawCurrentValue() {
+        if (primitiveRow != null) {
+            return primitiveRow.get(primitiveColumn);
+        }
         return currentValue;
     }
 
@@ -296,6 +363,7 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
         // defect 13539 - set the currentValue (defined in MMResultSet) so that wasNull() accurately returns whether this value was null
         currentValue = cursorRow.get(column-1);
+        primitiveRow = null;
 
         if (currentValue instanceof Streamable<?>) {
             Object reference = ((Streamable<?>)currentValue).getReference();
@@ -371,12 +439,16 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     public Batch requestBatch(int beginRow) throws SQLException{
         checkClosed();
         try {
-            if (prefetch != null) {
+            ResultsFuture<ResultsMessage> next = null;
+            synchronized (prefetched) {
+                next = prefetched.poll();
+            }
+            if (next != null) {
                 //TODO: this is not efficient if the user is skipping around the results
                 //but the server logic at this point basically requires us
                 //to read what we have requested before requesting more (no queuing)
-                ResultsMessage result = getResults(prefetch);
-                prefetch = null;
+                ResultsMessage result = getResults(next);
+                resumePrefetch();
                 Batch nextBatch = processBatch(result);
                 return nextBatch;
             }
@@ -424,6 +496,147 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
         return results;
     }
 
+    /**
+     * Request the batch starting at beginRow ahead of its use.
+     * <br>
+     * The server only allows a single outstanding request, so the prefetch
+     * requests are chained - the next is submitted once the previous completes, until
+     * the prefetch depth is reached.
+     * @param previous the prefetch this follows, or null if following the current batch
+     */
+    private void prefetch(ResultsFuture<ResultsMessage> previous, int beginRow) throws TeiidSQLException {
+        final ResultsFuture<ResultsMessage> future = new ResultsFuture<ResultsMessage>();
+        synchronized (prefetched) {
+            if (isClosed) {
+                return;
+            }
+            if (previous == null) {
+                if (!prefetched.isEmpty()) {
+                    return;
+                }
+            } else if (prefetched.peekLast() != previous || prefetched.size() >= getPrefetchDepth()) {
+                return;
+            }
+            prefetched.add(future);
+        }
+        ResultsFuture<ResultsMessage> submitted = null;
+        try {
+            submitted = submitRequestBatch(beginRow);
+        } catch (TeiidSQLException e) {
+            synchronized (prefetched) {
+                if (!prefetched.remove(future)) {
+                    //already taken as the next batch
+                    future.getResultsReceiver().exceptionOccurred(e);
+                }
+            }
+            throw e;
+        }
+        if (submitted == null) {
+            synchronized (prefetched) {
+                prefetched.remove(future);
+            }
+            return;
+        }
+        submitted.addCompletionListener(new ResultsFuture.CompletionListener<ResultsMessage>() {
+            @Override
+            public void onCompletion(ResultsFuture<ResultsMessage> f) {
+                try {
+                    future.getResultsReceiver().receiveResults(f.get());
+                } catch (InterruptedException e) {
+                    future.getResultsReceiver().exceptionOccurred(e);
+                } catch (ExecutionException e) {
+                    future.getResultsReceiver().exceptionOccurred(e.getCause());
+                }
+            }
+        });
+        if (prefetchDepth > 1) {
+            future.addCompletionListener(new ResultsFuture.CompletionListener<ResultsMessage>() {
+                @Override
+                public void onCompletion(ResultsFuture<ResultsMessage> f) {
+                    prefetchAfter(f);
+                }
+            });
+        }
+    }
+
+    private void prefetchAfter(ResultsFuture<ResultsMessage> previous) {
+        ResultsMessage result = null;
+        try {
+            result = previous.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            return; //reported when the batch is used
+        }
+        if (result.getException() != null || result.getLastRow() == result.getFinalRow()
+                || parameters > 0 || (maxRows > 0 && result.getLastRow() >= maxRows)) {
+            return;
+        }
+        try {
+            prefetch(previous, result.getLastRow() + 1);
+        } catch (TeiidSQLException e) {
+            //the request will be tried again when the batch is needed
+            logger.log(Level.FINE, "Could not prefetch results for requestID: " + requestID, e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Continue the prefetch chain if it stopped at the depth limit
+     */
+    private void resumePrefetch() {
+        if (prefetchDepth <= 1) {
+            return;
+        }
+        ResultsFuture<ResultsMessage> last = null;
+        synchronized (prefetched) {
+            last = prefetched.peekLast();
+        }
+        if (last != null && last.isDone()) {
+            prefetchAfter(last);
+        }
+    }
+
+    /**
+     * The number of batches that may be requested ahead of the current batch.
+     * Limited by the max memory using the fetch size and the observed row size.
+     */
+    int getPrefetchDepth() {
+        int depth = prefetchDepth;
+        int rowSize = rowSizeEstimate;
+        if (depth > 1 && rowSize > 0) {
+            long batchSize = (long)rowSize * fetchSize;
+            depth = (int)Math.max(1, Math.min(depth, prefetchMaxMemory / batchSize));
+        }
+        return depth;
+    }
+
+    /**
+     * A rough estimate of the memory used by the rows
+     */
+    static int estimateRowSize(List<?>[] tuples) {
+        int sample = Math.min(tuples.length, ROW_SIZE_SAMPLE);
+        if (sample == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < sample; i++) {
+            List<?> row = tuples[i * tuples.length / sample];
+            total += 16 + 8 * row.size();
+            for (int col = 0; col < row.size(); col++) {
+                Object value = row.get(col);
+                if (value instanceof String) {
+                    total += 40 + 2 * ((String)value).length();
+                } else if (value instanceof BinaryType) {
+                    total += 32 + ((BinaryType)value).getLength();
+                } else if (value != null) {
+                    total += 24;
+                }
+            }
+        }
+        return (int)Math.min(Integer.MAX_VALUE, total / sample);
+    }
+
     private Batch processBatch(
             ResultsMessage currentResultMsg) throws TeiidSQLException {
         this.statement.setAnalysisInfo(currentResultMsg);
@@ -449,9 +662,9 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     private Batch getCurrentBatch(ResultsMessage currentResultMsg) throws TeiidSQLException {
         this.updatedPlanDescription = currentResultMsg.getPlanDescription();
         if (usePrefetch && !asynch
-                && prefetch == null && currentResultMsg.getLastRow() != currentResultMsg.getFinalRow()) {
+                && currentResultMsg.getLastRow() != currentResultMsg.getFinalRow()) {
             //fetch before processing the results
-            prefetch = submitRequestBatch(currentResultMsg.getLastRow() + 1);
+            prefetch(null, currentResultMsg.getLastRow() + 1);
         }
         currentResultMsg.processResults();
         List<?> lastTuple = null;
@@ -493,6 +706,12 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
         } else {
             tuples = resultsList.toArray(new List<?>[resultsList.size()]);
         }
+        if (usePrefetch && prefetchDepth > 1) {
+            int rowSize = estimateRowSize(tuples);
+            if (rowSize > 0) {
+                rowSizeEstimate = rowSize;
+            }
+        }
         Batch result = new Batch(tuples, firstRow, endRow);
         result.setLastRow(lastRow);
         return result;
@@ -673,6 +892,10 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     }
 
     public double getDouble(int columnIndex) throws SQLException {
+        ColumnarBatch.Row row = getColumnarRow(columnIndex);
+        if (row != null && row.getPrimitiveType(columnIndex - 1) == double.class) {
+            return setPrimitiveValue(row, columnIndex)?0:row.getDouble(columnIndex - 1);
+        }
         return DataTypeTransformer.getDouble(getObject(columnIndex));
     }
 
@@ -696,6 +919,10 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
     @Override
     public float getFloat(int columnIndex) throws SQLException {
+        ColumnarBatch.Row row = getColumnarRow(columnIndex);
+        if (row != null && row.getPrimitiveType(columnIndex - 1) == float.class) {
+            return setPrimitiveValue(row, columnIndex)?0:row.getFloat(columnIndex - 1);
+        }
         return DataTypeTransformer.getFloat(getObject(columnIndex));
     }
 
@@ -707,6 +934,13 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
     @Override
     public int getInt(int columnIndex) throws SQLException {
+        ColumnarBatch.Row row = getColumnarRow(columnIndex);
+        if (row != null) {
+            Class<?> type = row.getPrimitiveType(columnIndex - 1);
+            if (type == int.class || type == short.class) {
+                return setPrimitiveValue(row, columnIndex)?0:row.getInt(columnIndex - 1);
+            }
+        }
         return DataTypeTransformer.getInteger(getObject(columnIndex));
     }
 
@@ -718,6 +952,13 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
     @Override
     public long getLong(int columnIndex) throws SQLException {
+        ColumnarBatch.Row row = getColumnarRow(columnIndex);
+        if (row != null) {
+            Class<?> type = row.getPrimitiveType(columnIndex - 1);
+            if (type == long.class || type == int.class || type == short.class) {
+                return setPrimitiveValue(row, columnIndex)?0:row.getLong(columnIndex - 1);
+            }
+        }
         return DataTypeTransformer.getLong(getObject(columnIndex));
     }
 
@@ -735,6 +976,10 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
     @Override
     public short getShort(int columnIndex) throws SQLException {
+        ColumnarBatch.Row row = getColumnarRow(columnIndex);
+        if (row != null && row.getPrimitiveType(columnIndex - 1) == short.class) {
+            return setPrimitiveValue(row, columnIndex)?0:row.getShort(columnIndex - 1);
+        }
         return DataTypeTransformer.getShort(getObject(columnIndex));
     }
 
@@ -833,9 +1078,40 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
 
         checkClosed(); // check to see if the ResultSet is closed
 
+        if (primitiveRow != null) {
+            return primitiveRow.isNull(primitiveColumn);
+        }
         return currentValue == null;
     }
 
+    /**
+     * Get the current row if it is from a {@link ColumnarBatch}, so that primitive
+     * values may be read without boxing.  Returns null if the value should instead be
+     * obtained from {@link #getObject(int)}, which also handles the validation errors.
+     */
+    private ColumnarBatch.Row getColumnarRow(int column) throws SQLException {
+        checkClosed();
+        if (column < 1 || column > resultColumns || column > columnCount || isAfterLast()) {
+            return null;
+        }
+        List<?> cursorRow = batchResults.getCurrentRow();
+        if (cursorRow instanceof ColumnarBatch.Row) {
+            return (ColumnarBatch.Row)cursorRow;
+        }
+        return null;
+    }
+
+    /**
+     * Mark the column as the current value
+     * @return true if the value is null
+     */
+    private boolean setPrimitiveValue(ColumnarBatch.Row row, int column) {
+        primitiveRow = row;
+        primitiveColumn = column - 1;
+        currentValue = null;
+        return row.isNull(primitiveColumn);
+    }
+
     protected void accumulateWarnings(ResultsMessage resultsMsg) {
         this.statement.accumulateWarnings(resultsMsg.getWarnings());
     }
@@ -1586,7 +1862,15 @@ public class ResultSetImpl extends WrapperImpl implements TeiidResultSet, BatchF
     }
 
     ResultsFuture<ResultsMessage> getPrefetch() {
-        return prefetch;
+        synchronized (prefetched) {
+            return prefetched.peekFirst();
+        }
+    }
+
+    int getPrefetchCount() {
+        synchronized (prefetched) {
+            return prefetched.size();
+        }
     }
 
 }
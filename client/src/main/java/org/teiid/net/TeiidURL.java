@@ -78,6 +78,11 @@ public class TeiidURL {
 
         public static final String ENCRYPT_REQUESTS = "encryptRequests"; //$NON-NLS-1$;
         public static final String LOGIN_TIMEOUT = "loginTimeout"; //$NON-NLS-1$
+        /**
+         * If true, the connection will share a socket with other connections to the same server
+         * @since 17.0
+         */
+        public static final String MULTIPLEX_CONNECTIONS = "multiplexConnections"; //$NON-NLS-1$
 
     }
 
@@ -43,6 +43,8 @@ public class Handshake implements Externalizable {
     private byte[] publicKeyLarge;
     private AuthenticationType authType = AuthenticationType.USERPASSWORD;
     private boolean cbc = true;
+    private int compressionThreshold = -1;
+    private boolean multiplexed;
 
     public Handshake() {
 
@@ -126,6 +128,32 @@ public class Handshake implements Externalizable {
         this.cbc = cbc;
     }
 
+    /**
+     * The size in bytes at or above which messages may be compressed.
+     * From the server this is an offer, from the client an acceptance.
+     * @return -1 if compression is not used
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * If messages from several logical connections may be sent over the socket.
+     * From the server this is an offer, from the client an acceptance.
+     * @see Message#getConnectionId()
+     */
+    public boolean isMultiplexed() {
+        return multiplexed;
+    }
+
+    public void setMultiplexed(boolean multiplexed) {
+        this.multiplexed = multiplexed;
+    }
+
     @Override
     public void readExternal(ObjectInput in) throws IOException,
             ClassNotFoundException {
@@ -148,6 +176,20 @@ public class Handshake implements Externalizable {
         } catch (EOFException e) {
             cbc = false;
         }
+        try {
+            compressionThreshold = in.readInt();
+        } catch (OptionalDataException e) {
+            compressionThreshold = -1;
+        } catch (EOFException e) {
+            compressionThreshold = -1;
+        }
+        try {
+            multiplexed = in.readBoolean();
+        } catch (OptionalDataException e) {
+            multiplexed = false;
+        } catch (EOFException e) {
+            multiplexed = false;
+        }
     }
 
     @Override
@@ -162,6 +204,8 @@ public class Handshake implements Externalizable {
             out.write(publicKeyLarge);
         }
         out.writeBoolean(cbc);
+        out.writeInt(compressionThreshold);
+        out.writeBoolean(multiplexed);
     }
 
 }
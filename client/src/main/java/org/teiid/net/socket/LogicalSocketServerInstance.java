@@ -0,0 +1,130 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.teiid.net.socket;
+
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.teiid.client.util.ResultsFuture;
+import org.teiid.client.util.ResultsReceiver;
+import org.teiid.core.crypto.Cryptor;
+import org.teiid.net.CommunicationException;
+import org.teiid.net.HostInfo;
+
+/**
+ * A logical connection to a {@link SocketServerInstanceImpl} whose socket is shared
+ * with other connections.  Each message is tagged with the connection id so that the
+ * server maintains a separate session for each logical connection.  Responses are
+ * correlated by the message key, which is unique across the socket.
+ */
+class LogicalSocketServerInstance implements SocketServerInstance {
+
+    private final SocketServerConnectionFactory factory;
+    private final SocketServerInstanceImpl instance;
+    private final int connectionId;
+    private HashMap<Class<?>, Object> serviceMap = new HashMap<Class<?>, Object>();
+    private volatile boolean closed;
+
+    LogicalSocketServerInstance(SocketServerConnectionFactory factory, SocketServerInstanceImpl instance, int connectionId) {
+        this.factory = factory;
+        this.instance = instance;
+        this.connectionId = connectionId;
+    }
+
+    @Override
+    public synchronized <T> T getService(Class<T> iface) {
+        Object service = this.serviceMap.get(iface);
+        if (service == null) {
+            service = Proxy.newProxyInstance(this.getClass().getClassLoader(), new Class[] {iface}, new SocketServerInstanceImpl.RemoteInvocationHandler(iface, false) {
+                @Override
+                protected SocketServerInstance getInstance() {
+                    return LogicalSocketServerInstance.this;
+                }
+            });
+            this.serviceMap.put(iface, service);
+        }
+        return iface.cast(service);
+    }
+
+    /**
+     * Release this connection's use of the socket, which is closed once it is
+     * no longer used.
+     */
+    @Override
+    public void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        factory.release(instance);
+    }
+
+    @Override
+    public HostInfo getHostInfo() {
+        return instance.getHostInfo();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed && instance.isOpen();
+    }
+
+    @Override
+    public Cryptor getCryptor() {
+        return instance.getCryptor();
+    }
+
+    @Override
+    public long getSynchTimeout() {
+        return instance.getSynchTimeout();
+    }
+
+    @Override
+    public void send(Message message, ResultsReceiver<Object> receiver,
+            Serializable key) throws CommunicationException,
+            InterruptedException {
+        message.setConnectionId(connectionId);
+        instance.send(message, receiver, key);
+    }
+
+    @Override
+    public void read(long timeout, TimeUnit unit,
+            ResultsFuture<?> resultsFuture) throws TimeoutException,
+            InterruptedException {
+        instance.read(timeout, unit, resultsFuture);
+    }
+
+    @Override
+    public String getServerVersion() {
+        return instance.getServerVersion();
+    }
+
+    @Override
+    public InetAddress getLocalAddress() {
+        return instance.getLocalAddress();
+    }
+
+    int getConnectionId() {
+        return connectionId;
+    }
+
+}
@@ -18,10 +18,12 @@
 
 package org.teiid.net.socket;
 
+import java.io.EOFException;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.OptionalDataException;
 import java.io.Serializable;
 
 import org.teiid.client.util.ExceptionHolder;
@@ -34,9 +36,10 @@ public class Message implements Externalizable {
     public static final long serialVersionUID = 1063704220782714098L;
     private Object contents;
     private Serializable messageKey;
+    private int connectionId;
 
     public String toString() {
-        return "MessageHolder: key=" + messageKey + " contents=" + contents; //$NON-NLS-1$ //$NON-NLS-2$
+        return "MessageHolder: key=" + messageKey + " connection=" + connectionId + " contents=" + contents; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
     }
 
     public void setContents(Object contents) {
@@ -51,11 +54,19 @@ public class Message implements Externalizable {
             ClassNotFoundException {
         this.contents = in.readObject();
         this.messageKey = (Serializable) in.readObject();
+        try {
+            this.connectionId = in.readInt();
+        } catch (OptionalDataException e) {
+            this.connectionId = 0;
+        } catch (EOFException e) {
+            this.connectionId = 0;
+        }
     }
 
     public void writeExternal(ObjectOutput out) throws IOException {
         out.writeObject(this.contents);
         out.writeObject(messageKey);
+        out.writeInt(connectionId);
     }
 
     public Serializable getMessageKey() {
@@ -66,4 +77,17 @@ public class Message implements Externalizable {
         this.messageKey = messageKey;
     }
 
+    /**
+     * The logical connection that sent the message when several connections share
+     * a socket.
+     * @return 0 if the socket is not shared
+     */
+    public int getConnectionId() {
+        return connectionId;
+    }
+
+    public void setConnectionId(int connectionId) {
+        this.connectionId = connectionId;
+    }
+
 }
@@ -0,0 +1,532 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.teiid.net.socket;
+
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.teiid.client.util.ResultsFuture;
+import org.teiid.core.util.PropertiesUtils;
+import org.teiid.jdbc.JDBCPlugin;
+import org.teiid.net.CommunicationException;
+import org.teiid.net.HostInfo;
+import org.teiid.netty.handler.codec.serialization.ObjectEncoderOutputStream;
+import org.teiid.netty.handler.codec.serialization.ObjectFrameDecoder;
+
+/**
+ * An {@link ObjectChannelFactory} using non-blocking sockets that are all serviced by
+ * a single selector thread.
+ * <br>
+ * Messages are fully read by the selector thread and queued for the reader of the channel,
+ * so that a socket shared by many logical connections is always drained regardless of
+ * which connection is waiting for a result.  The selector thread exits once there are
+ * no open channels.
+ * <br>
+ * SSL sockets are created by an {@link OioOjbectChannelFactory}.
+ */
+public final class NioObjectChannelFactory implements ObjectChannelFactory {
+
+    private final static int STREAM_BUFFER_SIZE = 1<<15;
+    private final static int DEFAULT_MAX_OBJECT_SIZE = 1 << 25;
+
+    private static final Object CLOSED = new Object();
+
+    private static Logger log = Logger.getLogger("org.teiid.client.sockets"); //$NON-NLS-1$
+
+    final class NioObjectChannel implements ObjectChannel {
+        private final SocketChannel channel;
+        private final SelectorLoop loop;
+        private SelectionKey key;
+        private final ObjectFrameDecoder decoder;
+        private ByteBuffer readBuffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+        private final LinkedBlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+        private final ObjectEncoderOutputStream outputStream;
+        private final Object writeLock = new Object();
+        private boolean writable = true;
+        private volatile boolean closed;
+        private volatile Throwable failure;
+
+        /**
+         * Buffers writes to the non-blocking channel, waiting on the selector
+         * when the socket cannot accept more bytes.
+         */
+        private final class ChannelOutputStream extends OutputStream {
+            private ByteBuffer writeBuffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+
+            @Override
+            public void write(int b) throws IOException {
+                if (!writeBuffer.hasRemaining()) {
+                    flush();
+                }
+                writeBuffer.put((byte)b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                while (len > 0) {
+                    if (!writeBuffer.hasRemaining()) {
+                        flush();
+                    }
+                    int toWrite = Math.min(len, writeBuffer.remaining());
+                    writeBuffer.put(b, off, toWrite);
+                    off += toWrite;
+                    len -= toWrite;
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writeBuffer.flip();
+                try {
+                    while (writeBuffer.hasRemaining()) {
+                        if (channel.write(writeBuffer) == 0) {
+                            awaitWritable();
+                        }
+                    }
+                } finally {
+                    writeBuffer.clear();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                NioObjectChannel.this.close();
+            }
+        }
+
+        private NioObjectChannel(SocketChannel channel, SelectorLoop loop, int maxObjectSize) throws IOException {
+            log.fine("creating new NioObjectChannel"); //$NON-NLS-1$
+            this.channel = channel;
+            this.loop = loop;
+            this.outputStream = new ObjectEncoderOutputStream(new DataOutputStream(new ChannelOutputStream()), STREAM_BUFFER_SIZE);
+            this.decoder = new ObjectFrameDecoder(this.getClass().getClassLoader(), maxObjectSize);
+        }
+
+        /**
+         * Called by the selector thread
+         */
+        void register(Selector selector) {
+            try {
+                this.key = channel.register(selector, SelectionKey.OP_READ, this);
+            } catch (IOException e) {
+                closed(e);
+            } catch (CancelledKeyException e) {
+                closed(e);
+            }
+        }
+
+        /**
+         * Called by the selector thread when the socket has bytes to read
+         */
+        void readable() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    closed(new EOFException());
+                    return;
+                }
+                readBuffer.flip();
+                Object obj = null;
+                while ((obj = decoder.decode(readBuffer)) != null) {
+                    received.add(obj);
+                }
+                if (decoder.getRequired() > readBuffer.capacity()) {
+                    ByteBuffer larger = ByteBuffer.allocate(decoder.getRequired());
+                    larger.put(readBuffer);
+                    readBuffer = larger;
+                } else if (!readBuffer.hasRemaining() && readBuffer.capacity() > STREAM_BUFFER_SIZE) {
+                    //release the space used by a large message
+                    readBuffer = ByteBuffer.allocate(STREAM_BUFFER_SIZE);
+                } else {
+                    readBuffer.compact();
+                }
+            } catch (IOException e) {
+                closed(e);
+            } catch (Throwable e) {
+                //a malformed message or a failed allocation affects only this socket
+                log.log(Level.WARNING, "Unexpected failure reading from socket, closing the socket", e); //$NON-NLS-1$
+                closed(e);
+            }
+        }
+
+        /**
+         * Called by the selector thread when a blocked write may proceed
+         */
+        void writable() {
+            try {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            } catch (CancelledKeyException e) {
+                //closed concurrently
+            }
+            synchronized (writeLock) {
+                writable = true;
+                writeLock.notifyAll();
+            }
+        }
+
+        /**
+         * Called by the selector thread after a writer has requested write interest
+         */
+        void enableWriteInterest() {
+            if (key != null && key.isValid()) {
+                try {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                } catch (CancelledKeyException e) {
+                    //closed concurrently
+                }
+            }
+        }
+
+        private void awaitWritable() throws IOException {
+            synchronized (writeLock) {
+                writable = false;
+            }
+            loop.requestWriteInterest(this);
+            synchronized (writeLock) {
+                while (!writable) {
+                    if (closed) {
+                        throw new ClosedChannelException();
+                    }
+                    try {
+                        writeLock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+            }
+        }
+
+        void closed(Throwable e) {
+            if (failure == null) {
+                failure = e;
+            }
+            decoder.close();
+            close();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            log.finer("closing socket"); //$NON-NLS-1$
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            received.add(CLOSED);
+            synchronized (writeLock) {
+                writeLock.notifyAll();
+            }
+            //allow the selector to deregister the channel
+            if (loop.selector.isOpen()) {
+                loop.selector.wakeup();
+            }
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return channel.socket().getRemoteSocketAddress();
+        }
+
+        @Override
+        public InetAddress getLocalAddress() {
+            return channel.socket().getLocalAddress();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return !closed && channel.isOpen();
+        }
+
+        @Override
+        public Object read() throws IOException, ClassNotFoundException {
+            log.finer("reading message from socket"); //$NON-NLS-1$
+            Object result = null;
+            try {
+                if (soTimeout > 0) {
+                    result = received.poll(soTimeout, TimeUnit.MILLISECONDS);
+                } else {
+                    result = received.take();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            if (result == null) {
+                Long timeout = OioOjbectChannelFactory.TIMEOUTS.get();
+                if (timeout != null && timeout < System.currentTimeMillis()) {
+                    OioOjbectChannelFactory.TIMEOUTS.set(null);
+                    throw new InterruptedIOException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20035));
+                }
+                throw new SocketTimeoutException();
+            }
+            if (result == CLOSED) {
+                //leave the marker for any other reader
+                received.add(CLOSED);
+                Throwable e = failure;
+                if (e instanceof ClassNotFoundException) {
+                    throw (ClassNotFoundException)e;
+                }
+                if (e instanceof IOException) {
+                    throw (IOException)e;
+                }
+                if (e != null) {
+                    throw new IOException(e);
+                }
+                throw new ClosedChannelException();
+            }
+            return result;
+        }
+
+        @Override
+        public synchronized void setCompressionThreshold(int threshold) {
+            outputStream.setCompressionThreshold(threshold);
+            decoder.setCompressedChunks(threshold >= 0);
+        }
+
+        @Override
+        public synchronized Future<?> write(Object msg) {
+            log.finer("writing message to socket"); //$NON-NLS-1$
+            ResultsFuture<Void> result = new ResultsFuture<Void>();
+            try {
+                outputStream.writeObject(msg);
+                outputStream.flush();
+                outputStream.reset();
+                result.getResultsReceiver().receiveResults(null);
+            } catch (IOException e) {
+                close();
+                result.getResultsReceiver().exceptionOccurred(e);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The selector thread.  A new loop is started as needed once a previous loop
+     * has exited.
+     */
+    private final class SelectorLoop implements Runnable {
+        private final Selector selector;
+        private final ConcurrentLinkedQueue<NioObjectChannel> registrations = new ConcurrentLinkedQueue<NioObjectChannel>();
+        private final ConcurrentLinkedQueue<NioObjectChannel> writeInterest = new ConcurrentLinkedQueue<NioObjectChannel>();
+
+        SelectorLoop() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void requestWriteInterest(NioObjectChannel channel) {
+            writeInterest.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            Throwable failure = null;
+            try {
+                while (true) {
+                    NioObjectChannel channel = null;
+                    while ((channel = registrations.poll()) != null) {
+                        channel.register(selector);
+                    }
+                    while ((channel = writeInterest.poll()) != null) {
+                        channel.enableWriteInterest();
+                    }
+                    synchronized (NioObjectChannelFactory.this) {
+                        if (selector.keys().isEmpty() && registrations.isEmpty()) {
+                            loop = null;
+                            break;
+                        }
+                    }
+                    selector.select();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        channel = (NioObjectChannel)key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                channel.readable();
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                channel.writable();
+                            }
+                        } catch (CancelledKeyException e) {
+                            //closed concurrently
+                            channel.closed(e);
+                        }
+                    }
+                }
+            } catch (Throwable e) {
+                log.log(Level.WARNING, "Unexpected selector failure, closing all sockets", e); //$NON-NLS-1$
+                failure = e;
+            } finally {
+                //no new channels will be registered with this loop, so fail any that remain
+                synchronized (NioObjectChannelFactory.this) {
+                    if (loop == this) {
+                        loop = null;
+                    }
+                }
+                if (failure == null) {
+                    failure = new ClosedChannelException();
+                }
+                for (SelectionKey key : selector.keys()) {
+                    ((NioObjectChannel)key.attachment()).closed(failure);
+                }
+                NioObjectChannel channel = null;
+                while ((channel = registrations.poll()) != null) {
+                    channel.closed(failure);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private Properties props;
+    private int receiveBufferSize = 0;
+    private int sendBufferSize = 0;
+    private boolean conserveBandwidth;
+    private int soTimeout = 1000;
+    private int maxObjectSize = DEFAULT_MAX_OBJECT_SIZE;
+    private int compressionThreshold = -1;
+    private volatile OioOjbectChannelFactory sslChannelFactory;
+    private SelectorLoop loop;
+
+    public NioObjectChannelFactory(Properties props) {
+        this.props = props;
+        PropertiesUtils.setBeanProperties(this, props, "org.teiid.sockets", true); //$NON-NLS-1$
+    }
+
+    @Override
+    public ObjectChannel createObjectChannel(HostInfo info) throws CommunicationException, IOException {
+        if (info.isSsl()) {
+            if (this.sslChannelFactory == null) {
+                this.sslChannelFactory = new OioOjbectChannelFactory(props);
+            }
+            return this.sslChannelFactory.createObjectChannel(info);
+        }
+        SocketChannel channel = SocketChannel.open();
+        try {
+            Socket socket = channel.socket();
+            if (receiveBufferSize > 0) {
+                socket.setReceiveBufferSize(receiveBufferSize);
+            }
+            if (sendBufferSize > 0) {
+                socket.setSendBufferSize(sendBufferSize);
+            }
+            socket.setTcpNoDelay(!conserveBandwidth); // enable Nagle's algorithm to conserve bandwidth
+            channel.connect(new InetSocketAddress(info.getInetAddress(), info.getPortNumber()));
+            channel.configureBlocking(false);
+            return register(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private synchronized NioObjectChannel register(SocketChannel channel) throws IOException {
+        if (loop == null) {
+            loop = new SelectorLoop();
+            Thread thread = new Thread(loop, "Teiid Socket Selector"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            thread.start();
+        }
+        NioObjectChannel result = new NioObjectChannel(channel, loop, maxObjectSize);
+        loop.registrations.add(result);
+        loop.selector.wakeup();
+        return result;
+    }
+
+    public int getSendBufferSize() {
+        return sendBufferSize;
+    }
+
+    public void setSendBufferSize(int sendBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    public int getReceiveBufferSize() {
+        return receiveBufferSize;
+    }
+
+    public void setReceiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    public boolean isConserveBandwidth() {
+        return conserveBandwidth;
+    }
+
+    public void setConserveBandwidth(boolean conserveBandwidth) {
+        this.conserveBandwidth = conserveBandwidth;
+    }
+
+    public void setSoTimeout(int soTimeout) {
+        this.soTimeout = soTimeout;
+    }
+
+    public void setMaxObjectSize(int maxObjectSize) {
+        this.maxObjectSize = maxObjectSize;
+    }
+
+    @Override
+    public int getSoTimeout() {
+        return soTimeout;
+    }
+
+    /**
+     * Set the size in bytes at or above which messages will be compressed if the server
+     * also supports compression.  Defaults to -1, which does not use compression.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+}
@@ -37,4 +37,10 @@ public interface ObjectChannel {
 
     InetAddress getLocalAddress();
 
+    /**
+     * Enable compression once it has been negotiated with the other end.
+     * @param threshold the minimum message or chunk size to compress, -1 to disable
+     */
+    void setCompressionThreshold(int threshold);
+
 }
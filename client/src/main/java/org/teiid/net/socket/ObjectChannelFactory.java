@@ -27,6 +27,12 @@ public interface ObjectChannelFactory {
 
     int getSoTimeout();
 
+    /**
+     * @return the size in bytes at or above which messages should be compressed
+     * if offered by the server, or -1 if compression should not be used
+     */
+    int getCompressionThreshold();
+
     ObjectChannel createObjectChannel(HostInfo info) throws CommunicationException, IOException;
 
 }
\ No newline at end of file
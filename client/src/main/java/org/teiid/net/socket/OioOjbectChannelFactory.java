@@ -21,8 +21,6 @@ package org.teiid.net.socket;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
@@ -54,8 +52,8 @@ public final class OioOjbectChannelFactory implements ObjectChannelFactory {
 
     final static class OioObjectChannel implements ObjectChannel {
         private final Socket socket;
-        private ObjectOutputStream outputStream;
-        private ObjectInputStream inputStream;
+        private ObjectEncoderOutputStream outputStream;
+        private ObjectDecoderInputStream inputStream;
 
         private OioObjectChannel(Socket socket, int maxObjectSize) throws IOException {
             log.fine("creating new OioObjectChannel"); //$NON-NLS-1$
@@ -124,6 +122,12 @@ public final class OioOjbectChannelFactory implements ObjectChannelFactory {
             }
         }
 
+        @Override
+        public synchronized void setCompressionThreshold(int threshold) {
+            outputStream.setCompressionThreshold(threshold);
+            inputStream.setCompressedChunks(threshold >= 0);
+        }
+
         @Override
         public synchronized Future<?> write(Object msg) {
             log.finer("writing message to socket"); //$NON-NLS-1$
@@ -148,6 +152,7 @@ public final class OioOjbectChannelFactory implements ObjectChannelFactory {
     private int soTimeout = 1000;
     private volatile SSLSocketFactory sslSocketFactory;
     private int maxObjectSize = DEFAULT_MAX_OBJECT_SIZE;
+    private int compressionThreshold = -1;
 
     public OioOjbectChannelFactory(Properties props) {
         this.props = props;
@@ -215,4 +220,17 @@ public final class OioOjbectChannelFactory implements ObjectChannelFactory {
     public int getSoTimeout() {
         return soTimeout;
     }
+
+    /**
+     * Set the size in bytes at or above which messages will be compressed if the server
+     * also supports compression.  Defaults to -1, which does not use compression.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
 }
\ No newline at end of file
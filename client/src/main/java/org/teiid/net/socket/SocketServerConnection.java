@@ -71,6 +71,7 @@ public class SocketServerConnection implements ServerConnection {
     private ILogon logon;
     private boolean closed;
     private boolean failOver;
+    private boolean multiplexed;
     private long lastPing = System.currentTimeMillis();
     private int pingFailOverInterval = FAILOVER_PING_INTERVAL;
     private String serverVersion;
@@ -82,6 +83,7 @@ public class SocketServerConnection implements ServerConnection {
         this.serverDiscovery = serverDiscovery;
         this.connProps = connProps;
         this.secure = secure;
+        this.multiplexed = PropertiesUtils.getBooleanProperty(connProps, TeiidURL.CONNECTION.MULTIPLEX_CONNECTIONS, false);
         //ILogon that is allowed to failover
         this.logon = this.getService(ILogon.class);
         this.failOver = Boolean.valueOf(connProps.getProperty(TeiidURL.CONNECTION.AUTO_FAILOVER)).booleanValue();
@@ -119,7 +121,11 @@ public class SocketServerConnection implements ServerConnection {
                     }
                 }
                 hostInfo.setSsl(secure);
-                this.serverInstance = connectionFactory.getServerInstance(hostInfo);
+                if (multiplexed) {
+                    this.serverInstance = connectionFactory.getServerInstance(hostInfo, true);
+                } else {
+                    this.serverInstance = connectionFactory.getServerInstance(hostInfo);
+                }
                 connectSession();
                 return this.serverInstance;
             } catch (IOException e) {
@@ -22,6 +22,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
 import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.teiid.core.util.PropertiesUtils;
@@ -43,14 +49,30 @@ import org.teiid.net.TeiidURL;
  */
 public class SocketServerConnectionFactory implements ServerConnectionFactory, SocketServerInstanceFactory {
 
+    /**
+     * A socket shared by logical connections
+     */
+    private static class SharedInstance {
+        SocketServerInstanceImpl instance;
+        int connections;
+        int lastConnectionId;
+
+        SharedInstance(SocketServerInstanceImpl instance) {
+            this.instance = instance;
+        }
+    }
+
     private static SocketServerConnectionFactory INSTANCE;
 
     private ObjectChannelFactory channelFactory;
+    private ObjectChannelFactory multiplexedChannelFactory;
+    private Map<List<Object>, List<SharedInstance>> sharedInstances = new HashMap<List<Object>, List<SharedInstance>>();
 
     private DefaultHostnameResolver resolver = new DefaultHostnameResolver();
 
     //config properties
     private long synchronousTtl = 240000L;
+    private int maxConnectionsPerSocket = 64;
 
     public static synchronized SocketServerConnectionFactory getInstance() {
         if (INSTANCE == null) {
@@ -84,6 +106,7 @@ public class SocketServerConnectionFactory implements ServerConnectionFactory, S
     public void initialize(Properties info) {
         PropertiesUtils.setBeanProperties(this, info, "org.teiid.sockets", true); //$NON-NLS-1$
         this.channelFactory = new OioOjbectChannelFactory(info);
+        this.multiplexedChannelFactory = new NioObjectChannelFactory(info);
     }
 
     @Override
@@ -93,6 +116,91 @@ public class SocketServerConnectionFactory implements ServerConnectionFactory, S
         return ssii;
     }
 
+    /**
+     * Get an instance using a socket shared with up to maxConnectionsPerSocket other connections.
+     * If the server does not support multiplexing, the socket will not be shared.
+     */
+    @Override
+    public SocketServerInstance getServerInstance(HostInfo info, boolean multiplexed) throws CommunicationException, IOException {
+        if (!multiplexed) {
+            return getServerInstance(info);
+        }
+        List<Object> key = Arrays.asList(info, info.isSsl());
+        synchronized (sharedInstances) {
+            List<SharedInstance> instances = sharedInstances.get(key);
+            if (instances != null) {
+                SharedInstance shared = null;
+                for (Iterator<SharedInstance> iter = instances.iterator(); iter.hasNext();) {
+                    SharedInstance si = iter.next();
+                    if (!si.instance.isOpen()) {
+                        //remaining connections will release it on failover or close
+                        iter.remove();
+                    } else if (shared == null && si.connections < maxConnectionsPerSocket) {
+                        shared = si;
+                    }
+                }
+                if (shared != null) {
+                    return addConnection(shared);
+                }
+                if (instances.isEmpty()) {
+                    sharedInstances.remove(key);
+                }
+            }
+        }
+        //connect without holding the lock, so that a slow or failing host does not block other connections
+        SocketServerInstanceImpl ssii = new SocketServerInstanceImpl(info, getSynchronousTtl(), this.multiplexedChannelFactory.getSoTimeout());
+        ssii.connect(this.multiplexedChannelFactory, true);
+        if (!ssii.isMultiplexed()) {
+            return ssii;
+        }
+        synchronized (sharedInstances) {
+            List<SharedInstance> instances = sharedInstances.get(key);
+            if (instances == null) {
+                instances = new ArrayList<SharedInstance>();
+                sharedInstances.put(key, instances);
+            }
+            SharedInstance shared = new SharedInstance(ssii);
+            instances.add(shared);
+            return addConnection(shared);
+        }
+    }
+
+    private LogicalSocketServerInstance addConnection(SharedInstance shared) {
+        shared.connections++;
+        if (++shared.lastConnectionId <= 0) {
+            shared.lastConnectionId = 1;
+        }
+        return new LogicalSocketServerInstance(this, shared.instance, shared.lastConnectionId);
+    }
+
+    /**
+     * Release a logical connection to the shared instance.  The instance
+     * is shutdown if it has no other connections.
+     */
+    void release(SocketServerInstanceImpl instance) {
+        synchronized (sharedInstances) {
+            List<Object> key = Arrays.asList(instance.getHostInfo(), instance.getHostInfo().isSsl());
+            List<SharedInstance> instances = sharedInstances.get(key);
+            if (instances != null) {
+                for (Iterator<SharedInstance> iter = instances.iterator(); iter.hasNext();) {
+                    SharedInstance si = iter.next();
+                    if (si.instance != instance) {
+                        continue;
+                    }
+                    if (--si.connections > 0) {
+                        return;
+                    }
+                    iter.remove();
+                    if (instances.isEmpty()) {
+                        sharedInstances.remove(key);
+                    }
+                    break;
+                }
+            }
+        }
+        instance.shutdown();
+    }
+
     /**
      * @param connectionProperties will be updated with additional information before logon
      */
@@ -120,6 +228,17 @@ public class SocketServerConnectionFactory implements ServerConnectionFactory, S
         this.synchronousTtl = synchronousTTL;
     }
 
+    public int getMaxConnectionsPerSocket() {
+        return maxConnectionsPerSocket;
+    }
+
+    /**
+     * Set the maximum number of multiplexed connections that will share a socket
+     */
+    public void setMaxConnectionsPerSocket(int maxConnectionsPerSocket) {
+        this.maxConnectionsPerSocket = maxConnectionsPerSocket;
+    }
+
     @Override
     public String resolveHostname(InetAddress addr) {
         //only wait 100 milli seconds by default
@@ -27,4 +27,11 @@ public interface SocketServerInstanceFactory extends HostnameResolver {
 
     SocketServerInstance getServerInstance(HostInfo info) throws CommunicationException, IOException;
 
+    /**
+     * @param multiplexed true if the instance may share a socket with other connections
+     */
+    default SocketServerInstance getServerInstance(HostInfo info, boolean multiplexed) throws CommunicationException, IOException {
+        return getServerInstance(info);
+    }
+
 }
\ No newline at end of file
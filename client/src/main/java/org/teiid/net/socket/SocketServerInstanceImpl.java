@@ -76,6 +76,7 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
 
     private boolean hasReader;
     private int soTimeout;
+    private boolean multiplexed;
 
     public SocketServerInstanceImpl(HostInfo info, long synchTimeout, int soTimeout) {
         if (!info.isResolved()) {
@@ -86,10 +87,19 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
         this.soTimeout = soTimeout;
     }
 
-    public synchronized void connect(ObjectChannelFactory channelFactory) throws CommunicationException, IOException {
+    public void connect(ObjectChannelFactory channelFactory) throws CommunicationException, IOException {
+        connect(channelFactory, false);
+    }
+
+    /**
+     * @param multiplex true if the socket should be shared by several logical connections
+     * if the server supports it
+     * @see #isMultiplexed()
+     */
+    public synchronized void connect(ObjectChannelFactory channelFactory, boolean multiplex) throws CommunicationException, IOException {
         this.socketChannel = channelFactory.createObjectChannel(info);
         try {
-            doHandshake();
+            doHandshake(channelFactory.getCompressionThreshold(), multiplex);
         } catch (CommunicationException e) {
             this.socketChannel.close();
             throw e;
@@ -112,7 +122,14 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
         return null;
     }
 
-    private void doHandshake() throws IOException, CommunicationException {
+    /**
+     * @return true if the server has agreed to messages from several logical connections
+     */
+    public boolean isMultiplexed() {
+        return multiplexed;
+    }
+
+    private void doHandshake(int compressionThreshold, boolean multiplex) throws IOException, CommunicationException {
         Handshake handshake = null;
         boolean sentInit = false;
         long handShakeRetries = 1;
@@ -183,7 +200,19 @@ public class SocketServerInstanceImpl implements SocketServerInstance {
                 this.cryptor = new NullCryptor();
             }
 
+            //accept the server's offer of compression with our own threshold
+            if (handshake.getCompressionThreshold() < 0 || compressionThreshold < 0) {
+                compressionThreshold = -1;
+            }
+            handshake.setCompressionThreshold(compressionThreshold);
+            this.multiplexed = multiplex && handshake.isMultiplexed();
+            handshake.setMultiplexed(this.multiplexed);
+
             this.socketChannel.write(handshake);
+            if (compressionThreshold >= 0) {
+                log.fine("using compression with threshold " + compressionThreshold); //$NON-NLS-1$
+                this.socketChannel.setCompressionThreshold(compressionThreshold);
+            }
         } catch (CryptoException e) {
              throw new CommunicationException(JDBCPlugin.Event.TEIID20012, e, e.getMessage());
         }
@@ -0,0 +1,188 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.teiid.netty.handler.codec.serialization;
+
+import java.io.StreamCorruptedException;
+import java.util.Arrays;
+
+/**
+ * A pure java LZ77 block codec using the LZ4 block layout.
+ * <p>
+ * It favors speed over ratio so that it may be used to compress socket messages
+ * without a native library dependency.
+ * <p>
+ * Each sequence is a token byte - the high nibble is the literal length and the low nibble
+ * is the match length less {@link #MIN_MATCH} - followed by extended literal length bytes, the literals,
+ * a 2 byte little endian match offset, and extended match length bytes.  The last sequence
+ * has only literals.
+ */
+public final class BlockCodec {
+
+    static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_OFFSET = (1 << 16) - 1;
+    private static final int HASH_LOG = 12;
+    private static final int RUN_MASK = 0xf;
+
+    private BlockCodec() {
+
+    }
+
+    /**
+     * @return the maximum compressed length for the given input length
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compress the source bytes into dest, which must have at least {@link #maxCompressedLength(int)}
+     * bytes available from destOff.
+     * @return the compressed length
+     */
+    public static int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff) {
+        int end = srcOff + srcLen;
+        int anchor = srcOff;
+        int op = destOff;
+        if (srcLen >= MF_LIMIT + 1) {
+            int matchLimit = end - LAST_LITERALS;
+            int mfLimit = end - MF_LIMIT;
+            int[] table = new int[1 << HASH_LOG];
+            Arrays.fill(table, -1);
+            int ip = srcOff;
+            while (ip < mfLimit) {
+                int seq = readInt(src, ip);
+                int h = hash(seq);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < 0 || ip - ref > MAX_OFFSET || readInt(src, ref) != seq) {
+                    ip++;
+                    continue;
+                }
+                //extend backwards into the pending literals
+                while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ref + matchLength] == src[ip + matchLength]) {
+                    matchLength++;
+                }
+                int literalLength = ip - anchor;
+                int tokenIndex = op++;
+                op = writeLength(dest, op, literalLength);
+                System.arraycopy(src, anchor, dest, op, literalLength);
+                op += literalLength;
+                int offset = ip - ref;
+                dest[op++] = (byte)offset;
+                dest[op++] = (byte)(offset >>> 8);
+                op = writeLength(dest, op, matchLength - MIN_MATCH);
+                dest[tokenIndex] = (byte)((Math.min(literalLength, RUN_MASK) << 4) | Math.min(matchLength - MIN_MATCH, RUN_MASK));
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        int literalLength = end - anchor;
+        dest[op++] = (byte)(Math.min(literalLength, RUN_MASK) << 4);
+        op = writeLength(dest, op, literalLength);
+        System.arraycopy(src, anchor, dest, op, literalLength);
+        op += literalLength;
+        return op - destOff;
+    }
+
+    /**
+     * Decompress the source bytes into dest, which must be exactly destLen bytes from destOff.
+     * @throws StreamCorruptedException if the source is not a valid block for the given length
+     */
+    public static void decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int destLen) throws StreamCorruptedException {
+        int ip = srcOff;
+        int end = srcOff + srcLen;
+        int op = destOff;
+        int destEnd = destOff + destLen;
+        try {
+            while (ip < end) {
+                int token = src[ip++] & 0xff;
+                int literalLength = token >>> 4;
+                if (literalLength == RUN_MASK) {
+                    int b = 0;
+                    do {
+                        b = src[ip++] & 0xff;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (ip + literalLength > end || op + literalLength > destEnd) {
+                    throw new StreamCorruptedException("invalid literal length"); //$NON-NLS-1$
+                }
+                System.arraycopy(src, ip, dest, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip == end) {
+                    break;
+                }
+                int offset = (src[ip++] & 0xff) | ((src[ip++] & 0xff) << 8);
+                if (offset == 0 || op - offset < destOff) {
+                    throw new StreamCorruptedException("invalid match offset"); //$NON-NLS-1$
+                }
+                int matchLength = token & RUN_MASK;
+                if (matchLength == RUN_MASK) {
+                    int b = 0;
+                    do {
+                        b = src[ip++] & 0xff;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                if (op + matchLength > destEnd) {
+                    throw new StreamCorruptedException("invalid match length"); //$NON-NLS-1$
+                }
+                //the match may overlap the output, so copy forward byte by byte
+                for (int ref = op - offset; matchLength > 0; matchLength--) {
+                    dest[op++] = dest[ref++];
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new StreamCorruptedException("truncated block"); //$NON-NLS-1$
+        }
+        if (op != destEnd) {
+            throw new StreamCorruptedException("invalid uncompressed length"); //$NON-NLS-1$
+        }
+    }
+
+    private static int writeLength(byte[] dest, int op, int length) {
+        if (length < RUN_MASK) {
+            return op;
+        }
+        length -= RUN_MASK;
+        while (length >= 255) {
+            dest[op++] = (byte)255;
+            length -= 255;
+        }
+        dest[op++] = (byte)length;
+        return op;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | ((b[i + 2] & 0xff) << 16) | (b[i + 3] << 24);
+    }
+
+    private static int hash(int seq) {
+        return (seq * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+}
@@ -46,6 +46,7 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
 
     private int remaining;
     private boolean foundLength;
+    private boolean compressedChunks;
 
     private InputStream subStream = new InputStream() {
 
@@ -91,15 +92,19 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
                 clearRemaining();
                 remaining = dis.readInt();
                 foundLength = true;
-                if (remaining <= 0) {
+                if (remaining == 0 || (remaining & ~ObjectEncoderOutputStream.COMPRESSED_FRAME) == 0) {
                     throw new StreamCorruptedException("invalid data length: " + remaining); //$NON-NLS-1$
                 }
-                if (remaining > maxObjectSize) {
-                    throw new StreamCorruptedException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20028, remaining, maxObjectSize));
+                if ((remaining & ~ObjectEncoderOutputStream.COMPRESSED_FRAME) > maxObjectSize) {
+                    throw new StreamCorruptedException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20028, remaining & ~ObjectEncoderOutputStream.COMPRESSED_FRAME, maxObjectSize));
                 }
             }
             foundLength = false;
-            CompactObjectInputStream cois = new CompactObjectInputStream(subStream, classLoader);
+            InputStream objectStream = subStream;
+            if ((remaining & ObjectEncoderOutputStream.COMPRESSED_FRAME) != 0) {
+                objectStream = readCompressedFrame();
+            }
+            CompactObjectInputStream cois = new CompactObjectInputStream(objectStream, classLoader);
             result = cois.readObject();
             streams = ExternalizeUtil.readList(cois, StreamFactoryReference.class);
             streamIndex = 0;
@@ -114,25 +119,20 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
                 }
             }
             if (stream == null) {
-                final File f = File.createTempFile("teiid", null); //$NON-NLS-1$
-                StreamFactoryReference sfr = streams.get(streamIndex);
-                sfr.setStreamFactory(new InputStreamFactory() {
-
-                    @Override
-                    public InputStream getInputStream() throws IOException {
-                        return new BufferedInputStream(new FileInputStream(f));
-                    }
-
-                    @Override
-                    protected void finalize() throws Throwable {
-                        super.finalize();
-                        f.delete();
-                    }
-
-                });
-                this.stream = new FileOutputStream(f);
+                this.stream = createStream(streams.get(streamIndex));
             }
             foundLength = false;
+            if (compressedChunks && (remaining & ObjectEncoderOutputStream.COMPRESSED_CHUNK) != 0) {
+                int compressedLength = remaining & ObjectEncoderOutputStream.MAX_COMPRESSED_CHUNK_SIZE;
+                remaining = 0;
+                int length = 0xffff & dis.readShort();
+                byte[] compressed = new byte[compressedLength];
+                dis.readFully(compressed);
+                byte[] bytes = new byte[length];
+                BlockCodec.decompress(compressed, 0, compressedLength, bytes, 0, length);
+                this.stream.write(bytes);
+                continue;
+            }
             if (remaining != 0) {
                 int available = Math.min(remaining, in.getCount() - in.getPosition());
                 if (available > 0) {
@@ -157,6 +157,51 @@ public class ObjectDecoderInputStream extends ObjectInputStream {
         return toReturn;
     }
 
+    private InputStream readCompressedFrame() throws IOException {
+        int compressedLength = (remaining & ~ObjectEncoderOutputStream.COMPRESSED_FRAME) - 4;
+        remaining = 0;
+        int length = dis.readInt();
+        if (compressedLength < 0 || length <= 0 || length > maxObjectSize) {
+            throw new StreamCorruptedException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20028, length, maxObjectSize));
+        }
+        byte[] compressed = new byte[compressedLength];
+        dis.readFully(compressed);
+        byte[] bytes = new byte[length];
+        BlockCodec.decompress(compressed, 0, compressedLength, bytes, 0, length);
+        return new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Back the reference with a temporary file
+     * @return the stream to write the file contents
+     */
+    static OutputStream createStream(StreamFactoryReference sfr) throws IOException {
+        final File f = File.createTempFile("teiid", null); //$NON-NLS-1$
+        sfr.setStreamFactory(new InputStreamFactory() {
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return new BufferedInputStream(new FileInputStream(f));
+            }
+
+            @Override
+            protected void finalize() throws Throwable {
+                super.finalize();
+                f.delete();
+            }
+
+        });
+        return new FileOutputStream(f);
+    }
+
+    /**
+     * Expect stream chunks that may be compressed.  Should only be set after
+     * compression has been agreed to with the other end.
+     */
+    public void setCompressedChunks(boolean compressedChunks) {
+        this.compressedChunks = compressedChunks;
+    }
+
     void clearRemaining() throws IOException {
         while (remaining > 0) {
             long skipped = in.skip(remaining);
@@ -38,8 +38,17 @@ import org.teiid.core.util.MultiArrayOutputStream;
  */
 public class ObjectEncoderOutputStream extends ObjectOutputStream {
 
+    /**
+     * Set on the length of a frame or chunk compressed with the {@link BlockCodec}
+     */
+    public static final int COMPRESSED_FRAME = 0x80000000;
+    public static final int COMPRESSED_CHUNK = 0x8000;
+    public static final int MAX_COMPRESSED_CHUNK_SIZE = COMPRESSED_CHUNK - 1;
+
     private final DataOutputStream out;
     private MultiArrayOutputStream baos;
+    private int compressionThreshold = -1;
+    private byte[] compressed;
 
     public ObjectEncoderOutputStream(DataOutputStream out, int initialBufferSize) throws SecurityException, IOException {
         super();
@@ -58,19 +67,28 @@ public class ObjectEncoderOutputStream extends ObjectOutputStream {
 
         int val = baos.getCount()-4;
         byte[] b = baos.getBuffers()[0];
-        b[3] = (byte) (val >>> 0);
-        b[2] = (byte) (val >>> 8);
-        b[1] = (byte) (val >>> 16);
-        b[0] = (byte) (val >>> 24);
-        baos.writeTo(out);
+        if (compressionThreshold >= 0 && val >= compressionThreshold) {
+            writeCompressedFrame(val);
+        } else {
+            b[3] = (byte) (val >>> 0);
+            b[2] = (byte) (val >>> 8);
+            b[1] = (byte) (val >>> 16);
+            b[0] = (byte) (val >>> 24);
+            baos.writeTo(out);
+        }
 
         if (!oout.getStreams().isEmpty()) {
             baos.reset(0);
             byte[] chunk = new byte[(1 << 16)];
+            int maxChunk = compressionThreshold >= 0 ? MAX_COMPRESSED_CHUNK_SIZE : chunk.length - 2;
             for (InputStream is : oout.getStreams()) {
                 while (true) {
-                    int bytes = is.read(chunk, 2, chunk.length - 2);
+                    int bytes = is.read(chunk, 2, maxChunk);
                     int toWrite = Math.max(0, bytes);
+                    if (compressionThreshold >= 0 && toWrite >= compressionThreshold
+                            && writeCompressedChunk(chunk, toWrite)) {
+                        continue;
+                    }
                     chunk[1] = (byte) (toWrite >>> 0);
                     chunk[0] = (byte) (toWrite >>> 8);
                     if (baos.getIndex() + toWrite + 2 > b.length) {
@@ -94,6 +112,66 @@ public class ObjectEncoderOutputStream extends ObjectOutputStream {
         }
     }
 
+    private void writeCompressedFrame(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int pos = 0;
+        int skip = 4;
+        byte[][] buffers = baos.getBuffers();
+        for (int i = 0; pos < length; i++) {
+            int toCopy = Math.min(buffers[i].length - skip, length - pos);
+            System.arraycopy(buffers[i], skip, bytes, pos, toCopy);
+            pos += toCopy;
+            skip = 0;
+        }
+        byte[] result = getCompressionBuffer(length);
+        int compressedLength = BlockCodec.compress(bytes, 0, length, result, 0);
+        if (compressedLength + 4 >= length) {
+            out.writeInt(length);
+            out.write(bytes);
+            return;
+        }
+        out.writeInt(COMPRESSED_FRAME | (compressedLength + 4));
+        out.writeInt(length);
+        out.write(result, 0, compressedLength);
+    }
+
+    /**
+     * Write the chunk compressed if that is smaller than the original.  Any buffered
+     * chunks are written first.
+     */
+    private boolean writeCompressedChunk(byte[] chunk, int length) throws IOException {
+        byte[] result = getCompressionBuffer(length);
+        int compressedLength = BlockCodec.compress(chunk, 2, length, result, 0);
+        if (compressedLength + 2 >= length) {
+            return false;
+        }
+        if (baos.getIndex() > 0) {
+            baos.writeTo(out);
+            baos.reset(0);
+        }
+        out.writeShort(COMPRESSED_CHUNK | compressedLength);
+        out.writeShort(length);
+        out.write(result, 0, compressedLength);
+        return true;
+    }
+
+    private byte[] getCompressionBuffer(int length) {
+        int size = BlockCodec.maxCompressedLength(length);
+        if (compressed == null || compressed.length < size) {
+            compressed = new byte[size];
+        }
+        return compressed;
+    }
+
+    /**
+     * Enable compression of frames and stream chunks at least as large as the threshold.
+     * Should only be set after the other end has agreed to compression.
+     * @param compressionThreshold -1 to disable
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
     @Override
     public void close() throws IOException {
         out.close();
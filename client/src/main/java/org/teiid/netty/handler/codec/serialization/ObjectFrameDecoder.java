@@ -0,0 +1,191 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.teiid.netty.handler.codec.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.teiid.core.types.InputStreamFactory.StreamFactoryReference;
+import org.teiid.core.util.ExternalizeUtil;
+import org.teiid.jdbc.JDBCPlugin;
+
+/**
+ * A non-blocking decoder of the frames written by {@link ObjectEncoderOutputStream}.
+ * <br>
+ * Bytes are supplied as they are received and an object is returned only after it and
+ * all of its streams have been read, so that a partial read never needs to be resumed.
+ */
+public class ObjectFrameDecoder {
+
+    private static final Object MORE_REQUIRED = new Object();
+
+    private final ClassLoader classLoader;
+    private final int maxObjectSize;
+    private volatile boolean compressedChunks;
+
+    private Object result;
+    private List<StreamFactoryReference> streams;
+    private int streamIndex;
+    private OutputStream stream;
+    private int required = 4;
+
+    public ObjectFrameDecoder(ClassLoader classLoader, int maxObjectSize) {
+        this.classLoader = classLoader;
+        this.maxObjectSize = maxObjectSize;
+    }
+
+    /**
+     * Decode the next object from a heap buffer in read mode.  The buffer position is advanced
+     * past the bytes consumed.
+     * @return the object or null if more bytes are required
+     */
+    public Object decode(ByteBuffer buffer) throws IOException, ClassNotFoundException {
+        while (true) {
+            Object obj = decodeObject(buffer);
+            if (obj == MORE_REQUIRED) {
+                return null;
+            }
+            //a null object is only written to initialize the connection
+            if (obj != null) {
+                return obj;
+            }
+        }
+    }
+
+    private Object decodeObject(ByteBuffer buffer) throws IOException, ClassNotFoundException {
+        if (streams == null) {
+            if (buffer.remaining() < 4) {
+                required = 4;
+                return MORE_REQUIRED;
+            }
+            int length = buffer.getInt(buffer.position());
+            int frameLength = length & ~ObjectEncoderOutputStream.COMPRESSED_FRAME;
+            if (frameLength == 0) {
+                throw new StreamCorruptedException("invalid data length: " + length); //$NON-NLS-1$
+            }
+            if (frameLength > maxObjectSize) {
+                throw new StreamCorruptedException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20028, frameLength, maxObjectSize));
+            }
+            if (buffer.remaining() < 4 + frameLength) {
+                required = 4 + frameLength;
+                return MORE_REQUIRED;
+            }
+            buffer.position(buffer.position() + 4);
+            int start = buffer.arrayOffset() + buffer.position();
+            InputStream objectStream = null;
+            if ((length & ObjectEncoderOutputStream.COMPRESSED_FRAME) != 0) {
+                if (frameLength < 4) {
+                    throw new StreamCorruptedException("invalid data length: " + length); //$NON-NLS-1$
+                }
+                int uncompressedLength = buffer.getInt(buffer.position());
+                if (uncompressedLength <= 0 || uncompressedLength > maxObjectSize) {
+                    throw new StreamCorruptedException(JDBCPlugin.Util.gs(JDBCPlugin.Event.TEIID20028, uncompressedLength, maxObjectSize));
+                }
+                byte[] bytes = new byte[uncompressedLength];
+                BlockCodec.decompress(buffer.array(), start + 4, frameLength - 4, bytes, 0, uncompressedLength);
+                objectStream = new ByteArrayInputStream(bytes);
+            } else {
+                objectStream = new ByteArrayInputStream(buffer.array(), start, frameLength);
+            }
+            buffer.position(buffer.position() + frameLength);
+            CompactObjectInputStream cois = new CompactObjectInputStream(objectStream, classLoader);
+            Object obj = cois.readObject();
+            streams = ExternalizeUtil.readList(cois, StreamFactoryReference.class);
+            streamIndex = 0;
+            result = obj;
+        }
+        while (streamIndex < streams.size()) {
+            if (buffer.remaining() < 2) {
+                required = 2;
+                return MORE_REQUIRED;
+            }
+            int length = 0xffff & buffer.getShort(buffer.position());
+            if (stream == null) {
+                stream = ObjectDecoderInputStream.createStream(streams.get(streamIndex));
+            }
+            if (compressedChunks && (length & ObjectEncoderOutputStream.COMPRESSED_CHUNK) != 0) {
+                int compressedLength = length & ObjectEncoderOutputStream.MAX_COMPRESSED_CHUNK_SIZE;
+                if (buffer.remaining() < 4 + compressedLength) {
+                    required = 4 + compressedLength;
+                    return MORE_REQUIRED;
+                }
+                int uncompressedLength = 0xffff & buffer.getShort(buffer.position() + 2);
+                byte[] bytes = new byte[uncompressedLength];
+                BlockCodec.decompress(buffer.array(), buffer.arrayOffset() + buffer.position() + 4, compressedLength, bytes, 0, uncompressedLength);
+                buffer.position(buffer.position() + 4 + compressedLength);
+                stream.write(bytes);
+                continue;
+            }
+            if (buffer.remaining() < 2 + length) {
+                required = 2 + length;
+                return MORE_REQUIRED;
+            }
+            buffer.position(buffer.position() + 2);
+            if (length > 0) {
+                stream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                continue;
+            }
+            stream.close();
+            stream = null;
+            streamIndex++;
+        }
+        Object toReturn = result;
+        result = null;
+        streams = null;
+        required = 4;
+        return toReturn;
+    }
+
+    /**
+     * @return the number of bytes that must be available for decoding to progress
+     */
+    public int getRequired() {
+        return required;
+    }
+
+    /**
+     * Expect stream chunks that may be compressed.  Should only be set after
+     * compression has been agreed to with the other end.
+     */
+    public void setCompressedChunks(boolean compressedChunks) {
+        this.compressedChunks = compressedChunks;
+    }
+
+    /**
+     * Release any partially read stream
+     */
+    public void close() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                //ignore
+            }
+            stream = null;
+        }
+        result = null;
+        streams = null;
+    }
+
+}
@@ -50,6 +50,10 @@ import org.teiid.query.unittest.TimestampUtil;
 public class TestBatchSerializer {
 
     private static List<List<Object>> helpTestSerialization(String[] types, List<?>[] batch, byte version) throws IOException, ClassNotFoundException {
+        return helpTestSerialization(types, batch, version, false);
+    }
+
+    private static List<List<Object>> helpTestSerialization(String[] types, List<?>[] batch, byte version, boolean columnar) throws IOException, ClassNotFoundException {
         ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
         ObjectOutputStream out = new ObjectOutputStream(byteStream);
         List<List<?>> batchList = Arrays.asList(batch);
@@ -61,7 +65,7 @@ public class TestBatchSerializer {
 
         ByteArrayInputStream bytesIn = new ByteArrayInputStream(bytes);
         ObjectInputStream in = new ObjectInputStream(bytesIn);
-        List<List<Object>> newBatch = BatchSerializer.readBatch(in, types);
+        List<List<Object>> newBatch = BatchSerializer.readBatch(in, types, columnar);
         out.close();
         in.close();
 
@@ -204,4 +208,41 @@ public class TestBatchSerializer {
         assertTrue(val instanceof ClobType);
     }
 
+    @Test public void testColumnar() throws Exception {
+        helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(17), BatchSerializer.VERSION_COLUMNAR, true);
+        List<List<Object>> result = helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(833), BatchSerializer.VERSION_COLUMNAR, true);
+        assertTrue(result instanceof ColumnarBatch);
+        ColumnarBatch batch = (ColumnarBatch)result;
+        assertEquals(int.class, batch.getPrimitiveType(8));
+        assertEquals(long.class, batch.getPrimitiveType(9));
+        assertNull(batch.getPrimitiveType(11));
+        assertEquals(17, batch.getInt(17, 8));
+        assertEquals(17, batch.getLong(17, 8));
+        assertTrue(batch.isNull(8, 8));
+        assertFalse(batch.isNull(9, 8));
+
+        //prior versions are still row based
+        result = helpTestSerialization(sampleBatchTypes, sampleBatchWithNulls(17), BatchSerializer.VERSION_GEOGRAPHY, true);
+        assertFalse(result instanceof ColumnarBatch);
+
+        //the default used for buffer storage is row based
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(byteStream);
+        BatchSerializer.writeBatch(out, sampleBatchTypes, Arrays.asList(sampleBatchWithNulls(17)));
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(byteStream.toByteArray()));
+        assertFalse(BatchSerializer.readBatch(in, sampleBatchTypes, true) instanceof ColumnarBatch);
+    }
+
+    @Test public void testDictionaryStrings() throws Exception {
+        List<?>[] batch = new List[1000];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = Arrays.asList(i%7==0?null:"value " + (i%300), i%2==0?"a":"b");
+        }
+        String[] types = new String[] {DataTypeManager.DefaultDataTypes.STRING, DataTypeManager.DefaultDataTypes.STRING};
+        List<List<Object>> result = helpTestSerialization(types, batch, BatchSerializer.VERSION_COLUMNAR, true);
+        assertSame(result.get(1).get(1), result.get(3).get(1));
+        helpTestSerialization(types, batch, BatchSerializer.VERSION_COLUMNAR, false);
+    }
+
 }
@@ -21,6 +21,10 @@ package org.teiid.jdbc;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.charset.Charset;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -30,11 +34,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Properties;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.Test;
 import org.mockito.MockSettings;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.teiid.client.BatchSerializer;
+import org.teiid.client.ColumnarBatch;
 import org.teiid.client.DQP;
 import org.teiid.client.ResultsMessage;
 import org.teiid.client.lob.LobChunk;
@@ -703,6 +713,95 @@ public class TestResultSet {
         cs.close();
     }
 
+    @Test public void testForwardOnlyPrefetchDepth() throws Exception {
+        Properties p = new Properties();
+        p.setProperty(ResultSetImpl.PREFETCH_DEPTH, "3");
+        ResultSetImpl cs = helpExecutePrefetch(p);
+        assertEquals(3, cs.getPrefetchCount());
+        int i = 0;
+        while (cs.next()) {
+            i++;
+            assertEquals(i, cs.getInt(1));
+            if (i <= 600) {
+                assertEquals(3, cs.getPrefetchCount());
+            }
+        }
+        assertEquals(1000, i);
+        assertEquals(0, cs.getPrefetchCount());
+        cs.close();
+    }
+
+    @Test public void testForwardOnlyPrefetchMaxMemory() throws Exception {
+        Properties p = new Properties();
+        p.setProperty(ResultSetImpl.PREFETCH_DEPTH, "3");
+        p.setProperty(ResultSetImpl.PREFETCH_MAX_MEMORY, "1");
+        ResultSetImpl cs = helpExecutePrefetch(p);
+        int i = 0;
+        while (cs.next()) {
+            i++;
+            assertEquals(i, cs.getInt(1));
+            if (i > 400) {
+                //limited by the estimated row size after the first batch
+                assertEquals(1, cs.getPrefetchDepth());
+                assertTrue(cs.getPrefetchCount() <= 1);
+            }
+        }
+        assertEquals(1000, i);
+        cs.close();
+    }
+
+    @Test public void testSubmitNextDuringPrefetchSubmission() throws Exception {
+        StatementImpl statement = createMockStatement(ResultSet.TYPE_FORWARD_ONLY);
+        stub(statement.useCallingThread()).toReturn(true);
+        stub(statement.getFetchSize()).toReturn(100);
+        final CountDownLatch submitting = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ResultsFuture<ResultsMessage> pending = new ResultsFuture<ResultsMessage>();
+        stub(statement.getDQP().processCursorRequest(TestAllResultsImpl.REQUEST_ID, 101, 100)).toAnswer(new Answer<ResultsFuture<ResultsMessage>>() {
+            @Override
+            public ResultsFuture<ResultsMessage> answer(InvocationOnMock invocation) throws Throwable {
+                submitting.countDown();
+                release.await();
+                return pending;
+            }
+        });
+        ResultsMessage msg = TestAllResultsImpl.exampleResultsMsg4(1, 100, false);
+        final ResultSetImpl cs = new ResultSetImpl(msg, statement, null, 0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cs.next());
+        }
+        Thread t = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    cs.enablePrefetch();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        t.start();
+        submitting.await();
+        //should chain on the prefetch being submitted rather than waiting
+        ResultsFuture<Boolean> next = cs.submitNext();
+        assertFalse(next.isDone());
+        release.countDown();
+        t.join();
+        assertFalse(next.isDone());
+        pending.getResultsReceiver().receiveResults(TestAllResultsImpl.exampleResultsMsg4(101, 100, true));
+        assertTrue(next.get());
+        assertEquals(101, cs.getInt(1));
+        Mockito.verify(statement.getDQP(), Mockito.times(1)).processCursorRequest(TestAllResultsImpl.REQUEST_ID, 101, 100);
+    }
+
+    private ResultSetImpl helpExecutePrefetch(Properties p) throws SQLException, TeiidProcessingException {
+        StatementImpl statement = createMockStatement(ResultSet.TYPE_FORWARD_ONLY);
+        ConnectionImpl c = mock(ConnectionImpl.class);
+        stub(statement.getConnection()).toReturn(c);
+        stub(c.getConnectionProps()).toReturn(p);
+        return TestAllResultsImpl.helpTestBatching(statement, 100, 100, 1000);
+    }
+
     @Test public void testOutputParameter() throws Exception {
         StatementImpl statement = createMockStatement(ResultSet.TYPE_FORWARD_ONLY);
         ResultsMessage resultsMsg = new ResultsMessage();
@@ -744,6 +843,43 @@ public class TestResultSet {
         assertEquals("<a/>", cs.getString(1));
     }
 
+    @Test public void testColumnarGetters() throws Exception {
+        StatementImpl statement = createMockStatement(ResultSet.TYPE_FORWARD_ONLY);
+        ResultsMessage resultsMsg = new ResultsMessage();
+        resultsMsg.setResults(new List<?>[] {Arrays.asList(1, 2L, 1.5, "a"), Arrays.asList(null, null, null, null)});
+        resultsMsg.setLastRow(2);
+        resultsMsg.setFirstRow(1);
+        resultsMsg.setFinalRow(2);
+        resultsMsg.setColumnNames(new String[] {"x", "y", "z", "s"});
+        resultsMsg.setDataTypes(new String[] {"integer", "long", "double", "string"});
+        resultsMsg.setClientSerializationVersion(BatchSerializer.VERSION_COLUMNAR);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(baos);
+        resultsMsg.writeExternal(oos);
+        oos.close();
+        ResultsMessage read = new ResultsMessage();
+        read.readExternal(new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())));
+        assertTrue(read.getResultsList() instanceof ColumnarBatch);
+
+        ResultSetImpl cs = new ResultSetImpl(read, statement);
+        assertTrue(cs.next());
+        assertEquals(1, cs.getInt(1));
+        assertFalse(cs.wasNull());
+        assertEquals(1L, cs.getLong(1));
+        assertEquals(2L, cs.getLong(2));
+        assertEquals(1.5, cs.getDouble(3), 0);
+        assertEquals("2", cs.getString(2));
+        assertEquals("a", cs.getString(4));
+        assertTrue(cs.next());
+        assertEquals(0, cs.getInt(1));
+        assertTrue(cs.wasNull());
+        assertEquals(0, cs.getDouble(3), 0);
+        assertTrue(cs.wasNull());
+        assertNull(cs.getObject(2));
+        assertFalse(cs.next());
+    }
+
     /////////////////////// Helper Method ///////////////////
 
     private ResultSetImpl helpExecuteQuery() {
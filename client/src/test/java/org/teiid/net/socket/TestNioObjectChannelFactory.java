@@ -0,0 +1,103 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.net.socket;
+
+import static org.junit.Assert.*;
+
+import java.io.DataOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Properties;
+
+import org.junit.Test;
+import org.teiid.net.HostInfo;
+import org.teiid.netty.handler.codec.serialization.ObjectEncoderOutputStream;
+
+@SuppressWarnings("nls")
+public class TestNioObjectChannelFactory {
+
+    public static class FailingObject implements Externalizable {
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException,
+                ClassNotFoundException {
+            throw new IllegalStateException("bad message");
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+        }
+
+    }
+
+    @Test public void testReadFailureClosesOnlyThatChannel() throws Exception {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        try {
+            Properties p = new Properties();
+            p.setProperty("org.teiid.sockets.soTimeout", "10000");
+            NioObjectChannelFactory factory = new NioObjectChannelFactory(p);
+            HostInfo info = new HostInfo(server.getInetAddress().getHostAddress(), server.getLocalPort());
+
+            ObjectChannel bad = factory.createObjectChannel(info);
+            Socket badSocket = server.accept();
+            ObjectChannel good = factory.createObjectChannel(info);
+            Socket goodSocket = server.accept();
+
+            ObjectEncoderOutputStream out = new ObjectEncoderOutputStream(new DataOutputStream(badSocket.getOutputStream()), 512);
+            out.writeObject(new FailingObject());
+            out.flush();
+            try {
+                bad.read();
+                fail();
+            } catch (IOException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            assertFalse(bad.isOpen());
+
+            //the selector thread must still service the other socket
+            out = new ObjectEncoderOutputStream(new DataOutputStream(goodSocket.getOutputStream()), 512);
+            out.writeObject("hello");
+            out.flush();
+            assertEquals("hello", good.read());
+            assertTrue(good.isOpen());
+
+            //and new sockets
+            ObjectChannel another = factory.createObjectChannel(info);
+            Socket anotherSocket = server.accept();
+            out = new ObjectEncoderOutputStream(new DataOutputStream(anotherSocket.getOutputStream()), 512);
+            out.writeObject("world");
+            out.flush();
+            assertEquals("world", another.read());
+
+            good.close();
+            another.close();
+            badSocket.close();
+            goodSocket.close();
+            anotherSocket.close();
+        } finally {
+            server.close();
+        }
+    }
+
+}
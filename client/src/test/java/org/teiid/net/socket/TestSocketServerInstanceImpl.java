@@ -108,6 +108,16 @@ public class TestSocketServerInstanceImpl {
             return null;
         }
 
+        @Override
+        public int getCompressionThreshold() {
+            return -1;
+        }
+
+        @Override
+        public void setCompressionThreshold(int threshold) {
+
+        }
+
     }
 
     @Test public void testHandshakeTimeout() throws Exception {
@@ -25,9 +25,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StreamCorruptedException;
 import java.io.StringReader;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -87,4 +90,90 @@ public class TestObjectDecoderInputStream {
         Object result = in.readObject();
         assertTrue(result instanceof ClobImpl);
     }
+
+    @Test public void testCompression() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectEncoderOutputStream out = new ObjectEncoderOutputStream(new DataOutputStream(baos), 512);
+        out.setCompressionThreshold(0);
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append("row ").append(i % 100).append(' ');
+        }
+        final String value = sb.toString();
+        ClobImpl clob = new ClobImpl(new InputStreamFactory() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return new ReaderInputStream(new StringReader(value),  Charset.forName(Streamable.ENCODING));
+            }
+
+        }, -1);
+
+        List<Object> obj = Arrays.asList(value, clob);
+        out.writeObject(obj);
+        assertTrue(baos.size() < value.length());
+
+        ObjectDecoderInputStream in = new ObjectDecoderInputStream(new AccessibleBufferedInputStream(new ByteArrayInputStream(baos.toByteArray()), 1024), Thread.currentThread().getContextClassLoader(), 1 << 20);
+        in.setCompressedChunks(true);
+        List<?> result = (List<?>)in.readObject();
+        assertEquals(value, result.get(0));
+        assertEquals(value, ((ClobImpl)result.get(1)).getSubString(1, value.length()));
+    }
+
+    @Test public void testFrameDecoder() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ObjectEncoderOutputStream out = new ObjectEncoderOutputStream(new DataOutputStream(baos), 512);
+        out.setCompressionThreshold(0);
+        final String value = new String(new char[5000]).replace('\0', 'a');
+        ClobImpl clob = new ClobImpl(new InputStreamFactory() {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return new ReaderInputStream(new StringReader(value),  Charset.forName(Streamable.ENCODING));
+            }
+
+        }, -1);
+        out.writeObject(Arrays.asList(1, clob));
+        out.writeObject("next");
+        out.close();
+
+        ObjectFrameDecoder decoder = new ObjectFrameDecoder(Thread.currentThread().getContextClassLoader(), 1 << 20);
+        decoder.setCompressedChunks(true);
+        byte[] bytes = baos.toByteArray();
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+        List<Object> results = new ArrayList<Object>();
+        //feed the bytes a few at a time as a non-blocking read would
+        for (int i = 0; i < bytes.length; i += 7) {
+            buffer.put(bytes, i, Math.min(7, bytes.length - i));
+            buffer.flip();
+            Object result = null;
+            while ((result = decoder.decode(buffer)) != null) {
+                results.add(result);
+            }
+            buffer.compact();
+        }
+        assertEquals(2, results.size());
+        List<?> list = (List<?>)results.get(0);
+        assertEquals(1, list.get(0));
+        assertEquals(value, ((ClobImpl)list.get(1)).getSubString(1, value.length()));
+        assertEquals("next", results.get(1));
+    }
+
+    @Test public void testBlockCodec() throws Exception {
+        byte[] bytes = new byte[1 << 16];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte)(i % 251 < 100 ? i : i % 7);
+        }
+        byte[] compressed = new byte[BlockCodec.maxCompressedLength(bytes.length)];
+        int length = BlockCodec.compress(bytes, 0, bytes.length, compressed, 0);
+        assertTrue(length < bytes.length);
+        byte[] result = new byte[bytes.length];
+        BlockCodec.decompress(compressed, 0, length, result, 0, result.length);
+        assertArrayEquals(bytes, result);
+        try {
+            BlockCodec.decompress(compressed, 0, length - 1, result, 0, result.length);
+            fail();
+        } catch (StreamCorruptedException e) {
+
+        }
+    }
 }
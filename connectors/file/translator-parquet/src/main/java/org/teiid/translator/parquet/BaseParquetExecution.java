@@ -25,11 +25,18 @@ import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hadoop.conf.Configuration;
@@ -37,8 +44,6 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IOUtils;
 import org.apache.parquet.ParquetReadOptions;
 import org.apache.parquet.column.page.PageReadStore;
-import org.apache.parquet.example.data.Group;
-import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
 import org.apache.parquet.filter2.compat.FilterCompat;
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
@@ -78,6 +83,8 @@ import org.teiid.language.Condition;
 import org.teiid.language.IsNull;
 import org.teiid.language.LanguageObject;
 import org.teiid.language.Literal;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
 import org.teiid.metadata.RuntimeMetadata;
 import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.Execution;
@@ -87,6 +94,10 @@ import org.teiid.translator.TranslatorException;
 
 public class BaseParquetExecution implements Execution {
 
+    private static final int BATCH_SIZE = 256;
+    private static final int READ_AHEAD_BATCHES = 4;
+    private static final Object END_OF_FILE = new Object();
+
     /**
      * Provides a simple visitation to evaluate the path filter
      */
@@ -158,16 +169,18 @@ public class BaseParquetExecution implements Execution {
     /**
      * Implements predicates against the file path
      */
-    private class FilePathPredicate extends UserDefinedPredicate implements Serializable {
+    private static class FilePathPredicate extends UserDefinedPredicate implements Serializable {
 
         private String columnName;
         private Comparison.Operator operator;
         private Comparable referenceValue;
+        private Map<String, Comparable<?>> partitionedColumnsValue;
 
-        public FilePathPredicate(String columnName, Operator operator, Comparable referenceValue) {
+        public FilePathPredicate(String columnName, Operator operator, Comparable referenceValue, Map<String, Comparable<?>> partitionedColumnsValue) {
             this.columnName = columnName;
             this.operator = operator;
             this.referenceValue = referenceValue;
+            this.partitionedColumnsValue = partitionedColumnsValue;
         }
 
         @Override
@@ -220,19 +233,15 @@ public class BaseParquetExecution implements Execution {
     protected RuntimeMetadata metadata;
     protected VirtualFileConnection connection;
     protected boolean immutable;
+    private Executor executor;
+    private int parallelism = 1;
 
     // Execution state
     protected ParquetQueryVisitor visitor = new ParquetQueryVisitor();
     private VirtualFile[] parquetFiles;
     private AtomicInteger fileCount = new AtomicInteger();
-    private ParquetFileReader reader;
-    private MessageType filteredSchema;
-    private RecordReader<Group> rowIterator;
-    private MessageColumnIO columnIO;
-    private long pageRowCount;
-    protected HashMap<String, Comparable<?>> partitionedColumnsValue = new HashMap<>();
-    private FilterCompat.Filter rowGroupFilter;
-    private FilterPredicate filePathFilter;
+    private ArrayDeque<ParquetFileRows> readers = new ArrayDeque<ParquetFileRows>();
+    private ParquetFileRows currentReader;
 
     public BaseParquetExecution(ExecutionContext executionContext,
                                 RuntimeMetadata metadata, VirtualFileConnection connection, boolean immutable) {
@@ -242,6 +251,15 @@ public class BaseParquetExecution implements Execution {
         this.immutable = immutable;
     }
 
+    /**
+     * Allow up to the given number of files to be read in parallel
+     * using the executor.
+     */
+    public void setParallelism(Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     public void visit(LanguageObject command) throws TranslatorException {
         this.visitor.visitNode(command);
     }
@@ -252,17 +270,9 @@ public class BaseParquetExecution implements Execution {
         if(!this.visitor.getPartitionedColumns().isEmpty()) {
             path = getDirectoryPath(path, this.visitor.getPartitionedComparisons());
         }
-        FilterPredicate predicate = getRowGroupFilter(this.visitor.getNonPartionedConditions());
-        if (predicate == null) {
-            this.rowGroupFilter = FilterCompat.NOOP;
-        } else {
-            this.rowGroupFilter = FilterCompat.get(predicate);
-        }
-        filePathFilter = getRowGroupFilter(this.visitor.getPartitionedConditions());
         this.parquetFiles = VirtualFileConnection.Util.getFiles(path, this.connection, true, false);
-        VirtualFile nextParquetFile = getNextParquetFile();
-        if (nextParquetFile != null) {
-            readParquetFile(nextParquetFile);
+        if (this.visitor.getAggregates().isEmpty()) {
+            this.currentReader = nextReader();
         }
     }
 
@@ -286,15 +296,15 @@ public class BaseParquetExecution implements Execution {
         return path.toString();
     }
 
-    private FilterPredicate getRowGroupFilter(Condition condition) throws TranslatorException {
+    private FilterPredicate getRowGroupFilter(Condition condition, Map<String, Comparable<?>> partitionedColumnsValue) throws TranslatorException {
         FilterPredicate filterPredicate = null;
         if (condition instanceof AndOr) {
             AndOr andOr = (AndOr)condition;
-            filterPredicate = getRowGroupFilter(andOr.getLeftCondition());
+            filterPredicate = getRowGroupFilter(andOr.getLeftCondition(), partitionedColumnsValue);
             if (andOr.getOperator() == org.teiid.language.AndOr.Operator.AND) {
-                filterPredicate = FilterApi.and(filterPredicate, getRowGroupFilter(andOr.getRightCondition()));
+                filterPredicate = FilterApi.and(filterPredicate, getRowGroupFilter(andOr.getRightCondition(), partitionedColumnsValue));
             } else {
-                filterPredicate = FilterApi.or(filterPredicate, getRowGroupFilter(andOr.getRightCondition()));
+                filterPredicate = FilterApi.or(filterPredicate, getRowGroupFilter(andOr.getRightCondition(), partitionedColumnsValue));
             }
             return filterPredicate;
         }
@@ -316,7 +326,7 @@ public class BaseParquetExecution implements Execution {
             if (this.visitor.getPartitionedColumns().containsKey(columnName)) {
                 Column<?> referenceCol = this.visitor.getReferenceColumn();
                 try {
-                    return toUserDefinedPredicate(referenceCol, new FilePathPredicate(columnName, comparison.getOperator(), value));
+                    return toUserDefinedPredicate(referenceCol, new FilePathPredicate(columnName, comparison.getOperator(), value, partitionedColumnsValue));
                 } catch (NoSuchMethodException | IllegalAccessException
                         | InvocationTargetException e) {
                     throw new TranslatorException(e);
@@ -386,13 +396,13 @@ public class BaseParquetExecution implements Execution {
         return column;
     }
 
-    private FilterPredicate getRowGroupFilter(List<Condition> columnPredicates) throws TranslatorException {
+    private FilterPredicate getRowGroupFilter(List<Condition> columnPredicates, Map<String, Comparable<?>> partitionedColumnsValue) throws TranslatorException {
         if(columnPredicates.size() == 0){
             return null;
         }
         FilterPredicate combinedFilterPredicate = null, filterPredicate;
         for (Condition cond : columnPredicates) {
-            filterPredicate = getRowGroupFilter(cond);
+            filterPredicate = getRowGroupFilter(cond, partitionedColumnsValue);
             if (combinedFilterPredicate == null) {
                 combinedFilterPredicate = filterPredicate;
             } else {
@@ -429,21 +439,8 @@ public class BaseParquetExecution implements Execution {
         }
     }
 
-    private void readParquetFile(VirtualFile parquetFile) throws TranslatorException {
-        try (InputStream parquetFileStream = parquetFile.openInputStream(!immutable)) {
-            File localFile = createTempFile(parquetFileStream);
-            Path path = new Path(localFile.toURI());
-            Configuration config = new Configuration();
-            reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, config), ParquetReadOptions.builder().withRecordFilter(rowGroupFilter).build());
-            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
-            filteredSchema = getFilteredSchema(schema, this.visitor.getAllColumns());
-            columnIO = new ColumnIOFactory().getColumnIO(filteredSchema);
-        } catch (IOException e) {
-            throw new TranslatorException(e);
-        }
-    }
-
-    private void parsePartitionedColumnsValues(VirtualFile parquetFile) throws TranslatorException {
+    private Map<String, Comparable<?>> parsePartitionedColumnsValues(VirtualFile parquetFile) throws TranslatorException {
+        Map<String, Comparable<?>> partitionedColumnsValue = new HashMap<>();
         String path = parquetFile.getPath().substring(this.visitor.getParquetPath().length());
         String[] columns = path.split("/");
         for(int i = 0; i < columns.length; i++){
@@ -464,6 +461,7 @@ public class BaseParquetExecution implements Execution {
             }
             partitionedColumnsValue.put(name, value);
         }
+        return partitionedColumnsValue;
     }
 
     private MessageType getFilteredSchema(MessageType schema, LinkedHashSet<String> expectedColumnNames) {
@@ -486,50 +484,80 @@ public class BaseParquetExecution implements Execution {
         return tempFile;
     }
 
-    public Group nextRow() throws TranslatorException, DataNotAvailableException {
-        try {
-            while (columnIO != null) {
-                if (this.rowIterator == null || pageRowCount-- <= 0) {
-                    this.rowIterator = null;
-                    PageReadStore nextRowGroup = this.reader.readNextRowGroup();
-                    if(nextRowGroup == null){
-                        VirtualFile nextParquetFile = getNextParquetFile();
-                        if (nextParquetFile == null) {
-                            columnIO = null;
-                            return null; //terminal condition
-                        }
-                        readParquetFile(nextParquetFile);
-                        continue; //try again on the next file
-                    }
-                    this.pageRowCount = nextRowGroup.getRowCount();
-                    this.rowIterator = columnIO.getRecordReader(nextRowGroup, new GroupRecordConverter(filteredSchema), rowGroupFilter);
+    /**
+     * Get the next projected row across all of the matching files
+     */
+    public List<?> nextRow() throws TranslatorException, DataNotAvailableException {
+        while (this.currentReader != null) {
+            List<?> row = this.currentReader.nextRow();
+            if (row != null) {
+                return row;
+            }
+            this.currentReader.close();
+            this.currentReader = nextReader();
+        }
+        return null;
+    }
+
+    /**
+     * Compute the pushed aggregates over all of the matching files.
+     * <br>
+     * Files are answered from the row group statistics when there are no row
+     * filters, otherwise the projected columns are scanned.
+     */
+    public List<?> aggregateRows() throws TranslatorException {
+        ParquetAggregates aggregates = new ParquetAggregates(this.visitor.getAggregates(), this.visitor.getProjectedColumnNames());
+        boolean filtered = !this.visitor.getNonPartionedConditions().isEmpty();
+        ParquetFileRows rows = null;
+        while ((rows = getNextParquetFile()) != null) {
+            try {
+                if (!filtered && rows.addStatistics(aggregates)) {
                     continue;
                 }
-                Group presentRow = rowIterator.read();
-                if(presentRow == null){
-                    continue;
+                List<?> row = null;
+                while ((row = rows.nextRow()) != null) {
+                    aggregates.addRow(row);
                 }
-                return presentRow;
+            } finally {
+                rows.close();
             }
+        }
+        return aggregates.getResults();
+    }
 
-            return null;
-        } catch (IOException e) {
-            throw new TranslatorException(e);
+    /**
+     * Get the reader for the next file, starting reads of the following
+     * files up to the parallelism.
+     */
+    private ParquetFileRows nextReader() throws TranslatorException {
+        while (this.readers.size() < this.parallelism) {
+            ParquetFileRows reader = getNextParquetFile();
+            if (reader == null) {
+                break;
+            }
+            if (this.executor != null && this.parallelism > 1) {
+                reader.start(this.executor);
+            }
+            this.readers.add(reader);
         }
+        return this.readers.poll();
     }
 
-    protected VirtualFile getNextParquetFile() throws TranslatorException {
+    protected ParquetFileRows getNextParquetFile() throws TranslatorException {
         while (this.parquetFiles.length > this.fileCount.get()) {
             VirtualFile f = this.parquetFiles[this.fileCount.getAndIncrement()];
             if (f.getName().endsWith(".parquet")) {
+                Map<String, Comparable<?>> partitionedColumnsValue = Collections.emptyMap();
                 if(!this.visitor.getPartitionedColumns().isEmpty()) {
-                    parsePartitionedColumnsValues(f);
+                    partitionedColumnsValue = parsePartitionedColumnsValues(f);
+                    FilterPredicate filePathFilter = getRowGroupFilter(this.visitor.getPartitionedConditions(), partitionedColumnsValue);
                     if (filePathFilter != null && !filePathFilter.accept(FILE_PATH_VISITOR)) {
                         //use the next file as the path does not match
                         continue;
                     }
                 }
-                return f;
+                FilterPredicate predicate = getRowGroupFilter(this.visitor.getNonPartionedConditions(), partitionedColumnsValue);
+                return new ParquetFileRows(f, partitionedColumnsValue, predicate == null ? FilterCompat.NOOP : FilterCompat.get(predicate));
             }
         }
         return null;
@@ -537,11 +565,266 @@ public class BaseParquetExecution implements Execution {
 
     @Override
     public void close() {
-
+        if (this.currentReader != null) {
+            this.currentReader.close();
+            this.currentReader = null;
+        }
+        for (ParquetFileRows reader : this.readers) {
+            reader.close();
+        }
+        this.readers.clear();
     }
 
     @Override
     public void cancel() throws TranslatorException {
 
     }
+
+    /**
+     * Reads the rows from a single file, either on demand or
+     * from a background task that reads ahead in batches.
+     */
+    class ParquetFileRows implements Runnable {
+        private VirtualFile parquetFile;
+        private Map<String, Comparable<?>> partitionedColumnsValue;
+        private FilterCompat.Filter rowGroupFilter;
+
+        private File localFile;
+        private ParquetFileReader reader;
+        private MessageColumnIO columnIO;
+        private ParquetRowMaterializer materializer;
+        private RecordReader<List<Object>> rowIterator;
+        private long pageRowCount;
+
+        //read ahead state
+        private Executor executor;
+        private Queue<Object> batches;
+        private Iterator<List<Object>> batch;
+        private volatile boolean closed;
+        private boolean scheduled;
+        private boolean running;
+        private boolean finished;
+
+        ParquetFileRows(VirtualFile parquetFile, Map<String, Comparable<?>> partitionedColumnsValue, FilterCompat.Filter rowGroupFilter) {
+            this.parquetFile = parquetFile;
+            this.partitionedColumnsValue = partitionedColumnsValue;
+            this.rowGroupFilter = rowGroupFilter;
+        }
+
+        /**
+         * Add the row group statistics to the aggregates
+         * @return true if the aggregates could be answered from the statistics
+         */
+        boolean addStatistics(ParquetAggregates aggregates) throws TranslatorException {
+            try {
+                open();
+            } catch (IOException e) {
+                throw new TranslatorException(e);
+            }
+            return aggregates.addStatistics(reader.getRowGroups(), reader.getFooter().getFileMetaData().getSchema(), partitionedColumnsValue);
+        }
+
+        /**
+         * Read the file in the background.  The file is copied locally by the calling
+         * thread first, as the connection is not expected to be thread safe.
+         * <br>
+         * The read ahead task never blocks the pool thread - once {@link #READ_AHEAD_BATCHES}
+         * are waiting it gives up the thread and is resubmitted as the batches are consumed.
+         */
+        void start(Executor executor) throws TranslatorException {
+            try {
+                copy();
+            } catch (IOException e) {
+                throw new TranslatorException(e);
+            }
+            this.executor = executor;
+            this.batches = new ConcurrentLinkedQueue<Object>();
+            schedule();
+        }
+
+        /**
+         * Submit the read ahead task if it is not already pending or running
+         */
+        private synchronized void schedule() throws TranslatorException {
+            if (scheduled || finished || closed) {
+                return;
+            }
+            scheduled = true;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                scheduled = false;
+                throw new TranslatorException(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (closed) {
+                    scheduled = false;
+                    notifyAll();
+                    return;
+                }
+                running = true;
+            }
+            Object end = END_OF_FILE;
+            try {
+                List<List<Object>> rows = new ArrayList<List<Object>>(BATCH_SIZE);
+                List<Object> row = null;
+                while (!closed && (row = read()) != null) {
+                    rows.add(row);
+                    if (rows.size() == BATCH_SIZE) {
+                        batches.add(rows);
+                        executionContext.dataAvailable();
+                        rows = new ArrayList<List<Object>>(BATCH_SIZE);
+                        synchronized (this) {
+                            if (batches.size() >= READ_AHEAD_BATCHES) {
+                                //yield the thread until the batches are consumed
+                                running = false;
+                                scheduled = false;
+                                notifyAll();
+                                return;
+                            }
+                        }
+                    }
+                }
+                if (!rows.isEmpty()) {
+                    batches.add(rows);
+                }
+            } catch (Throwable e) {
+                end = e;
+            }
+            closeReader();
+            batches.add(end);
+            synchronized (this) {
+                finished = true;
+                running = false;
+                scheduled = false;
+                notifyAll();
+            }
+            executionContext.dataAvailable();
+        }
+
+        /**
+         * Get the next row.  When reading ahead the calling thread does not wait,
+         * rather a {@link DataNotAvailableException} is thrown and the engine is
+         * notified when the next batch is available.
+         */
+        @SuppressWarnings("unchecked")
+        List<?> nextRow() throws TranslatorException, DataNotAvailableException {
+            if (batches == null) {
+                return read();
+            }
+            while (batch == null || !batch.hasNext()) {
+                Object next = batches.peek();
+                if (next == null) {
+                    schedule();
+                    throw DataNotAvailableException.NO_POLLING;
+                }
+                if (next == END_OF_FILE) {
+                    return null;
+                }
+                if (next instanceof Throwable) {
+                    batches.poll();
+                    batches.add(END_OF_FILE);
+                    if (next instanceof TranslatorException) {
+                        throw (TranslatorException)next;
+                    }
+                    throw new TranslatorException((Throwable)next);
+                }
+                batches.poll();
+                schedule();
+                batch = ((List<List<Object>>)next).iterator();
+            }
+            return batch.next();
+        }
+
+        private List<Object> read() throws TranslatorException {
+            try {
+                if (materializer == null) {
+                    open();
+                }
+                while (columnIO != null) {
+                    if (this.rowIterator == null || pageRowCount-- <= 0) {
+                        this.rowIterator = null;
+                        PageReadStore nextRowGroup = this.reader.readNextRowGroup();
+                        if (nextRowGroup == null) {
+                            columnIO = null;
+                            closeReader();
+                            return null; //terminal condition
+                        }
+                        this.pageRowCount = nextRowGroup.getRowCount();
+                        this.rowIterator = columnIO.getRecordReader(nextRowGroup, materializer, rowGroupFilter);
+                        continue;
+                    }
+                    List<Object> presentRow = rowIterator.read();
+                    if (presentRow == null) {
+                        continue;
+                    }
+                    return presentRow;
+                }
+                return null;
+            } catch (IOException e) {
+                throw new TranslatorException(e);
+            }
+        }
+
+        private void copy() throws IOException, TranslatorException {
+            if (localFile == null) {
+                try (InputStream parquetFileStream = parquetFile.openInputStream(!immutable)) {
+                    localFile = createTempFile(parquetFileStream);
+                }
+            }
+        }
+
+        private void open() throws IOException, TranslatorException {
+            copy();
+            Path path = new Path(localFile.toURI());
+            Configuration config = new Configuration();
+            reader = ParquetFileReader.open(HadoopInputFile.fromPath(path, config), ParquetReadOptions.builder().withRecordFilter(rowGroupFilter).build());
+            MessageType schema = reader.getFooter().getFileMetaData().getSchema();
+            MessageType filteredSchema = getFilteredSchema(schema, visitor.getAllColumns());
+            columnIO = new ColumnIOFactory().getColumnIO(filteredSchema);
+            materializer = new ParquetRowMaterializer(filteredSchema, visitor.getProjectedColumnNames(), partitionedColumnsValue);
+        }
+
+        private synchronized void closeReader() {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    LogManager.logDetail(LogConstants.CTX_CONNECTOR, e, "Could not close the parquet reader"); //$NON-NLS-1$
+                }
+                reader = null;
+            }
+            if (localFile != null) {
+                localFile.delete();
+                localFile = null;
+            }
+        }
+
+        /**
+         * Close the file, stopping and waiting for any background read
+         */
+        void close() {
+            closed = true;
+            if (batches != null) {
+                boolean interrupted = false;
+                synchronized (this) {
+                    while (running) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            closeReader();
+        }
+    }
 }
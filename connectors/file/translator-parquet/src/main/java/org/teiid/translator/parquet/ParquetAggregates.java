@@ -0,0 +1,204 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.translator.parquet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Type.Repetition;
+import org.teiid.core.types.BinaryType;
+import org.teiid.language.AggregateFunction;
+import org.teiid.language.ColumnReference;
+
+/**
+ * Computes the pushed COUNT, MIN, and MAX aggregates either from the row group
+ * statistics in the file footers or from the scanned rows.
+ */
+class ParquetAggregates {
+
+    private static class Aggregate {
+        private String name;
+        private String columnName;
+        private int index = -1;
+        private Class<?> type;
+
+        private long count;
+        private Comparable<Object> value;
+
+        @SuppressWarnings("unchecked")
+        void addValue(Object val) {
+            if (val == null) {
+                return;
+            }
+            count++;
+            if (name.equals(AggregateFunction.COUNT)) {
+                return;
+            }
+            if (val instanceof byte[]) {
+                val = new BinaryType((byte[])val);
+            }
+            Comparable<Object> comparable = (Comparable<Object>)val;
+            if (value == null) {
+                value = comparable;
+                return;
+            }
+            int result = comparable.compareTo(value);
+            if ((name.equals(AggregateFunction.MIN) && result < 0)
+                    || (name.equals(AggregateFunction.MAX) && result > 0)) {
+                value = comparable;
+            }
+        }
+
+        Object getResult() {
+            if (name.equals(AggregateFunction.COUNT)) {
+                if (type == Long.class) {
+                    return count;
+                }
+                return (int)count;
+            }
+            return value;
+        }
+    }
+
+    private List<Aggregate> aggregates = new ArrayList<Aggregate>();
+
+    ParquetAggregates(List<AggregateFunction> aggregateFunctions, List<String> projectedColumnNames) {
+        for (AggregateFunction function : aggregateFunctions) {
+            Aggregate aggregate = new Aggregate();
+            aggregate.name = function.getName().toUpperCase();
+            aggregate.type = function.getType();
+            if (function.getExpression() != null) {
+                aggregate.columnName = ((ColumnReference)function.getExpression()).getMetadataObject().getSourceName();
+                aggregate.index = projectedColumnNames.indexOf(aggregate.columnName);
+            }
+            aggregates.add(aggregate);
+        }
+    }
+
+    /**
+     * Add a scanned row, which contains the projected columns
+     */
+    void addRow(List<?> row) {
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.index < 0) {
+                aggregate.count++;
+            } else {
+                aggregate.addValue(row.get(aggregate.index));
+            }
+        }
+    }
+
+    /**
+     * Add the row groups of a file using only the statistics.
+     * @return false, without modifying the aggregate state, if the statistics are not sufficient
+     * to answer all of the aggregates - the rows must be scanned instead
+     */
+    boolean addStatistics(List<BlockMetaData> rowGroups, MessageType schema, Map<String, Comparable<?>> partitionedColumnsValue) {
+        for (Aggregate aggregate : aggregates) {
+            if (aggregate.columnName == null || partitionedColumnsValue.containsKey(aggregate.columnName)) {
+                continue;
+            }
+            if (!schema.containsField(aggregate.columnName)) {
+                return false;
+            }
+            Type type = schema.getType(aggregate.columnName);
+            if (!type.isPrimitive() || type.isRepetition(Repetition.REPEATED)
+                    || type.asPrimitiveType().getPrimitiveTypeName() == PrimitiveTypeName.INT96) {
+                return false;
+            }
+            for (BlockMetaData rowGroup : rowGroups) {
+                Statistics<?> statistics = getStatistics(rowGroup, aggregate.columnName);
+                if (statistics == null || statistics.isEmpty() || !statistics.isNumNullsSet()) {
+                    return false;
+                }
+            }
+        }
+        for (BlockMetaData rowGroup : rowGroups) {
+            for (Aggregate aggregate : aggregates) {
+                if (aggregate.columnName == null) {
+                    aggregate.count += rowGroup.getRowCount();
+                    continue;
+                }
+                Object partitionValue = partitionedColumnsValue.get(aggregate.columnName);
+                if (partitionValue != null) {
+                    if (rowGroup.getRowCount() > 0) {
+                        aggregate.addValue(partitionValue);
+                        aggregate.count += rowGroup.getRowCount() - 1;
+                    }
+                    continue;
+                }
+                Statistics<?> statistics = getStatistics(rowGroup, aggregate.columnName);
+                if (!statistics.hasNonNullValue()) {
+                    continue;
+                }
+                ColumnChunkMetaData column = getColumn(rowGroup, aggregate.columnName);
+                long nonNullCount = column.getValueCount() - statistics.getNumNulls();
+                if (aggregate.name.equals(AggregateFunction.COUNT)) {
+                    aggregate.count += nonNullCount;
+                    continue;
+                }
+                boolean string = schema.getType(aggregate.columnName).getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+                Object value = aggregate.name.equals(AggregateFunction.MIN)?statistics.genericGetMin():statistics.genericGetMax();
+                if (value instanceof Binary) {
+                    Binary binary = (Binary)value;
+                    value = string?binary.toStringUsingUTF8():binary.getBytes();
+                }
+                aggregate.addValue(value);
+            }
+        }
+        return true;
+    }
+
+    private static ColumnChunkMetaData getColumn(BlockMetaData rowGroup, String columnName) {
+        ColumnPath path = ColumnPath.get(columnName);
+        for (ColumnChunkMetaData column : rowGroup.getColumns()) {
+            if (column.getPath().equals(path)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    private static Statistics<?> getStatistics(BlockMetaData rowGroup, String columnName) {
+        ColumnChunkMetaData column = getColumn(rowGroup, columnName);
+        if (column == null) {
+            return null;
+        }
+        return column.getStatistics();
+    }
+
+    List<Object> getResults() {
+        List<Object> result = new ArrayList<Object>(aggregates.size());
+        for (Aggregate aggregate : aggregates) {
+            result.add(aggregate.getResult());
+        }
+        return result;
+    }
+
+}
@@ -18,6 +18,9 @@
 
 package org.teiid.translator.parquet;
 
+import java.util.concurrent.ExecutorService;
+
+import org.teiid.core.util.ExecutorUtils;
 import org.teiid.file.VirtualFileConnection;
 import org.teiid.language.QueryExpression;
 import org.teiid.language.Select;
@@ -29,22 +32,46 @@ import org.teiid.translator.MetadataProcessor;
 import org.teiid.translator.ResultSetExecution;
 import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
+import org.teiid.translator.TranslatorProperty;
 
 @Translator(name="parquet", description="Parquet file translator")
 public class ParquetExecutionFactory extends ExecutionFactory<ConnectionFactory, VirtualFileConnection> {
 
+    private int parallelReads = 1;
+    private ExecutorService executor;
+
     public ParquetExecutionFactory() {
         setSourceRequiredForMetadata(true);
         setTransactionSupport(TransactionSupport.NONE);
     }
 
+    @Override
+    public void start() throws TranslatorException {
+        super.start();
+        if (this.parallelReads > 1) {
+            this.executor = ExecutorUtils.newFixedThreadPool(this.parallelReads, "ParquetReader"); //$NON-NLS-1$
+        }
+    }
+
     @Override
     public ResultSetExecution createResultSetExecution(QueryExpression command, ExecutionContext executionContext, RuntimeMetadata metadata, VirtualFileConnection connection)
             throws TranslatorException {
         ParquetExecution ex = new ParquetExecution((Select)command, executionContext, metadata, connection, this.isImmutable());
+        if (this.executor != null) {
+            ex.setParallelism(this.executor, this.parallelReads);
+        }
         return ex;
     }
 
+    @TranslatorProperty(display="Parallel Reads", description="The maximum number of files that a single query will read in parallel.", advanced=true)
+    public int getParallelReads() {
+        return parallelReads;
+    }
+
+    public void setParallelReads(int parallelReads) {
+        this.parallelReads = parallelReads;
+    }
+
 
     @Override
     public MetadataProcessor<VirtualFileConnection> getMetadataProcessor(){
@@ -80,4 +107,29 @@ public class ParquetExecutionFactory extends ExecutionFactory<ConnectionFactory,
     public boolean supportsIsNullCriteria() {
         return true;
     }
+
+    @Override
+    public boolean supportsAggregatesCount() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsAggregatesCountStar() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsAggregatesMin() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsAggregatesMax() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsRowLimit() {
+        return true;
+    }
 }
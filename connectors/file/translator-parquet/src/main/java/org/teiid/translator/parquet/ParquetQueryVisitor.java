@@ -28,11 +28,13 @@ import java.util.Map;
 
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.teiid.core.TeiidRuntimeException;
+import org.teiid.language.AggregateFunction;
 import org.teiid.language.ColumnReference;
 import org.teiid.language.Comparison;
 import org.teiid.language.Comparison.Operator;
 import org.teiid.language.Condition;
 import org.teiid.language.DerivedColumn;
+import org.teiid.language.Expression;
 import org.teiid.language.LanguageUtil;
 import org.teiid.language.NamedTable;
 import org.teiid.language.Select;
@@ -46,6 +48,9 @@ import org.teiid.translator.TypeFacility;
 public class ParquetQueryVisitor extends HierarchyVisitor {
 
     private List<String> projectedColumnNames = new ArrayList<String>();
+    //pushed aggregates, the projected columns are then the aggregate arguments
+    private List<AggregateFunction> aggregates = new ArrayList<AggregateFunction>();
+    private int limit = -1;
     private LinkedHashSet<String> allColumns = new LinkedHashSet<>();
     private LinkedHashMap<String, Column> partitionedColumns = new LinkedHashMap<>();
 
@@ -66,6 +71,17 @@ public class ParquetQueryVisitor extends HierarchyVisitor {
         return projectedColumnNames;
     }
 
+    public List<AggregateFunction> getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * @return the pushed row limit or -1 if there is no limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
     public LinkedHashSet<String> getAllColumns() {
         return allColumns;
     }
@@ -120,11 +136,27 @@ public class ParquetQueryVisitor extends HierarchyVisitor {
     @Override
     public void visit(Select obj) {
         for (DerivedColumn column : obj.getDerivedColumns()) {
+            if (column.getExpression() instanceof AggregateFunction) {
+                AggregateFunction aggregate = (AggregateFunction) column.getExpression();
+                this.aggregates.add(aggregate);
+                Expression arg = aggregate.getExpression();
+                if (arg != null) {
+                    String name = ((ColumnReference) arg).getMetadataObject().getSourceName();
+                    if (!this.projectedColumnNames.contains(name)) {
+                        this.projectedColumnNames.add(name);
+                    }
+                }
+                continue;
+            }
             this.projectedColumnNames
                     .add(((ColumnReference) column.getExpression())
                             .getMetadataObject().getSourceName());
         }
 
+        if (obj.getLimit() != null) {
+            this.limit = obj.getLimit().getRowLimit();
+        }
+
         allColumns.addAll(this.projectedColumnNames);
 
         //visit the from to initialize the partitioned columns
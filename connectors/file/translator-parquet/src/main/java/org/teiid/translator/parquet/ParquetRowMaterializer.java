@@ -0,0 +1,294 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.translator.parquet;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Type.Repetition;
+import org.teiid.core.types.ArrayImpl;
+import org.teiid.translator.TranslatorException;
+
+/**
+ * Materializes the projected row directly from the column values.
+ * <br>
+ * This avoids building an intermediate Group per record and then converting
+ * it - only the columns in the requested schema are decoded and the
+ * values are placed directly into the row.
+ */
+class ParquetRowMaterializer extends RecordMaterializer<List<Object>> {
+
+    /**
+     * Receives a single value from a column
+     */
+    private abstract static class ValueConverter extends PrimitiveConverter {
+
+        private boolean string;
+        private boolean int96;
+
+        ValueConverter(PrimitiveType type) {
+            this.string = type.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+            this.int96 = type.getPrimitiveTypeName() == PrimitiveTypeName.INT96;
+        }
+
+        abstract void setValue(Object value);
+
+        @Override
+        public void addBinary(Binary value) {
+            if (string) {
+                setValue(value.toStringUsingUTF8());
+            } else if (int96) {
+                setValue(new BigInteger(value.getBytes()));
+            } else {
+                setValue(value.getBytes());
+            }
+        }
+
+        @Override
+        public void addBoolean(boolean value) {
+            setValue(value);
+        }
+
+        @Override
+        public void addDouble(double value) {
+            setValue(value);
+        }
+
+        @Override
+        public void addFloat(float value) {
+            setValue(value);
+        }
+
+        @Override
+        public void addInt(int value) {
+            setValue(value);
+        }
+
+        @Override
+        public void addLong(long value) {
+            setValue(value);
+        }
+    }
+
+    /**
+     * Collects the elements of a repeated field, or the repeated
+     * group of a LIST, into an array value
+     */
+    private class ArrayConverter extends GroupConverter {
+
+        private int index;
+        private List<Object> values = new ArrayList<Object>();
+        private Converter elementConverter;
+        private Object element;
+
+        ArrayConverter(int index, Type elementType) throws TranslatorException {
+            this.index = index;
+            if (elementType.isPrimitive()) {
+                //legacy two level list
+                this.elementConverter = new ValueConverter(elementType.asPrimitiveType()) {
+                    @Override
+                    void setValue(Object value) {
+                        values.add(value);
+                    }
+                };
+                return;
+            }
+            //three level list, the repeated group contains a single element
+            final GroupType elementGroup = elementType.asGroupType();
+            if (elementGroup.getFieldCount() != 1 || !elementGroup.getType(0).isPrimitive()) {
+                throw new TranslatorException("We don't support any logical types in a list."); //$NON-NLS-1$
+            }
+            final ValueConverter valueConverter = new ValueConverter(elementGroup.getType(0).asPrimitiveType()) {
+                @Override
+                void setValue(Object value) {
+                    element = value;
+                }
+            };
+            this.elementConverter = new GroupConverter() {
+
+                @Override
+                public void start() {
+                    element = null;
+                }
+
+                @Override
+                public void end() {
+                    values.add(element);
+                }
+
+                @Override
+                public Converter getConverter(int fieldIndex) {
+                    return valueConverter;
+                }
+            };
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return elementConverter;
+        }
+
+        @Override
+        public void start() {
+            values.clear();
+        }
+
+        @Override
+        public void end() {
+            currentValues[index] = new ArrayImpl(values.toArray());
+        }
+    }
+
+    private Object[] currentValues;
+    private List<Object> currentRecord;
+    private GroupConverter root;
+    private Converter[] converters;
+    /**
+     * The index of each projected column in the file schema, or -1 for partition columns
+     */
+    private int[] projection;
+    private Object[] partitionValues;
+    /**
+     * Repeated fields that are not wrapped by a LIST group.  Since
+     * the field itself is not started/ended, the array is built per record
+     */
+    private List<ArrayConverter> repeated = new ArrayList<ArrayConverter>();
+
+    ParquetRowMaterializer(MessageType schema, List<String> projectedColumnNames,
+            Map<String, Comparable<?>> partitionedColumnsValue) throws TranslatorException {
+        this.projection = new int[projectedColumnNames.size()];
+        this.partitionValues = new Object[projection.length];
+        for (int i = 0; i < projection.length; i++) {
+            String name = projectedColumnNames.get(i);
+            if (schema.containsField(name)) {
+                projection[i] = schema.getFieldIndex(name);
+            } else {
+                projection[i] = -1;
+                partitionValues[i] = partitionedColumnsValue.get(name);
+            }
+        }
+        this.converters = new Converter[schema.getFieldCount()];
+        for (int i = 0; i < converters.length; i++) {
+            converters[i] = createConverter(i, schema.getType(i));
+        }
+        this.root = new GroupConverter() {
+
+            @Override
+            public void start() {
+                currentValues = new Object[converters.length];
+                for (ArrayConverter converter : repeated) {
+                    converter.start();
+                }
+            }
+
+            @Override
+            public void end() {
+                for (ArrayConverter converter : repeated) {
+                    converter.end();
+                }
+                Object[] row = new Object[projection.length];
+                for (int i = 0; i < row.length; i++) {
+                    if (projection[i] < 0) {
+                        row[i] = partitionValues[i];
+                    } else {
+                        row[i] = currentValues[projection[i]];
+                    }
+                }
+                currentRecord = Arrays.asList(row);
+            }
+
+            @Override
+            public Converter getConverter(int fieldIndex) {
+                return converters[fieldIndex];
+            }
+        };
+    }
+
+    private Converter createConverter(final int index, Type fieldType) throws TranslatorException {
+        if (fieldType.isRepetition(Repetition.REPEATED)) {
+            ArrayConverter converter = new ArrayConverter(index, fieldType);
+            repeated.add(converter);
+            //each repetition of the field is an element
+            return converter.elementConverter;
+        }
+        if (fieldType.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.ListLogicalTypeAnnotation) {
+            GroupType listType = fieldType.asGroupType();
+            if (listType.getFieldCount() != 1) {
+                throw new TranslatorException("We don't support any logical types in a list."); //$NON-NLS-1$
+            }
+            final ArrayConverter elements = new ArrayConverter(index, listType.getType(0));
+            return new GroupConverter() {
+
+                @Override
+                public void start() {
+                    elements.start();
+                }
+
+                @Override
+                public void end() {
+                    elements.end();
+                }
+
+                @Override
+                public Converter getConverter(int fieldIndex) {
+                    return elements.elementConverter;
+                }
+            };
+        }
+        if (!fieldType.isPrimitive()) {
+            throw new TranslatorException("We don't support any logical type other than LIST as of now."); //$NON-NLS-1$
+        }
+        return new ValueConverter(fieldType.asPrimitiveType()) {
+            @Override
+            void setValue(Object value) {
+                currentValues[index] = value;
+            }
+        };
+    }
+
+    @Override
+    public List<Object> getCurrentRecord() {
+        return currentRecord;
+    }
+
+    @Override
+    public void skipCurrentRecord() {
+        currentRecord = null;
+    }
+
+    @Override
+    public GroupConverter getRootConverter() {
+        return root;
+    }
+
+}
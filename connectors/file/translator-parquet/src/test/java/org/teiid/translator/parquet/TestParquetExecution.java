@@ -2,10 +2,12 @@ package org.teiid.translator.parquet;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -13,13 +15,16 @@ import org.mockito.Mockito;
 import org.teiid.cdk.api.TranslationUtility;
 import org.teiid.core.util.UnitTestUtil;
 import org.teiid.file.JavaVirtualFileConnection;
+import org.teiid.file.VirtualFile;
 import org.teiid.file.VirtualFileConnection;
 import org.teiid.language.Command;
 import org.teiid.language.QueryExpression;
 import org.teiid.query.metadata.TransformationMetadata;
 import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.translator.DataNotAvailableException;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ResultSetExecution;
+import org.teiid.translator.TranslatorException;
 
 @SuppressWarnings("nls")
 public class TestParquetExecution {
@@ -27,7 +32,10 @@ public class TestParquetExecution {
     static ArrayList<?> helpExecute(String ddl, VirtualFileConnection connection, String query) throws Exception {
         ParquetExecutionFactory translator = new ParquetExecutionFactory();
         translator.start();
+        return helpExecute(translator, ddl, connection, query);
+    }
 
+    static ArrayList<?> helpExecute(ParquetExecutionFactory translator, String ddl, VirtualFileConnection connection, String query) throws Exception {
         TransformationMetadata metadata = RealMetadataFactory.fromDDL(ddl, "vdb", "parquet");
         TranslationUtility utility = new TranslationUtility(metadata);
 
@@ -40,7 +48,13 @@ public class TestParquetExecution {
 
             ArrayList<Object> results = new ArrayList<>();
             while (true) {
-                List<?> row = execution.next();
+                List<?> row = null;
+                try {
+                    row = execution.next();
+                } catch (DataNotAvailableException e) {
+                    Thread.sleep(10);
+                    continue;
+                }
                 if (row == null) {
                     break;
                 }
@@ -407,4 +421,83 @@ public class TestParquetExecution {
         Assert.assertEquals("[[1, Aditya], [2, Animesh]]", results.toString());
     }
 
+    @Test
+    public void testSerialAndParallelReads() throws Exception {
+        String ddl = "CREATE FOREIGN TABLE Table1 (\n" +
+                "   id long ,\n" +
+                "   \"month\" string ,\n" +
+                "   name string ,\n" +
+                "   \"year\" long ,\n" +
+                "   CONSTRAINT PK0 PRIMARY KEY(id)\n" +
+                ") OPTIONS (\"teiid_parquet:LOCATION\" 'dir', \"teiid_parquet:PARTITIONED_COLUMNS\" 'year,month');";
+
+        VirtualFileConnection connection = new JavaVirtualFileConnection(UnitTestUtil.getTestDataPath());
+
+        ParquetExecutionFactory translator = new ParquetExecutionFactory();
+        translator.setParallelReads(1);
+        translator.start();
+        ArrayList<?> results = helpExecute(translator, ddl, connection, "select \"month\", name, id from Table1 where id > 1");
+        Assert.assertEquals("[[January, Anne, 2], [March, Anne, 2]]", results.toString());
+
+        //the files should only be accessed by the calling thread
+        final Thread thread = Thread.currentThread();
+        final AtomicBoolean otherThread = new AtomicBoolean();
+        connection = new JavaVirtualFileConnection(UnitTestUtil.getTestDataPath()) {
+            @Override
+            public VirtualFile[] getFiles(String location) throws TranslatorException {
+                VirtualFile[] files = super.getFiles(location);
+                for (int i = 0; i < files.length; i++) {
+                    VirtualFile file = Mockito.spy(files[i]);
+                    try {
+                        Mockito.doAnswer(invocation -> {
+                            if (Thread.currentThread() != thread) {
+                                otherThread.set(true);
+                            }
+                            return invocation.callRealMethod();
+                        }).when(file).openInputStream(Mockito.anyBoolean());
+                    } catch (IOException e) {
+                        throw new TranslatorException(e);
+                    }
+                    files[i] = file;
+                }
+                return files;
+            }
+        };
+
+        translator = new ParquetExecutionFactory();
+        translator.setParallelReads(2);
+        translator.start();
+        results = helpExecute(translator, ddl, connection, "select \"month\", name, id from Table1 where id > 1");
+        Assert.assertEquals("[[January, Anne, 2], [March, Anne, 2]]", results.toString());
+        Assert.assertFalse(otherThread.get());
+    }
+
+    @Test
+    public void testAggregatesAndLimit() throws Exception {
+        String ddl = "CREATE FOREIGN TABLE Table1 (\n" +
+                "   id long ,\n" +
+                "   \"month\" string ,\n" +
+                "   name string ,\n" +
+                "   \"year\" long ,\n" +
+                "   CONSTRAINT PK0 PRIMARY KEY(id)\n" +
+                ") OPTIONS (\"teiid_parquet:LOCATION\" 'dir', \"teiid_parquet:PARTITIONED_COLUMNS\" 'year,month');";
+
+        VirtualFileConnection connection = new JavaVirtualFileConnection(UnitTestUtil.getTestDataPath());
+
+        ArrayList<?> results = helpExecute(ddl, connection, "select count(*), min(id), max(name) from Table1");
+        Assert.assertEquals("[[4, 1, Michael]]", results.toString());
+
+        results = helpExecute(ddl, connection, "select count(name), max(\"month\") from Table1 where \"year\" = 2019");
+        Assert.assertEquals("[[4, March]]", results.toString());
+
+        results = helpExecute(ddl, connection, "select count(*), max(id) from Table1 where name = 'Anne'");
+        Assert.assertEquals("[[2, 2]]", results.toString());
+
+        results = helpExecute(ddl, connection, "select count(*) from Table1 where \"year\" > 2019");
+        Assert.assertEquals("[[0]]", results.toString());
+
+        results = helpExecute(ddl, connection, "select name from Table1 limit 1");
+        Assert.assertEquals("[[Michael]]", results.toString());
+    }
+
 }
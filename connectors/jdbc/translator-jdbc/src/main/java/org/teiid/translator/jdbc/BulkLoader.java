@@ -0,0 +1,49 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.translator.jdbc;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+import org.teiid.language.Insert;
+import org.teiid.translator.TranslatorException;
+
+/**
+ * A source specific strategy for loading the rows of a bulk {@link Insert}.
+ * <br>
+ * Used by the {@link JDBCUpdateExecution} in place of prepared statement batches
+ * when {@link JDBCExecutionFactory#isUseBulkLoad()} is true and the
+ * {@link JDBCExecutionFactory#getBulkLoader(Insert, org.teiid.translator.ExecutionContext)}
+ * returns a non-null value.
+ */
+public interface BulkLoader {
+
+    /**
+     * Load all of the values into the target of the insert.
+     * @param execution the execution performing the load
+     * @param command the translated prepared form of the insert
+     * @param values the values for each row
+     * @return the update count for each row
+     * @throws SQLException
+     * @throws TranslatorException
+     */
+    int[] load(JDBCUpdateExecution execution, TranslatedCommand command, Iterator<? extends List<?>> values) throws SQLException, TranslatorException;
+
+}
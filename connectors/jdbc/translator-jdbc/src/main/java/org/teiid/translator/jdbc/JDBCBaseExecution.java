@@ -86,6 +86,18 @@ public abstract class JDBCBaseExecution implements Execution  {
      */
     protected void bind(PreparedStatement stmt, List<?> params, List<?> batchValues)
             throws SQLException {
+        bind(stmt, params, batchValues, 0);
+        if (batchValues != null) {
+            stmt.addBatch();
+        }
+    }
+
+    /**
+     * Bind the values in the TranslatedCommand to the PreparedStatement after the given
+     * number of already bound parameters.  Does not add a batch.
+     */
+    protected void bind(PreparedStatement stmt, List<?> params, List<?> batchValues, int offset)
+            throws SQLException {
         for (int i = 0; i< params.size(); i++) {
             Object paramValue = params.get(i);
             Object value = null;
@@ -106,10 +118,7 @@ public abstract class JDBCBaseExecution implements Execution  {
                 value = batchValues.get(param.getValueIndex());
                 paramType = param.getType();
             }
-            this.executionFactory.bindValue(stmt, value, paramType, i+1);
-        }
-        if (batchValues != null) {
-            stmt.addBatch();
+            this.executionFactory.bindValue(stmt, value, paramType, offset+i+1);
         }
     }
 
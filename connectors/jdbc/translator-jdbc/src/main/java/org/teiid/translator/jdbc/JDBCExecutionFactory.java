@@ -152,6 +152,7 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
     private boolean useCommentsInSourceQuery;
     private Version version;
     private int maxInsertBatchSize = 2048;
+    private boolean useBulkLoad;
     private DatabaseCalender databaseCalender;
     private boolean supportsGeneratedKeys;
     private StructRetrieval structRetrieval = StructRetrieval.OBJECT;
@@ -561,6 +562,29 @@ public class JDBCExecutionFactory extends ExecutionFactory<DataSource, Connectio
         this.maxInsertBatchSize = maxInsertBatchSize;
     }
 
+    @TranslatorProperty(display="Use Bulk Load", description="Use the source specific bulk load strategy, if one exists, for bulk inserts rather than prepared statement batches.  Default false.", advanced=true)
+    public boolean isUseBulkLoad() {
+        return useBulkLoad;
+    }
+
+    public void setUseBulkLoad(boolean useBulkLoad) {
+        this.useBulkLoad = useBulkLoad;
+    }
+
+    /**
+     * Get the {@link BulkLoader} to use for the bulk {@link Insert}, or null if
+     * prepared statement batches should be used.  Only called when {@link #isUseBulkLoad()}
+     * is true and the insert is not an upsert and does not return generated keys.
+     * <br>
+     * The default implementation returns null.
+     * @param insert
+     * @param context
+     * @return the loader or null
+     */
+    public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+        return null;
+    }
+
     /**
      * Gets the database calendar.  This will be set to the time zone
      * specified by the property {@link #setDatabaseTimeZone(String)}, or
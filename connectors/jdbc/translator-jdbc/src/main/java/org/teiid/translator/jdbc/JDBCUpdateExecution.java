@@ -218,15 +218,21 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
                 if (statement != null) {
                     statement.close();
                 }
+                BulkLoader bulkLoader = null;
+                if (keyColumnNames == null && command instanceof Insert && !((Insert)command).isUpsert()
+                        && ((Insert)command).getParameterValues() != null && executionFactory.isUseBulkLoad()) {
+                    bulkLoader = executionFactory.getBulkLoader((Insert)command, context);
+                }
                 if (keyColumnNames != null) {
                     if (executionFactory.useColumnNamesForGeneratedKeys()) {
                         pstatement = connection.prepareStatement(sql, keyColumnNames);
                     } else {
                         pstatement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
                     }
-                } else {
+                } else if (bulkLoader == null) {
                     pstatement = getPreparedStatement(sql);
                 }
+                //the bulk loader will create its own statements
                 statement = pstatement;
                 Iterator<? extends List<?>> vi = null;
                 if (command instanceof BulkCommand) {
@@ -242,8 +248,11 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
                         if (commitType) {
                             connection.setAutoCommit(false);
                         }
+                        if (bulkLoader != null) {
+                            result = bulkLoader.load(this, translatedComm, vi);
+                        }
                         int maxBatchSize = (command instanceof Insert)?maxPreparedInsertBatchSize:Integer.MAX_VALUE;
-                        boolean done = false;
+                        boolean done = bulkLoader != null;
                         outer: while (!done) {
                             for (int i = 0; i < maxBatchSize; i++) {
                                 if (vi.hasNext()) {
@@ -294,7 +303,9 @@ public class JDBCUpdateExecution extends JDBCBaseExecution implements UpdateExec
                     updateCount = pstatement.executeUpdate();
                     result = new int[] {updateCount};
                 }
-                addStatementWarnings();
+                if (statement != null) {
+                    addStatementWarnings();
+                }
                 succeeded = true;
             }
             if (keyColumnNames != null) {
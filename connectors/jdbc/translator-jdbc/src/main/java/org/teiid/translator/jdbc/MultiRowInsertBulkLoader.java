@@ -0,0 +1,119 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.translator.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.teiid.language.SQLConstants.Reserved;
+
+/**
+ * A {@link BulkLoader} that sends many rows with each statement using a multi-row
+ * values clause - INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ...
+ * <br>
+ * Rows are sent in statements of the max size, with a smaller statement for any remainder,
+ * so that at most two statements are prepared.
+ */
+public class MultiRowInsertBulkLoader implements BulkLoader {
+
+    private static final String VALUES = Reserved.VALUES + " ("; //$NON-NLS-1$
+
+    private int maxRows;
+    private int maxParameters;
+
+    /**
+     * @param maxRows the max rows to send in a single statement
+     * @param maxParameters the max number of bind parameters allowed in a single statement
+     */
+    public MultiRowInsertBulkLoader(int maxRows, int maxParameters) {
+        this.maxRows = maxRows;
+        this.maxParameters = maxParameters;
+    }
+
+    @Override
+    public int[] load(JDBCUpdateExecution execution, TranslatedCommand command,
+            Iterator<? extends List<?>> values) throws SQLException {
+        String sql = command.getSql();
+        List<?> params = command.getPreparedValues();
+        int index = sql.lastIndexOf(VALUES);
+        if (index < 0 || !sql.endsWith(")")) { //$NON-NLS-1$
+            throw new AssertionError("Expected a single values row " + sql); //$NON-NLS-1$
+        }
+        String prefix = sql.substring(0, index + Reserved.VALUES.length() + 1);
+        String row = sql.substring(index + Reserved.VALUES.length() + 1);
+        int rowsPerStatement = maxRows;
+        if (!params.isEmpty()) {
+            rowsPerStatement = Math.min(maxRows, maxParameters / params.size());
+        }
+        rowsPerStatement = Math.max(1, rowsPerStatement);
+
+        int[] result = new int[Math.min(rowsPerStatement, 1 << 10)];
+        int count = 0;
+        List<List<?>> rows = new ArrayList<List<?>>(rowsPerStatement);
+        PreparedStatement fullStatement = null;
+        while (values.hasNext()) {
+            rows.add(values.next());
+            if (rows.size() < rowsPerStatement && values.hasNext()) {
+                continue;
+            }
+            PreparedStatement pstmt = null;
+            if (rows.size() == rowsPerStatement) {
+                if (fullStatement == null) {
+                    fullStatement = execution.getPreparedStatement(getSql(prefix, row, rowsPerStatement));
+                }
+                pstmt = fullStatement;
+            } else {
+                pstmt = execution.getPreparedStatement(getSql(prefix, row, rows.size()));
+            }
+            int offset = 0;
+            for (List<?> rowValues : rows) {
+                execution.bind(pstmt, params, rowValues, offset);
+                offset += params.size();
+            }
+            int updateCount = pstmt.executeUpdate();
+            execution.addStatementWarnings();
+            if (count + rows.size() > result.length) {
+                result = Arrays.copyOf(result, Math.max(result.length * 2, count + rows.size()));
+            }
+            //the count is only attributable to each row if it matches
+            Arrays.fill(result, count, count + rows.size(), updateCount == rows.size() ? 1 : Statement.SUCCESS_NO_INFO);
+            count += rows.size();
+            rows.clear();
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    static String getSql(String prefix, String row, int rowCount) {
+        StringBuilder sb = new StringBuilder(prefix.length() + (row.length() + 2) * rowCount);
+        sb.append(prefix);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sb.append(", "); //$NON-NLS-1$
+            }
+            sb.append(row);
+        }
+        return sb.toString();
+    }
+
+}
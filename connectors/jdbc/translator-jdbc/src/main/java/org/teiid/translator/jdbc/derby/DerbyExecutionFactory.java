@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.teiid.language.DerivedColumn;
+import org.teiid.language.Insert;
 import org.teiid.language.LanguageObject;
 import org.teiid.language.Limit;
 import org.teiid.translator.ExecutionContext;
@@ -30,7 +31,9 @@ import org.teiid.translator.SourceSystemFunctions;
 import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TypeFacility;
+import org.teiid.translator.jdbc.BulkLoader;
 import org.teiid.translator.jdbc.EscapeSyntaxModifier;
+import org.teiid.translator.jdbc.MultiRowInsertBulkLoader;
 import org.teiid.translator.jdbc.db2.BaseDB2ExecutionFactory;
 import org.teiid.translator.jdbc.oracle.LeftOrRightFunctionModifier;
 import org.teiid.util.Version;
@@ -230,4 +233,12 @@ public class DerbyExecutionFactory extends BaseDB2ExecutionFactory {
         return super.translateLimit(limit, context);
     }
 
+    /**
+     * Use multi-row values with smaller statements as each is compiled to a class
+     */
+    @Override
+    public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+        return new MultiRowInsertBulkLoader(Math.min(256, getMaxPreparedInsertBatchSize()), 1024);
+    }
+
 }
@@ -28,6 +28,7 @@ import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.teiid.language.Insert;
 import org.teiid.language.LanguageObject;
 import org.teiid.language.Like;
 import org.teiid.language.Like.MatchMode;
@@ -38,11 +39,13 @@ import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.AliasModifier;
+import org.teiid.translator.jdbc.BulkLoader;
 import org.teiid.translator.jdbc.ConvertModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.jdbc.JDBCExecutionFactory;
 import org.teiid.translator.jdbc.JDBCMetadataProcessor;
 import org.teiid.translator.jdbc.ModFunctionModifier;
+import org.teiid.translator.jdbc.MultiRowInsertBulkLoader;
 import org.teiid.translator.jdbc.SQLConversionVisitor;
 import org.teiid.translator.jdbc.hsql.AddDiffModifier;
 import org.teiid.translator.jdbc.oracle.ConcatFunctionModifier;
@@ -317,4 +320,9 @@ public class H2ExecutionFactory extends JDBCExecutionFactory {
     public boolean supportsFunctionsInGroupBy() {
         return true;
     }
+
+    @Override
+    public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+        return new MultiRowInsertBulkLoader(getMaxPreparedInsertBatchSize(), Short.MAX_VALUE);
+    }
 }
@@ -48,11 +48,13 @@ import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.AliasModifier;
+import org.teiid.translator.jdbc.BulkLoader;
 import org.teiid.translator.jdbc.ConvertModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.jdbc.JDBCExecutionFactory;
 import org.teiid.translator.jdbc.JDBCMetadataProcessor;
 import org.teiid.translator.jdbc.LocateFunctionModifier;
+import org.teiid.translator.jdbc.MultiRowInsertBulkLoader;
 import org.teiid.util.Version;
 
 
@@ -778,4 +780,12 @@ public class MySQLExecutionFactory extends JDBCExecutionFactory {
         return result;
     }
 
+    /**
+     * Use multi-row values, which is limited by the protocol to 65535 bind parameters
+     */
+    @Override
+    public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+        return new MultiRowInsertBulkLoader(getMaxPreparedInsertBatchSize(), 65535);
+    }
+
 }
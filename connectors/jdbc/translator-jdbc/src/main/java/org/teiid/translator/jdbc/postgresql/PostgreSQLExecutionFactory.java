@@ -47,6 +47,7 @@ import org.teiid.language.AggregateFunction;
 import org.teiid.language.Array;
 import org.teiid.language.Expression;
 import org.teiid.language.Function;
+import org.teiid.language.Insert;
 import org.teiid.language.LanguageObject;
 import org.teiid.language.Like;
 import org.teiid.language.Like.MatchMode;
@@ -64,12 +65,14 @@ import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TranslatorProperty;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.AliasModifier;
+import org.teiid.translator.jdbc.BulkLoader;
 import org.teiid.translator.jdbc.ConvertModifier;
 import org.teiid.translator.jdbc.EscapeSyntaxModifier;
 import org.teiid.translator.jdbc.ExtractFunctionModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.jdbc.JDBCExecutionFactory;
 import org.teiid.translator.jdbc.ModFunctionModifier;
+import org.teiid.translator.jdbc.MultiRowInsertBulkLoader;
 import org.teiid.translator.jdbc.SQLConversionVisitor;
 import org.teiid.translator.jdbc.oracle.LeftOrRightFunctionModifier;
 import org.teiid.translator.jdbc.oracle.MonthOrDayNameFunctionModifier;
@@ -1085,4 +1088,12 @@ public class PostgreSQLExecutionFactory extends JDBCExecutionFactory {
         return true;
     }
 
+    /**
+     * Use multi-row values, which is limited by the protocol to 32767 bind parameters
+     */
+    @Override
+    public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+        return new MultiRowInsertBulkLoader(getMaxPreparedInsertBatchSize(), Short.MAX_VALUE);
+    }
+
 }
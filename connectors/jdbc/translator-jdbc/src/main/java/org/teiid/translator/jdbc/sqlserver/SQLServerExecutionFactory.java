@@ -68,10 +68,12 @@ import org.teiid.translator.Translator;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.TypeFacility;
 import org.teiid.translator.jdbc.AliasModifier;
+import org.teiid.translator.jdbc.BulkLoader;
 import org.teiid.translator.jdbc.ConvertModifier;
 import org.teiid.translator.jdbc.FunctionModifier;
 import org.teiid.translator.jdbc.JDBCExecutionFactory;
 import org.teiid.translator.jdbc.JDBCMetadataProcessor;
+import org.teiid.translator.jdbc.MultiRowInsertBulkLoader;
 import org.teiid.translator.jdbc.TemplateFunctionModifier;
 import org.teiid.translator.jdbc.sybase.SybaseExecutionFactory;
 import org.teiid.util.Version;
@@ -846,4 +848,15 @@ public class SQLServerExecutionFactory extends SybaseExecutionFactory {
         return getVersion().compareTo(TEN_0) >= 0;
     }
 
+    /**
+     * Use multi-row values, which is limited to 1000 rows and 2100 bind parameters
+     */
+    @Override
+    public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+        if (getVersion().compareTo(TEN_0) < 0) {
+            return null;
+        }
+        return new MultiRowInsertBulkLoader(Math.min(1000, getMaxPreparedInsertBatchSize()), 2100);
+    }
+
 }
@@ -22,6 +22,7 @@ import static org.junit.Assert.*;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
@@ -43,6 +44,7 @@ import org.teiid.language.ExpressionValueSource;
 import org.teiid.language.Insert;
 import org.teiid.language.Literal;
 import org.teiid.language.Parameter;
+import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.TranslatorBatchException;
 
 @SuppressWarnings("nls")
@@ -72,6 +74,76 @@ public class TestJDBCUpdateExecution {
         Mockito.verify(p, Mockito.times(2)).addBatch();
     }
 
+    @Test public void testInsertIteratorBulkLoad() throws Exception {
+        Insert command = helpCreateParameterizedInsert(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5, 6)));
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement p = Mockito.mock(PreparedStatement.class);
+        Mockito.stub(p.executeUpdate()).toReturn(2);
+        Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?), (?, ?)")).toReturn(p); //$NON-NLS-1$
+        PreparedStatement p1 = Mockito.mock(PreparedStatement.class);
+        Mockito.stub(p1.executeUpdate()).toReturn(1);
+        Mockito.stub(connection.prepareStatement("INSERT INTO SmallA (IntKey, IntNum) VALUES (?, ?)")).toReturn(p1); //$NON-NLS-1$
+
+        JDBCUpdateExecution updateExecution = new JDBCUpdateExecution(command, connection, new FakeExecutionContextImpl(), getMultiRowBulkLoadFactory());
+        updateExecution.execute();
+        assertArrayEquals(new int[] {1, 1, 1}, updateExecution.getUpdateCounts());
+        Mockito.verify(p, Mockito.never()).addBatch();
+        Mockito.verify(p, Mockito.times(1)).setObject(3, 3, Types.INTEGER);
+        Mockito.verify(p, Mockito.times(1)).setObject(4, 4, Types.INTEGER);
+        Mockito.verify(p1, Mockito.times(1)).setObject(1, 5, Types.INTEGER);
+        Mockito.verify(p1, Mockito.times(1)).executeUpdate();
+    }
+
+    @Test public void testInsertIteratorBulkLoadH2() throws Exception {
+        List<List<Integer>> rows = new ArrayList<List<Integer>>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(Arrays.asList(i, i * 10));
+        }
+        Insert command = helpCreateParameterizedInsert(rows);
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:"); //$NON-NLS-1$
+        try {
+            Statement s = connection.createStatement();
+            s.execute("create table SmallA (IntKey integer, IntNum integer)"); //$NON-NLS-1$
+
+            JDBCUpdateExecution updateExecution = new JDBCUpdateExecution(command, connection, new FakeExecutionContextImpl(), getMultiRowBulkLoadFactory());
+            updateExecution.execute();
+            assertArrayEquals(new int[] {1, 1, 1, 1, 1}, updateExecution.getUpdateCounts());
+
+            ResultSet rs = s.executeQuery("select IntKey, IntNum from SmallA order by IntKey"); //$NON-NLS-1$
+            List<List<Integer>> results = new ArrayList<List<Integer>>();
+            while (rs.next()) {
+                results.add(Arrays.asList(rs.getInt(1), rs.getInt(2)));
+            }
+            assertEquals(rows, results);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private Insert helpCreateParameterizedInsert(List<? extends List<?>> rows) throws Exception {
+        Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into BQT1.SmallA (IntKey, IntNum) values (1, 2)"); //$NON-NLS-1$
+        List<Expression> values = ((ExpressionValueSource)command.getValueSource()).getValues();
+        for (int i = 0; i < 2; i++) {
+            Parameter param = new Parameter();
+            param.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+            param.setValueIndex(i);
+            values.set(i, param);
+        }
+        command.setParameterValues(rows.iterator());
+        return command;
+    }
+
+    private JDBCExecutionFactory getMultiRowBulkLoadFactory() {
+        JDBCExecutionFactory config = new JDBCExecutionFactory() {
+            @Override
+            public BulkLoader getBulkLoader(Insert insert, ExecutionContext context) {
+                return new MultiRowInsertBulkLoader(2, 100);
+            }
+        };
+        config.setUseBulkLoad(true);
+        return config;
+    }
+
    @Test public void testPreparedInsertWithGeometry() throws Exception {
         Insert command = (Insert)TranslationHelper.helpTranslate(TranslationHelper.BQT_VDB, "insert into cola_markets(name,shape) values('foo124', ST_GeomFromText('POINT (300 100)', 8307))"); //$NON-NLS-1$
         Parameter param = new Parameter();
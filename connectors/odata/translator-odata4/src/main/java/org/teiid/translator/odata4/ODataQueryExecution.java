@@ -134,6 +134,9 @@ public class ODataQueryExecution extends BaseQueryExecution implements ResultSet
 
     @Override
     public void close() {
+        if (this.response != null) {
+            this.response.close();
+        }
     }
 
     @Override
@@ -17,10 +17,13 @@
  */
 package org.teiid.translator.odata4;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -29,16 +32,28 @@ import org.apache.olingo.client.api.serialization.ODataDeserializerException;
 import org.apache.olingo.client.core.serialization.JsonDeserializer;
 import org.apache.olingo.commons.api.data.ComplexValue;
 import org.apache.olingo.commons.api.data.Entity;
-import org.apache.olingo.commons.api.data.EntityCollection;
 import org.apache.olingo.commons.api.data.Property;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
 import org.teiid.translator.TranslatorException;
 import org.teiid.translator.document.DocumentNode;
 import org.teiid.translator.odata4.ODataMetadataProcessor.ODataType;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 
 public abstract class ODataResponse {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String VALUE = "value"; //$NON-NLS-1$
+    private static final String NEXT_LINK = "@odata.nextLink"; //$NON-NLS-1$
+    private static final String NEXT_LINK_SHORT = "@nextLink"; //$NON-NLS-1$
+
     private URI nextUri;
     private Iterator<ODataDocument> results;
+    private JsonParser parser;
     private ODataType resultsType;
     private List<Map<String, Object>> currentDocumentRows;
     private DocumentNode rootNode;
@@ -46,41 +61,97 @@ public abstract class ODataResponse {
     public ODataResponse(InputStream payload, ODataType type, DocumentNode rootNode) throws TranslatorException {
         this.resultsType = type;
         this.rootNode = rootNode;
-        this.results = parsePayload(payload);
+        parsePayload(payload);
     }
 
-    private Iterator<ODataDocument> parsePayload(InputStream payload) throws TranslatorException {
+    private void parsePayload(InputStream payload) throws TranslatorException {
         try {
-            JsonDeserializer parser = new JsonDeserializer(false);
+            JsonDeserializer deserializer = new JsonDeserializer(false);
             if (this.resultsType == ODataType.ENTITY) {
-                Entity entity = parser.toEntity(payload).getPayload();
+                Entity entity = deserializer.toEntity(payload).getPayload();
                 ODataDocument document = ODataDocument.createDocument(entity);
-                return Arrays.asList(document).iterator();
+                this.results = Arrays.asList(document).iterator();
             } else if (this.resultsType == ODataType.ENTITY_COLLECTION) {
-                EntityCollection entityCollection = parser.toEntitySet(payload).getPayload();
-                this.nextUri = entityCollection.getNext();
-                ArrayList<ODataDocument> documents = new ArrayList<ODataDocument>();
-                for (Entity entity : entityCollection.getEntities()) {
-                    documents.add(ODataDocument.createDocument(entity));
+                this.results = null;
+                if (payload == null) {
+                    this.results = Collections.emptyIterator();
+                    return;
+                }
+                // stream the entities rather than building the whole collection
+                this.parser = MAPPER.getFactory().createParser(payload);
+                if (this.parser.nextToken() != JsonToken.START_OBJECT || !readMembers()) {
+                    closeParser();
+                    this.results = Collections.emptyIterator();
                 }
-                return documents.iterator();
             } else {
                 // complex
-                Property property = parser.toProperty(payload).getPayload();
+                Property property = deserializer.toProperty(payload).getPayload();
                 if (property.isCollection()) {
                     ArrayList<ODataDocument> documents = new ArrayList<ODataDocument>();
                     for (Object obj : property.asCollection()) {
                         ComplexValue complexValue = (ComplexValue)obj;
                         documents.add(ODataDocument.createDocument(complexValue));
                     }
-                    return documents.iterator();
+                    this.results = documents.iterator();
                 } else {
                     ODataDocument document = ODataDocument.createDocument(property.asComplex());
-                    return Arrays.asList(document).iterator();
+                    this.results = Arrays.asList(document).iterator();
                 }
             }
         } catch (ODataDeserializerException e) {
             throw new TranslatorException(e);
+        } catch (IOException e) {
+            throw new TranslatorException(e);
+        }
+    }
+
+    /**
+     * Read the top level members of an entity collection until the start of the value array
+     * or the end of the document, capturing the next link.
+     * <br>
+     * Services typically write the next link after the value array, so it is generally
+     * not known until the current page has been consumed.
+     * @return true if positioned at the start of the value array
+     */
+    private boolean readMembers() throws IOException {
+        while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = this.parser.getCurrentName();
+            JsonToken token = this.parser.nextToken();
+            if (VALUE.equals(name) && token == JsonToken.START_ARRAY) {
+                return true;
+            }
+            if ((NEXT_LINK.equals(name) || NEXT_LINK_SHORT.equals(name)) && token == JsonToken.VALUE_STRING) {
+                this.nextUri = URI.create(this.parser.getText());
+            } else {
+                this.parser.skipChildren();
+            }
+        }
+        return false;
+    }
+
+    private ODataDocument nextDocument() throws TranslatorException {
+        if (this.parser == null) {
+            if (this.results.hasNext()) {
+                return this.results.next();
+            }
+            return null;
+        }
+        try {
+            if (this.parser.nextToken() == JsonToken.START_OBJECT) {
+                // only a single entity is held in memory at a time
+                JsonNode node = this.parser.readValueAsTree();
+                Entity entity = new JsonDeserializer(false).toEntity(
+                        new ByteArrayInputStream(MAPPER.writeValueAsBytes(node))).getPayload();
+                return ODataDocument.createDocument(entity);
+            }
+            // the end of the value array, the next link may follow
+            readMembers();
+            closeParser();
+            return null;
+        } catch (ODataDeserializerException e) {
+            throw new TranslatorException(e);
+        } catch (IOException e) {
+            throw new TranslatorException(e);
         }
     }
 
@@ -90,22 +161,43 @@ public abstract class ODataResponse {
             return this.currentDocumentRows.remove(0);
         }
 
-        if (this.results.hasNext()) {
-            this.currentDocumentRows = this.rootNode.tuples(this.results.next());
+        ODataDocument document = nextDocument();
+        if (document != null) {
+            this.currentDocumentRows = this.rootNode.tuples(document);
             return getNext();
         } else {
             if (this.nextUri != null) {
-                this.results = fetchSkipToken(this.nextUri);
+                fetchSkipToken();
                 return getNext();
             }
         }
         return null;
     }
 
-    private Iterator<ODataDocument> fetchSkipToken(URI uri) throws TranslatorException {
-        return parsePayload(nextBatch(uri));
+    private void fetchSkipToken() throws TranslatorException {
+        URI uri = this.nextUri;
+        this.nextUri = null;
+        parsePayload(nextBatch(uri));
+    }
+
+    private void closeParser() {
+        if (this.parser != null) {
+            try {
+                this.parser.close();
+            } catch (IOException e) {
+                LogManager.logDetail(LogConstants.CTX_ODATA, e, "Could not close the response payload"); //$NON-NLS-1$
+            }
+            this.parser = null;
+        }
+    }
+
+    /**
+     * Release the current payload
+     */
+    public void close() {
+        closeParser();
+        this.nextUri = null;
     }
 
     public abstract InputStream nextBatch(URI uri) throws TranslatorException;
 }
-
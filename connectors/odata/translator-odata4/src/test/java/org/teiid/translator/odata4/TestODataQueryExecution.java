@@ -25,7 +25,10 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -57,6 +60,9 @@ import org.teiid.query.function.GeometryUtils;
 import org.teiid.translator.ExecutionContext;
 import org.teiid.translator.ProcedureExecution;
 import org.teiid.translator.ResultSetExecution;
+import org.teiid.translator.TranslatorException;
+import org.teiid.translator.document.DocumentNode;
+import org.teiid.translator.odata4.ODataMetadataProcessor.ODataType;
 import org.teiid.translator.ws.WSConnection;
 
 @SuppressWarnings({"nls", "unused"})
@@ -701,4 +707,30 @@ public class TestODataQueryExecution {
                 excution.next());
     }
 
+    @Test
+    public void testStreamingNextLink() throws Exception {
+        String page1 = "{\"@odata.context\":\"$metadata#People\",\"value\":[{\"UserName\":\"a\"},{\"UserName\":\"b\"}],"
+                + "\"@odata.nextLink\":\"People?$skiptoken=2\"}";
+        final String page2 = "{\"@odata.context\":\"$metadata#People\",\"value\":[{\"UserName\":\"c\"}]}";
+        final List<URI> requested = new ArrayList<URI>();
+        ODataResponse response = new ODataResponse(new ByteArrayInputStream(page1.getBytes("UTF-8")),
+                ODataType.ENTITY_COLLECTION, new DocumentNode()) {
+            @Override
+            public InputStream nextBatch(URI uri) throws TranslatorException {
+                requested.add(uri);
+                try {
+                    return new ByteArrayInputStream(page2.getBytes("UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new TranslatorException(e);
+                }
+            }
+        };
+        assertEquals("a", response.getNext().get("UserName"));
+        assertEquals("b", response.getNext().get("UserName"));
+        assertEquals("c", response.getNext().get("UserName"));
+        assertNull(response.getNext());
+        assertEquals(Arrays.asList(new URI("People?$skiptoken=2")), requested);
+        response.close();
+    }
+
 }
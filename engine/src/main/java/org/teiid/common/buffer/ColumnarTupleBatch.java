@@ -0,0 +1,376 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.common.buffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.teiid.core.types.DataTypeManager;
+
+/**
+ * A {@link TupleBatch} that holds its values by column rather than by row.
+ * <br>
+ * Integral and floating point columns hold their values only in a primitive array with a
+ * null bitmap, so predicates are evaluated without unboxing.  Other columns hold their values
+ * in an Object array.  The row form is only materialized if row access is needed, which is
+ * typically only at the client boundary or by row based nodes.
+ */
+public class ColumnarTupleBatch extends TupleBatch {
+
+    public enum ColumnType {
+        INT,
+        LONG,
+        DOUBLE,
+        OBJECT
+    }
+
+    /**
+     * A single column of values
+     */
+    public static final class Column {
+        private ColumnType columnType;
+        private Class<?> type;
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+        private Object[] objects;
+        private long[] nulls;
+
+        Column(Class<?> type, int size) {
+            this.type = type;
+            this.columnType = ColumnarTupleBatch.getColumnType(type);
+            switch (columnType) {
+            case INT:
+                ints = new int[size];
+                break;
+            case LONG:
+                longs = new long[size];
+                break;
+            case DOUBLE:
+                doubles = new double[size];
+                break;
+            default:
+                objects = new Object[size];
+                break;
+            }
+        }
+
+        public ColumnType getColumnType() {
+            return columnType;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public boolean isNull(int index) {
+            if (objects != null) {
+                return objects[index] == null;
+            }
+            return nulls != null && (nulls[index >>> 6] & (1L << index)) != 0;
+        }
+
+        public int getInt(int index) {
+            return ints[index];
+        }
+
+        public long getLong(int index) {
+            return longs[index];
+        }
+
+        public double getDouble(int index) {
+            return doubles[index];
+        }
+
+        /**
+         * Get the value as an object of the column type.  Primitive values are boxed.
+         */
+        public Object get(int index) {
+            if (objects != null) {
+                return objects[index];
+            }
+            if (isNull(index)) {
+                return null;
+            }
+            switch (columnType) {
+            case INT:
+                if (type == DataTypeManager.DefaultDataClasses.SHORT) {
+                    return (short)ints[index];
+                }
+                if (type == DataTypeManager.DefaultDataClasses.BYTE) {
+                    return (byte)ints[index];
+                }
+                return ints[index];
+            case LONG:
+                return longs[index];
+            default:
+                if (type == DataTypeManager.DefaultDataClasses.FLOAT) {
+                    return (float)doubles[index];
+                }
+                return doubles[index];
+            }
+        }
+
+        public void setInt(int index, int value) {
+            ints[index] = value;
+        }
+
+        public void setLong(int index, long value) {
+            longs[index] = value;
+        }
+
+        public void setDouble(int index, double value) {
+            doubles[index] = value;
+        }
+
+        public void setNull(int index) {
+            if (objects != null) {
+                objects[index] = null;
+                return;
+            }
+            if (nulls == null) {
+                nulls = new long[(size() + 63) >>> 6];
+            }
+            nulls[index >>> 6] |= 1L << index;
+        }
+
+        private int size() {
+            switch (columnType) {
+            case INT:
+                return ints.length;
+            case LONG:
+                return longs.length;
+            case DOUBLE:
+                return doubles.length;
+            default:
+                return objects.length;
+            }
+        }
+
+        /**
+         * Set the value at the given index.
+         * @return false if the value is not compatible with the column storage
+         */
+        boolean set(int index, Object value) {
+            if (value == null) {
+                setNull(index);
+                return true;
+            }
+            if (columnType == ColumnType.OBJECT) {
+                objects[index] = value;
+                return true;
+            }
+            if (value.getClass() != type) {
+                return false;
+            }
+            switch (columnType) {
+            case INT:
+                ints[index] = ((Number)value).intValue();
+                break;
+            case LONG:
+                longs[index] = (Long)value;
+                break;
+            default:
+                doubles[index] = ((Number)value).doubleValue();
+                break;
+            }
+            return true;
+        }
+
+        /**
+         * Create a new column with only the given indexes
+         */
+        Column select(int[] indexes, int count) {
+            Column result = new Column(type, count);
+            for (int i = 0; i < count; i++) {
+                int index = indexes[i];
+                switch (columnType) {
+                case INT:
+                    result.ints[i] = ints[index];
+                    break;
+                case LONG:
+                    result.longs[i] = longs[index];
+                    break;
+                case DOUBLE:
+                    result.doubles[i] = doubles[index];
+                    break;
+                default:
+                    result.objects[i] = objects[index];
+                    continue;
+                }
+                if (isNull(index)) {
+                    result.setNull(i);
+                }
+            }
+            return result;
+        }
+    }
+
+    private Column[] columns;
+    private int rowCount;
+
+    private ColumnarTupleBatch(long beginRow, Column[] columns, int rowCount) {
+        this.setRowOffset(beginRow);
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Return the storage that will be used for the given type
+     */
+    public static ColumnType getColumnType(Class<?> type) {
+        if (type == DataTypeManager.DefaultDataClasses.INTEGER
+                || type == DataTypeManager.DefaultDataClasses.SHORT
+                || type == DataTypeManager.DefaultDataClasses.BYTE) {
+            return ColumnType.INT;
+        }
+        if (type == DataTypeManager.DefaultDataClasses.LONG) {
+            return ColumnType.LONG;
+        }
+        if (type == DataTypeManager.DefaultDataClasses.DOUBLE
+                || type == DataTypeManager.DefaultDataClasses.FLOAT) {
+            return ColumnType.DOUBLE;
+        }
+        return ColumnType.OBJECT;
+    }
+
+    /**
+     * Return true if at least one of the types would use primitive storage
+     */
+    public static boolean hasPrimitiveColumns(Class<?>[] types) {
+        for (Class<?> type : types) {
+            if (getColumnType(type) != ColumnType.OBJECT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Create an empty columnar batch of the given size.  The values should be
+     * set through the {@link Column}s before the batch is used.
+     */
+    public static ColumnarTupleBatch create(long beginRow, Class<?>[] types, int rowCount) {
+        Column[] columns = new Column[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = new Column(types[i], rowCount);
+        }
+        return new ColumnarTupleBatch(beginRow, columns, rowCount);
+    }
+
+    /**
+     * Create a columnar batch from the given rows.
+     * @return the columnar batch or null if the values do not conform to the expected types
+     */
+    public static ColumnarTupleBatch fromRows(long beginRow, List<? extends List<?>> rows, Class<?>[] types) {
+        int size = rows.size();
+        Column[] columns = new Column[types.length];
+        for (int i = 0; i < types.length; i++) {
+            columns[i] = new Column(types[i], size);
+        }
+        for (int row = 0; row < size; row++) {
+            List<?> tuple = rows.get(row);
+            for (int col = 0; col < columns.length; col++) {
+                if (!columns[col].set(row, tuple.get(col))) {
+                    return null;
+                }
+            }
+        }
+        return new ColumnarTupleBatch(beginRow, columns, size);
+    }
+
+    public Column getColumn(int index) {
+        return columns[index];
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Create a new batch with the given rows (0-based indexes)
+     * and columns.  No values are boxed.
+     */
+    public ColumnarTupleBatch select(int[] rowIndexes, int count, int[] columnIndexes) {
+        Column[] result = new Column[columnIndexes.length];
+        for (int i = 0; i < columnIndexes.length; i++) {
+            Column c = this.columns[columnIndexes[i]];
+            if (count == rowCount) {
+                result[i] = c;
+            } else {
+                result[i] = c.select(rowIndexes, count);
+            }
+        }
+        return new ColumnarTupleBatch(getBeginRow(), result, count);
+    }
+
+    @Override
+    public int getRowCount() {
+        if (tuples != null) {
+            return tuples.size();
+        }
+        return rowCount;
+    }
+
+    @Override
+    public long getEndRow() {
+        return getBeginRow() + getRowCount() - 1;
+    }
+
+    @Override
+    public List<?> getTuple(long rowIndex) {
+        //row access materializes once, so that each value is boxed at most once
+        getTuples();
+        return super.getTuple(rowIndex);
+    }
+
+    /**
+     * Materialize the row form of the batch
+     */
+    @Override
+    public List<List<?>> getTuples() {
+        if (tuples == null) {
+            List<List<?>> result = new ArrayList<List<?>>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                Object[] values = new Object[columns.length];
+                for (int col = 0; col < columns.length; col++) {
+                    values[col] = columns[col].get(row);
+                }
+                result.add(Arrays.asList(values));
+            }
+            tuples = result;
+        }
+        return tuples;
+    }
+
+    @Override
+    public List<?>[] getAllTuples() {
+        List<List<?>> rows = getTuples();
+        return rows.toArray(new List[rows.size()]);
+    }
+
+    /**
+     * Return true if the row form has been created
+     */
+    public boolean isMaterialized() {
+        return tuples != null;
+    }
+
+}
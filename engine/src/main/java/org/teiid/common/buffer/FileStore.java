@@ -160,6 +160,20 @@ public abstract class FileStore implements Removable {
     protected abstract int readWrite(long fileOffset, byte[] b, int offSet, int length, boolean write)
             throws IOException;
 
+    /**
+     * Get a read only view of the stored bytes that does not copy them onto the heap.
+     * The view is only valid until the store is truncated or removed.
+     * @return the view or null if the store does not support direct access to the range
+     */
+    public ByteBuffer getBuffer(long fileOffset, int length) throws IOException {
+        checkRemoved();
+        return getBufferDirect(fileOffset, length);
+    }
+
+    protected ByteBuffer getBufferDirect(long fileOffset, int length) throws IOException {
+        return null;
+    }
+
     public void readFully(long fileOffset, byte[] b, int offSet, int length) throws IOException {
         if (length == 0) {
             return;
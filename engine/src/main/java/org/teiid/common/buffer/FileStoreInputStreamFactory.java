@@ -73,6 +73,10 @@ public final class FileStoreInputStreamFactory extends InputStreamFactory {
         throw new IllegalStateException("In persistent mode or not closed for writing"); //$NON-NLS-1$
     }
 
+    public String getEncoding() {
+        return encoding;
+    }
+
     @Override
     public Reader getCharacterStream() throws IOException {
         return new InputStreamReader(getInputStream(), Charset.forName(encoding).newDecoder());
@@ -158,7 +158,7 @@ public class TupleBatch {
         s.append("TupleBatch; beginning row="); //$NON-NLS-1$
         s.append(rowOffset);
         s.append(", number of rows="); //$NON-NLS-1$
-        s.append(tuples.size());
+        s.append(getRowCount());
         s.append(", lastBatch="); //$NON-NLS-1$
         s.append(this.terminationFlag);
         return s.toString();
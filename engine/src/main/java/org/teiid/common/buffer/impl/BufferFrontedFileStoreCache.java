@@ -551,6 +551,7 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo> {
 
     private AtomicLong storageWrites = new AtomicLong();
     private AtomicLong storageReads = new AtomicLong();
+    private AtomicLong mappedReads = new AtomicLong();
 
     private long minDefrag = DEFAULT_MIN_DEFRAG;
     private BufferManagerImpl bufferManager;
@@ -787,7 +788,10 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo> {
         readAttempts.incrementAndGet();
         InputStream is = null;
         Lock lock = null;
+        Lock readLock = null;
         ExtensibleBufferedInputStream eis = null;
+        FileStore fs = null;
+        long blockOffset = 0;
         int memoryBlocks = 0;
         try {
             synchronized (info) {
@@ -810,24 +814,42 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo> {
                     }
                     BlockStore blockStore = sizeBasedStores[info.sizeIndex];
                     int segment = info.block/blockStore.blocksInUse.getBitsPerSegment();
-                    FileStore fs = blockStore.stores[segment];
-                    long blockOffset = (info.block%blockStore.blocksInUse.getBitsPerSegment())*blockStore.blockSize;
+                    fs = blockStore.stores[segment];
+                    blockOffset = (info.block%blockStore.blocksInUse.getBitsPerSegment())*blockStore.blockSize;
                     eis = fs.createInputStream(blockOffset, info.memoryBlockCount<<LOG_BLOCK_SIZE);
                     lock = blockStore.locks[segment].writeLock();
+                    readLock = blockStore.locks[segment].readLock();
                     memoryBlocks = info.memoryBlockCount;
                 } else {
                     return null;
                 }
             }
             if (lock != null) {
+                //a mapped block is deserialized directly from the mapping, the read lock prevents truncation while the view is in use
+                readLock.lock();
+                try {
+                    final ByteBuffer view = fs.getBuffer(blockOffset, memoryBlocks<<LOG_BLOCK_SIZE);
+                    if (view != null) {
+                        mappedReads.incrementAndGet();
+                        return deserialize(info, oid, ref, serializer, new ExtensibleBufferedInputStream() {
+                            boolean read;
+
+                            @Override
+                            protected ByteBuffer nextBuffer() {
+                                if (read) {
+                                    return null;
+                                }
+                                read = true;
+                                return view;
+                            }
+                        });
+                    }
+                } finally {
+                    readLock.unlock();
+                }
                 is = readIntoMemory(info, eis, lock, memoryBlocks);
             }
-            for (int i = 0; i < HEADER_BYTES; i++) {
-                is.read();
-            }
-            ObjectInput dis = new ObjectInputStream(is);
-            CacheEntry ce = new CacheEntry(new CacheKey(oid, 1, 1), info.sizeEstimate, serializer.deserialize(dis), ref, true);
-            return ce;
+            return deserialize(info, oid, ref, serializer, is);
         } catch(IOException e) {
              throw new TeiidComponentException(QueryPlugin.Event.TEIID30048, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30048, info.gid, oid));
         } catch (ClassNotFoundException e) {
@@ -842,6 +864,16 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo> {
         }
     }
 
+    private CacheEntry deserialize(PhysicalInfo info, Long oid,
+            WeakReference<? extends Serializer<?>> ref, Serializer<?> serializer,
+            InputStream is) throws IOException, ClassNotFoundException {
+        for (int i = 0; i < HEADER_BYTES; i++) {
+            is.read();
+        }
+        ObjectInput dis = new ObjectInputStream(is);
+        return new CacheEntry(new CacheKey(oid, 1, 1), info.sizeEstimate, serializer.deserialize(dis), ref, true);
+    }
+
     /**
      * Transfer into memory to release memory/file locks
      */
@@ -1254,6 +1286,13 @@ public class BufferFrontedFileStoreCache implements Cache<PhysicalInfo> {
         return storageReads.get();
     }
 
+    /**
+     * Get the number of storage reads that were made in place against memory mapped storage
+     */
+    public long getMappedStorageReads() {
+        return mappedReads.get();
+    }
+
     public long getStorageWrites() {
         return storageWrites.get();
     }
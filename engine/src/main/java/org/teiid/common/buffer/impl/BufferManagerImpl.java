@@ -45,6 +45,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -517,8 +518,9 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
 
     private AtomicLong readAttempts = new AtomicLong();
     //TODO: consider the size estimate in the weighting function
-    LrfuEvictionQueue<CacheEntry> evictionQueue = new LrfuEvictionQueue<CacheEntry>(readAttempts);
-    LrfuEvictionQueue<CacheEntry> initialEvictionQueue = new LrfuEvictionQueue<CacheEntry>(readAttempts);
+    private EvictionQueue.Policy evictionPolicy = EvictionQueue.Policy.LRFU;
+    EvictionQueue<CacheEntry> evictionQueue = EvictionQueue.create(evictionPolicy, readAttempts);
+    EvictionQueue<CacheEntry> initialEvictionQueue = EvictionQueue.create(evictionPolicy, readAttempts);
     ConcurrentHashMap<Long, CacheEntry> memoryEntries = new ConcurrentHashMap<Long, CacheEntry>(16, .75f, CONCURRENCY_LEVEL);
 
     //limited size reference caches based upon the memory settings
@@ -548,6 +550,8 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
     private AtomicLong readCount = new AtomicLong();
     private AtomicLong writeCount = new AtomicLong();
     private AtomicLong referenceHit = new AtomicLong();
+    private LongAdder memoryHits = new LongAdder();
+    private LongAdder evictionCount = new LongAdder();
 
     private static Timer SHARED_TIMER;
     private Timer timer;
@@ -1004,8 +1008,8 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
         //we delay work here as there should be excess vm space, we are using an overestimate, and we want the cleaner to do the work if possible
         //TODO: track sizes held by each queue independently
         long maxToFree = Math.min(max, memoryCount - maxReserveBytes);
-        LrfuEvictionQueue<CacheEntry> first = initialEvictionQueue;
-        LrfuEvictionQueue<CacheEntry> second = evictionQueue;
+        EvictionQueue<CacheEntry> first = initialEvictionQueue;
+        EvictionQueue<CacheEntry> second = evictionQueue;
         if (evictionQueue.getSize() > 2*initialEvictionQueue.getSize()) {
             //attempt to evict from the non-initial queue first as these should essentially be cost "free" and hopefully the reference cache can mitigate
             //the cost of rereading
@@ -1021,7 +1025,7 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
         }
     }
 
-    long doEvictions(long maxToFree, boolean ageOut, LrfuEvictionQueue<CacheEntry> queue) {
+    long doEvictions(long maxToFree, boolean ageOut, EvictionQueue<CacheEntry> queue) {
         if (queue == evictionQueue) {
             maxToFree = Math.min(maxToFree, this.maxProcessingBytes);
         }
@@ -1068,6 +1072,7 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
                             freed += ce.getSizeEstimate();
                             long result = activeBatchBytes.addAndGet(-ce.getSizeEstimate());
                             assert result >= 0 || !LrfuEvictionQueue.isSuspectSize(activeBatchBytes);
+                            evictionCount.increment();
                             queue.remove(ce); //ensures that an intervening get will still be cleaned
                         }
                     }
@@ -1124,6 +1129,7 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
             ce = memoryEntries.remove(batch);
         }
         if (ce != null) {
+            memoryHits.increment();
             synchronized (ce) {
                 if (retain) {
                     //there is a minute chance the batch was evicted
@@ -1164,6 +1170,7 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
         }
         if (ce != null && ce.getObject() != null) {
             referenceHit.getAndIncrement();
+            memoryHits.increment();
             if (retain) {
                 addMemoryEntry(ce);
             } else {
@@ -1298,8 +1305,8 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
         this.cache.shutdown();
         this.cache = null;
         this.memoryEntries.clear();
-        this.evictionQueue.getEvictionQueue().clear();
-        this.initialEvictionQueue.getEvictionQueue().clear();
+        this.evictionQueue.clear();
+        this.initialEvictionQueue.clear();
         this.cleaner.cancel();
         if (this.timer != SHARED_TIMER) {
             this.timer.cancel();
@@ -1468,6 +1475,41 @@ public class BufferManagerImpl implements BufferManager, ReplicatedObject<String
         return referenceHit.get();
     }
 
+    public EvictionQueue.Policy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Set the policy used to select memory entries for eviction.
+     * Should be called prior to use.
+     */
+    public void setEvictionPolicy(EvictionQueue.Policy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+        this.evictionQueue = EvictionQueue.create(evictionPolicy, readAttempts);
+        this.initialEvictionQueue = EvictionQueue.create(evictionPolicy, readAttempts);
+    }
+
+    /**
+     * @return the number of batch reads served from memory, including soft/weak references
+     */
+    public long getMemoryHitCount() {
+        return memoryHits.sum();
+    }
+
+    /**
+     * @return the number of batch reads that required a storage read
+     */
+    public long getMemoryMissCount() {
+        return readCount.get();
+    }
+
+    /**
+     * @return the number of memory entries evicted from the heap
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
     @Override
     public void persistLob(Streamable<?> lob, FileStore store,
             byte[] bytes) throws TeiidComponentException {
@@ -0,0 +1,120 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.teiid.common.buffer.BaseCacheEntry;
+import org.teiid.common.buffer.CacheKey;
+
+/**
+ * An eviction policy for the buffer manager memory entries.
+ * <br>
+ * Entries are prioritized by the LRFU ordering value of their {@link CacheKey},
+ * implementations differ in how the lowest priority entry is found.
+ * Null values are not allowed.
+ * @param <V>
+ */
+public abstract class EvictionQueue<V extends BaseCacheEntry> {
+
+    public enum Policy {
+        /**
+         * Fully ordered, each access outside of the minimum interval reorders the entry
+         */
+        LRFU,
+        /**
+         * Unordered, the eviction candidate is the lowest priority entry of a sample
+         */
+        SAMPLED
+    }
+
+    public static <V extends BaseCacheEntry> EvictionQueue<V> create(Policy policy, AtomicLong clock) {
+        switch (policy) {
+        case SAMPLED:
+            return new SampledEvictionQueue<V>(clock);
+        default:
+            return new LrfuEvictionQueue<V>(clock);
+        }
+    }
+
+    private static final long DEFAULT_HALF_LIFE = 1<<16;
+    static final long MIN_INTERVAL = 1<<9;
+
+    protected AtomicLong clock;
+    protected long maxInterval;
+    protected long halfLife;
+
+    public EvictionQueue(AtomicLong clock) {
+        this.clock = clock;
+        setHalfLife(DEFAULT_HALF_LIFE);
+    }
+
+    public abstract boolean add(V value);
+
+    public abstract boolean remove(V value);
+
+    /**
+     * Record an access to the value, adding it if needed
+     */
+    public abstract void touch(V value);
+
+    /**
+     * Get the current eviction candidate
+     * @param poll if true the entry will be removed
+     */
+    public abstract V firstEntry(boolean poll);
+
+    public abstract int getSize();
+
+    public abstract void clear();
+
+    /**
+     * Get the key with the next LRFU ordering value
+     */
+    CacheKey nextKey(CacheKey key) {
+        long lastAccess = key.getLastAccess();
+        long currentClock = clock.get();
+        long orderingValue = computeNextOrderingValue(currentClock, lastAccess,
+                key.getOrderingValue());
+        return new CacheKey(key.getId(), currentClock, orderingValue);
+    }
+
+    long computeNextOrderingValue(long currentTime,
+            long lastAccess, long orderingValue) {
+        long delta = currentTime - lastAccess;
+        if (delta > maxInterval) {
+            return currentTime;
+        }
+        //scale the increase based upon how hot we previously were
+        long increase = orderingValue + lastAccess;
+
+        if (delta > halfLife) {
+            while ((delta-=halfLife) > halfLife && (increase>>=1) > 0) {
+            }
+        }
+        increase = Math.min(currentTime, increase);
+        return currentTime + increase;
+    }
+
+    public void setHalfLife(long halfLife) {
+        this.halfLife = halfLife;
+        this.maxInterval = 62*this.halfLife;
+    }
+
+}
@@ -22,6 +22,12 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -40,6 +46,9 @@ import org.teiid.query.QueryPlugin;
 
 /**
  * Implements file storage that automatically splits large files and limits the number of open files.
+ * <br>
+ * If memory mapped, reads within the current file length go through mapped regions rather
+ * than positional file access and the mapped bytes may be viewed directly with {@link FileStore#getBuffer(long, int)}.
  */
 public class FileStorageManager implements StorageManager {
 
@@ -47,6 +56,8 @@ public class FileStorageManager implements StorageManager {
     public static final int DEFAULT_MAX_OPEN_FILES = 64;
     public static final long DEFAULT_MAX_BUFFERSPACE = 5L * 1024L * MB; //5 GB
     private static final String FILE_PREFIX = "b_"; //$NON-NLS-1$
+    private static final int MAPPED_REGION_BITS = 26; //64MB
+    private static final long MAPPED_REGION_SIZE = 1L << MAPPED_REGION_BITS;
 
     private long maxBufferSpace = DEFAULT_MAX_BUFFERSPACE;
     private AtomicLong usedBufferSpace = new AtomicLong();
@@ -56,6 +67,9 @@ public class FileStorageManager implements StorageManager {
 
     private AtomicInteger outOfDiskCount = new AtomicInteger();
 
+    private volatile boolean memoryMapped;
+    private AtomicLong mappedBufferSpace = new AtomicLong();
+
     private class FileInfo {
         private File file;
         private RandomAccessFile fileData;       // may be null if not open
@@ -100,6 +114,7 @@ public class FileStorageManager implements StorageManager {
     public class DiskStore extends FileStore {
         private String name;
         private FileInfo fileInfo;
+        private MappedByteBuffer[] regions;
 
         public DiskStore(String name) {
             this.name = name;
@@ -120,6 +135,11 @@ public class FileStorageManager implements StorageManager {
                 if (fileInfo == null) {
                     return -1;
                 }
+                ByteBuffer mapped = getMapped(fileOffset, length);
+                if (mapped != null) {
+                    mapped.get(b, offSet, length);
+                    return length;
+                }
                 try {
                     RandomAccessFile fileAccess = fileInfo.open();
                     fileAccess.seek(fileOffset);
@@ -131,6 +151,8 @@ public class FileStorageManager implements StorageManager {
             if (fileInfo == null) {
                 fileInfo = new FileInfo(createFile(name));
             }
+            //writes are not made through the mapping as a full disk would then fault rather than
+            //raising an IOException for the unallocated pages of the sparse file
             try {
                 RandomAccessFile fileAccess = fileInfo.open();
                 long newLength = fileOffset + length;
@@ -143,6 +165,77 @@ public class FileStorageManager implements StorageManager {
             return length;
         }
 
+        @Override
+        protected synchronized ByteBuffer getBufferDirect(long fileOffset, int length) throws IOException {
+            return getMapped(fileOffset, length);
+        }
+
+        /**
+         * Get a view of the range from the mapped region that contains it, mapping or
+         * remapping the region as needed.
+         * @return the view or null if not memory mapped or the range is beyond the
+         * end of the file or spans regions
+         */
+        private ByteBuffer getMapped(long fileOffset, int length) throws IOException {
+            if (!memoryMapped || fileInfo == null || length <= 0) {
+                return null;
+            }
+            int region = (int)(fileOffset >> MAPPED_REGION_BITS);
+            long regionStart = ((long)region) << MAPPED_REGION_BITS;
+            long end = fileOffset + length;
+            if (end - regionStart > MAPPED_REGION_SIZE) {
+                return null;
+            }
+            MappedByteBuffer buffer = null;
+            if (regions != null && region < regions.length) {
+                buffer = regions[region];
+            }
+            if (buffer == null || buffer.capacity() < end - regionStart) {
+                try {
+                    RandomAccessFile fileAccess = fileInfo.open();
+                    long fileLength = fileAccess.length();
+                    if (end > fileLength) {
+                        return null;
+                    }
+                    //map as much of the region as exists, mapping past the end would grow the file
+                    long size = Math.min(MAPPED_REGION_SIZE, fileLength - regionStart);
+                    MappedByteBuffer newBuffer = fileAccess.getChannel().map(MapMode.READ_ONLY, regionStart, size);
+                    if (regions == null) {
+                        regions = new MappedByteBuffer[region + 1];
+                    } else if (region >= regions.length) {
+                        regions = Arrays.copyOf(regions, region + 1);
+                    }
+                    regions[region] = newBuffer;
+                    mappedBufferSpace.addAndGet(size - (buffer == null?0:buffer.capacity()));
+                    buffer = newBuffer;
+                } finally {
+                    fileInfo.close();
+                }
+            }
+            ByteBuffer result = buffer.duplicate();
+            result.limit((int)(end - regionStart));
+            result.position((int)(fileOffset - regionStart));
+            return result;
+        }
+
+        /**
+         * Unmap the regions past the length.  Views obtained from {@link #getBuffer(long, int)}
+         * are not valid after truncation or removal, so the mappings may be released immediately.
+         */
+        private void unmap(long length) {
+            if (regions == null) {
+                return;
+            }
+            for (int i = 0; i < regions.length; i++) {
+                MappedByteBuffer buffer = regions[i];
+                if (buffer != null && (((long)i) << MAPPED_REGION_BITS) + buffer.capacity() > length) {
+                    regions[i] = null;
+                    mappedBufferSpace.addAndGet(-buffer.capacity());
+                    release(buffer);
+                }
+            }
+        }
+
         private void setLength(RandomAccessFile fileAccess, long newLength, boolean truncate)
                 throws IOException {
             long currentLength = fileAccess.length();
@@ -154,6 +247,7 @@ public class FileStorageManager implements StorageManager {
                 if (!truncate) {
                     return;
                 }
+                unmap(newLength);
             } else if (bytesUsed > MB) {
                 //this is a weak check, concurrent access may push us over the max.  we are just trying to prevent large overage allocations
                 long used = usedBufferSpace.get() + bytesUsed;
@@ -199,6 +293,7 @@ public class FileStorageManager implements StorageManager {
 
         @Override
         public synchronized void removeDirect() {
+            unmap(0);
             usedBufferSpace.addAndGet(-getLength());
             if (fileInfo != null){
                 fileInfo.delete();
@@ -207,6 +302,50 @@ public class FileStorageManager implements StorageManager {
 
     }
 
+    private static Method cleanerMethod;
+    private static Method cleanMethod;
+    private static Object unsafe;
+    private static Method invokeCleanerMethod;
+
+    static {
+        try {
+            //java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe"); //$NON-NLS-1$
+            invokeCleanerMethod = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class); //$NON-NLS-1$
+            Field f = unsafeClass.getDeclaredField("theUnsafe"); //$NON-NLS-1$
+            f.setAccessible(true);
+            unsafe = f.get(null);
+        } catch (Exception e) {
+            invokeCleanerMethod = null;
+            try {
+                cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner"); //$NON-NLS-1$ //$NON-NLS-2$
+                cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean"); //$NON-NLS-1$ //$NON-NLS-2$
+            } catch (Exception e1) {
+                LogManager.logDetail(LogConstants.CTX_BUFFER_MGR, e1, "Mapped buffers will only be released when collected"); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * Unmap the buffer rather than waiting for it to be collected, so that the
+     * file space and address space are released and the file may be deleted.
+     * The buffer and its views must not be used afterwards.
+     */
+    static void release(MappedByteBuffer buffer) {
+        try {
+            if (invokeCleanerMethod != null) {
+                invokeCleanerMethod.invoke(unsafe, buffer);
+            } else if (cleanerMethod != null) {
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleanMethod.invoke(cleaner);
+                }
+            }
+        } catch (Exception e) {
+            LogManager.logDetail(LogConstants.CTX_BUFFER_MGR, e, "Could not unmap buffer"); //$NON-NLS-1$
+        }
+    }
+
     // Initialization
     private int maxOpenFiles = DEFAULT_MAX_OPEN_FILES;
     private String directory;
@@ -257,6 +396,28 @@ public class FileStorageManager implements StorageManager {
         }
     }
 
+    /**
+     * Read through memory mapped regions.
+     * <br>
+     * Regions are unmapped when the file is truncated or removed.  A region that is remapped
+     * because the file has grown is only released when its old buffer is collected, as
+     * concurrent readers may still be using it.
+     */
+    public void setMemoryMapped(boolean memoryMapped) {
+        this.memoryMapped = memoryMapped;
+    }
+
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Get the bytes of file storage currently memory mapped
+     */
+    public long getMappedBufferSpace() {
+        return mappedBufferSpace.get();
+    }
+
     public void setMaxOpenFiles(int maxOpenFiles) {
         this.maxOpenFiles = maxOpenFiles;
     }
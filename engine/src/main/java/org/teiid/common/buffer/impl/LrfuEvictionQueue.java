@@ -33,7 +33,7 @@ import org.teiid.core.TeiidRuntimeException;
  * Null values are not allowed.
  * @param <V>
  */
-public class LrfuEvictionQueue<V extends BaseCacheEntry> {
+public class LrfuEvictionQueue<V extends BaseCacheEntry> extends EvictionQueue<V> {
 
     /**
      * For testing, should only be used from asserts.
@@ -56,19 +56,14 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
         return true;
     }
 
-    private static final long DEFAULT_HALF_LIFE = 1<<16;
-    static final long MIN_INTERVAL = 1<<9;
     protected ConcurrentSkipListMap<CacheKey, V> evictionQueue = new ConcurrentSkipListMap<CacheKey, V>();
-    protected AtomicLong clock;
-    protected long maxInterval;
-    protected long halfLife;
     private AtomicInteger size = new AtomicInteger();
 
     public LrfuEvictionQueue(AtomicLong clock) {
-        this.clock = clock;
-        setHalfLife(DEFAULT_HALF_LIFE);
+        super(clock);
     }
 
+    @Override
     public boolean remove(V value) {
         if (evictionQueue.remove(value.getKey()) != null) {
             int result = size.addAndGet(-1);
@@ -78,6 +73,7 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
         return false;
     }
 
+    @Override
     public boolean add(V value) {
         if (evictionQueue.putIfAbsent(value.getKey(), value) == null) {
             size.addAndGet(1);
@@ -86,6 +82,7 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
         return false;
     }
 
+    @Override
     public void touch(V value) {
         long tick = clock.get();
         if (tick - MIN_INTERVAL < value.getKey().getLastAccess()) {
@@ -101,6 +98,7 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
         return evictionQueue.values();
     }
 
+    @Override
     public V firstEntry(boolean poll) {
         Map.Entry<CacheKey, V> entry = null;
         if (poll) {
@@ -122,42 +120,21 @@ public class LrfuEvictionQueue<V extends BaseCacheEntry> {
      * Callers should be synchronized on value
      */
     void recordAccess(V value) {
-        CacheKey key = value.getKey();
-        long lastAccess = key.getLastAccess();
-        long currentClock = clock.get();
-        long orderingValue = key.getOrderingValue();
-        orderingValue = computeNextOrderingValue(currentClock, lastAccess,
-                orderingValue);
         assert !this.evictionQueue.containsKey(value.getKey());
-        value.setKey(new CacheKey(key.getId(), currentClock, orderingValue));
-    }
-
-    long computeNextOrderingValue(long currentTime,
-            long lastAccess, long orderingValue) {
-        long delta = currentTime - lastAccess;
-        if (delta > maxInterval) {
-            return currentTime;
-        }
-        //scale the increase based upon how hot we previously were
-        long increase = orderingValue + lastAccess;
-
-        if (delta > halfLife) {
-            while ((delta-=halfLife) > halfLife && (increase>>=1) > 0) {
-            }
-        }
-        increase = Math.min(currentTime, increase);
-        return currentTime + increase;
-    }
-
-    public void setHalfLife(long halfLife) {
-        this.halfLife = halfLife;
-        this.maxInterval = 62*this.halfLife;
+        value.setKey(nextKey(value.getKey()));
     }
 
+    @Override
     public int getSize() {
         return size.get();
     }
 
+    @Override
+    public void clear() {
+        evictionQueue.clear();
+        size.set(0);
+    }
+
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder();
@@ -0,0 +1,104 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.teiid.common.buffer.BaseCacheEntry;
+
+/**
+ * A sampled eviction queue.  Entries are held in a concurrent hash map and
+ * an access only updates the LRFU ordering value of the entry's key, so touches
+ * do not contend on a shared ordered structure.
+ * <br>
+ * The eviction candidate is the lowest priority entry among the next {@link #SAMPLE_SIZE}
+ * entries of a clock like sweep over the map.  Since the ordering value accounts for
+ * frequency, entries seen only once by a large scan are chosen ahead of frequently used entries.
+ * @param <V>
+ */
+public class SampledEvictionQueue<V extends BaseCacheEntry> extends EvictionQueue<V> {
+
+    static final int SAMPLE_SIZE = 8;
+
+    private ConcurrentHashMap<Long, V> entries = new ConcurrentHashMap<Long, V>(16, .75f, BufferManagerImpl.CONCURRENCY_LEVEL);
+    private Iterator<V> sweep;
+
+    public SampledEvictionQueue(AtomicLong clock) {
+        super(clock);
+    }
+
+    @Override
+    public boolean add(V value) {
+        return entries.putIfAbsent(value.getId(), value) == null;
+    }
+
+    @Override
+    public boolean remove(V value) {
+        return entries.remove(value.getId()) != null;
+    }
+
+    /**
+     * Callers should be synchronized on value
+     */
+    @Override
+    public void touch(V value) {
+        add(value);
+        if (clock.get() - MIN_INTERVAL >= value.getKey().getLastAccess()) {
+            value.setKey(nextKey(value.getKey()));
+        }
+    }
+
+    @Override
+    public V firstEntry(boolean poll) {
+        synchronized (this) {
+            while (true) {
+                V candidate = null;
+                for (int i = 0; i < SAMPLE_SIZE; i++) {
+                    if (sweep == null || !sweep.hasNext()) {
+                        sweep = entries.values().iterator();
+                        if (!sweep.hasNext()) {
+                            break;
+                        }
+                    }
+                    V value = sweep.next();
+                    if (candidate == null || value.getKey().compareTo(candidate.getKey()) < 0) {
+                        candidate = value;
+                    }
+                }
+                if (candidate == null || !poll || remove(candidate)) {
+                    return candidate;
+                }
+                //concurrently removed, sample again
+            }
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+}
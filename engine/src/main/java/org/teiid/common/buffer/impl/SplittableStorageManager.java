@@ -19,6 +19,7 @@
 package org.teiid.common.buffer.impl;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -91,6 +92,22 @@ public class SplittableStorageManager implements StorageManager {
             return length;
         }
 
+        @Override
+        protected ByteBuffer getBufferDirect(long fileOffset, int length) throws IOException {
+            FileStore store = null;
+            synchronized (this) {
+                if (fileOffset + length > len) {
+                    return null;
+                }
+                store = storageFiles.get((int)(fileOffset/maxFileSize));
+            }
+            long fileBegin = fileOffset%maxFileSize;
+            if (fileBegin + length > maxFileSize) {
+                return null;
+            }
+            return store.getBuffer(fileBegin, length);
+        }
+
         private void ensureLength(long length) throws IOException {
             if (length <= len) {
                 return;
@@ -71,7 +71,8 @@ public class DQPWorkContext implements Serializable {
         EIGHT_6("08.06.00.Beta3", (byte)3), //$NON-NLS-1$
         EIGHT_7("08.07.00.Beta2", (byte)3), //$NON-NLS-1$
         EIGHT_10("08.10.00.Alpha3", BatchSerializer.VERSION_GEOMETRY), //$NON-NLS-1$
-        ELEVEN_2("11.02", BatchSerializer.VERSION_GEOGRAPHY); //$NON-NLS-1$
+        ELEVEN_2("11.02", BatchSerializer.VERSION_GEOGRAPHY), //$NON-NLS-1$
+        SEVENTEEN_0("17.0", BatchSerializer.VERSION_COLUMNAR); //$NON-NLS-1$
 
         private String string;
         private byte clientSerializationVersion;
@@ -100,6 +100,8 @@ import org.teiid.query.validator.ValidatorReport;
 public class Request {
 
     private static final String CLEAN_LOBS_ONCLOSE = "clean_lobs_onclose"; //$NON-NLS-1$
+    static final String COLUMNAR_BATCHES = "columnar_batches"; //$NON-NLS-1$
+    static final String COLUMNAR_BATCHES_VDB_PROPERTY = "columnar-batches"; //$NON-NLS-1$
     // init state
     protected RequestMessage requestMsg;
     private String vdbName;
@@ -267,6 +269,26 @@ public class Request {
         this.context.setDQPWorkContext(this.workContext);
         this.context.setTransactionService(this.transactionService);
         this.context.setVDBClassLoader(workContext.getVDB().getAttachment(ClassLoader.class));
+        this.context.setColumnarBatches(isColumnarBatches());
+    }
+
+    /**
+     * Determine if columnar batches should be used, with the session setting
+     * taking precedence over the vdb property and then the engine option.
+     */
+    private boolean isColumnarBatches() {
+        Object value = this.workContext.getSession().getSessionVariables().get(COLUMNAR_BATCHES);
+        if (value == null) {
+            value = workContext.getVDB().getPropertyValue(COLUMNAR_BATCHES_VDB_PROPERTY);
+        }
+        if (value != null) {
+            try {
+                return Boolean.TRUE.equals(DataTypeManager.transformValue(value, DataTypeManager.DefaultDataClasses.BOOLEAN));
+            } catch (TransformationException e) {
+                LogManager.logDetail(LogConstants.CTX_DQP, e, "Improper value for", COLUMNAR_BATCHES); //$NON-NLS-1$
+            }
+        }
+        return this.options != null && this.options.isColumnarBatches();
     }
 
     public void setUserRequestConcurrency(int userRequestConcurrency) {
@@ -69,15 +69,19 @@ public class AnalysisRecord {
     public static final String PROP_MODEL_NAME = "Model Name"; //$NON-NLS-1$
     public static final String PROP_SHARING_ID = "Sharing ID"; //$NON-NLS-1$
     public static final String PROP_DEPENDENT = "Dependent Join"; //$NON-NLS-1$
+    public static final String PROP_DEPENDENT_STRATEGY = "Dependent Join Strategy"; //$NON-NLS-1$
     public static final String PROP_JOIN_STRATEGY = "Join Strategy"; //$NON-NLS-1$
     public static final String PROP_JOIN_TYPE = "Join Type"; //$NON-NLS-1$
     public static final String PROP_JOIN_CRITERIA = "Join Criteria"; //$NON-NLS-1$
+    public static final String PROP_JOIN_STATISTICS = "Join Statistics"; //$NON-NLS-1$
     public static final String PROP_EXECUTION_PLAN = "Execution Plan"; //$NON-NLS-1$
     public static final String PROP_INTO_GROUP = "Into Target"; //$NON-NLS-1$
     public static final String PROP_UPSERT = "Upsert"; //$NON-NLS-1$
     public static final String PROP_SORT_COLS = "Sort Columns"; //$NON-NLS-1$
     public static final String PROP_SORT_MODE = "Sort FrameMode"; //$NON-NLS-1$
     public static final String PROP_ROLLUP = "Rollup"; //$NON-NLS-1$
+    public static final String PROP_GROUPING_STRATEGY = "Grouping Strategy"; //$NON-NLS-1$
+    public static final String PROP_PARALLELISM = "Parallelism"; //$NON-NLS-1$
     public static final String PROP_NODE_STATS_LIST = "Statistics"; //$NON-NLS-1$
     public static final String PROP_NODE_COST_ESTIMATES = "Cost Estimates";  //$NON-NLS-1$
     public static final String PROP_ROW_OFFSET = "Row Offset";  //$NON-NLS-1$
@@ -0,0 +1,550 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.query.eval;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+import java.util.Map;
+
+import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.util.EquivalenceUtil;
+import org.teiid.metadata.FunctionMethod.PushDown;
+import org.teiid.query.QueryPlugin;
+import org.teiid.query.function.FunctionDescriptor;
+import org.teiid.query.function.FunctionLibrary;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.IsNullCriteria;
+import org.teiid.query.sql.lang.NotCriteria;
+import org.teiid.query.sql.symbol.CaseExpression;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.DerivedExpression;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.ExpressionSymbol;
+import org.teiid.query.sql.symbol.Function;
+import org.teiid.query.sql.symbol.SearchedCaseExpression;
+
+/**
+ * An expression or criteria compiled against a fixed element map.
+ * <br>
+ * Compilation resolves element lookups to tuple indexes and function calls to
+ * {@link MethodHandle}s once, rather than dispatching on the language object type and
+ * invoking reflectively for every row.  The resulting tree of small monomorphic nodes
+ * is left to the JIT to inline.
+ * <br>
+ * Constructs that are not compiled, such as subqueries, lookups, or xml/json functions,
+ * are delegated to the {@link Evaluator} passed in at evaluation time, so any
+ * expression may be compiled.  Instances hold no processing state and may be shared
+ * by plan clones and worker threads.
+ */
+public abstract class CompiledExpression {
+
+    /**
+     * Compile the expression.  The elements map should be the same used by the
+     * {@link Evaluator}s this will be evaluated with.
+     */
+    public static CompiledExpression compile(Expression expression, Map<? extends Expression, Integer> elements) {
+        return new Compiler(elements).compile(expression);
+    }
+
+    /**
+     * Compile the criteria.  The elements map should be the same used by the
+     * {@link Evaluator}s this will be evaluated with.
+     */
+    public static CompiledExpression compile(Criteria criteria, Map<? extends Expression, Integer> elements) {
+        return new Compiler(elements).compile(criteria);
+    }
+
+    protected final Expression expression;
+
+    CompiledExpression(Expression expression) {
+        this.expression = expression;
+    }
+
+    public Expression getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return true if the whole expression was compiled without a fallback to the {@link Evaluator}
+     */
+    public abstract boolean isFullyCompiled();
+
+    /**
+     * Evaluate in the same way as {@link Evaluator#evaluate(Expression, List)}
+     */
+    public Object evaluate(List<?> tuple, Evaluator evaluator)
+            throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+        try {
+            return eval(tuple, evaluator);
+        } catch (ExpressionEvaluationException e) {
+            throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30328, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30328, new Object[] {expression, e.getMessage()}));
+        }
+    }
+
+    /**
+     * Evaluate in the same way as {@link Evaluator#evaluateTVL(Criteria, List)}
+     */
+    public Boolean evaluateTVL(List<?> tuple, Evaluator evaluator)
+            throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+        return (Boolean)eval(tuple, evaluator);
+    }
+
+    /**
+     * Evaluate in the same way as {@link Evaluator#evaluate(Criteria, List)}
+     */
+    public boolean evaluateCriteria(List<?> tuple, Evaluator evaluator)
+            throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+        return Boolean.TRUE.equals(eval(tuple, evaluator));
+    }
+
+    /**
+     * Evaluate without the top level exception wrapping
+     */
+    abstract Object eval(List<?> tuple, Evaluator evaluator)
+            throws ExpressionEvaluationException, BlockedException, TeiidComponentException;
+
+    @Override
+    public String toString() {
+        return String.valueOf(expression);
+    }
+
+    private static final class Compiler {
+        private Map<? extends Expression, Integer> elements;
+
+        Compiler(Map<? extends Expression, Integer> elements) {
+            this.elements = elements;
+        }
+
+        CompiledExpression compile(Expression expr) {
+            if (elements != null && expr instanceof DerivedExpression) {
+                Integer index = elements.get(expr);
+                if (index != null) {
+                    return new TupleValue(expr, index);
+                }
+            }
+            if (expr instanceof ExpressionSymbol) {
+                return compile(((ExpressionSymbol)expr).getExpression());
+            } else if (expr instanceof Constant) {
+                Constant c = (Constant)expr;
+                if (!c.isMultiValued()) {
+                    return new ConstantValue(c);
+                }
+            } else if (expr instanceof Function) {
+                CompiledExpression result = compileFunction((Function)expr);
+                if (result != null) {
+                    return result;
+                }
+            } else if (expr instanceof CaseExpression) {
+                CaseExpression ce = (CaseExpression)expr;
+                CompiledExpression[] whens = new CompiledExpression[ce.getWhenCount()];
+                CompiledExpression[] thens = new CompiledExpression[ce.getWhenCount()];
+                for (int i = 0; i < whens.length; i++) {
+                    whens[i] = compile(ce.getWhenExpression(i));
+                    thens[i] = compile(ce.getThenExpression(i));
+                }
+                return new Case(ce, compile(ce.getExpression()), whens, thens, ce.getElseExpression() == null?null:compile(ce.getElseExpression()));
+            } else if (expr instanceof SearchedCaseExpression) {
+                SearchedCaseExpression ce = (SearchedCaseExpression)expr;
+                CompiledExpression[] whens = new CompiledExpression[ce.getWhenCount()];
+                CompiledExpression[] thens = new CompiledExpression[ce.getWhenCount()];
+                for (int i = 0; i < whens.length; i++) {
+                    whens[i] = compile(ce.getWhenCriteria(i));
+                    thens[i] = compile(ce.getThenExpression(i));
+                }
+                return new Case(ce, null, whens, thens, ce.getElseExpression() == null?null:compile(ce.getElseExpression()));
+            } else if (expr instanceof Criteria) {
+                //as an expression unknown is treated as false
+                return new Definite(compile((Criteria)expr));
+            }
+            return new Interpreted(expr);
+        }
+
+        CompiledExpression compile(Criteria crit) {
+            if (crit instanceof CompoundCriteria) {
+                CompoundCriteria cc = (CompoundCriteria)crit;
+                CompiledExpression[] children = new CompiledExpression[cc.getCriteriaCount()];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = compile(cc.getCriteria(i));
+                }
+                return new Compound(cc, children);
+            }
+            if (crit instanceof NotCriteria) {
+                return new Not(crit, compile(((NotCriteria)crit).getCriteria()));
+            }
+            if (crit instanceof CompareCriteria) {
+                CompareCriteria cc = (CompareCriteria)crit;
+                return new Compare(cc, compile(cc.getLeftExpression()), compile(cc.getRightExpression()));
+            }
+            if (crit instanceof IsNullCriteria) {
+                IsNullCriteria inc = (IsNullCriteria)crit;
+                return new IsNull(inc, compile(inc.getExpression()));
+            }
+            return new InterpretedCriteria(crit);
+        }
+
+        private CompiledExpression compileFunction(Function function) {
+            FunctionDescriptor fd = function.getFunctionDescriptor();
+            if (fd == null || fd.getPushdown() == PushDown.MUST_PUSHDOWN || fd.getProcedure() != null
+                    || function.isCalledWithVarArgArrayParam()
+                    || function.getName().equalsIgnoreCase(FunctionLibrary.LOOKUP)) {
+                return null;
+            }
+            MethodHandle invoker = fd.getInvoker();
+            if (invoker == null) {
+                return null;
+            }
+            Expression[] args = function.getArgs();
+            CompiledExpression[] compiledArgs = new CompiledExpression[args.length];
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] instanceof Constant && ((Constant)args[i]).isMultiValued()) {
+                    return null;
+                }
+                compiledArgs[i] = compile(args[i]);
+            }
+            return new Invoke(function, fd, invoker, compiledArgs);
+        }
+
+    }
+
+    static boolean allCompiled(CompiledExpression... exprs) {
+        for (CompiledExpression expr : exprs) {
+            if (expr != null && !expr.isFullyCompiled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class TupleValue extends CompiledExpression {
+        private final int index;
+
+        TupleValue(Expression expression, int index) {
+            super(expression);
+            this.index = index;
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator) {
+            return tuple.get(index);
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return true;
+        }
+    }
+
+    private static final class ConstantValue extends CompiledExpression {
+        private final Object value;
+
+        ConstantValue(Constant constant) {
+            super(constant);
+            this.value = constant.getValue();
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator) {
+            return value;
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return true;
+        }
+    }
+
+    private static final class Invoke extends CompiledExpression {
+        private final FunctionDescriptor fd;
+        private final MethodHandle invoker;
+        private final CompiledExpression[] args;
+        private final boolean requiresContext;
+        private final boolean compiled;
+
+        Invoke(Function function, FunctionDescriptor fd, MethodHandle invoker, CompiledExpression[] args) {
+            super(function);
+            this.fd = fd;
+            this.invoker = invoker;
+            this.args = args;
+            this.requiresContext = fd.requiresContext();
+            this.compiled = allCompiled(args);
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            int start = requiresContext?1:0;
+            Object[] values = new Object[args.length + start];
+            if (requiresContext) {
+                values[0] = evaluator.context;
+            }
+            for (int i = 0; i < args.length; i++) {
+                Object value = args[i].eval(tuple, evaluator);
+                if (value instanceof Constant) {
+                    //leaked a multivalued constant
+                    throw new AssertionError("Multi-valued constant not allowed to be directly evaluated"); //$NON-NLS-1$
+                }
+                values[i + start] = value;
+            }
+            return fd.invokeFunction(invoker, values, evaluator.context);
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return compiled;
+        }
+    }
+
+    private static final class Case extends CompiledExpression {
+        private final CompiledExpression value;
+        private final CompiledExpression[] whens;
+        private final CompiledExpression[] thens;
+        private final CompiledExpression elseExpr;
+        private final boolean compiled;
+
+        Case(Expression expression, CompiledExpression value, CompiledExpression[] whens,
+                CompiledExpression[] thens, CompiledExpression elseExpr) {
+            super(expression);
+            this.value = value;
+            this.whens = whens;
+            this.thens = thens;
+            this.elseExpr = elseExpr;
+            this.compiled = allCompiled(whens) && allCompiled(thens) && allCompiled(value, elseExpr);
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            if (value != null) {
+                Object exprVal = value.eval(tuple, evaluator);
+                for (int i = 0; i < whens.length; i++) {
+                    if (EquivalenceUtil.areEqual(exprVal, whens[i].eval(tuple, evaluator))) {
+                        return thens[i].eval(tuple, evaluator);
+                    }
+                }
+            } else {
+                for (int i = 0; i < whens.length; i++) {
+                    if (Boolean.TRUE.equals(whens[i].eval(tuple, evaluator))) {
+                        return thens[i].eval(tuple, evaluator);
+                    }
+                }
+            }
+            if (elseExpr != null) {
+                return elseExpr.eval(tuple, evaluator);
+            }
+            return null;
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return compiled;
+        }
+    }
+
+    private static final class Compound extends CompiledExpression {
+        private final CompiledExpression[] children;
+        private final boolean and;
+        private final boolean compiled;
+
+        Compound(CompoundCriteria crit, CompiledExpression[] children) {
+            super(crit);
+            this.children = children;
+            this.and = crit.getOperator() == CompoundCriteria.AND;
+            this.compiled = allCompiled(children);
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            Boolean result = and?Boolean.TRUE:Boolean.FALSE;
+            for (int i = 0; i < children.length; i++) {
+                Boolean value = (Boolean)children[i].eval(tuple, evaluator);
+                if (value == null) {
+                    result = null;
+                } else if (!value.booleanValue()) {
+                    if (and) {
+                        return Boolean.FALSE;
+                    }
+                } else if (!and) {
+                    return Boolean.TRUE;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return compiled;
+        }
+    }
+
+    private static final class Not extends CompiledExpression {
+        private final CompiledExpression child;
+
+        Not(Criteria crit, CompiledExpression child) {
+            super(crit);
+            this.child = child;
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            Boolean result = (Boolean)child.eval(tuple, evaluator);
+            if (result == null) {
+                return null;
+            }
+            return !result.booleanValue();
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return child.isFullyCompiled();
+        }
+    }
+
+    private static final class Compare extends CompiledExpression {
+        private final CompiledExpression left;
+        private final CompiledExpression right;
+        private final int operator;
+
+        Compare(CompareCriteria crit, CompiledExpression left, CompiledExpression right) {
+            super(crit);
+            this.left = left;
+            this.right = right;
+            this.operator = crit.getOperator();
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            Object leftValue = null;
+            try {
+                leftValue = left.evaluate(tuple, evaluator);
+            } catch(ExpressionEvaluationException e) {
+                throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "left", expression)); //$NON-NLS-1$
+            }
+            if (leftValue == null) {
+                return null;
+            }
+            Object rightValue = null;
+            try {
+                rightValue = right.evaluate(tuple, evaluator);
+            } catch(ExpressionEvaluationException e) {
+                throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30312, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30312, "right", expression)); //$NON-NLS-1$
+            }
+            if (rightValue == null) {
+                return null;
+            }
+            return Evaluator.compare(operator, leftValue, rightValue);
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return left.isFullyCompiled() && right.isFullyCompiled();
+        }
+    }
+
+    private static final class IsNull extends CompiledExpression {
+        private final CompiledExpression child;
+        private final boolean negated;
+
+        IsNull(IsNullCriteria crit, CompiledExpression child) {
+            super(crit);
+            this.child = child;
+            this.negated = crit.isNegated();
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            Object value = null;
+            try {
+                value = child.evaluate(tuple, evaluator);
+            } catch(ExpressionEvaluationException e) {
+                throw new ExpressionEvaluationException(QueryPlugin.Event.TEIID30323, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30323, expression));
+            }
+            return (value == null ^ negated);
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return child.isFullyCompiled();
+        }
+    }
+
+    private static final class Definite extends CompiledExpression {
+        private final CompiledExpression child;
+
+        Definite(CompiledExpression child) {
+            super(child.expression);
+            this.child = child;
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            return Boolean.TRUE.equals(child.eval(tuple, evaluator));
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return child.isFullyCompiled();
+        }
+    }
+
+    private static final class Interpreted extends CompiledExpression {
+
+        Interpreted(Expression expression) {
+            super(expression);
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            return evaluator.internalEvaluate(expression, tuple);
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return false;
+        }
+    }
+
+    private static final class InterpretedCriteria extends CompiledExpression {
+
+        InterpretedCriteria(Criteria criteria) {
+            super(criteria);
+        }
+
+        @Override
+        Object eval(List<?> tuple, Evaluator evaluator)
+                throws ExpressionEvaluationException, BlockedException, TeiidComponentException {
+            return evaluator.evaluateTVL((Criteria)expression, tuple);
+        }
+
+        @Override
+        public boolean isFullyCompiled() {
+            return false;
+        }
+    }
+
+}
@@ -19,9 +19,13 @@
 package org.teiid.query.function;
 
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 
 import org.teiid.api.exception.query.FunctionExecutionException;
@@ -65,6 +69,8 @@ public class FunctionDescriptor implements Serializable, Cloneable {
     // a different VM.  This function descriptor can be used to look up
     // the real VM descriptor for execution.
     private transient Method invocationMethod;
+    private transient volatile MethodHandle invoker;
+    private transient volatile boolean invokerChecked;
 
     private ClassLoader classLoader;
 
@@ -298,6 +304,74 @@ public class FunctionDescriptor implements Serializable, Cloneable {
         }
     }
 
+    /**
+     * Get a handle that accepts the full argument array if the function may be invoked
+     * without the wrapped argument or varargs handling of
+     * {@link #invokeFunction(Object[], CommandContext, Object, boolean)}
+     * @return the handle or null if the function must be invoked reflectively
+     */
+    public MethodHandle getInvoker() {
+        if (!invokerChecked) {
+            MethodHandle handle = null;
+            if (invocationMethod != null && !hasWrappedArgs
+                    && !invocationMethod.isVarArgs() && Modifier.isStatic(invocationMethod.getModifiers())) {
+                try {
+                    handle = MethodHandles.lookup().unreflect(invocationMethod)
+                            .asSpreader(Object[].class, invocationMethod.getParameterTypes().length)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                } catch (IllegalAccessException e) {
+                    //not accessible, use reflection
+                }
+            }
+            this.invoker = handle;
+            this.invokerChecked = true;
+        }
+        return invoker;
+    }
+
+    /**
+     * Invoke the function using the handle from {@link #getInvoker()}.  The values
+     * are expected to already include the context if required.
+     */
+    public Object invokeFunction(MethodHandle handle, Object[] values, CommandContext context) throws FunctionExecutionException, BlockedException {
+        if (!isNullDependent()) {
+            for (int i = requiresContext?1:0; i < values.length; i++) {
+                if (values[i] == null) {
+                    return null;
+                }
+            }
+        }
+        Object result = null;
+        ClassLoader originalCL = null;
+        if (this.classLoader != null) {
+            originalCL = Thread.currentThread().getContextClassLoader();
+            Thread.currentThread().setContextClassLoader(this.classLoader);
+        }
+        try {
+            result = handle.invokeExact(values);
+        } catch (BlockedException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new FunctionExecutionException(QueryPlugin.Event.TEIID30384, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30384, getFullName()));
+        } finally {
+            if (this.classLoader != null) {
+                Thread.currentThread().setContextClassLoader(originalCL);
+            }
+        }
+        if (context != null && getDeterministic().ordinal() <= Determinism.USER_DETERMINISTIC.ordinal()) {
+            context.setDeterminismLevel(getDeterministic());
+        }
+        try {
+            return importValue(result, getReturnType(), context);
+        } catch(ArithmeticException e) {
+            throw new FunctionExecutionException(QueryPlugin.Event.TEIID30384, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30384, getFullName()));
+        } catch (TransformationException e) {
+            throw new FunctionExecutionException(e);
+        }
+    }
+
     private void checkMethod() throws FunctionExecutionException {
         // If descriptor is missing invokable method, find this VM's descriptor
         // give name and types from fd
@@ -59,6 +59,7 @@ public class MaterializationMetadataRepository implements MetadataRepository {
     public static final String MATVIEW_POLLING_INTERVAL = "teiid_rel:MATVIEW_POLLING_INTERVAL"; //$NON-NLS-1$
 
     public static final String MATVIEW_POLLING_QUERY = "teiid_rel:MATVIEW_POLLING_QUERY"; //$NON-NLS-1$
+    public static final String MATVIEW_INCREMENTAL_COLUMN = "teiid_rel:MATVIEW_INCREMENTAL_COLUMN"; //$NON-NLS-1$
 
     public enum LoadStates {NEEDS_LOADING, LOADING, LOADED, FAILED_LOAD};
     public enum Scope {IMPORTED, FULL};
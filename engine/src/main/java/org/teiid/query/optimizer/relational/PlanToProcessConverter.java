@@ -45,6 +45,7 @@ import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.metadata.FunctionMethod.PushDown;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.function.FunctionLibrary;
 import org.teiid.query.function.source.XMLHelper;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
@@ -69,7 +70,9 @@ import org.teiid.query.processor.relational.DependentProcedureAccessNode;
 import org.teiid.query.processor.relational.DependentProcedureExecutionNode;
 import org.teiid.query.processor.relational.DupRemoveNode;
 import org.teiid.query.processor.relational.EnhancedSortMergeJoinStrategy;
+import org.teiid.query.processor.relational.ExchangeNode;
 import org.teiid.query.processor.relational.GroupingNode;
+import org.teiid.query.processor.relational.HashJoinStrategy;
 import org.teiid.query.processor.relational.InsertPlanExecutionNode;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.JoinNode.JoinStrategyType;
@@ -125,6 +128,7 @@ import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.symbol.ExpressionSymbol;
+import org.teiid.query.sql.symbol.Function;
 import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.sql.symbol.Reference;
 import org.teiid.query.sql.symbol.WindowFunction;
@@ -132,8 +136,10 @@ import org.teiid.query.sql.util.SymbolMap;
 import org.teiid.query.sql.visitor.ElementCollectorVisitor;
 import org.teiid.query.sql.visitor.EvaluatableVisitor;
 import org.teiid.query.sql.visitor.EvaluatableVisitor.EvaluationLevel;
+import org.teiid.query.sql.visitor.FunctionCollectorVisitor;
 import org.teiid.query.sql.visitor.GroupCollectorVisitor;
 import org.teiid.query.sql.visitor.ReferenceCollectorVisitor;
+import org.teiid.query.sql.visitor.ValueIteratorProviderCollectorVisitor;
 import org.teiid.query.util.CommandContext;
 import org.teiid.translator.ExecutionFactory.TransactionSupport;
 
@@ -286,6 +292,15 @@ public class PlanToProcessConverter {
                 } else {
                     List<Expression> symbols = (List) node.getProperty(NodeConstants.Info.PROJECT_COLS);
 
+                    int parallelism = getExchangeParallelism(node, symbols);
+                    if (parallelism > 1) {
+                        ExchangeNode enode = new ExchangeNode(getID());
+                        enode.setSelectSymbols(symbols);
+                        enode.setParallelism(parallelism);
+                        processNode = enode;
+                        break;
+                    }
+
                     ProjectNode pnode = new ProjectNode(getID());
                     pnode.setSelectSymbols(symbols);
                     processNode = pnode;
@@ -351,6 +366,14 @@ public class PlanToProcessConverter {
                     List rightExpressions = (List) node.getProperty(NodeConstants.Info.RIGHT_EXPRESSIONS);
                     jnode.setJoinExpressions(leftExpressions, rightExpressions);
                     joinCrits = (List) node.getProperty(NodeConstants.Info.NON_EQUI_JOIN_CRITERIA);
+                } else if (stype == JoinStrategyType.HASH) {
+                    HashJoinStrategy hjStrategy = new HashJoinStrategy();
+                    hjStrategy.setBuildLeft(node.hasBooleanProperty(Info.HASH_BUILD_LEFT));
+                    jnode.setJoinStrategy(hjStrategy);
+                    List leftExpressions = (List) node.getProperty(NodeConstants.Info.LEFT_EXPRESSIONS);
+                    List rightExpressions = (List) node.getProperty(NodeConstants.Info.RIGHT_EXPRESSIONS);
+                    jnode.setJoinExpressions(leftExpressions, rightExpressions);
+                    joinCrits = (List) node.getProperty(NodeConstants.Info.NON_EQUI_JOIN_CRITERIA);
                 } else if (stype == JoinStrategyType.NESTED_TABLE) {
                     NestedTableJoinStrategy ntjStrategy = new NestedTableJoinStrategy();
                     jnode.setJoinStrategy(ntjStrategy);
@@ -604,6 +627,7 @@ public class PlanToProcessConverter {
             case NodeConstants.Types.GROUP:
                 GroupingNode gnode = new GroupingNode(getID());
                 gnode.setRollup(node.hasBooleanProperty(Info.ROLLUP));
+                gnode.setHashGrouping(node.hasBooleanProperty(Info.HASH_GROUPING));
                 SymbolMap groupingMap = (SymbolMap)node.getProperty(NodeConstants.Info.SYMBOL_MAP);
                 gnode.setOutputMapping(groupingMap);
                 gnode.setRemoveDuplicates(node.hasBooleanProperty(NodeConstants.Info.IS_DUP_REMOVAL));
@@ -687,6 +711,9 @@ public class PlanToProcessConverter {
                     TextTable tt = (TextTable)source;
                     updateGroupName(node, tt);
                     ttn.setTable(tt);
+                    if (context != null) {
+                        ttn.setParallelism(context.getOptions().getTextTableParallelism());
+                    }
                     processNode = ttn;
                     break;
                 }
@@ -792,6 +819,45 @@ public class PlanToProcessConverter {
         }
     }
 
+    /**
+     * Determine if the projection should be evaluated in parallel with an {@link ExchangeNode}.
+     * Only non-trivial, deterministic projections without subqueries or lookups over
+     * a child that is not known to be small are considered.
+     * @return the parallelism or 1 if an exchange should not be used
+     */
+    private int getExchangeParallelism(PlanNode node, List<Expression> symbols) {
+        if (context == null || context.getOptions().getExchangeParallelism() <= 1
+                || node.getChildCount() != 1 || node.hasBooleanProperty(Info.HAS_WINDOW_FUNCTIONS)) {
+            return 1;
+        }
+        Number childCardinality = (Number) node.getFirstChild().getProperty(NodeConstants.Info.EST_CARDINALITY);
+        if (childCardinality != null && childCardinality.floatValue() != NewCalculateCostUtil.UNKNOWN_VALUE
+                && childCardinality.floatValue() <= 2 * context.getProcessorBatchSize()) {
+            return 1;
+        }
+        boolean evaluation = false;
+        for (Expression ex : symbols) {
+            ex = SymbolMap.getExpression(ex);
+            if (ex instanceof ElementSymbol || ex instanceof Constant) {
+                continue;
+            }
+            if (!ValueIteratorProviderCollectorVisitor.getValueIteratorProviders(ex).isEmpty()
+                    || FunctionCollectorVisitor.isNonDeterministic(ex)) {
+                return 1;
+            }
+            for (Function f : FunctionCollectorVisitor.getFunctions(ex, true)) {
+                if (f.getName().equalsIgnoreCase(FunctionLibrary.LOOKUP)) {
+                    return 1;
+                }
+            }
+            evaluation = true;
+        }
+        if (!evaluation) {
+            return 1;
+        }
+        return context.getOptions().getExchangeParallelism();
+    }
+
     private void validateAggregateFunctionEvaluation(AggregateSymbol as) throws QueryPlannerException {
         if (as.getFunctionDescriptor() != null && as.getFunctionDescriptor().getPushdown() == PushDown.MUST_PUSHDOWN) {
             throw new QueryPlannerException(QueryPlugin.Event.TEIID31211, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31211, as.getFunctionDescriptor().getFullName()));
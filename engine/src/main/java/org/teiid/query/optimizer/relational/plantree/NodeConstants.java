@@ -95,6 +95,7 @@ public final class NodeConstants {
         IS_LEFT_DISTINCT,     // Boolean
         IS_RIGHT_DISTINCT,     // Boolean
         IS_SEMI_DEP,        // Boolean
+        HASH_BUILD_LEFT,    // Boolean
         PRESERVE,
         RIGHT_NESTED_REFERENCES,
         // Project node properties
@@ -139,6 +140,7 @@ public final class NodeConstants {
         // Group node properties
         GROUP_COLS,         // List <Expression>
         ROLLUP,             // Boolean
+        HASH_GROUPING,      // Boolean
 
         // Special constant used in converting plan to process for all nodes
         OUTPUT_COLS,        // List <SingleElementSymbol>
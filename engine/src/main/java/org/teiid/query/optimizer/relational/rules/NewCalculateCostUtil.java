@@ -1303,6 +1303,23 @@ public class NewCalculateCostUtil {
         return cost;
     }
 
+    /**
+     * Determine if a hash table should be used for grouping rather than sorting the input.
+     * This requires that both the group and input estimates are known, that the grouping
+     * reduces the input, and that the number of groups is not larger than the max estimate.
+     */
+    static boolean useHashGrouping(PlanNode groupNode, int maxEstimate) {
+        if (maxEstimate <= 0) {
+            return false;
+        }
+        float groups = groupNode.getCardinality();
+        float input = groupNode.getFirstChild().getCardinality();
+        if (groups == UNKNOWN_VALUE || input == UNKNOWN_VALUE) {
+            return false;
+        }
+        return groups <= maxEstimate && groups < input;
+    }
+
     static boolean usesKey(PlanNode planNode, Collection<? extends Expression> allElements, QueryMetadataInterface metadata) throws QueryMetadataException, TeiidComponentException {
         //TODO: key preserved joins should be marked
         return isSingleTable(planNode)
@@ -44,6 +44,7 @@ import org.teiid.query.optimizer.relational.plantree.PlanNode;
 import org.teiid.query.processor.relational.JoinNode.JoinStrategyType;
 import org.teiid.query.processor.relational.MergeJoinStrategy.SortOption;
 import org.teiid.query.processor.relational.RelationalNode;
+import org.teiid.query.processor.relational.RelationalNodeUtil;
 import org.teiid.query.sql.lang.CompareCriteria;
 import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.JoinType;
@@ -210,6 +211,9 @@ public class RuleImplementJoinStrategy implements OptimizerRule {
             }
 
             boolean pushedRight = insertSort(joinNode.getLastChild(), rightExpressions, joinNode, metadata, capabilitiesFinder, pushRight, context);
+            if (useHashJoin(joinNode, joinType, leftExpressions, rightExpressions, metadata, context)) {
+                continue;
+            }
             if ((!pushedRight || !pushedLeft) && (joinType == JoinType.JOIN_INNER || (joinType == JoinType.JOIN_LEFT_OUTER && !pushedLeft))) {
                 joinNode.setProperty(NodeConstants.Info.JOIN_STRATEGY, JoinStrategyType.ENHANCED_SORT);
             }
@@ -218,6 +222,47 @@ public class RuleImplementJoinStrategy implements OptimizerRule {
         return plan;
     }
 
+    /**
+     * Determine if a hash join should be used rather than processing time sorts of both sides.
+     * Requires that neither side can be sorted at the source and that the sizes are known and not trivial.
+     */
+    static boolean useHashJoin(PlanNode joinNode, JoinType joinType, List<Expression> leftExpressions, List<Expression> rightExpressions,
+            QueryMetadataInterface metadata, CommandContext context) throws QueryMetadataException, TeiidComponentException {
+        if (context == null || !context.getOptions().isHashJoin()
+                || joinNode.getProperty(NodeConstants.Info.SORT_LEFT) != SortOption.SORT
+                || joinNode.getProperty(NodeConstants.Info.SORT_RIGHT) != SortOption.SORT
+                || joinNode.getProperty(NodeConstants.Info.DEPENDENT_VALUE_SOURCE) != null
+                || joinNode.hasBooleanProperty(Info.SINGLE_MATCH)
+                || joinNode.hasBooleanProperty(Info.IS_SEMI_DEP)) {
+            return false;
+        }
+        if (joinType != JoinType.JOIN_INNER && joinType != JoinType.JOIN_LEFT_OUTER
+                && joinType != JoinType.JOIN_SEMI && joinType != JoinType.JOIN_ANTI_SEMI) {
+            return false;
+        }
+        if (!RelationalNodeUtil.isHashable(leftExpressions) || !RelationalNodeUtil.isHashable(rightExpressions)) {
+            return false;
+        }
+        for (int i = 0; i < leftExpressions.size(); i++) {
+            if (leftExpressions.get(i).getType() != rightExpressions.get(i).getType()) {
+                return false;
+            }
+        }
+        float leftCost = NewCalculateCostUtil.computeCostForTree(joinNode.getFirstChild(), metadata);
+        float rightCost = NewCalculateCostUtil.computeCostForTree(joinNode.getLastChild(), metadata);
+        if (leftCost == NewCalculateCostUtil.UNKNOWN_VALUE || rightCost == NewCalculateCostUtil.UNKNOWN_VALUE
+                || Math.max(leftCost, rightCost) <= context.getProcessorBatchSize()) {
+            return false;
+        }
+        joinNode.setProperty(NodeConstants.Info.JOIN_STRATEGY, JoinStrategyType.HASH);
+        joinNode.removeProperty(NodeConstants.Info.SORT_LEFT);
+        joinNode.removeProperty(NodeConstants.Info.SORT_RIGHT);
+        if (joinType == JoinType.JOIN_INNER && leftCost < rightCost) {
+            joinNode.setProperty(NodeConstants.Info.HASH_BUILD_LEFT, true);
+        }
+        return true;
+    }
+
     /**
      * Insert a sort node under the merge join node.  If necessary, also insert a project
      * node to handle function evaluation.
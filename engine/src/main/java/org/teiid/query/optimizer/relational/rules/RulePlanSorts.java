@@ -166,6 +166,12 @@ public class RulePlanSorts implements OptimizerRule {
                     }
                 }
             }
+            if (!node.hasBooleanProperty(Info.IS_DUP_REMOVAL) && !node.hasBooleanProperty(Info.ROLLUP)
+                    && node.getProperty(Info.SORT_ORDER) == null
+                    && context != null && NewCalculateCostUtil.useHashGrouping(node, context.getOptions().getHashGroupingMaxEstimate())) {
+                //the output does not need to be ordered, so there's no need to sort the input
+                node.setProperty(Info.HASH_GROUPING, true);
+            }
             //TODO: check the join interesting order
             parentBlocking = true;
             break;
@@ -174,6 +180,10 @@ public class RulePlanSorts implements OptimizerRule {
                     || node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.NESTED_TABLE) {
                 break;
             }
+            if (node.getProperty(NodeConstants.Info.JOIN_STRATEGY) == JoinStrategyType.HASH) {
+                parentBlocking = true;
+                break;
+            }
             /*
              *  Look under the left and the right sources for a dup removal operation
              *  join
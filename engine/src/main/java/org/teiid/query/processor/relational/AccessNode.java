@@ -474,6 +474,11 @@ public class AccessNode extends SubqueryAwareRelationalNode {
         super.addBatchRow(row);
     }
 
+    @Override
+    protected boolean producesColumnarBatches() {
+        return true;
+    }
+
     private void registerNext() throws TeiidComponentException,
             TeiidProcessingException {
         while (hasNextCommand()) {
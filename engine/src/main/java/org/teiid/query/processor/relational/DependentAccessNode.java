@@ -20,10 +20,13 @@ package org.teiid.query.processor.relational;
 
 import java.util.Collections;
 
+import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.util.Assertion;
+import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.processor.relational.DependentCriteriaProcessor.DependentStrategy;
 import org.teiid.query.sql.lang.Command;
 import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.Query;
@@ -53,6 +56,7 @@ public class DependentAccessNode extends AccessNode {
     private Command rewrittenCommand;
     private boolean useBindings;
     private boolean complexQuery;
+    private DependentStrategy strategy;
 
     public DependentAccessNode(int nodeID) {
         super(nodeID);
@@ -75,6 +79,7 @@ public class DependentAccessNode extends AccessNode {
         dependentCrit = null;
         sort = true;
         rewrittenCommand = null;
+        strategy = null;
     }
 
     @Override
@@ -153,6 +158,7 @@ public class DependentAccessNode extends AccessNode {
 
             if (this.dependentCrit == null) {
                 dependentCrit = criteriaProcessor.prepareCriteria();
+                strategy = criteriaProcessor.getStrategy();
             }
 
             query.setCriteria(dependentCrit);
@@ -237,4 +243,20 @@ public class DependentAccessNode extends AccessNode {
         this.complexQuery = complexQuery;
     }
 
+    /**
+     * @return the runtime strategy for the dependent values or null if not yet determined
+     */
+    public DependentStrategy getStrategy() {
+        return strategy;
+    }
+
+    @Override
+    public synchronized PlanNode getDescriptionProperties() {
+        PlanNode props = super.getDescriptionProperties();
+        if (this.strategy != null) {
+            props.addProperty(AnalysisRecord.PROP_DEPENDENT_STRATEGY, this.strategy.name());
+        }
+        return props;
+    }
+
 }
\ No newline at end of file
@@ -27,6 +27,7 @@ import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.optimizer.relational.rules.NewCalculateCostUtil;
 import org.teiid.query.processor.relational.SortUtility.Mode;
@@ -47,6 +48,18 @@ import org.teiid.query.sql.util.ValueIterator;
 
 public class DependentCriteriaProcessor {
 
+    /**
+     * The runtime handling of the dependent values
+     */
+    public enum DependentStrategy {
+        /** the values are sent as one or more IN predicates per source query */
+        IN_CRITERIA,
+        /** the values are pushed to the source as a whole */
+        PUSHDOWN,
+        /** the dependent criteria is not used and the join is performed entirely by the engine */
+        NONE
+    }
+
     public static class SetState {
 
         Collection<Constant> replacement = new LinkedHashSet<Constant>();
@@ -71,6 +84,8 @@ public class DependentCriteriaProcessor {
 
         SetCriteria existingSet;
 
+        boolean hinted;
+
     }
 
     class TupleState {
@@ -181,6 +196,7 @@ public class DependentCriteriaProcessor {
 
     private int totalPredicates;
     private long maxSize;
+    private DependentStrategy strategy;
 
     public DependentCriteriaProcessor(int maxSetSize, int maxPredicates, RelationalNode dependentNode, Criteria dependentCriteria) throws ExpressionEvaluationException, TeiidComponentException {
         this.maxSetSize = maxSetSize;
@@ -249,6 +265,7 @@ public class DependentCriteriaProcessor {
                 }
                 ts.getDepedentSetStates().add(state);
                 state.maxNdv = dsc.getMaxNdv();
+                state.hinted = dsc.getMakeDepOptions() != null;
             }
         }
     }
@@ -296,6 +313,7 @@ public class DependentCriteriaProcessor {
                 List<Criteria> newCriteria = new ArrayList<Criteria>();
                 long params = 0;
                 int sets = 0;
+                int pushed = 0;
                 for (Criteria criteria : queryCriteria) {
                     if (!(criteria instanceof DependentSetCriteria)) {
                         newCriteria.add(criteria);
@@ -323,6 +341,7 @@ public class DependentCriteriaProcessor {
                     // joins are pushed, then they all are
                     dsc.setDependentValueSource(dvs);
                     newCriteria.add(dsc);
+                    pushed++;
                 }
                 int maxParamThreshold = 3; //TODO: see if this should be a source tunable parameter
                                            //generally this value accounts for the additional overhead of temp table creation
@@ -330,10 +349,14 @@ public class DependentCriteriaProcessor {
                     //use the pushdown only in limited scenarios
                     //only if we will produce more than two source queries
                     //and only if the we could produce a cross set or have a complex query
+                    strategy = pushed > 0?DependentStrategy.PUSHDOWN:DependentStrategy.NONE;
+                    logStrategy();
                     return Criteria.combineCriteria(newCriteria);
                 }
             }
 
+            checkMaxQueries();
+
             //proceed with set based processing
             phase = SET_PROCESSING;
         }
@@ -366,6 +389,57 @@ public class DependentCriteriaProcessor {
         return new CompoundCriteria(CompoundCriteria.AND, crits);
     }
 
+    /**
+     * Stop using the unhinted dependent sets that, based upon the actual number of distinct values,
+     * would require more than the max number of source queries.  The join will instead
+     * be performed by the engine against the full dependent side.
+     * <br>
+     * The check does not consider the size of the dependent side, so it is only performed
+     * if {@link org.teiid.query.util.Options#getDependentJoinMaxQueries()} has been set.
+     */
+    private void checkMaxQueries() {
+        strategy = DependentStrategy.NONE;
+        int maxQueries = 0;
+        if (dependentNode.getContext() != null) {
+            maxQueries = dependentNode.getContext().getOptions().getDependentJoinMaxQueries();
+        }
+        for (TupleState state : dependentState.values()) {
+            long distinctCount = state.dvs.getTupleBuffer().getRowCount();
+            for (SetState setState : state.getDepedentSetStates()) {
+                if (setState.overMax) {
+                    continue;
+                }
+                if (maxQueries > 0 && !setState.hinted && maxSize < Integer.MAX_VALUE) {
+                    long predicates = (distinctCount * setState.valueCount + maxSize - 1) / maxSize;
+                    long queries = (predicates + totalPredicates - 1) / Math.max(1, totalPredicates);
+                    if (queries > maxQueries) {
+                        LogManager.logDetail(LogConstants.CTX_DQP, "Not using dependent criteria for", state.valueSource, setState.valueExpression, "since", distinctCount, "values would require", queries, "source queries"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+                        setState.overMax = true;
+                        continue;
+                    }
+                }
+                strategy = DependentStrategy.IN_CRITERIA;
+            }
+        }
+        if (dependentState.isEmpty()) {
+            strategy = DependentStrategy.IN_CRITERIA;
+        }
+        logStrategy();
+    }
+
+    private void logStrategy() {
+        if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+            LogManager.logDetail(LogConstants.CTX_DQP, "Using dependent strategy", strategy, "for", dependentState.keySet()); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    /**
+     * @return the strategy chosen for the dependent values or null if not yet determined
+     */
+    public DependentStrategy getStrategy() {
+        return strategy;
+    }
+
     public void consumedCriteria() {
         // flush only the value iterators starting at the restart index
         // it is only safe to do this after the super call to prepare command
@@ -0,0 +1,355 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.query.processor.relational;
+
+import static org.teiid.query.analysis.AnalysisRecord.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.teiid.client.plan.PlanNode;
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.TeiidRuntimeException;
+import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
+import org.teiid.query.eval.Evaluator;
+import org.teiid.query.sql.LanguageObject;
+import org.teiid.query.sql.symbol.AliasSymbol;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.util.SymbolMap;
+import org.teiid.query.util.CommandContext;
+
+/**
+ * An exchange over a projection.  Child batches are pulled on the processing thread
+ * and handed to workers from the request's pool, which evaluate the projection in parallel.
+ * Results are gathered back in child order, so the output is the same as a {@link ProjectNode}.
+ * <br>
+ * The number of batches in flight is limited by the parallelism, the user request
+ * concurrency (derived from maxActivePlans) and the buffer space that can be reserved
+ * without waiting.  Work that would block, such as a lookup, is redone serially.
+ */
+public class ExchangeNode extends SubqueryAwareRelationalNode {
+
+    private static class Exchange {
+        TupleBatch batch;
+        Future<List<List<?>>> future;
+        int reserved;
+    }
+
+    private List<? extends Expression> selectSymbols;
+    private int parallelism;
+
+    //derived
+    private List<Expression> expressions;
+    private int[] projectionIndexes;
+    private Map<Expression, Integer> elementMap;
+    private CompiledExpression[] compiledExpressions;
+
+    //processing state
+    private LinkedList<Exchange> pending = new LinkedList<Exchange>();
+    private List<List<?>> current;
+    private int currentIndex;
+    private boolean childDone;
+    private int maxInFlight;
+    private int batchSize;
+    private boolean useCompiled;
+
+    protected ExchangeNode() {
+        super();
+    }
+
+    public ExchangeNode(int nodeID) {
+        super(nodeID);
+    }
+
+    public void setSelectSymbols(List<? extends Expression> symbols) {
+        this.selectSymbols = symbols;
+        this.projectionIndexes = new int[this.selectSymbols.size()];
+        Arrays.fill(this.projectionIndexes, -1);
+        this.expressions = new ArrayList<Expression>(this.selectSymbols.size());
+        for (Expression ses : this.selectSymbols) {
+            this.expressions.add(SymbolMap.getExpression(ses));
+        }
+    }
+
+    public List<? extends Expression> getSelectSymbols() {
+        return selectSymbols;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void addChild(RelationalNode child) {
+        super.addChild(child);
+        this.elementMap = createLookupMap(child.getElements());
+        for (int i = 0; i < selectSymbols.size(); i++) {
+            Expression symbol = selectSymbols.get(i);
+            if (symbol instanceof AliasSymbol) {
+                symbol = ((AliasSymbol)symbol).getSymbol();
+            }
+            Integer index = elementMap.get(symbol);
+            if (index != null) {
+                projectionIndexes[i] = index;
+            } else {
+                if (this.compiledExpressions == null) {
+                    this.compiledExpressions = new CompiledExpression[selectSymbols.size()];
+                }
+                this.compiledExpressions[i] = CompiledExpression.compile(expressions.get(i), elementMap);
+            }
+        }
+    }
+
+    @Override
+    public void open() throws TeiidComponentException, TeiidProcessingException {
+        super.open();
+        this.maxInFlight = parallelism;
+        int concurrency = getContext().getUserRequestSourceConcurrency();
+        if (concurrency > 0) {
+            this.maxInFlight = Math.min(this.maxInFlight, concurrency);
+        }
+        this.maxInFlight = Math.max(1, this.maxInFlight);
+        this.batchSize = getBufferManager().getSchemaSize(getElements());
+        this.useCompiled = this.compiledExpressions != null && getContext().getOptions().isCompiledExpressions();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        this.pending = new LinkedList<Exchange>();
+        this.current = null;
+        this.currentIndex = 0;
+        this.childDone = false;
+    }
+
+    @Override
+    public void closeDirect() {
+        super.closeDirect();
+        for (Exchange exchange : pending) {
+            exchange.future.cancel(false);
+            release(exchange);
+        }
+        pending.clear();
+    }
+
+    public TupleBatch nextBatchDirect()
+            throws BlockedException, TeiidComponentException, TeiidProcessingException {
+        while (true) {
+            fill();
+
+            if (current != null) {
+                while (currentIndex < current.size() && !isBatchFull()) {
+                    addBatchRow(current.get(currentIndex++));
+                }
+                if (currentIndex < current.size()) {
+                    return pullBatch();
+                }
+                current = null;
+            }
+
+            if (pending.isEmpty()) {
+                if (childDone) {
+                    terminateBatches();
+                }
+                return pullBatch();
+            }
+
+            Exchange exchange = pending.getFirst();
+            //without a work item nothing will reschedule processing, so just wait on the result
+            if (!exchange.future.isDone() && getContext().getWorkItem() != null) {
+                if (hasPendingRows()) {
+                    return pullBatch();
+                }
+                throw BlockedException.block("Waiting on exchange", getID()); //$NON-NLS-1$
+            }
+            List<List<?>> result = getResult(exchange);
+            if (result == null) {
+                //the worker could not complete without blocking, so evaluate on this thread
+                result = project(exchange.batch.getTuples(), getEvaluator(this.elementMap));
+            }
+            pending.removeFirst();
+            release(exchange);
+            current = result;
+            currentIndex = 0;
+        }
+    }
+
+    /**
+     * Submit child batches until the in flight limit is reached or
+     * buffer space can no longer be reserved.  There is always one batch allowed
+     * in flight regardless of reservation.
+     */
+    private void fill() throws TeiidComponentException, TeiidProcessingException {
+        while (!childDone && pending.size() < maxInFlight) {
+            int reserved = 0;
+            if (!pending.isEmpty()) {
+                reserved = getBufferManager().reserveBuffers(batchSize, BufferReserveMode.NO_WAIT);
+                if (reserved < batchSize) {
+                    getBufferManager().releaseBuffers(reserved);
+                    return;
+                }
+            }
+            TupleBatch batch = null;
+            try {
+                batch = getChildren()[0].nextBatch();
+            } catch (BlockedException e) {
+                getBufferManager().releaseBuffers(reserved);
+                if (pending.isEmpty() && current == null) {
+                    throw e;
+                }
+                return;
+            } catch (TeiidComponentException | TeiidProcessingException | RuntimeException e) {
+                getBufferManager().releaseBuffers(reserved);
+                throw e;
+            }
+            if (batch.getTerminationFlag()) {
+                childDone = true;
+            }
+            if (batch.getRowCount() == 0) {
+                getBufferManager().releaseBuffers(reserved);
+                continue;
+            }
+            Exchange exchange = new Exchange();
+            exchange.batch = batch;
+            exchange.reserved = reserved;
+            exchange.future = submit(batch.getTuples());
+            pending.add(exchange);
+        }
+    }
+
+    private Future<List<List<?>>> submit(final List<List<?>> tuples) {
+        final CommandContext context = getContext().workerClone();
+        return getContext().submit(new Callable<List<List<?>>>() {
+            @Override
+            public List<List<?>> call() throws Exception {
+                CommandContext.pushThreadLocalContext(context);
+                try {
+                    return project(tuples, new Evaluator(elementMap, getDataManager(), context));
+                } catch (BlockedException e) {
+                    return null;
+                } finally {
+                    CommandContext.popThreadLocalContext();
+                }
+            }
+        });
+    }
+
+    private List<List<?>> project(List<List<?>> tuples, Evaluator eval)
+            throws BlockedException, TeiidComponentException, TeiidProcessingException {
+        List<List<?>> result = new ArrayList<List<?>>(tuples.size());
+        for (List<?> tuple : tuples) {
+            List<Object> projectedTuple = new ArrayList<Object>(expressions.size());
+            for (int i = 0; i < expressions.size(); i++) {
+                int index = projectionIndexes[i];
+                if (index != -1) {
+                    projectedTuple.add(tuple.get(index));
+                } else if (useCompiled) {
+                    projectedTuple.add(compiledExpressions[i].evaluate(tuple, eval));
+                } else {
+                    projectedTuple.add(eval.evaluate(expressions.get(i), tuple));
+                }
+            }
+            result.add(projectedTuple);
+        }
+        return result;
+    }
+
+    private List<List<?>> getResult(Exchange exchange)
+            throws TeiidComponentException, TeiidProcessingException {
+        try {
+            return exchange.future.get();
+        } catch (ExecutionException e) {
+            release(exchange);
+            pending.removeFirst();
+            //the common pool may wrap the exception thrown by the worker
+            Throwable cause = e.getCause();
+            while (cause != null) {
+                if (cause instanceof TeiidComponentException) {
+                    throw (TeiidComponentException) cause;
+                }
+                if (cause instanceof TeiidProcessingException) {
+                    throw (TeiidProcessingException) cause;
+                }
+                if (cause instanceof TeiidRuntimeException) {
+                    throw (TeiidRuntimeException) cause;
+                }
+                cause = cause.getCause();
+            }
+            throw new TeiidRuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new TeiidRuntimeException(e);
+        }
+    }
+
+    private void release(Exchange exchange) {
+        getBufferManager().releaseBuffers(exchange.reserved);
+        exchange.reserved = 0;
+    }
+
+    protected void getNodeString(StringBuffer str) {
+        super.getNodeString(str);
+        str.append(selectSymbols);
+    }
+
+    public Object clone(){
+        ExchangeNode clonedNode = new ExchangeNode();
+        this.copyTo(clonedNode);
+        return clonedNode;
+    }
+
+    protected void copyTo(ExchangeNode target){
+        super.copyTo(target);
+        target.selectSymbols = this.selectSymbols;
+        target.parallelism = this.parallelism;
+        target.elementMap = this.elementMap;
+        target.expressions = this.expressions;
+        target.projectionIndexes = this.projectionIndexes;
+        target.compiledExpressions = this.compiledExpressions;
+    }
+
+    public PlanNode getDescriptionProperties() {
+        PlanNode props = super.getDescriptionProperties();
+        AnalysisRecord.addLanaguageObjects(props, PROP_SELECT_COLS, this.selectSymbols);
+        props.addProperty(PROP_PARALLELISM, String.valueOf(this.parallelism));
+        return props;
+    }
+
+    @Override
+    public Collection<? extends LanguageObject> getObjects() {
+        return this.selectSymbols;
+    }
+
+}
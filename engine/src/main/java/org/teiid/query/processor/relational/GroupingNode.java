@@ -24,7 +24,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
@@ -34,6 +36,8 @@ import org.teiid.api.exception.query.FunctionExecutionException;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
 import org.teiid.common.buffer.STree;
 import org.teiid.common.buffer.STree.InsertMode;
 import org.teiid.common.buffer.TupleBatch;
@@ -105,6 +109,16 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         }
     }
 
+    /**
+     * A spilled portion of the hash grouping input
+     */
+    private static class Partition {
+        TupleBuffer buffer;
+        int depth;
+    }
+
+    private static final int HASH_PARTITIONS = 16;
+
     // Grouping columns set by the planner
     private List<OrderByItem> orderBy;
     private boolean removeDuplicates;
@@ -139,10 +153,28 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
     private static final int GROUP = 3;
     private static final int GROUP_SORT = 4;
     private static final int GROUP_SORT_OUTPUT = 5;
+    private static final int GROUP_HASH = 6;
+    private static final int GROUP_HASH_OUTPUT = 7;
     private int[] indexes;
     private boolean rollup;
     private HashMap<Integer, Integer> indexMap;
 
+    // Group hash
+    private boolean hashGrouping;
+    private HashMap<List<?>, List<Object>> groups;
+    private Iterator<List<Object>> groupOutput;
+    private List<Expression> collectedSchema;
+    private Partition[] partitions;
+    private LinkedList<Partition> pendingPartitions;
+    private int hashDepth;
+    private int stateSchemaSize;
+    private int stateBatchSize;
+    private int reserved;
+    private int reservedGroups;
+    //once a group has spilled no new groups are held in memory for the pass
+    private boolean spilled;
+    private List<Object> stateValues;
+
     public GroupingNode(int nodeID) {
         super(nodeID);
     }
@@ -159,6 +191,8 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         currentGroupTuple = null;
         doneReading = false;
 
+        hashDepth = 0;
+
         if (this.functions != null) {
             for (AggregateFunction[] functions : this.functions) {
                 for (AggregateFunction function : functions) {
@@ -408,6 +442,16 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             return groupSortOutputPhase();
         }
 
+        while (this.phase == GROUP_HASH || this.phase == GROUP_HASH_OUTPUT) {
+            if (this.phase == GROUP_HASH) {
+                groupHashPhase();
+            }
+            TupleBatch batch = groupHashOutputPhase();
+            if (batch != null) {
+                return batch;
+            }
+        }
+
         this.terminateBatches();
         return pullBatch();
     }
@@ -501,6 +545,17 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
                         schema.add(es);
                     }
 
+                    if (this.hashGrouping && RelationalNodeUtil.isHashable(schema.subList(0, orderBy.size()))) {
+                        this.groupSortTupleSource = this.getGroupSortTupleSource();
+                        this.collectedSchema = new ArrayList<Expression>(collectedExpressions.keySet());
+                        this.stateSchemaSize = getBufferManager().getSchemaSize(schema);
+                        this.stateBatchSize = getBufferManager().getProcessorBatchSize(schema);
+                        this.pendingPartitions = new LinkedList<Partition>();
+                        initHash();
+                        this.phase = GROUP_HASH;
+                        return;
+                    }
+
                     tree = this.getBufferManager().createSTree(schema, this.getConnectionID(), orderBy.size());
                     //non-default order needs to update the comparator
                     tree.getComparator().setNullOrdering(nullOrdering);
@@ -514,6 +569,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
 
             this.sortUtility = new SortUtility(getGroupSortTupleSource(), removeDuplicates?Mode.DUP_REMOVE_SORT:Mode.SORT, getBufferManager(),
                     getConnectionID(), new ArrayList<Expression>(collectedExpressions.keySet()), sortTypes, nullOrdering, sortIndexes);
+            this.sortUtility.setParallelism(getContext().getOptions().getSortParallelism());
             this.phase = SORT;
         }
     }
@@ -556,6 +612,152 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         this.phase = GROUP_SORT_OUTPUT;
     }
 
+    private void initHash() {
+        this.groups = new HashMap<List<?>, List<Object>>();
+        this.partitions = new Partition[HASH_PARTITIONS];
+        //always allow progress
+        this.reserved += getBufferManager().reserveBuffers(stateSchemaSize, BufferReserveMode.FORCE);
+        this.reservedGroups = stateBatchSize;
+        this.spilled = false;
+    }
+
+    /**
+     * Process the input into the in memory groups.  New groups that
+     * cannot be held in memory are spilled to partitions that are processed
+     * in a subsequent pass.
+     * @throws TeiidComponentException
+     * @throws TeiidProcessingException
+     */
+    private void groupHashPhase() throws TeiidComponentException, TeiidProcessingException {
+        List<?> tuple = null;
+        int keySize = orderBy.size();
+        if (this.stateValues == null) {
+            this.stateValues = new ArrayList<Object>();
+        }
+        while ((tuple = groupSortTupleSource.nextTuple()) != null) {
+            List<?> key = tuple.subList(0, keySize);
+            List<Object> current = this.groups.get(key);
+            List<Object> accumulated = current;
+            if (current == null) {
+                if (this.spilled || !reserveGroup()) {
+                    spill(key, tuple);
+                    continue;
+                }
+                key = new ArrayList<Object>(key);
+                accumulated = new ArrayList<Object>(key);
+            }
+            int index = keySize;
+            for (int i = 0; i < this.groupSortfunctions.length; i++) {
+                AggregateFunction aggregateFunction = this.groupSortfunctions[i];
+                if (current != null) {
+                    aggregateFunction.setState(current, index);
+                } else {
+                    aggregateFunction.reset();
+                }
+                aggregateFunction.addInput(tuple, getContext());
+                if (current != null) {
+                    //update the existing state in place
+                    this.stateValues.clear();
+                    aggregateFunction.getState(this.stateValues);
+                    for (int j = 0; j < this.stateValues.size(); j++) {
+                        current.set(index + j, this.stateValues.get(j));
+                    }
+                } else {
+                    aggregateFunction.getState(accumulated);
+                }
+                index+=this.accumulatorStateCount[i];
+            }
+            if (current == null) {
+                this.groups.put(key, accumulated);
+            }
+        }
+        this.groupSortTupleSource.closeSource();
+        for (int i = 0; i < this.partitions.length; i++) {
+            Partition partition = this.partitions[i];
+            if (partition != null) {
+                partition.buffer.close();
+                this.pendingPartitions.add(partition);
+                this.partitions[i] = null;
+            }
+        }
+        this.groupOutput = this.groups.values().iterator();
+        this.phase = GROUP_HASH_OUTPUT;
+    }
+
+    private boolean reserveGroup() {
+        if (this.groups.size() < this.reservedGroups) {
+            return true;
+        }
+        int result = getBufferManager().reserveBuffers(stateSchemaSize, BufferReserveMode.NO_WAIT);
+        if (result < stateSchemaSize) {
+            getBufferManager().releaseBuffers(result);
+            return false;
+        }
+        this.reserved += result;
+        this.reservedGroups += stateBatchSize;
+        return true;
+    }
+
+    private void spill(List<?> key, List<?> tuple) throws TeiidComponentException {
+        this.spilled = true;
+        //use different hash bits at each depth so that repartitioning splits the groups
+        int index = Integer.rotateLeft(key.hashCode(), hashDepth * 4) & (HASH_PARTITIONS - 1);
+        Partition partition = this.partitions[index];
+        if (partition == null) {
+            partition = new Partition();
+            partition.depth = hashDepth + 1;
+            partition.buffer = getBufferManager().createTupleBuffer(this.collectedSchema, getConnectionID(), TupleSourceType.PROCESSOR);
+            partition.buffer.setForwardOnly(true);
+            this.partitions[index] = partition;
+        }
+        partition.buffer.addTuple(tuple);
+    }
+
+    /**
+     * Output the in memory groups, then move on to the next spilled partition
+     * @return the next batch or null if there is another partition to process
+     */
+    private TupleBatch groupHashOutputPhase() throws FunctionExecutionException, ExpressionEvaluationException, TeiidComponentException, TeiidProcessingException {
+        int size = orderBy.size();
+        List<Object> vals = Arrays.asList(new Object[size + groupSortfunctions.length]);
+        while (this.groupOutput.hasNext()) {
+            List<Object> tuple = this.groupOutput.next();
+            for (int i = 0; i < size; i++) {
+                vals.set(i, tuple.get(i));
+            }
+            int index = size;
+            for (int i = 0; i < this.groupSortfunctions.length; i++) {
+                AggregateFunction aggregateFunction = this.groupSortfunctions[i];
+                aggregateFunction.setState(tuple, index);
+                index+=this.accumulatorStateCount[i];
+                vals.set(size + i, aggregateFunction.getResult(getContext()));
+            }
+            addBatchRow(RelationalNode.projectTuple(projection, vals));
+            if (isBatchFull()) {
+                return pullBatch();
+            }
+        }
+        releaseHashReservation();
+        if (this.pendingPartitions.isEmpty()) {
+            terminateBatches();
+            return pullBatch();
+        }
+        Partition next = this.pendingPartitions.removeFirst();
+        this.hashDepth = next.depth;
+        this.groupSortTupleSource = next.buffer.createIndexedTupleSource(true);
+        initHash();
+        this.phase = GROUP_HASH;
+        return null;
+    }
+
+    private void releaseHashReservation() {
+        this.groups = null;
+        this.groupOutput = null;
+        getBufferManager().releaseBuffers(this.reserved);
+        this.reserved = 0;
+        this.reservedGroups = 0;
+    }
+
     /**
      * Walk the tree to produce the results
      * @return
@@ -713,6 +915,19 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
             this.tree.remove();
             this.tree = null;
         }
+        if (this.partitions != null) {
+            for (Partition partition : this.partitions) {
+                if (partition != null) {
+                    partition.buffer.remove();
+                }
+            }
+            for (Partition partition : this.pendingPartitions) {
+                partition.buffer.remove();
+            }
+            this.partitions = null;
+            this.pendingPartitions = null;
+            releaseHashReservation();
+        }
     }
 
     protected void getNodeString(StringBuffer str) {
@@ -730,6 +945,7 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         clonedNode.outputMapping = outputMapping;
         clonedNode.orderBy = orderBy;
         clonedNode.rollup = rollup;
+        clonedNode.hashGrouping = hashGrouping;
         return clonedNode;
     }
 
@@ -756,6 +972,9 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         if (rollup) {
             props.addProperty(PROP_ROLLUP, Boolean.TRUE.toString());
         }
+        if (hashGrouping) {
+            props.addProperty(PROP_GROUPING_STRATEGY, "HASH"); //$NON-NLS-1$
+        }
         return props;
     }
 
@@ -763,4 +982,12 @@ public class GroupingNode extends SubqueryAwareRelationalNode {
         this.rollup = rollup;
     }
 
-}
\ No newline at end of file
+    /**
+     * Use a hash table rather than sorting to determine the groups.
+     * The output will not be ordered.
+     */
+    public void setHashGrouping(boolean hashGrouping) {
+        this.hashGrouping = hashGrouping;
+    }
+
+}
@@ -0,0 +1,442 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.query.processor.relational;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
+import org.teiid.common.buffer.BufferManager.TupleSourceType;
+import org.teiid.common.buffer.TupleBuffer;
+import org.teiid.common.buffer.TupleSource;
+import org.teiid.core.TeiidComponentException;
+import org.teiid.core.TeiidProcessingException;
+import org.teiid.core.util.Assertion;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.logging.MessageLevel;
+import org.teiid.query.processor.relational.SourceState.ImplicitBuffer;
+import org.teiid.query.sql.lang.JoinType;
+
+
+/**
+ * A partitioned hybrid hash join.
+ * <br>
+ * The right side is by default the build side and is hashed into partitions.  As many partitions
+ * as the buffer manager will allow are held in memory, the rest are spilled to
+ * {@link TupleBuffer}s.  Left tuples that map to an in memory partition are probed immediately,
+ * left tuples that map to a spilled partition are also spilled.  Each pair of spilled
+ * partitions is then processed as a subsequent pass using different hash bits.
+ * <br>
+ * For inner joins the left side may be used as the build side instead.
+ * <br>
+ * Supports inner, left outer, semi, and anti-semi joins with generalized non-equi join criteria
+ * as long as there is at least one equi-join criteria.  Null join values never match.
+ * <br>
+ * The output is not ordered.
+ */
+public class HashJoinStrategy extends JoinStrategy {
+
+    private static final int PARTITIONS = 16;
+    private static final int PARTITION_BITS = 4;
+    /**
+     * The depth after which all hash bits have been used, so further partitioning
+     * will not be effective
+     */
+    private static final int MAX_DEPTH = 32 / PARTITION_BITS;
+
+    private enum State {
+        BUILD, PROBE
+    }
+
+    /**
+     * A spilled pair of build and probe partitions
+     */
+    private static class Pass {
+        TupleBuffer build;
+        TupleBuffer probe;
+        int depth;
+    }
+
+    private static class Partition {
+        HashMap<List<?>, List<List<?>>> table = new HashMap<List<?>, List<List<?>>>();
+        int rowCount;
+        TupleBuffer build;
+        TupleBuffer probe;
+    }
+
+    private boolean buildLeft;
+
+    private State state;
+    private SourceState buildState;
+    private SourceState probeState;
+    private Pass current;
+    private TupleSource buildSource;
+    private TupleSource probeSource;
+    private LinkedList<Pass> pending = new LinkedList<Pass>();
+    private Partition[] partitions;
+
+    private int rowSchemaSize;
+    private int rowBatchSize;
+    private int hashReserved;
+    private long reservedRows;
+    private long memoryRows;
+
+    //probe state
+    private List<?> probeTuple;
+    private List<List<?>> matches;
+    private int matchIndex;
+    private boolean matched;
+
+    //statistics
+    private long buildRows;
+    private int spilledPartitions;
+    private int passes;
+    private int maxDepth;
+
+    @Override
+    public HashJoinStrategy clone() {
+        HashJoinStrategy clone = new HashJoinStrategy();
+        clone.buildLeft = this.buildLeft;
+        return clone;
+    }
+
+    /**
+     * Use the left side as the build side.  Only valid for inner joins.
+     */
+    public void setBuildLeft(boolean buildLeft) {
+        this.buildLeft = buildLeft;
+    }
+
+    @Override
+    protected void loadRight() throws TeiidComponentException,
+            TeiidProcessingException {
+        //each side is read only once
+        this.rightSource.setImplicitBuffer(ImplicitBuffer.NONE);
+    }
+
+    @Override
+    protected void process() throws TeiidComponentException,
+            TeiidProcessingException {
+        if (this.current == null) {
+            if (this.buildLeft) {
+                Assertion.assertTrue(this.joinNode.getJoinType() == JoinType.JOIN_INNER);
+                this.buildState = this.leftSource;
+                this.probeState = this.rightSource;
+            } else {
+                this.buildState = this.rightSource;
+                this.probeState = this.leftSource;
+            }
+            BufferManager bm = this.joinNode.getBufferManager();
+            List elements = this.buildState.getSource().getElements();
+            this.rowSchemaSize = bm.getSchemaSize(elements);
+            this.rowBatchSize = bm.getProcessorBatchSize(elements);
+            this.current = new Pass();
+            startPass(this.buildState.getIterator(), this.probeState.getIterator());
+        }
+        while (true) {
+            if (this.state == State.BUILD) {
+                build();
+                this.state = State.PROBE;
+            }
+            probe();
+            finishPass();
+            if (this.pending.isEmpty()) {
+                return;
+            }
+            this.current = this.pending.removeFirst();
+            startPass(this.current.build.createIndexedTupleSource(true), this.current.probe.createIndexedTupleSource(true));
+        }
+    }
+
+    private void startPass(TupleSource build, TupleSource probe) {
+        this.buildSource = build;
+        this.probeSource = probe;
+        this.partitions = new Partition[PARTITIONS];
+        for (int i = 0; i < PARTITIONS; i++) {
+            this.partitions[i] = new Partition();
+        }
+        //always allow progress
+        this.hashReserved += this.joinNode.getBufferManager().reserveBuffers(this.rowSchemaSize, BufferReserveMode.FORCE);
+        this.reservedRows = this.rowBatchSize;
+        this.memoryRows = 0;
+        this.passes++;
+        this.maxDepth = Math.max(this.maxDepth, this.current.depth);
+        this.state = State.BUILD;
+    }
+
+    private void build() throws TeiidComponentException, TeiidProcessingException {
+        int[] indexes = this.buildState.getExpressionIndexes();
+        List<?> tuple = null;
+        while ((tuple = this.buildSource.nextTuple()) != null) {
+            List<?> key = getKey(tuple, indexes);
+            if (key == null) {
+                continue; //cannot match
+            }
+            this.buildRows++;
+            Partition partition = this.partitions[getPartition(key)];
+            if (partition.build == null && !reserveRow()) {
+                spill();
+            }
+            if (partition.build != null) {
+                partition.build.addTuple(tuple);
+                continue;
+            }
+            List<List<?>> rows = partition.table.get(key);
+            if (rows == null) {
+                rows = new ArrayList<List<?>>(2);
+                partition.table.put(key, rows);
+            }
+            rows.add(tuple);
+            partition.rowCount++;
+            this.memoryRows++;
+        }
+    }
+
+    private void probe() throws TeiidComponentException, TeiidProcessingException {
+        int[] indexes = this.probeState.getExpressionIndexes();
+        JoinType joinType = this.joinNode.getJoinType();
+        while (true) {
+            if (this.probeTuple == null) {
+                List<?> tuple = this.probeSource.nextTuple();
+                if (tuple == null) {
+                    break;
+                }
+                List<?> key = getKey(tuple, indexes);
+                this.matches = Collections.emptyList();
+                this.matchIndex = 0;
+                this.matched = false;
+                if (key != null) {
+                    Partition partition = this.partitions[getPartition(key)];
+                    if (partition.build != null) {
+                        if (partition.probe == null) {
+                            partition.probe = createBuffer(this.probeState);
+                        }
+                        partition.probe.addTuple(tuple);
+                        continue;
+                    }
+                    List<List<?>> rows = partition.table.get(key);
+                    if (rows != null) {
+                        this.matches = rows;
+                    }
+                }
+                this.probeTuple = tuple;
+            }
+            while (this.matchIndex < this.matches.size()) {
+                List<?> buildTuple = this.matches.get(this.matchIndex);
+                List outputTuple = this.buildLeft?outputTuple(buildTuple, this.probeTuple):outputTuple(this.probeTuple, buildTuple);
+                boolean match = this.joinNode.matchesCriteria(outputTuple);
+                this.matchIndex++;
+                if (!match) {
+                    continue;
+                }
+                this.matched = true;
+                if (joinType == JoinType.JOIN_ANTI_SEMI) {
+                    break;
+                }
+                if (joinType == JoinType.JOIN_SEMI) {
+                    //only one match is needed for semi join
+                    this.matchIndex = this.matches.size();
+                }
+                this.joinNode.addBatchRow(outputTuple);
+            }
+            List<?> tuple = this.probeTuple;
+            this.probeTuple = null;
+            if (!this.matched && joinType.isOuter()) {
+                this.joinNode.addBatchRow(outputTuple(tuple, this.rightSource.getOuterVals()));
+            }
+        }
+    }
+
+    /**
+     * Close out the current pass and queue the spilled partition pairs.
+     * If there are no probe tuples for a spilled partition then it can't produce any output.
+     */
+    private void finishPass() throws TeiidComponentException {
+        if (this.current.build != null) {
+            this.buildSource.closeSource();
+            this.probeSource.closeSource();
+            this.current.build = null;
+            this.current.probe = null;
+        }
+        this.buildSource = null;
+        this.probeSource = null;
+        for (Partition partition : this.partitions) {
+            if (partition.build == null) {
+                continue;
+            }
+            if (partition.probe == null) {
+                partition.build.remove();
+                continue;
+            }
+            partition.build.close();
+            partition.probe.close();
+            Pass pass = new Pass();
+            pass.build = partition.build;
+            pass.probe = partition.probe;
+            pass.depth = this.current.depth + 1;
+            this.pending.add(pass);
+        }
+        this.partitions = null;
+        releaseReservation();
+    }
+
+    private boolean reserveRow() {
+        if (this.memoryRows < this.reservedRows) {
+            return true;
+        }
+        BufferManager bm = this.joinNode.getBufferManager();
+        if (this.current.depth >= MAX_DEPTH) {
+            //further partitioning won't help
+            this.hashReserved += bm.reserveBuffers(this.rowSchemaSize, BufferReserveMode.FORCE);
+        } else {
+            int result = bm.reserveBuffers(this.rowSchemaSize, BufferReserveMode.NO_WAIT);
+            if (result < this.rowSchemaSize) {
+                bm.releaseBuffers(result);
+                return false;
+            }
+            this.hashReserved += result;
+        }
+        this.reservedRows += this.rowBatchSize;
+        return true;
+    }
+
+    /**
+     * Spill the largest in memory partition
+     */
+    private void spill() throws TeiidComponentException {
+        Partition toSpill = null;
+        for (Partition partition : this.partitions) {
+            if (partition.build == null && (toSpill == null || partition.rowCount > toSpill.rowCount)) {
+                toSpill = partition;
+            }
+        }
+        toSpill.build = createBuffer(this.buildState);
+        for (List<List<?>> rows : toSpill.table.values()) {
+            for (List<?> tuple : rows) {
+                toSpill.build.addTuple(tuple);
+            }
+        }
+        this.memoryRows -= toSpill.rowCount;
+        toSpill.rowCount = 0;
+        toSpill.table = null;
+        this.spilledPartitions++;
+        if (LogManager.isMessageToBeRecorded(LogConstants.CTX_DQP, MessageLevel.DETAIL)) {
+            LogManager.logDetail(LogConstants.CTX_DQP, "spilling hash join partition", this.joinNode.getID(), "at depth", this.current.depth); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private TupleBuffer createBuffer(SourceState state) throws TeiidComponentException {
+        RelationalNode source = state.getSource();
+        TupleBuffer result = source.getBufferManager().createTupleBuffer(source.getElements(), source.getConnectionID(), TupleSourceType.PROCESSOR);
+        result.setForwardOnly(true);
+        return result;
+    }
+
+    private int getPartition(List<?> key) {
+        //use different hash bits at each depth so that a spilled partition will be split
+        return Integer.rotateLeft(key.hashCode(), this.current.depth * PARTITION_BITS) & (PARTITIONS - 1);
+    }
+
+    /**
+     * @return the join values or null if any are null
+     */
+    static List<?> getKey(List<?> tuple, int[] indexes) {
+        Object[] result = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            Object value = tuple.get(indexes[i]);
+            if (value == null) {
+                return null;
+            }
+            result[i] = value;
+        }
+        return Arrays.asList(result);
+    }
+
+    private void releaseReservation() {
+        this.joinNode.getBufferManager().releaseBuffers(this.hashReserved);
+        this.hashReserved = 0;
+        this.reservedRows = 0;
+        this.memoryRows = 0;
+    }
+
+    @Override
+    public void close() {
+        if (this.joinNode == null) {
+            return;
+        }
+        if (this.partitions != null) {
+            for (Partition partition : this.partitions) {
+                if (partition.build != null) {
+                    partition.build.remove();
+                }
+                if (partition.probe != null) {
+                    partition.probe.remove();
+                }
+            }
+            this.partitions = null;
+            releaseReservation();
+        }
+        if (this.current != null && this.current.build != null) {
+            this.current.build.remove();
+            this.current.probe.remove();
+        }
+        for (Pass pass : this.pending) {
+            pass.build.remove();
+            pass.probe.remove();
+        }
+        this.pending.clear();
+        this.current = null;
+        this.buildSource = null;
+        this.probeSource = null;
+        this.buildState = null;
+        this.probeState = null;
+        this.probeTuple = null;
+        this.matches = null;
+        super.close();
+    }
+
+    @Override
+    public List<String> getStatistics() {
+        List<String> result = new ArrayList<String>(4);
+        result.add("Build Rows: " + this.buildRows); //$NON-NLS-1$
+        result.add("Passes: " + this.passes); //$NON-NLS-1$
+        result.add("Spilled Partitions: " + this.spilledPartitions); //$NON-NLS-1$
+        result.add("Max Depth: " + this.maxDepth); //$NON-NLS-1$
+        return result;
+    }
+
+    public String getName() {
+        return "HASH JOIN"; //$NON-NLS-1$
+    }
+
+    @Override
+    public String toString() {
+        if (this.buildLeft) {
+            return getName() + " (build left)"; //$NON-NLS-1$
+        }
+        return getName();
+    }
+
+}
@@ -54,7 +54,8 @@ public class JoinNode extends SubqueryAwareRelationalNode {
         MERGE,
         ENHANCED_SORT,
         NESTED_LOOP,
-        NESTED_TABLE
+        NESTED_TABLE,
+        HASH
     }
 
     private enum State { LOAD_LEFT, LOAD_RIGHT, EXECUTE }
@@ -295,6 +296,12 @@ public class JoinNode extends SubqueryAwareRelationalNode {
         props.addProperty(PROP_JOIN_TYPE, this.joinType.toString());
         List<String> critList = getCriteriaList();
         props.addProperty(PROP_JOIN_CRITERIA, critList);
+        if (this.getContext() != null && this.getContext().getCollectNodeStatistics()) {
+            List<String> stats = this.joinStrategy.getStatistics();
+            if (stats != null) {
+                props.addProperty(PROP_JOIN_STATISTICS, stats);
+            }
+        }
         return props;
     }
 
@@ -85,6 +85,13 @@ public abstract class JoinStrategy {
 
     public abstract JoinStrategy clone();
 
+    /**
+     * @return strategy specific processing statistics or null if there are none
+     */
+    public List<String> getStatistics() {
+        return null;
+    }
+
     protected void openLeft() throws TeiidComponentException, TeiidProcessingException {
         if (!this.leftSource.open) {
             leftSource.getSource().open();
@@ -128,6 +128,31 @@ public class ListNestedSortComparator<T extends Comparable<? super T>> implement
         this.nullOrdering = nullOrdering;
     }
 
+    /**
+     * Resolve the null ordering.  Must be called prior to using the comparator from multiple threads.
+     */
+    void initialize() {
+        if (init) {
+            return;
+        }
+        if (nullOrdering == null) {
+            nullOrdering = Collections.nCopies(sortParameters.length, null);
+        }
+        for (int i = 0; i < sortParameters.length; i++) {
+            if (nullOrdering.get(i) == null) {
+                if (defaultNullOrder == NullOrder.FIRST) {
+                    nullOrdering.set(i, NullOrdering.FIRST);
+                } else if (defaultNullOrder == NullOrder.LAST) {
+                    nullOrdering.set(i, NullOrdering.LAST);
+                }
+            }
+        }
+        if (defaultNullOrder == NullOrder.HIGH) {
+            nullValue = 1;
+        }
+        init = true;
+    }
+
     /**
      * Compares its two arguments for order.  Returns a negative integer,
      * zero, or a positive integer as the first argument is less than,
@@ -146,22 +171,7 @@ public class ListNestedSortComparator<T extends Comparable<? super T>> implement
 
     public int compare(java.util.List<T> list1, java.util.List<T> list2) {
         if (!init) {
-            if (nullOrdering == null) {
-                nullOrdering = Collections.nCopies(sortParameters.length, null);
-            }
-            for (int i = 0; i < sortParameters.length; i++) {
-                if (nullOrdering.get(i) == null) {
-                    if (defaultNullOrder == NullOrder.FIRST) {
-                        nullOrdering.set(i, NullOrdering.FIRST);
-                    } else if (defaultNullOrder == NullOrder.LAST) {
-                        nullOrdering.set(i, NullOrdering.LAST);
-                    }
-                }
-            }
-            if (defaultNullOrder == NullOrder.HIGH) {
-                nullValue = 1;
-            }
-            init = true;
+            initialize();
         }
         int compare = 0;
         for (int k = 0; k < sortParameters.length; k++) {
@@ -30,11 +30,13 @@ import java.util.Map;
 import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.ColumnarTupleBatch;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
 import org.teiid.query.sql.LanguageObject;
 import org.teiid.query.sql.symbol.AliasSymbol;
 import org.teiid.query.sql.symbol.Expression;
@@ -52,6 +54,9 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
     private boolean needsProject = true;
     private List<Expression> expressions;
     private int[] projectionIndexes;
+    private boolean columnProject;
+    private CompiledExpression[] compiledExpressions;
+    private boolean useCompiled;
 
     // Saved state when blocked on evaluating a row - must be reset
     private TupleBatch currentBatch;
@@ -108,6 +113,7 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         // 2. project elements are either elements or aggregate symbols (no processing required)
         // 3. order of input values == order of output values
         needsProject = childElements.size() != selectSymbols.size();
+        columnProject = true;
         for(int i=0; i<selectSymbols.size(); i++) {
             Expression symbol = selectSymbols.get(i);
 
@@ -123,6 +129,7 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
             Integer index = elementMap.get(symbol);
             if(index == null) {
                 needsProject = true;
+                columnProject = false;
             } else {
                 if (index.intValue() != i) {
                     needsProject = true;
@@ -130,6 +137,19 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
                 projectionIndexes[i] = index;
             }
         }
+        //compiled once for the plan and shared by clones
+        this.compiledExpressions = new CompiledExpression[expressions.size()];
+        for (int i = 0; i < expressions.size(); i++) {
+            if (projectionIndexes[i] == -1) {
+                compiledExpressions[i] = CompiledExpression.compile(expressions.get(i), elementMap);
+            }
+        }
+    }
+
+    @Override
+    public void open() throws TeiidComponentException, TeiidProcessingException {
+        super.open();
+        this.useCompiled = this.compiledExpressions != null && getContext().getOptions().isCompiledExpressions();
     }
 
     public TupleBatch nextBatchDirect()
@@ -152,6 +172,18 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
                 currentBatch = null;
                 return result;
             }
+
+            //only references are projected, so just rearrange the columns
+            if (columnProject && currentBatch instanceof ColumnarTupleBatch && !hasPendingRows()
+                    && !((ColumnarTupleBatch)currentBatch).isMaterialized()) {
+                ColumnarTupleBatch result = ((ColumnarTupleBatch)currentBatch).select(null, currentBatch.getRowCount(), projectionIndexes);
+                currentRow += currentBatch.getRowCount();
+                if(currentBatch.getTerminationFlag()) {
+                    terminateBatches();
+                }
+                currentBatch = null;
+                return pullBatch(result);
+            }
         }
 
         while (currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
@@ -186,6 +218,8 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         int index = this.projectionIndexes[projectionIndex];
         if(index != -1) {
             tuple.add(values.get(index));
+        } else if (useCompiled) {
+            tuple.add(this.compiledExpressions[projectionIndex].evaluate(values, getEvaluator(this.elementMap)));
         } else {
             tuple.add(getEvaluator(this.elementMap).evaluate(symbol, values));
         }
@@ -209,6 +243,8 @@ public class ProjectNode extends SubqueryAwareRelationalNode {
         target.elementMap = elementMap;
         target.expressions = expressions;
         target.projectionIndexes = projectionIndexes;
+        target.columnProject = columnProject;
+        target.compiledExpressions = compiledExpressions;
     }
 
     public PlanNode getDescriptionProperties() {
@@ -29,6 +29,7 @@ import java.util.Map;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.ColumnarTupleBatch;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.TupleBuffer;
 import org.teiid.core.TeiidComponentException;
@@ -65,6 +66,7 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         RelationalNodeStatistics nodeStatistics;
         int beginBatch = 1;
         List batchRows;
+        Class<?>[] columnarTypes;
         boolean lastBatch;
         boolean closed;
 
@@ -120,6 +122,28 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         } else {
             this.getProcessingState().batchSize = bufferManager.getProcessorBatchSize();
         }
+
+        this.getProcessingState().columnarTypes = null;
+        if (context.isColumnarBatches() && producesColumnarBatches() && getOutputElements() != null) {
+            Class<?>[] types = new Class<?>[getOutputElements().size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = getOutputElements().get(i).getType();
+            }
+            if (ColumnarTupleBatch.hasPrimitiveColumns(types)) {
+                this.getProcessingState().columnarTypes = types;
+            }
+        }
+    }
+
+    /**
+     * Return true if the node should create {@link ColumnarTupleBatch}es from the
+     * rows added via {@link #addBatchRow(List)} when columnar batches are enabled.
+     * <br>
+     * Typically only source nodes should do this, intermediate nodes
+     * should instead pass through or create columnar batches directly.
+     */
+    protected boolean producesColumnarBatches() {
+        return false;
     }
 
     public CommandContext getContext() {
@@ -226,7 +250,12 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
     protected TupleBatch pullBatch() {
         TupleBatch batch = null;
         if(this.getProcessingState().batchRows != null) {
-            batch = new TupleBatch(this.getProcessingState().beginBatch, this.getProcessingState().batchRows);
+            if (this.getProcessingState().columnarTypes != null) {
+                batch = ColumnarTupleBatch.fromRows(this.getProcessingState().beginBatch, this.getProcessingState().batchRows, this.getProcessingState().columnarTypes);
+            }
+            if (batch == null) {
+                batch = new TupleBatch(this.getProcessingState().beginBatch, this.getProcessingState().batchRows);
+            }
             getProcessingState().beginBatch += this.getProcessingState().batchRows.size();
         } else {
             batch = new TupleBatch(this.getProcessingState().beginBatch, Collections.EMPTY_LIST);
@@ -242,6 +271,21 @@ public abstract class RelationalNode implements Cloneable, BatchProducer {
         return batch;
     }
 
+    /**
+     * Return the given columnar batch as the next output batch.
+     * There must not be any pending rows.
+     */
+    protected TupleBatch pullBatch(ColumnarTupleBatch batch) {
+        if (this.getProcessingState().batchRows != null) {
+            throw new AssertionError("columnar batch cannot be combined with pending rows"); //$NON-NLS-1$
+        }
+        batch.setRowOffset(this.getProcessingState().beginBatch);
+        getProcessingState().beginBatch += batch.getRowCount();
+        batch.setTerminationFlag(this.getProcessingState().lastBatch);
+        this.getProcessingState().lastBatch = false;
+        return batch;
+    }
+
     public void open()
         throws TeiidComponentException, TeiidProcessingException {
 
@@ -18,12 +18,19 @@
 
 package org.teiid.query.processor.relational;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.core.TeiidComponentException;
+import org.teiid.core.types.DataTypeManager;
 import org.teiid.query.eval.Evaluator;
 import org.teiid.query.sql.lang.*;
 import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.sql.visitor.EvaluatableVisitor;
 
 
@@ -33,6 +40,18 @@ import org.teiid.query.sql.visitor.EvaluatableVisitor;
  */
 public class RelationalNodeUtil {
 
+    /**
+     * Types with equals/hashCode consistent with the comparison used for sorting
+     */
+    private static final Set<Class<?>> HASHABLE_TYPES = new HashSet<Class<?>>(Arrays.asList(
+            DataTypeManager.DefaultDataClasses.STRING, DataTypeManager.DefaultDataClasses.CHAR,
+            DataTypeManager.DefaultDataClasses.BOOLEAN, DataTypeManager.DefaultDataClasses.BYTE,
+            DataTypeManager.DefaultDataClasses.SHORT, DataTypeManager.DefaultDataClasses.INTEGER,
+            DataTypeManager.DefaultDataClasses.LONG, DataTypeManager.DefaultDataClasses.BIG_INTEGER,
+            DataTypeManager.DefaultDataClasses.FLOAT, DataTypeManager.DefaultDataClasses.DOUBLE,
+            DataTypeManager.DefaultDataClasses.DATE, DataTypeManager.DefaultDataClasses.TIME,
+            DataTypeManager.DefaultDataClasses.TIMESTAMP));
+
     private RelationalNodeUtil() {
     }
 
@@ -198,4 +217,17 @@ public class RelationalNodeUtil {
         return hasOutParams;
     }
 
+    /**
+     * Return true if the values of the given expressions can be matched by hashing rather than sorting.
+     * String values are not hashable if a collation or pad space comparison is used.
+     */
+    public static boolean isHashable(List<? extends Expression> expressions) {
+        for (Expression ex : expressions) {
+            if (!HASHABLE_TYPES.contains(ex.getType()) || !DataTypeManager.isHashable(ex.getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -28,14 +28,24 @@ import java.util.Map;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.ColumnarTupleBatch;
+import org.teiid.common.buffer.ColumnarTupleBatch.Column;
+import org.teiid.common.buffer.ColumnarTupleBatch.ColumnType;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.query.analysis.AnalysisRecord;
+import org.teiid.query.eval.CompiledExpression;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.rewriter.QueryRewriter;
 import org.teiid.query.sql.LanguageObject;
+import org.teiid.query.sql.lang.AbstractCompareCriteria;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
 import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.IsNullCriteria;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
 import org.teiid.query.util.CommandContext;
 
@@ -50,8 +60,10 @@ public class SelectNode extends SubqueryAwareRelationalNode {
     // Derived element lookup map
     private Map<Expression, Integer> elementMap;
     private int[] projectionIndexes;
+    private CompiledExpression compiledCriteria;
 
     private boolean noRows;
+    private CompiledExpression currentCriteria;
 
     // State if blocked on evaluating a criteria
     private TupleBatch currentBatch;
@@ -72,10 +84,12 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         currentRow = 1;
         noRows = false;
         preEvalCriteria = null;
+        currentCriteria = null;
     }
 
     public void setCriteria(Criteria criteria) {
         this.criteria = criteria;
+        this.compiledCriteria = null;
     }
 
     public Criteria getCriteria() { // made public to support change in ProcedurePlanner
@@ -95,6 +109,9 @@ public class SelectNode extends SubqueryAwareRelationalNode {
             this.elementMap = createLookupMap(this.getChildren()[0].getElements());
             this.projectionIndexes = getProjectionIndexes(this.elementMap, projectedExpressions!=null?projectedExpressions:getElements());
         }
+        if (this.compiledCriteria == null && !shouldEvaluate) {
+            this.compiledCriteria = CompiledExpression.compile(criteria, elementMap);
+        }
     }
 
     /**
@@ -112,10 +129,29 @@ public class SelectNode extends SubqueryAwareRelationalNode {
             currentBatch = this.getChildren()[0].nextBatch();
         }
 
+        if (currentBatch instanceof ColumnarTupleBatch && !hasPendingRows() && currentRow == currentBatch.getBeginRow()
+                && !((ColumnarTupleBatch)currentBatch).isMaterialized()) {
+            ColumnarTupleBatch result = filterColumnar((ColumnarTupleBatch)currentBatch, this.preEvalCriteria!=null?preEvalCriteria:criteria);
+            if (result != null) {
+                currentRow += currentBatch.getRowCount();
+                if(currentBatch.getTerminationFlag()) {
+                    terminateBatches();
+                }
+                currentBatch = null;
+                return pullBatch(result);
+            }
+        }
+
         while (currentRow <= currentBatch.getEndRow() && !isBatchFull()) {
             List<?> tuple = currentBatch.getTuple(currentRow);
 
-            if(getEvaluator(this.elementMap).evaluate(this.preEvalCriteria!=null?preEvalCriteria:criteria, tuple)) {
+            boolean matches = false;
+            if (currentCriteria != null) {
+                matches = currentCriteria.evaluateCriteria(tuple, getEvaluator(this.elementMap));
+            } else {
+                matches = getEvaluator(this.elementMap).evaluate(this.preEvalCriteria!=null?preEvalCriteria:criteria, tuple);
+            }
+            if(matches) {
                 addBatchRow(projectTuple(this.projectionIndexes, tuple));
             }
             currentRow++;
@@ -131,6 +167,126 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         return pullBatch();
     }
 
+    /**
+     * Filter the batch directly against the column values.
+     * @return the filtered and projected batch or null if the criteria cannot be evaluated against columns
+     */
+    private ColumnarTupleBatch filterColumnar(ColumnarTupleBatch batch, Criteria crit) {
+        boolean[] matches = new boolean[batch.getRowCount()];
+        if (!evaluateColumnar(batch, crit, matches)) {
+            return null;
+        }
+        int[] selected = new int[matches.length];
+        int count = 0;
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i]) {
+                selected[count++] = i;
+            }
+        }
+        return batch.select(selected, count, this.projectionIndexes);
+    }
+
+    /**
+     * Evaluate simple comparisons of primitive columns.  Unknown is treated as false,
+     * which is only valid since negation is not supported.
+     */
+    private boolean evaluateColumnar(ColumnarTupleBatch batch, Criteria crit, boolean[] matches) {
+        if (crit instanceof CompoundCriteria) {
+            CompoundCriteria cc = (CompoundCriteria)crit;
+            boolean and = cc.getOperator() == CompoundCriteria.AND;
+            boolean[] partial = null;
+            for (int i = 0; i < cc.getCriteriaCount(); i++) {
+                if (i == 0) {
+                    if (!evaluateColumnar(batch, cc.getCriteria(i), matches)) {
+                        return false;
+                    }
+                    continue;
+                }
+                if (partial == null) {
+                    partial = new boolean[matches.length];
+                }
+                if (!evaluateColumnar(batch, cc.getCriteria(i), partial)) {
+                    return false;
+                }
+                for (int j = 0; j < matches.length; j++) {
+                    matches[j] = and?(matches[j] && partial[j]):(matches[j] || partial[j]);
+                }
+            }
+            return true;
+        }
+        if (crit instanceof IsNullCriteria) {
+            IsNullCriteria inc = (IsNullCriteria)crit;
+            Column column = getColumn(batch, inc.getExpression());
+            if (column == null) {
+                return false;
+            }
+            for (int j = 0; j < matches.length; j++) {
+                matches[j] = column.isNull(j) != inc.isNegated();
+            }
+            return true;
+        }
+        if (!(crit instanceof CompareCriteria)) {
+            return false;
+        }
+        CompareCriteria cc = (CompareCriteria)crit;
+        Column column = getColumn(batch, cc.getLeftExpression());
+        if (column == null || column.getColumnType() == ColumnType.OBJECT || !(cc.getRightExpression() instanceof Constant)) {
+            return false;
+        }
+        Constant constant = (Constant)cc.getRightExpression();
+        if (constant.isMultiValued()) {
+            return false;
+        }
+        Object value = constant.getValue();
+        int op = cc.getOperator();
+        if (column.getColumnType() != ColumnType.DOUBLE
+                && (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)) {
+            long v = ((Number)value).longValue();
+            boolean ints = column.getColumnType() == ColumnType.INT;
+            for (int j = 0; j < matches.length; j++) {
+                matches[j] = !column.isNull(j) && compare(Long.compare(ints?column.getInt(j):column.getLong(j), v), op);
+            }
+            return true;
+        }
+        if (column.getColumnType() == ColumnType.DOUBLE && (value instanceof Double || value instanceof Float)) {
+            double v = ((Number)value).doubleValue();
+            for (int j = 0; j < matches.length; j++) {
+                matches[j] = !column.isNull(j) && compare(Double.compare(column.getDouble(j), v), op);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private Column getColumn(ColumnarTupleBatch batch, Expression expr) {
+        if (!(expr instanceof ElementSymbol)) {
+            return null;
+        }
+        Integer index = this.elementMap.get(expr);
+        if (index == null) {
+            return null;
+        }
+        return batch.getColumn(index);
+    }
+
+    private static boolean compare(int comp, int op) {
+        switch (op) {
+        case AbstractCompareCriteria.EQ:
+            return comp == 0;
+        case AbstractCompareCriteria.NE:
+            return comp != 0;
+        case AbstractCompareCriteria.LT:
+            return comp < 0;
+        case AbstractCompareCriteria.GT:
+            return comp > 0;
+        case AbstractCompareCriteria.LE:
+            return comp <= 0;
+        case AbstractCompareCriteria.GE:
+            return comp >= 0;
+        }
+        return false;
+    }
+
     protected void getNodeString(StringBuffer str) {
         super.getNodeString(str);
         str.append(criteria);
@@ -149,6 +305,7 @@ public class SelectNode extends SubqueryAwareRelationalNode {
         target.projectionIndexes = projectionIndexes;
         target.projectedExpressions = projectedExpressions;
         target.shouldEvaluate = shouldEvaluate;
+        target.compiledCriteria = compiledCriteria;
     }
 
     public PlanNode getDescriptionProperties() {
@@ -176,6 +333,13 @@ public class SelectNode extends SubqueryAwareRelationalNode {
                 return;
             }
         }
+        if (getContext().getOptions().isCompiledExpressions()) {
+            if (preEvalCriteria != null) {
+                currentCriteria = CompiledExpression.compile(preEvalCriteria, elementMap);
+            } else {
+                currentCriteria = compiledCriteria;
+            }
+        }
         super.open();
     }
 
@@ -23,12 +23,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
 
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
@@ -54,6 +58,10 @@ import org.teiid.query.util.CommandContext;
 
 /**
  * Implements several modes of a multi-pass sort.
+ * <br>
+ * With a parallelism greater than 1 the sorting of the initial sublists and multi-pass merges
+ * are submitted as request work to the engine executor.  Additional work is only started if its memory can
+ * be reserved without waiting.
  *
  * TODO: could consider using an index for dup_removal and maintaining a separate output buffer
  * TODO: release the tuple buffer in the last merge pass if sublists will fit in processing batch size
@@ -119,7 +127,12 @@ public class SortUtility {
         @Override
         public int compareTo(SortedSublist o) {
             //reverse the comparison, so that removal of the lowest is a low cost operation
-            return -comparator.compare(this.tuple, o.tuple);
+            int result = -comparator.compare(this.tuple, o.tuple);
+            if (result == 0 && mode == Mode.SORT) {
+                //take from the earlier sublist first to keep the sort stable
+                return Integer.compare(o.index, this.index);
+            }
+            return result;
         }
 
         @Override
@@ -153,6 +166,7 @@ public class SortUtility {
     private static boolean STABLE_SORT = PropertiesUtils.getHierarchicalProperty("org.teiid.requireStableSort", false, Boolean.class); //$NON-NLS-1$
 
     private boolean stableSort = STABLE_SORT;
+    private int parallelism = 1;
     private Future<Void> future;
 
     public SortUtility(TupleSource sourceID, List<OrderByItem> items, Mode mode, BufferManager bufferMgr,
@@ -416,6 +430,8 @@ public class SortUtility {
             throws TeiidComponentException, TeiidProcessingException {
         //sub-phase 2 - perform a memory sort on the workingbuffer/source
         int totalReservedBuffers = 0;
+        int extraReserved = 0;
+        LinkedList<Future<Void>> pending = null;
         try {
             int maxRows = this.batchSize;
             Collection<List<?>> workingTuples = null;
@@ -451,9 +467,15 @@ public class SortUtility {
             boolean checkLimit = rowLimit > -1 && rowCount <= maxRows;
             if (mode == Mode.SORT) {
                 workingTuples = new AccessibleArrayList<>();
+                if (parallelism > 1 && rowCount > maxRows) {
+                    comparator.initialize();
+                    pending = new LinkedList<Future<Void>>();
+                }
             } else {
                 workingTuples = new TreeSet<List<?>>(comparator);
             }
+            int extraSublists = 0;
+            int sublistSpace = Math.max(schemaSize, totalReservedBuffers);
             outer: while (!done) {
                 while(!done) {
                     if (workingTuples.size() >= maxRows) {
@@ -473,13 +495,27 @@ public class SortUtility {
 
                 TupleBuffer sublist = createTupleBuffer();
                 activeTupleBuffers.add(sublist);
-                if (this.mode == Mode.SORT) {
-                    //perform a stable sort
-                    if (workingTuples.size() > (1<<18)) {
-                        Arrays.parallelSort(((AccessibleArrayList)workingTuples).elementData,0, workingTuples.size(), comparator);
-                    } else {
-                        Collections.sort((List<List<?>>) workingTuples, comparator);
+                if (pending != null) {
+                    pending.add(sortAsync((AccessibleArrayList<List<?>>)workingTuples, sublist));
+                    workingTuples = new AccessibleArrayList<>();
+                    //continue reading while the sublists are sorted if there is space for another
+                    if (!done && pending.size() > extraSublists) {
+                        int reserved = 0;
+                        if (extraSublists + 1 < parallelism) {
+                            reserved = bufferManager.reserveBuffers(sublistSpace, BufferReserveMode.NO_WAIT);
+                        }
+                        if (reserved == sublistSpace) {
+                            extraReserved += reserved;
+                            extraSublists++;
+                        } else {
+                            bufferManager.releaseBuffers(reserved);
+                            getResult(pending.removeFirst());
+                        }
                     }
+                    continue;
+                }
+                if (this.mode == Mode.SORT) {
+                    sort((AccessibleArrayList<List<?>>)workingTuples);
                 }
                 for (List<?> list : workingTuples) {
                     sublist.addTuple(list);
@@ -492,9 +528,16 @@ public class SortUtility {
                 workingTuples.clear();
                 sublist.saveBatch();
             }
+            if (pending != null) {
+                while (!pending.isEmpty()) {
+                    getResult(pending.removeFirst());
+                }
+            }
         } catch (BlockedException e) {
             Assertion.failed("should not block during memory sublist sorting"); //$NON-NLS-1$
         } finally {
+            awaitQuietly(pending);
+            bufferManager.releaseBuffers(extraReserved);
             bufferManager.releaseBuffers(totalReservedBuffers);
             if (this.workingBuffer != null) {
                 if (this.source != null) {
@@ -569,11 +612,8 @@ public class SortUtility {
         reserved += bufferManager.reserveBuffers(toForce, BufferReserveMode.FORCE);
 
         try {
+            int start = 0;
             while(this.activeTupleBuffers.size() > 1) {
-                ArrayList<SortedSublist> sublists = new ArrayList<SortedSublist>(activeTupleBuffers.size());
-
-                TupleBuffer merged = createTupleBuffer();
-
                 desiredSpace = activeTupleBuffers.size() * (long)schemaSize;
                 if (desiredSpace < reserved) {
                     bufferManager.releaseBuffers(reserved - (int)desiredSpace);
@@ -584,40 +624,225 @@ public class SortUtility {
                 if (LogManager.isMessageToBeRecorded(org.teiid.logging.LogConstants.CTX_DQP, MessageLevel.TRACE)) {
                     LogManager.logTrace(org.teiid.logging.LogConstants.CTX_DQP, "Merging", maxSortIndex, "sublists out of", activeTupleBuffers.size()); //$NON-NLS-1$ //$NON-NLS-2$
                 }
-                // initialize the sublists with the min value
-                for(int i = 0; i<maxSortIndex; i++) {
-                     TupleBuffer activeID = activeTupleBuffers.get(i);
-                     SortedSublist sortedSublist = new SortedSublist();
-                    sortedSublist.its = activeID.createIndexedTupleSource();
-                    sortedSublist.its.setNoBlocking(true);
-                    sortedSublist.index = i;
-                    incrementWorkingTuple(sublists, sortedSublist);
+
+                //the merged sublists are replaced in place to keep the original order,
+                //start the next pass if there's nothing left to merge or everything can be merged at once
+                if (start >= activeTupleBuffers.size() - 1 || activeTupleBuffers.size() <= maxSortIndex) {
+                    start = 0;
                 }
+                start += mergeGroups(start, maxSortIndex, rowLimit);
+            }
+        } finally {
+            this.bufferManager.releaseBuffers(reserved);
+        }
+    }
 
-                boolean checkLimit = maxSortIndex == activeTupleBuffers.size() && rowLimit > -1;
+    /**
+     * Merge groups of up to maxSortIndex sublists beginning at start, replacing each group with its result.
+     * Groups after the first are merged concurrently if the parallelism allows and their space can be
+     * reserved without waiting.  The space for the first group has already been reserved.
+     * @return the number of groups merged
+     */
+    private int mergeGroups(int start, int maxSortIndex, int rowLimit) throws TeiidComponentException, TeiidProcessingException {
+        int size = activeTupleBuffers.size();
+        int groupSpace = maxSortIndex * schemaSize;
+        int extraReserved = 0;
+        int groups = 1;
+        //each additional group should merge at least 2 sublists
+        while (groups < parallelism && size - start - groups * maxSortIndex >= 2) {
+            int reserved = bufferManager.reserveBuffers(groupSpace, BufferReserveMode.NO_WAIT);
+            extraReserved += reserved;
+            if (reserved < groupSpace) {
+                break;
+            }
+            groups++;
+        }
+        if (groups > 1) {
+            comparator.initialize();
+        }
+        int end = Math.min(size, start + groups * maxSortIndex);
+        List<Future<Void>> futures = new ArrayList<Future<Void>>(groups - 1);
+        List<TupleBuffer> results = new ArrayList<TupleBuffer>(groups);
+        boolean success = false;
+        try {
+            for (int i = 0; i < groups; i++) {
+                results.add(createTupleBuffer());
+            }
+            for (int i = 1; i < groups; i++) {
+                List<TupleBuffer> toMerge = new ArrayList<TupleBuffer>(activeTupleBuffers.subList(start + i * maxSortIndex, Math.min(end, start + (i + 1) * maxSortIndex)));
+                futures.add(mergeAsync(toMerge, results.get(i)));
+            }
+            int firstEnd = Math.min(end, start + maxSortIndex);
+            merge(activeTupleBuffers.subList(start, firstEnd), results.get(0), (start == 0 && firstEnd == size)?rowLimit:-1);
+            for (Future<Void> f : futures) {
+                getResult(f);
+            }
+            success = true;
+        } finally {
+            awaitQuietly(futures);
+            bufferManager.releaseBuffers(extraReserved);
+            if (!success) {
+                for (TupleBuffer tb : results) {
+                    tb.remove();
+                }
+            }
+        }
+        // Replace the merged sublists
+        List<TupleBuffer> merged = activeTupleBuffers.subList(start, end);
+        for (TupleBuffer id : merged) {
+            id.remove();
+        }
+        merged.clear();
+        activeTupleBuffers.addAll(start, results);
+        return groups;
+    }
 
-                // iteratively process the lowest tuple
-                while (sublists.size() > 0) {
-                    SortedSublist sortedSublist = sublists.remove(sublists.size() - 1);
-                    merged.addTuple(sortedSublist.tuple);
-                    incrementWorkingTuple(sublists, sortedSublist);
+    private void merge(List<TupleBuffer> toMerge, TupleBuffer merged, int rowLimit) throws TeiidComponentException, TeiidProcessingException {
+        ArrayList<SortedSublist> sublists = new ArrayList<SortedSublist>(toMerge.size());
+        // initialize the sublists with the min value
+        for(int i = 0; i<toMerge.size(); i++) {
+            TupleBuffer activeID = toMerge.get(i);
+            SortedSublist sortedSublist = new SortedSublist();
+            sortedSublist.its = activeID.createIndexedTupleSource();
+            sortedSublist.its.setNoBlocking(true);
+            sortedSublist.index = i;
+            incrementWorkingTuple(sublists, sortedSublist);
+        }
 
-                    if (checkLimit && merged.getRowCount() == rowLimit) {
-                        //early exit for row limit
-                        break;
+        // iteratively process the lowest tuple
+        while (sublists.size() > 0) {
+            SortedSublist sortedSublist = sublists.remove(sublists.size() - 1);
+            merged.addTuple(sortedSublist.tuple);
+            incrementWorkingTuple(sublists, sortedSublist);
+
+            if (rowLimit > -1 && merged.getRowCount() == rowLimit) {
+                //early exit for row limit
+                break;
+            }
+        }
+        merged.saveBatch();
+    }
+
+    private void sort(AccessibleArrayList<List<?>> workingTuples) {
+        //perform a stable sort
+        if (workingTuples.size() > (1<<18)) {
+            comparator.initialize();
+            Arrays.parallelSort(((AccessibleArrayList)workingTuples).elementData, 0, workingTuples.size(), comparator);
+        } else {
+            Collections.sort(workingTuples, comparator);
+        }
+    }
+
+    private Future<Void> sortAsync(final AccessibleArrayList<List<?>> workingTuples, final TupleBuffer sublist) {
+        return submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                sort(workingTuples);
+                for (List<?> list : workingTuples) {
+                    sublist.addTuple(list);
+                }
+                sublist.saveBatch();
+                return null;
+            }
+        });
+    }
+
+    private Future<Void> mergeAsync(final List<TupleBuffer> toMerge, final TupleBuffer merged) {
+        return submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                merge(toMerge, merged, -1);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Submit sort work through the {@link CommandContext} so that it is performed
+     * as request work on the engine executor with the current thread local context.
+     * <br>
+     * The task is also run by the processing thread if it has not been started
+     * by the time its result is needed, see {@link #getResult(Future)}
+     */
+    private <T> Future<T> submit(final Callable<T> callable) {
+        final CommandContext cc = CommandContext.getThreadLocalContext();
+        FutureTask<T> task = new FutureTask<T>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                if (cc != null) {
+                    CommandContext.pushThreadLocalContext(cc);
+                }
+                try {
+                    return callable.call();
+                } finally {
+                    if (cc != null) {
+                        CommandContext.popThreadLocalContext();
                     }
                 }
+            }
+        });
+        if (cc == null) {
+            task.run();
+        } else {
+            cc.submit(Executors.callable(task));
+        }
+        return task;
+    }
 
-                // Remove merged sublists
-                for(int i=0; i<maxSortIndex; i++) {
-                    TupleBuffer id = activeTupleBuffers.remove(0);
-                    id.remove();
+    private static void getResult(Future<?> result) throws TeiidComponentException, TeiidProcessingException {
+        try {
+            runIfNotStarted(result);
+            result.get();
+        } catch (ExecutionException e) {
+            //the exception thrown by the task may be wrapped
+            Throwable cause = e.getCause();
+            while (cause != null) {
+                if (cause instanceof TeiidComponentException) {
+                    throw (TeiidComponentException) cause;
                 }
-                merged.saveBatch();
-                this.activeTupleBuffers.add(merged);
+                if (cause instanceof TeiidProcessingException) {
+                    throw (TeiidProcessingException) cause;
+                }
+                if (cause instanceof TeiidRuntimeException) {
+                    throw (TeiidRuntimeException) cause;
+                }
+                cause = cause.getCause();
+            }
+            throw new TeiidRuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new TeiidRuntimeException(e);
+        }
+    }
+
+    /**
+     * Run the task on the calling thread if no engine thread has started it,
+     * so that a busy executor cannot stall the sort.  A task that has already
+     * started is not run again.
+     */
+    private static void runIfNotStarted(Future<?> result) {
+        if (result instanceof RunnableFuture<?>) {
+            ((RunnableFuture<?>)result).run();
+        }
+    }
+
+    /**
+     * Wait for outstanding work so that buffers are not in use when they are removed
+     */
+    private static void awaitQuietly(Collection<? extends Future<?>> futures) {
+        if (futures == null) {
+            return;
+        }
+        for (Future<?> f : futures) {
+            try {
+                runIfNotStarted(f);
+                f.get();
+            } catch (ExecutionException e) {
+                //reported elsewhere
+            } catch (InterruptedException e) {
+                Thread.interrupted();
+                return;
             }
-        } finally {
-            this.bufferManager.releaseBuffers(reserved);
         }
     }
 
@@ -671,6 +896,10 @@ public class SortUtility {
         this.stableSort = stableSort;
     }
 
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     void setBatchSize(int batchSize) {
         this.batchSize = batchSize;
     }
@@ -19,21 +19,31 @@
 package org.teiid.query.processor.relational;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.FileStoreInputStreamFactory;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
@@ -41,7 +51,11 @@ import org.teiid.core.TeiidRuntimeException;
 import org.teiid.core.types.ClobImpl;
 import org.teiid.core.types.ClobType;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.types.InputStreamFactory;
+import org.teiid.core.types.InputStreamFactory.StorageMode;
+import org.teiid.core.types.Streamable;
 import org.teiid.core.types.TransformationException;
+import org.teiid.core.util.AccessibleByteArrayOutputStream;
 import org.teiid.dqp.internal.process.RequestWorkItem;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.analysis.AnalysisRecord;
@@ -54,11 +68,317 @@ import org.teiid.query.util.CommandContext;
 
 /**
  * Handles text file processing.
+ * <br>
+ * With a parallelism greater than 1 a file backed input may be split into chunks of bytes
+ * that end at record boundaries.  The chunks are parsed by workers from the request's pool and
+ * the results are gathered back in file order, so the output, including the ordinal, is the same as serial processing.
  *
  * TODO: allow for a configurable line terminator
  */
 public class TextTableNode extends SubqueryAwareRelationalNode {
 
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The read state of a single character stream
+     */
+    private class TextParser {
+        private BufferedReader reader;
+        private int textLine;
+        private boolean cr;
+        private boolean eof;
+
+        TextParser(Reader r, int textLine) {
+            if (!(r instanceof BufferedReader)) {
+                reader = new BufferedReader(r);
+            } else {
+                reader = (BufferedReader)r;
+            }
+            this.textLine = textLine;
+        }
+
+        void close() {
+            try {
+                this.reader.close();
+            } catch (IOException e) {
+            }
+        }
+
+        private StringBuilder readLine(int maxLength, boolean exact, boolean invalue) throws TeiidProcessingException {
+            if (eof) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder(exact ? maxLength : (maxLength >> 4));
+            if (invalue) {
+                //we must include the newline in the quoted value
+                sb.insert(0, newLine);
+            }
+            while (true) {
+                char c = readChar();
+                if (c == newLine) {
+                    if (sb.length() == 0) {
+                        if (eof) {
+                            return null;
+                        }
+                        if (table.isUsingRowDelimiter()) {
+                            continue; //skip empty lines
+                        }
+                    }
+                    if (table.isUsingRowDelimiter()) {
+                        return sb;
+                    }
+                }
+                sb.append(c);
+                if (exact && sb.length() == maxLength && !table.isUsingRowDelimiter()) {
+                    return sb;
+                }
+                if (sb.length() > maxLength) {
+                    if (exact) {
+                        sb.deleteCharAt(sb.length() - 1);
+                        //we're not forcing them to fully specify the line, so just drop the rest
+                        //TODO: there should be a max read length
+                        while (readChar() != newLine) {
+
+                        }
+                        return sb;
+                    }
+                    //protects non-fixed width processing from run-away values
+                    //TODO it is possible that string values could be desired that are longer than the max and/or returned as clobs
+                     throw new TeiidProcessingException(QueryPlugin.Event.TEIID30178, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30178, textLine+1, systemId, maxLength));
+                }
+            }
+        }
+
+        private char readChar() throws TeiidProcessingException {
+            try {
+                int c = reader.read();
+                if (cr) {
+                    if (c == newLine) {
+                        c = reader.read();
+                    }
+                    cr = false;
+                }
+                switch (c) {
+                case '\r':
+                    if (crNewLine) {
+                        cr = true;
+                        textLine++;
+                        return newLine;
+                    }
+                    break;
+                case -1:
+                    eof = true;
+                    textLine++;
+                    return newLine;
+                }
+                if (c == newLine) {
+                    textLine++;
+                    return newLine;
+                }
+                return (char)c;
+            } catch (IOException e) {
+                throw new TeiidProcessingException(QueryPlugin.Event.TEIID30179, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30179, systemId));
+            }
+        }
+
+        private List<String> parseLine(StringBuilder line) throws TeiidProcessingException {
+            if (table.isFixedWidth()) {
+                return parseFixedWidth(line);
+            }
+            return parseDelimitedLine(line);
+        }
+
+        private List<String> parseDelimitedLine(StringBuilder line) throws TeiidProcessingException {
+            ArrayList<String> result = new ArrayList<String>();
+            StringBuilder builder = new StringBuilder();
+            boolean escaped = false;
+            boolean wasQualified = false;
+            boolean qualified = false;
+            while (true) {
+                if (line == null) {
+                    if (escaped) {
+                        //allow for escaped new lines
+                        if (cr) {
+                            builder.append('\r');
+                        }
+                        builder.append(newLine);
+                        escaped = false;
+                        line = readLine(lineWidth, false, false);
+                        continue;
+                    }
+                    if (!qualified) {
+                        //close the last entry
+                        addValue(result, wasQualified || noTrim, builder.toString());
+                        return result;
+                    }
+                    line = readLine(lineWidth, false, true);
+                    if (line == null) {
+                         throw new TeiidProcessingException(QueryPlugin.Event.TEIID30182, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30182, systemId));
+                    }
+                }
+                for (int i = 0; i < line.length(); i++) {
+                    char chr = line.charAt(i);
+                    if (chr == delimiter) {
+                        if (escaped || qualified) {
+                            builder.append(chr);
+                            escaped = false;
+                        } else {
+                            addValue(result, wasQualified || noTrim, builder.toString());
+                            wasQualified = false;
+                            builder = new StringBuilder();  //next entry
+                        }
+                    } else if (chr == quote) {
+                        if (noQuote) {     //it's the escape char
+                            if (escaped) {
+                                builder.append(quote);
+                            }
+                            escaped = !escaped;
+                        } else {
+                            if (qualified) {
+                                qualified = false;
+                            } else {
+                                if (wasQualified) {
+                                    qualified = true;
+                                    builder.append(chr);
+                                } else {
+                                    if (builder.toString().trim().length() != 0) {
+                                         throw new TeiidProcessingException(QueryPlugin.Event.TEIID30183, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30183, textLine, systemId));
+                                    }
+                                    qualified = true;
+                                    builder = new StringBuilder(); //start the entry over
+                                    wasQualified = true;
+                                }
+                            }
+                        }
+                    } else {
+                        if (escaped) {
+                            //don't understand other escape sequences yet
+                             throw new TeiidProcessingException(QueryPlugin.Event.TEIID30184, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30184, chr, textLine, systemId));
+                        }
+                        if (wasQualified && !qualified) {
+                            if (!Character.isWhitespace(chr)) {
+                                 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30183, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30183, textLine, systemId));
+                            }
+                            //else just ignore
+                        } else {
+                            builder.append(chr);
+                        }
+                    }
+                }
+                line = null;
+            }
+        }
+    }
+
+    /**
+     * A range of the input bytes that ends at a record boundary
+     */
+    private static class Chunk {
+        byte[] bytes;
+        int length;
+        int startLine;
+    }
+
+    /**
+     * Scans the input bytes for record boundaries.  This is only used with
+     * ASCII compatible encodings, so that the row delimiter, quote, and escape
+     * characters can be matched as single bytes.  The scan tracks just enough of the
+     * quoting state to not split a quoted or escaped row delimiter, which is
+     * much less work than parsing.
+     */
+    private class RecordScanner {
+        private InputStream in;
+        private Charset charset;
+        private boolean done;
+        private int lines;
+
+        private boolean qualified;
+        private boolean escaped;
+        private boolean pendingCr;
+        private boolean crBoundary;
+        private int pushback = -1;
+
+        RecordScanner(InputStream in, Charset charset) {
+            this.in = in;
+            this.charset = charset;
+        }
+
+        /**
+         * Read the next chunk
+         * @param minLength the minimum length in bytes, or -1 if the line count should be used
+         * @param lineCount the number of physical lines to read when minLength is -1
+         */
+        Chunk next(int minLength, int lineCount) throws IOException {
+            AccessibleByteArrayOutputStream baos = new AccessibleByteArrayOutputStream(Math.max(minLength, 1 << 10) + (1 << 10));
+            Chunk chunk = new Chunk();
+            chunk.startLine = lines;
+            while (true) {
+                int b = pushback;
+                if (b == -1) {
+                    b = in.read();
+                } else {
+                    pushback = -1;
+                }
+                if (b == -1) {
+                    done = true;
+                    break;
+                }
+                if (pendingCr) {
+                    pendingCr = false;
+                    if (b != newLine) {
+                        if (crBoundary && isEnd(baos, minLength, lineCount)) {
+                            pushback = b;
+                            break;
+                        }
+                    } else {
+                        //the newline is part of the \r\n row delimiter
+                        baos.write(b);
+                        if (crBoundary && isEnd(baos, minLength, lineCount)) {
+                            break;
+                        }
+                        continue;
+                    }
+                }
+                baos.write(b);
+                boolean wasEscaped = escaped;
+                escaped = false;
+                if (b == newLine) {
+                    lines++;
+                    if (!qualified && !wasEscaped && isEnd(baos, minLength, lineCount)) {
+                        break;
+                    }
+                } else if (b == '\r' && crNewLine) {
+                    lines++;
+                    pendingCr = true;
+                    crBoundary = !qualified && !wasEscaped;
+                } else if (!table.isFixedWidth() && b == quote && !wasEscaped) {
+                    if (noQuote) {
+                        escaped = true;
+                    } else {
+                        qualified = !qualified;
+                    }
+                }
+            }
+            chunk.bytes = baos.getBuffer();
+            chunk.length = baos.getCount();
+            return chunk;
+        }
+
+        private boolean isEnd(AccessibleByteArrayOutputStream baos, int minLength, int lineCount) {
+            if (minLength < 0) {
+                return lines >= lineCount;
+            }
+            return baos.getCount() >= minLength;
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
     private TextTable table;
 
     //initialized state
@@ -69,18 +389,17 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
     private char delimiter;
     private int lineWidth;
     private int[] projectionIndexes;
+    private int[] ordinalIndexes;
     private Map<String, List<String>> parentLines;
+    private int parallelism = 1;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
 
     //per file state
-    private BufferedReader reader;
-    private int textLine = 0;
+    private TextParser parser;
     private Map<String, Integer> nameIndexes;
     private String systemId;
     private long rowNumber;
 
-    private boolean cr;
-    private boolean eof;
-
     private volatile boolean running;
     private volatile TeiidRuntimeException asynchException;
 
@@ -91,6 +410,13 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
     private char newLine = '\n';
     private boolean crNewLine = true;
 
+    //parallel state
+    private RecordScanner scanner;
+    private LinkedList<Future<List<List<Object>>>> pending = new LinkedList<Future<List<List<Object>>>>();
+    private List<List<Object>> current;
+    private int currentIndex;
+    private int maxInFlight;
+
     public TextTableNode(int nodeID) {
         super(nodeID);
     }
@@ -144,6 +470,16 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
         }
         Map<Expression, Integer> elementMap = createLookupMap(table.getProjectedSymbols());
         this.projectionIndexes = getProjectionIndexes(elementMap, getElements());
+        List<Integer> ordinals = new ArrayList<Integer>(1);
+        for (int i = 0; i < projectionIndexes.length; i++) {
+            if (table.getColumns().get(projectionIndexes[i]).isOrdinal()) {
+                ordinals.add(i);
+            }
+        }
+        this.ordinalIndexes = new int[ordinals.size()];
+        for (int i = 0; i < ordinalIndexes.length; i++) {
+            ordinalIndexes[i] = ordinals.get(i);
+        }
     }
 
     @Override
@@ -155,18 +491,22 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
     @Override
     public synchronized void reset() {
         super.reset();
-        if (this.reader != null) {
-            try {
-                this.reader.close();
-            } catch (IOException e) {
-            }
-            this.reader = null;
+        if (this.parser != null) {
+            this.parser.close();
+            this.parser = null;
+        }
+        if (this.scanner != null) {
+            this.scanner.close();
+            this.scanner = null;
         }
+        for (Future<List<List<Object>>> future : pending) {
+            future.cancel(false);
+        }
+        this.pending.clear();
+        this.current = null;
+        this.currentIndex = 0;
         this.nameIndexes = null;
-        this.textLine = 0;
         this.rowNumber = 0;
-        this.cr = false;
-        this.eof = false;
         if (this.parentLines != null) {
             for (Map.Entry<String, List<String>> entry : this.parentLines.entrySet()) {
                 entry.setValue(null);
@@ -182,11 +522,28 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
         this.noTrim = table.isNoTrim();
     }
 
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the minimum number of bytes parsed by each worker in parallel mode
+     */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
     @Override
     public TextTableNode clone() {
         TextTableNode clone = new TextTableNode(getID());
         this.copyTo(clone);
         clone.setTable(table);
+        clone.setParallelism(parallelism);
+        clone.setChunkSize(chunkSize);
         return clone;
     }
 
@@ -199,17 +556,26 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
                 limit = parent.getLimit() + parent.getOffset();
             }
         }
+        this.maxInFlight = parallelism;
+        int concurrency = getContext().getUserRequestSourceConcurrency();
+        if (concurrency > 0) {
+            this.maxInFlight = Math.min(this.maxInFlight, concurrency);
+        }
     }
 
     @Override
     protected synchronized TupleBatch nextBatchDirect() throws BlockedException,
             TeiidComponentException, TeiidProcessingException {
 
-        if (reader == null) {
+        if (parser == null && scanner == null) {
             initReader();
         }
 
-        if (reader == null) {
+        if (scanner != null) {
+            return nextParallelBatch();
+        }
+
+        if (parser == null) {
             terminateBatches();
             return pullBatch();
         }
@@ -247,12 +613,12 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
     private void processAsynch() {
         if (!running) {
             running = true;
-            final Reader r = this.reader;
+            final TextParser p = this.parser;
             getContext().getExecutor().execute(new Runnable() {
                 @Override
                 public void run() {
                     try {
-                        process(r);
+                        process(p);
                     } catch (TeiidRuntimeException e) {
                         asynchException = e;
                     } catch (Throwable e) {
@@ -273,13 +639,13 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
         }
     }
 
-    private void process(Reader r) throws TeiidProcessingException {
+    private void process(TextParser p) throws TeiidProcessingException {
         while (true) {
             synchronized (this) {
-                if (isBatchFull() || r != this.reader) {
+                if (isBatchFull() || p != this.parser) {
                     return;
                 }
-                StringBuilder line = readLine(lineWidth, table.isFixedWidth(), false);
+                StringBuilder line = p.readLine(lineWidth, table.isFixedWidth(), false);
 
                 if (line == null) {
                     terminateBatches();
@@ -303,7 +669,7 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
                     }
                 }
 
-                List<String> vals = parseLine(line);
+                List<String> vals = p.parseLine(line);
 
                 if (parentSelector != null) {
                     this.parentLines.put(parentSelector, vals);
@@ -314,44 +680,8 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
 
                 rowNumber++;
 
-                List<Object> tuple = new ArrayList<Object>(projectionIndexes.length);
-                for (int output : projectionIndexes) {
-                    TextColumn col = table.getColumns().get(output);
-                    String val = null;
-                    int index = output;
-                    boolean missing = false;
-
-                    if (col.isOrdinal()) {
-                        if (rowNumber > Integer.MAX_VALUE) {
-                            throw new TeiidRuntimeException(new TeiidProcessingException(QueryPlugin.Event.TEIID31174, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31174)));
-                        }
-                        tuple.add((int)rowNumber);
-                        continue;
-                    }
-
-                    if (col.getSelector() != null) {
-                        vals = this.parentLines.get(col.getSelector());
-                        index = col.getPosition() - 1;
-                    } else if (nameIndexes != null) {
-                        Integer headerIndex = nameIndexes.get(col.getName());
-                        if (headerIndex != null) {
-                            index = headerIndex;
-                        } else {
-                            missing = true;
-                        }
-                    }
-                    if (vals == null || index >= vals.size() || missing) {
-                        //throw new TeiidProcessingException(QueryPlugin.Util.getString("TextTableNode.no_value", col.getName(), textLine, systemId)); //$NON-NLS-1$
-                        tuple.add(null);
-                        continue;
-                    }
-                    val = vals.get(index);
-                    try {
-                        tuple.add(DataTypeManager.transformValue(val, table.getColumns().get(output).getSymbol().getType()));
-                    } catch (TransformationException e) {
-                         throw new TeiidProcessingException(QueryPlugin.Event.TEIID30176, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30176, col.getName(), textLine, systemId));
-                    }
-                }
+                List<Object> tuple = buildTuple(vals, p);
+                setOrdinal(tuple);
                 addBatchRow(tuple);
 
                 if (rowNumber == limit) {
@@ -362,80 +692,156 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
         }
     }
 
-    private StringBuilder readLine(int maxLength, boolean exact, boolean invalue) throws TeiidProcessingException {
-        if (eof) {
-            return null;
+    /**
+     * Build the projected tuple from the line values.  Ordinal values are
+     * set by the caller.
+     */
+    private List<Object> buildTuple(List<String> vals, TextParser p) throws TeiidProcessingException {
+        List<Object> tuple = new ArrayList<Object>(projectionIndexes.length);
+        for (int output : projectionIndexes) {
+            TextColumn col = table.getColumns().get(output);
+            String val = null;
+            int index = output;
+            boolean missing = false;
+
+            if (col.isOrdinal()) {
+                tuple.add(null);
+                continue;
+            }
+
+            if (col.getSelector() != null) {
+                vals = this.parentLines.get(col.getSelector());
+                index = col.getPosition() - 1;
+            } else if (nameIndexes != null) {
+                Integer headerIndex = nameIndexes.get(col.getName());
+                if (headerIndex != null) {
+                    index = headerIndex;
+                } else {
+                    missing = true;
+                }
+            }
+            if (vals == null || index >= vals.size() || missing) {
+                //throw new TeiidProcessingException(QueryPlugin.Util.getString("TextTableNode.no_value", col.getName(), textLine, systemId)); //$NON-NLS-1$
+                tuple.add(null);
+                continue;
+            }
+            val = vals.get(index);
+            try {
+                tuple.add(DataTypeManager.transformValue(val, table.getColumns().get(output).getSymbol().getType()));
+            } catch (TransformationException e) {
+                 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30176, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30176, col.getName(), p.textLine, systemId));
+            }
         }
-        StringBuilder sb = new StringBuilder(exact ? maxLength : (maxLength >> 4));
-        if (invalue) {
-            //we must include the newline in the quoted value
-            sb.insert(0, newLine);
+        return tuple;
+    }
+
+    private void setOrdinal(List<Object> tuple) {
+        if (ordinalIndexes.length == 0) {
+            return;
+        }
+        if (rowNumber > Integer.MAX_VALUE) {
+            throw new TeiidRuntimeException(new TeiidProcessingException(QueryPlugin.Event.TEIID31174, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31174)));
         }
+        for (int index : ordinalIndexes) {
+            tuple.set(index, (int)rowNumber);
+        }
+    }
+
+    private TupleBatch nextParallelBatch() throws BlockedException,
+            TeiidComponentException, TeiidProcessingException {
         while (true) {
-            char c = readChar();
-            if (c == newLine) {
-                if (sb.length() == 0) {
-                    if (eof) {
-                        return null;
-                    }
-                    if (table.isUsingRowDelimiter()) {
-                        continue; //skip empty lines
-                    }
+            if (current != null) {
+                while (currentIndex < current.size() && !isBatchFull()) {
+                    List<Object> tuple = current.get(currentIndex++);
+                    rowNumber++;
+                    setOrdinal(tuple);
+                    addBatchRow(tuple);
                 }
-                if (table.isUsingRowDelimiter()) {
-                    return sb;
+                if (currentIndex < current.size()) {
+                    return pullBatch();
                 }
+                current = null;
             }
-            sb.append(c);
-            if (exact && sb.length() == maxLength && !table.isUsingRowDelimiter()) {
-                return sb;
+
+            fill();
+
+            if (pending.isEmpty()) {
+                terminateBatches();
+                return pullBatch();
             }
-            if (sb.length() > maxLength) {
-                if (exact) {
-                    sb.deleteCharAt(sb.length() - 1);
-                    //we're not forcing them to fully specify the line, so just drop the rest
-                    //TODO: there should be a max read length
-                    while (readChar() != newLine) {
 
-                    }
-                    return sb;
+            Future<List<List<Object>>> future = pending.getFirst();
+            //without a work item nothing will reschedule processing, so just wait on the result
+            if (!future.isDone() && getContext().getWorkItem() != null) {
+                if (hasPendingRows()) {
+                    return pullBatch();
                 }
-                //protects non-fixed width processing from run-away values
-                //TODO it is possible that string values could be desired that are longer than the max and/or returned as clobs
-                 throw new TeiidProcessingException(QueryPlugin.Event.TEIID30178, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30178, textLine+1, systemId, maxLength));
+                throw BlockedException.block("Blocking on results from file processing."); //$NON-NLS-1$
             }
+            pending.removeFirst();
+            current = getResult(future);
+            currentIndex = 0;
         }
     }
 
-    private char readChar() throws TeiidProcessingException {
+    /**
+     * Submit chunks until the in flight limit is reached.  The chunks
+     * are read on the processing thread.
+     */
+    private void fill() throws TeiidProcessingException {
+        while (!scanner.done && pending.size() < maxInFlight) {
+            final Chunk chunk;
+            try {
+                chunk = scanner.next(chunkSize, -1);
+            } catch (IOException e) {
+                throw new TeiidProcessingException(QueryPlugin.Event.TEIID30179, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30179, systemId));
+            }
+            if (chunk.length == 0) {
+                continue;
+            }
+            final Charset charset = scanner.charset;
+            pending.add(getContext().submit(new Callable<List<List<Object>>>() {
+                @Override
+                public List<List<Object>> call() throws Exception {
+                    return parseChunk(chunk, charset);
+                }
+            }));
+        }
+    }
+
+    private List<List<Object>> parseChunk(Chunk chunk, Charset charset) throws TeiidProcessingException {
+        TextParser p = new TextParser(new InputStreamReader(new ByteArrayInputStream(chunk.bytes, 0, chunk.length), charset.newDecoder()), chunk.startLine);
+        List<List<Object>> result = new ArrayList<List<Object>>();
+        StringBuilder line = null;
+        while ((line = p.readLine(lineWidth, table.isFixedWidth(), false)) != null) {
+            result.add(buildTuple(p.parseLine(line), p));
+        }
+        return result;
+    }
+
+    private List<List<Object>> getResult(Future<List<List<Object>>> future)
+            throws TeiidComponentException, TeiidProcessingException {
         try {
-            int c = reader.read();
-            if (cr) {
-                if (c == newLine) {
-                    c = reader.read();
+            return future.get();
+        } catch (ExecutionException e) {
+            //the common pool may wrap the exception thrown by the worker
+            Throwable cause = e.getCause();
+            while (cause != null) {
+                if (cause instanceof TeiidComponentException) {
+                    throw (TeiidComponentException) cause;
                 }
-                cr = false;
-            }
-            switch (c) {
-            case '\r':
-                if (crNewLine) {
-                    cr = true;
-                    textLine++;
-                    return newLine;
+                if (cause instanceof TeiidProcessingException) {
+                    throw (TeiidProcessingException) cause;
                 }
-                break;
-            case -1:
-                eof = true;
-                textLine++;
-                return newLine;
-            }
-            if (c == newLine) {
-                textLine++;
-                return newLine;
+                if (cause instanceof TeiidRuntimeException) {
+                    throw (TeiidRuntimeException) cause;
+                }
+                cause = cause.getCause();
             }
-            return (char)c;
-        } catch (IOException e) {
-            throw new TeiidProcessingException(QueryPlugin.Event.TEIID30179, e, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30179, systemId));
+            throw new TeiidRuntimeException(e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new TeiidRuntimeException(e);
         }
     }
 
@@ -456,36 +862,92 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
                 if (this.systemId == null) {
                     this.systemId = "Unknown"; //$NON-NLS-1$
                 }
+                if (initScanner((ClobImpl)file.getReference())) {
+                    return;
+                }
             }
-            Reader r = file.getCharacterStream();
-            if (!(r instanceof BufferedReader)) {
-                reader = new BufferedReader(r);
-            } else {
-                reader = (BufferedReader)r;
-            }
-        } catch (SQLException e) {
+            this.parser = new TextParser(file.getCharacterStream(), 0);
+        } catch (SQLException | IOException e) {
              throw new TeiidProcessingException(QueryPlugin.Event.TEIID30180, e);
         }
 
+        processSkip(this.parser);
+    }
+
+    /**
+     * Determine if the input can be processed in parallel, and if so
+     * process the skip lines and set the scanner.
+     * @return true if the input will be processed in parallel
+     */
+    private boolean initScanner(ClobImpl clob) throws SQLException, IOException, TeiidProcessingException {
+        if (parallelism <= 1 || limit > 0 || parentLines != null || table.getSelector() != null
+                || !table.isUsingRowDelimiter() || newLine > 127 || quote > 127) {
+            return false;
+        }
+        InputStreamFactory isf = clob.getStreamFactory();
+        Charset charset = null;
+        if (isf instanceof FileStoreInputStreamFactory) {
+            charset = Charset.forName(((FileStoreInputStreamFactory)isf).getEncoding());
+        } else if (isf.getStorageMode() == StorageMode.PERSISTENT && isf.getCharacterStream() == null) {
+            //read directly from the bytes
+            charset = clob.getCharset();
+            if (charset == null) {
+                charset = Streamable.CHARSET;
+            }
+        } else {
+            return false;
+        }
+        if (!charset.equals(StandardCharsets.UTF_8) && !charset.equals(StandardCharsets.US_ASCII)
+                && !charset.equals(StandardCharsets.ISO_8859_1)) {
+            return false;
+        }
+        long length = isf.getLength();
+        if (length >= 0 && length < 2L * chunkSize) {
+            return false; //not worth splitting
+        }
+        RecordScanner recordScanner = new RecordScanner(isf.getInputStream(), charset);
+        if (skip > 0) {
+            Chunk head = recordScanner.next(-1, skip);
+            if (recordScanner.qualified || recordScanner.escaped) {
+                //a quoted value spans the skip lines, just read serially
+                recordScanner.close();
+                return false;
+            }
+            TextParser p = new TextParser(new InputStreamReader(new ByteArrayInputStream(head.bytes, 0, head.length), charset.newDecoder()), 0);
+            if (!processSkip(p)) {
+                recordScanner.close();
+                return true;
+            }
+        }
+        this.scanner = recordScanner;
+        return true;
+    }
+
+    /**
+     * Process the skip lines and the header
+     * @return false if there are no more lines
+     */
+    private boolean processSkip(TextParser p) throws TeiidProcessingException {
         //process the skip field
         if (skip <= 0) {
-            return;
+            return true;
         }
-        while (textLine < skip) {
-            boolean isHeader = textLine == header;
+        while (p.textLine < skip) {
+            boolean isHeader = p.textLine == header;
             if (isHeader) {
-                StringBuilder line = readLine(DataTypeManager.MAX_STRING_LENGTH * 16, false, false);
+                StringBuilder line = p.readLine(DataTypeManager.MAX_STRING_LENGTH * 16, false, false);
                 if (line == null) { //just return an empty batch
                     reset();
-                    return;
+                    return false;
                 }
-                processHeader(parseLine(line));
+                processHeader(p.parseLine(line));
             } else {
-                while (readChar() != newLine) {
+                while (p.readChar() != newLine) {
 
                 }
             }
         }
+        return true;
     }
 
     private void processHeader(List<String> line) {
@@ -513,94 +975,6 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
         }
     }
 
-    private List<String> parseLine(StringBuilder line) throws TeiidProcessingException {
-        if (table.isFixedWidth()) {
-            return parseFixedWidth(line);
-        }
-        return parseDelimitedLine(line);
-    }
-
-    private List<String> parseDelimitedLine(StringBuilder line) throws TeiidProcessingException {
-        ArrayList<String> result = new ArrayList<String>();
-        StringBuilder builder = new StringBuilder();
-        boolean escaped = false;
-        boolean wasQualified = false;
-        boolean qualified = false;
-        while (true) {
-            if (line == null) {
-                if (escaped) {
-                    //allow for escaped new lines
-                    if (cr) {
-                        builder.append('\r');
-                    }
-                    builder.append(newLine);
-                    escaped = false;
-                    line = readLine(lineWidth, false, false);
-                    continue;
-                }
-                if (!qualified) {
-                    //close the last entry
-                    addValue(result, wasQualified || noTrim, builder.toString());
-                    return result;
-                }
-                line = readLine(lineWidth, false, true);
-                if (line == null) {
-                     throw new TeiidProcessingException(QueryPlugin.Event.TEIID30182, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30182, systemId));
-                }
-            }
-            for (int i = 0; i < line.length(); i++) {
-                char chr = line.charAt(i);
-                if (chr == delimiter) {
-                    if (escaped || qualified) {
-                        builder.append(chr);
-                        escaped = false;
-                    } else {
-                        addValue(result, wasQualified || noTrim, builder.toString());
-                        wasQualified = false;
-                        builder = new StringBuilder();  //next entry
-                    }
-                } else if (chr == quote) {
-                    if (noQuote) {     //it's the escape char
-                        if (escaped) {
-                            builder.append(quote);
-                        }
-                        escaped = !escaped;
-                    } else {
-                        if (qualified) {
-                            qualified = false;
-                        } else {
-                            if (wasQualified) {
-                                qualified = true;
-                                builder.append(chr);
-                            } else {
-                                if (builder.toString().trim().length() != 0) {
-                                     throw new TeiidProcessingException(QueryPlugin.Event.TEIID30183, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30183, textLine, systemId));
-                                }
-                                qualified = true;
-                                builder = new StringBuilder(); //start the entry over
-                                wasQualified = true;
-                            }
-                        }
-                    }
-                } else {
-                    if (escaped) {
-                        //don't understand other escape sequences yet
-                         throw new TeiidProcessingException(QueryPlugin.Event.TEIID30184, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30184, chr, textLine, systemId));
-                    }
-                    if (wasQualified && !qualified) {
-                        if (!Character.isWhitespace(chr)) {
-                             throw new TeiidProcessingException(QueryPlugin.Event.TEIID30183, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30183, textLine, systemId));
-                        }
-                        //else just ignore
-                    } else {
-                        builder.append(chr);
-                    }
-                }
-            }
-            line = null;
-        }
-    }
-
     private void addValue(ArrayList<String> result, boolean wasQualified, String val) {
         if (!wasQualified) {
             val = val.trim();
@@ -635,6 +1009,9 @@ public class TextTableNode extends SubqueryAwareRelationalNode {
     public PlanNode getDescriptionProperties() {
         PlanNode props = super.getDescriptionProperties();
         AnalysisRecord.addLanaguageObjects(props, AnalysisRecord.PROP_TABLE_FUNCTION, Arrays.asList(this.table));
+        if (parallelism > 1) {
+            props.addProperty(AnalysisRecord.PROP_PARALLELISM, String.valueOf(this.parallelism));
+        }
         return props;
     }
 
@@ -97,6 +97,7 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
         private long ttl = -1;
         private boolean valid;
         private boolean asynch; //sub state of loading
+        private Object incrementalValue; //max value of the incremental column seen by this member
         private Map<RequestID, WeakReference<RequestWorkItem>> waiters = new HashMap<RequestID, WeakReference<RequestWorkItem>>(2);
 
         protected MatTableInfo() {}
@@ -193,6 +194,14 @@ public class GlobalTableStoreImpl implements GlobalTableStore, ReplicatedObject<
             waiters.put(waiter.getRequestID(), new WeakReference<RequestWorkItem>(waiter));
         }
 
+        public synchronized Object getIncrementalValue() {
+            return incrementalValue;
+        }
+
+        public synchronized void setIncrementalValue(Object incrementalValue) {
+            this.incrementalValue = incrementalValue;
+        }
+
         public synchronized boolean getAndClearAsynch() {
             boolean result = asynch;
             asynch = false;
@@ -175,6 +175,7 @@ public class TempTable implements Cloneable, SearchableTable {
                     }
                     tree.insert(tuple, InsertMode.UPDATE, -1);
                 }
+                updateIndexes(existing, tuple);
                 upsertUndoLog.addTuple(tuple);
                 //don't add to main undo log
                 currentTuple = null;
@@ -370,6 +371,10 @@ public class TempTable implements Cloneable, SearchableTable {
     private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private boolean updatable = true;
     private LinkedHashMap<List<ElementSymbol>, TempTable> indexTables;
+    /**
+     * For an index table the positions of its columns in the parent table
+     */
+    private int[] parentProjection;
 
     private int keyBatchSize;
     private int leafBatchSize;
@@ -492,10 +497,11 @@ public class TempTable implements Cloneable, SearchableTable {
         if (unique) {
             indexTable.uniqueColIndex = indexColumns.size();
         }
+        indexTable.parentProjection = RelationalNode.getProjectionIndexes(this.columnMap, allColumns);
         if (indexTables == null) {
             indexTables = new LinkedHashMap<List<ElementSymbol>, TempTable>();
-            indexTables.put(indexColumns, indexTable);
         }
+        indexTables.put(indexColumns, indexTable);
         indexTable.setUpdatable(this.updatable);
         return indexTable;
     }
@@ -717,6 +723,11 @@ public class TempTable implements Cloneable, SearchableTable {
 
     public long truncate(boolean force) {
         this.tid.getTableData().dataModified(tree.getRowCount());
+        if (this.indexTables != null) {
+            for (TempTable index : this.indexTables.values()) {
+                index.tree.truncate(force);
+            }
+        }
         return tree.truncate(force);
     }
 
@@ -833,6 +844,7 @@ public class TempTable implements Cloneable, SearchableTable {
                     changeSet.addTuple(newTuple);
                 } else {
                     browser.update(newTuple);
+                    updateIndexes(tuple, newTuple);
                 }
             }
 
@@ -914,13 +926,43 @@ public class TempTable implements Cloneable, SearchableTable {
             }
             throw new TeiidProcessingException(QueryPlugin.Event.TEIID30238, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30238, this.tid.getID()));
         }
+        updateIndexes(null, list);
         return true;
     }
 
     private void deleteTuple(List<?> tuple) throws TeiidComponentException {
-        if (tree.remove(tuple) == null) {
+        List<?> result = tree.remove(tuple);
+        if (result == null) {
             throw new AssertionError("Delete failed"); //$NON-NLS-1$
         }
+        updateIndexes(result, null);
+    }
+
+    /**
+     * Keep the secondary indexes consistent with a change to the primary tree.
+     * @param oldTuple the prior tuple, or null for an insert
+     * @param newTuple the new tuple, or null for a delete
+     */
+    private void updateIndexes(List<?> oldTuple, List<?> newTuple) throws TeiidComponentException {
+        if (indexTables == null) {
+            return;
+        }
+        for (TempTable index : this.indexTables.values()) {
+            List<?> newIndexTuple = null;
+            if (newTuple != null) {
+                newIndexTuple = RelationalNode.projectTuple(index.parentProjection, newTuple);
+            }
+            if (oldTuple != null) {
+                List<?> oldIndexTuple = RelationalNode.projectTuple(index.parentProjection, oldTuple);
+                if (oldIndexTuple.equals(newIndexTuple)) {
+                    continue;
+                }
+                index.tree.remove(oldIndexTuple);
+            }
+            if (newIndexTuple != null) {
+                index.tree.insert(newIndexTuple, InsertMode.UPDATE, -1);
+            }
+        }
     }
 
     void writeTo(ObjectOutputStream oos) throws TeiidComponentException, IOException {
@@ -969,22 +1011,12 @@ public class TempTable implements Cloneable, SearchableTable {
                 if (result == null) {
                     return null;
                 }
-                if (indexTables != null) {
-                    for (TempTable index : this.indexTables.values()) {
-                        tuple = RelationalNode.projectTuple(RelationalNode.getProjectionIndexes(index.getColumnMap(), index.columns), result);
-                        index.tree.remove(tuple);
-                    }
-                }
+                updateIndexes(result, null);
                 tid.getTableData().dataModified(1);
                 return result;
             }
             List<?> result = tree.insert(tuple, InsertMode.UPDATE, -1);
-            if (indexTables != null) {
-                for (TempTable index : this.indexTables.values()) {
-                    tuple = RelationalNode.projectTuple(RelationalNode.getProjectionIndexes(index.getColumnMap(), index.columns), tuple);
-                    index.tree.insert(tuple, InsertMode.UPDATE, -1);
-                }
-            }
+            updateIndexes(result, tuple);
             tid.getTableData().dataModified(1);
             return result;
         } finally {
@@ -993,9 +1025,11 @@ public class TempTable implements Cloneable, SearchableTable {
     }
 
     private void updateTuple(List<?> tuple) throws TeiidComponentException {
-        if (tree.insert(tuple, InsertMode.UPDATE, -1) == null) {
+        List<?> result = tree.insert(tuple, InsertMode.UPDATE, -1);
+        if (result == null) {
             throw new AssertionError("Update failed"); //$NON-NLS-1$
         }
+        updateIndexes(result, tuple);
     }
 
     void setPreferMemory(boolean preferMemory) {
@@ -1064,6 +1098,16 @@ public class TempTable implements Cloneable, SearchableTable {
         return id.equals(other.id);
     }
 
+    /**
+     * @return the column lists of the secondary indexes
+     */
+    Collection<List<ElementSymbol>> getIndexColumns() {
+        if (this.indexTables == null) {
+            return Collections.emptyList();
+        }
+        return this.indexTables.keySet();
+    }
+
     public void setAllowImplicitIndexing(boolean b) {
         this.allowImplicitIndexing = b;
     }
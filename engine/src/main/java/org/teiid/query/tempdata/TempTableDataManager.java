@@ -62,6 +62,7 @@ import org.teiid.logging.LogManager;
 import org.teiid.metadata.FunctionMethod.Determinism;
 import org.teiid.query.QueryPlugin;
 import org.teiid.query.eval.Evaluator;
+import org.teiid.query.metadata.MaterializationMetadataRepository;
 import org.teiid.query.metadata.QueryMetadataInterface;
 import org.teiid.query.metadata.TempMetadataAdapter;
 import org.teiid.query.metadata.TempMetadataID;
@@ -357,6 +358,13 @@ public class TempTableDataManager implements ProcessorDataManager {
             if (!needsLoading) {
                 return CollectionTupleSource.createUpdateCountTupleSource(-1);
             }
+            int incrementalIndex = getIncrementalColumnIndex(metadata, matTableId);
+            if (incrementalIndex >= 0) {
+                TupleSource result = refreshGlobalTable(context, matTableId, matViewName, matTableName, globalStore, incrementalIndex);
+                if (result != null) {
+                    return result;
+                }
+            }
             GroupSymbol matTable = new GroupSymbol(matTableName);
             matTable.setMetadataID(matTableId);
             return loadGlobalTable(context, matTable, matTableName, globalStore);
@@ -511,6 +519,96 @@ public class TempTableDataManager implements ProcessorDataManager {
         };
     }
 
+    /**
+     * Apply only the rows whose incremental column value is greater than the last seen value
+     * as upserts against the existing table.  Readers continue to see the existing table as
+     * {@link GlobalTableStore#updateMatViewRow(String, List, boolean)} will clone it if it's in use.
+     * @return null if a full load is needed instead
+     */
+    private TupleSource refreshGlobalTable(final CommandContext context,
+            final TempMetadataID matTableId, final String matViewName, final String matTableName,
+            final GlobalTableStore globalStore, final int incrementalIndex) {
+        final MatTableInfo info = globalStore.getMatTableInfo(matTableName);
+        final Object lastValue = info.getIncrementalValue();
+        if (!info.isValid() || lastValue == null || globalStore.getTempTable(matTableName) == null) {
+            return null;
+        }
+        ElementSymbol column = new ElementSymbol(matTableId.getElements().get(incrementalIndex).getName());
+        final String queryString = Reserved.SELECT + " * " + Reserved.FROM + ' ' + matViewName + ' ' + Reserved.WHERE + ' ' + //$NON-NLS-1$
+            column + " > ? " + Reserved.OPTION + ' ' + Reserved.NOCACHE; //$NON-NLS-1$
+
+        return new ProxyTupleSource() {
+            private QueryProcessor qp;
+            private TupleSource ts;
+            private Object maxValue = lastValue;
+            private int count;
+            private boolean success;
+
+            @Override
+            protected TupleSource createTupleSource()
+                    throws TeiidComponentException,
+                    TeiidProcessingException {
+                if (qp == null) {
+                    LogManager.logDetail(LogConstants.CTX_MATVIEWS, "incrementally refreshing", matTableName, "from", lastValue); //$NON-NLS-1$ //$NON-NLS-2$
+                    qp = context.getQueryProcessorFactory().createQueryProcessor(queryString, matViewName.toUpperCase(), context, lastValue);
+                    ts = new BatchCollector.BatchProducerTupleSource(qp);
+                }
+                List<?> tuple = null;
+                while ((tuple = ts.nextTuple()) != null) {
+                    tuple = new ArrayList<Object>(tuple); //ensure the list is serializable
+                    globalStore.updateMatViewRow(matTableName, tuple, false);
+                    Object value = tuple.get(incrementalIndex);
+                    if (value != null && Constant.COMPARATOR.compare(value, maxValue) > 0) {
+                        maxValue = value;
+                    }
+                    count++;
+                }
+                info.setIncrementalValue(maxValue);
+                globalStore.loaded(matTableName, globalStore.getTempTable(matTableName));
+                success = true;
+                LogManager.logInfo(LogConstants.CTX_MATVIEWS, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID30014, matTableName, count));
+                return CollectionTupleSource.createUpdateCountTupleSource(count);
+            }
+
+            @Override
+            public void closeSource() {
+                super.closeSource();
+                if (!success) {
+                    //the applied rows are retained, the next refresh will reapply from the last value
+                    globalStore.failedLoad(matTableName);
+                }
+                if (qp != null) {
+                    qp.closeProcessing();
+                    qp = null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Get the index of the {@link MaterializationMetadataRepository#MATVIEW_INCREMENTAL_COLUMN}
+     * or -1 if the materialized table cannot be incrementally refreshed.
+     */
+    private static int getIncrementalColumnIndex(QueryMetadataInterface metadata,
+            TempMetadataID matTableId) {
+        Object viewId = matTableId.getOriginalMetadataID();
+        if (viewId == null || matTableId.getPrimaryKey() == null || matTableId.getTableData().getFunctionBasedExpressions() != null) {
+            return -1;
+        }
+        String columnName = metadata.getExtensionProperty(viewId, MaterializationMetadataRepository.MATVIEW_INCREMENTAL_COLUMN, false);
+        if (columnName == null) {
+            return -1;
+        }
+        List<TempMetadataID> elements = matTableId.getElements();
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i).getName().equalsIgnoreCase(columnName)) {
+                return i;
+            }
+        }
+        LogManager.logDetail(LogConstants.CTX_MATVIEWS, "incremental column", columnName, "not found for", matTableId.getID()); //$NON-NLS-1$ //$NON-NLS-2$
+        return -1;
+    }
+
     private Object validateMatView(QueryMetadataInterface metadata,    String viewName) throws TeiidComponentException,
             TeiidProcessingException {
         try {
@@ -716,8 +814,10 @@ public class TempTableDataManager implements ProcessorDataManager {
         final List<ElementSymbol> allColumns = ResolverUtil.resolveElementsInGroup(group, metadata);
         final TempTable table = globalStore.createMatTable(tableName, group);
         table.setUpdatable(false);
+        final int incrementalIndex = getIncrementalColumnIndex(metadata, (TempMetadataID)group.getMetadataID());
         return new ProxyTupleSource() {
             TupleSource insertTupleSource;
+            MaxValueTupleSource maxValueTupleSource;
             boolean success;
             QueryProcessor qp;
             boolean closed;
@@ -733,6 +833,10 @@ public class TempTableDataManager implements ProcessorDataManager {
                         String transformation = metadata.getVirtualPlan(group.getMetadataID()).getQuery();
                         qp = context.getQueryProcessorFactory().createQueryProcessor(transformation, fullName, context);
                         insertTupleSource = new BatchCollector.BatchProducerTupleSource(qp);
+                        if (incrementalIndex >= 0) {
+                            maxValueTupleSource = new MaxValueTupleSource(insertTupleSource, incrementalIndex);
+                            insertTupleSource = maxValueTupleSource;
+                        }
                     }
                     table.insert(insertTupleSource, allColumns, false, false, null);
                     table.getTree().compact();
@@ -752,6 +856,11 @@ public class TempTableDataManager implements ProcessorDataManager {
                     if (hint != null && table.getPkLength() > 0) {
                         table.setUpdatable(hint.isUpdatable(false));
                     }
+                    if (maxValueTupleSource != null) {
+                        //incremental refreshes modify the table in place
+                        table.setUpdatable(true);
+                        globalStore.getMatTableInfo(tableName).setIncrementalValue(maxValueTupleSource.getMaxValue());
+                    }
                     if (determinism.compareTo(Determinism.VDB_DETERMINISTIC) < 0 && (hint == null || hint.getScope() == null || Scope.VDB.compareTo(hint.getScope()) <= 0)) {
                         LogManager.logInfo(LogConstants.CTX_DQP, QueryPlugin.Util.gs(QueryPlugin.Event.TEIID31143, determinism, tableName)); //$NON-NLS-1$
                     }
@@ -794,6 +903,42 @@ public class TempTableDataManager implements ProcessorDataManager {
         };
     }
 
+    /**
+     * Tracks the max value of a column as tuples are read
+     */
+    private static class MaxValueTupleSource implements TupleSource {
+        private TupleSource ts;
+        private int index;
+        private Object maxValue;
+
+        public MaxValueTupleSource(TupleSource ts, int index) {
+            this.ts = ts;
+            this.index = index;
+        }
+
+        @Override
+        public List<?> nextTuple() throws TeiidComponentException,
+                TeiidProcessingException {
+            List<?> tuple = ts.nextTuple();
+            if (tuple != null) {
+                Object value = tuple.get(index);
+                if (value != null && (maxValue == null || Constant.COMPARATOR.compare(value, maxValue) > 0)) {
+                    maxValue = value;
+                }
+            }
+            return tuple;
+        }
+
+        @Override
+        public void closeSource() {
+            ts.closeSource();
+        }
+
+        public Object getMaxValue() {
+            return maxValue;
+        }
+    }
+
     public Object lookupCodeValue(CommandContext context, String codeTableName,
             String returnElementName, String keyElementName, Object keyValue)
             throws BlockedException, TeiidComponentException,
@@ -209,6 +209,8 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
         private long timestamp = System.currentTimeMillis();
 
         private boolean readOnly = true;
+
+        private boolean columnarBatches;
     }
 
     private GlobalState globalState = new GlobalState();
@@ -230,6 +232,8 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
 
     private Collection<TempMetadataID> accessed;
 
+    private boolean worker;
+
     /**
      * Construct a new context.
      */
@@ -324,6 +328,17 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
         return clone;
     }
 
+    /**
+     * Create a clone for evaluation on a worker thread.
+     * The format and pattern caches are not thread-safe, so they are bypassed
+     * by the clone.
+     */
+    public CommandContext workerClone() {
+        CommandContext clone = clone();
+        clone.worker = true;
+        return clone;
+    }
+
     public void setNewVDBState(DQPWorkContext newWorkContext) {
         this.vdbState = new VDBState();
         VDBMetaData vdb = newWorkContext.getVDB();
@@ -848,6 +863,9 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     }
 
     public static DecimalFormat getDecimalFormat(CommandContext context, String format) {
+        if (context != null && context.worker) {
+            context = null;
+        }
         DecimalFormat result = null;
         if (context != null) {
             if (context.globalState.decimalFormatCache == null) {
@@ -867,6 +885,9 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
     }
 
     public static SimpleDateFormat getDateFormat(CommandContext context, String format) {
+        if (context != null && context.worker) {
+            context = null;
+        }
         SimpleDateFormat result = null;
         if (context != null) {
             if (context.globalState.dateFormatCache == null) {
@@ -894,6 +915,9 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
      * @return Compiled regex.
      */
     public static Pattern getPattern(CommandContext context, String regex, int flags) {
+        if (context != null && context.worker) {
+            context = null;
+        }
         Pattern result = null;
         if (context != null) {
             if (context.globalState.patternCache == null) {
@@ -1257,4 +1281,12 @@ public class CommandContext implements Cloneable, org.teiid.CommandContext {
         this.globalState.readOnly = b;
     }
 
+    public boolean isColumnarBatches() {
+        return this.globalState.columnarBatches;
+    }
+
+    public void setColumnarBatches(boolean columnarBatches) {
+        this.globalState.columnarBatches = columnarBatches;
+    }
+
 }
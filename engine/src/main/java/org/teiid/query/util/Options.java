@@ -39,6 +39,14 @@ public class Options {
     public static final String MAX_SESSION_BUFFER_SIZE_ESTIMATE = "org.teiid.maxSessionBufferSizeEstimate"; //$NON-NLS-1$
     public static final String TRACING_WITH_ACTIVE_SPAN_ONLY = "org.teiid.tracingWithActiveSpanOnly"; //$NON-NLS-1$
     public static final String ENFORCE_SINGLE_MAX_BUFFER_SIZE_ESTIMATE = "org.teiid.enforceSingleMaxBufferSizeEstimate"; //$NON-NLS-1$
+    public static final String COLUMNAR_BATCHES = "org.teiid.columnarBatches"; //$NON-NLS-1$
+    public static final String HASH_GROUPING_MAX_ESTIMATE = "org.teiid.hashGroupingMaxEstimate"; //$NON-NLS-1$
+    public static final String HASH_JOIN = "org.teiid.hashJoin"; //$NON-NLS-1$
+    public static final String EXCHANGE_PARALLELISM = "org.teiid.exchangeParallelism"; //$NON-NLS-1$
+    public static final String COMPILED_EXPRESSIONS = "org.teiid.compiledExpressions"; //$NON-NLS-1$
+    public static final String TEXT_TABLE_PARALLELISM = "org.teiid.textTableParallelism"; //$NON-NLS-1$
+    public static final String SORT_PARALLELISM = "org.teiid.sortParallelism"; //$NON-NLS-1$
+    public static final String DEPENDENT_JOIN_MAX_QUERIES = "org.teiid.dependentJoinMaxQueries"; //$NON-NLS-1$
 
     private Properties properties;
     private boolean subqueryUnnestDefault = false;
@@ -54,6 +62,14 @@ public class Options {
     private boolean tracingWithActiveSpanOnly = true;
     private boolean enforceSingleMaxBufferSizeEstimate = false;
     private boolean relativeXPath = true;
+    private boolean columnarBatches;
+    private int hashGroupingMaxEstimate = 100000;
+    private boolean hashJoin = true;
+    private int exchangeParallelism = 1;
+    private boolean compiledExpressions = true;
+    private int textTableParallelism = 1;
+    private int sortParallelism = 1;
+    private int dependentJoinMaxQueries = 0;
 
     public Properties getProperties() {
         return properties;
@@ -238,4 +254,108 @@ public class Options {
         return this;
     }
 
+    public boolean isColumnarBatches() {
+        return columnarBatches;
+    }
+
+    public void setColumnarBatches(boolean columnarBatches) {
+        this.columnarBatches = columnarBatches;
+    }
+
+    public Options columnarBatches(boolean b) {
+        this.columnarBatches = b;
+        return this;
+    }
+
+    public int getHashGroupingMaxEstimate() {
+        return hashGroupingMaxEstimate;
+    }
+
+    public void setHashGroupingMaxEstimate(int hashGroupingMaxEstimate) {
+        this.hashGroupingMaxEstimate = hashGroupingMaxEstimate;
+    }
+
+    public Options hashGroupingMaxEstimate(int i) {
+        this.hashGroupingMaxEstimate = i;
+        return this;
+    }
+
+    public boolean isHashJoin() {
+        return hashJoin;
+    }
+
+    public void setHashJoin(boolean hashJoin) {
+        this.hashJoin = hashJoin;
+    }
+
+    public Options hashJoin(boolean b) {
+        this.hashJoin = b;
+        return this;
+    }
+
+    public int getExchangeParallelism() {
+        return exchangeParallelism;
+    }
+
+    public void setExchangeParallelism(int exchangeParallelism) {
+        this.exchangeParallelism = exchangeParallelism;
+    }
+
+    public Options exchangeParallelism(int i) {
+        this.exchangeParallelism = i;
+        return this;
+    }
+
+    public boolean isCompiledExpressions() {
+        return compiledExpressions;
+    }
+
+    public void setCompiledExpressions(boolean compiledExpressions) {
+        this.compiledExpressions = compiledExpressions;
+    }
+
+    public Options compiledExpressions(boolean b) {
+        this.compiledExpressions = b;
+        return this;
+    }
+
+    public int getTextTableParallelism() {
+        return textTableParallelism;
+    }
+
+    public void setTextTableParallelism(int textTableParallelism) {
+        this.textTableParallelism = textTableParallelism;
+    }
+
+    public Options textTableParallelism(int i) {
+        this.textTableParallelism = i;
+        return this;
+    }
+
+    public int getSortParallelism() {
+        return sortParallelism;
+    }
+
+    public void setSortParallelism(int sortParallelism) {
+        this.sortParallelism = sortParallelism;
+    }
+
+    public Options sortParallelism(int i) {
+        this.sortParallelism = i;
+        return this;
+    }
+
+    public int getDependentJoinMaxQueries() {
+        return dependentJoinMaxQueries;
+    }
+
+    public void setDependentJoinMaxQueries(int dependentJoinMaxQueries) {
+        this.dependentJoinMaxQueries = dependentJoinMaxQueries;
+    }
+
+    public Options dependentJoinMaxQueries(int i) {
+        this.dependentJoinMaxQueries = i;
+        return this;
+    }
+
 }
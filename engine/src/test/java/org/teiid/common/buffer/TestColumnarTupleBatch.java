@@ -0,0 +1,90 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.common.buffer;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.teiid.common.buffer.ColumnarTupleBatch.ColumnType;
+import org.teiid.core.types.DataTypeManager;
+
+@SuppressWarnings("nls")
+public class TestColumnarTupleBatch {
+
+    private static final Class<?>[] TYPES = new Class<?>[] {DataTypeManager.DefaultDataClasses.INTEGER,
+        DataTypeManager.DefaultDataClasses.SHORT, DataTypeManager.DefaultDataClasses.LONG,
+        DataTypeManager.DefaultDataClasses.FLOAT, DataTypeManager.DefaultDataClasses.STRING};
+
+    private List<List<?>> exampleRows() {
+        return Arrays.asList(
+                Arrays.asList(1, (short)2, 3L, 4.5f, "a"),
+                Arrays.asList(null, null, null, null, null),
+                Arrays.asList(-1, (short)-2, Long.MAX_VALUE, Float.NaN, "b"));
+    }
+
+    @Test public void testRoundTrip() {
+        ColumnarTupleBatch batch = ColumnarTupleBatch.fromRows(5, exampleRows(), TYPES);
+        assertEquals(3, batch.getRowCount());
+        assertEquals(7, batch.getEndRow());
+        assertEquals(ColumnType.INT, batch.getColumn(1).getColumnType());
+        assertEquals(ColumnType.OBJECT, batch.getColumn(4).getColumnType());
+        assertTrue(batch.getColumn(0).isNull(1));
+        assertEquals(Long.MAX_VALUE, batch.getColumn(2).getLong(2));
+        assertFalse(batch.isMaterialized());
+        assertEquals(exampleRows().get(0), batch.getTuple(5));
+        assertTrue(batch.isMaterialized());
+        assertEquals(exampleRows(), batch.getTuples());
+    }
+
+    @Test public void testPrimitiveValues() {
+        ColumnarTupleBatch batch = ColumnarTupleBatch.create(1, new Class<?>[] {DataTypeManager.DefaultDataClasses.SHORT,
+                DataTypeManager.DefaultDataClasses.DOUBLE}, 70);
+        for (int i = 0; i < 70; i++) {
+            batch.getColumn(0).setInt(i, i);
+            if (i % 2 == 0) {
+                batch.getColumn(1).setNull(i);
+            } else {
+                batch.getColumn(1).setDouble(i, i);
+            }
+        }
+        assertTrue(batch.getColumn(1).isNull(68));
+        assertFalse(batch.getColumn(1).isNull(69));
+        assertFalse(batch.getColumn(0).isNull(68));
+        assertEquals(Arrays.asList((short)69, 69.0), batch.getTuple(70));
+        assertTrue(batch.isMaterialized());
+        ColumnarTupleBatch selected = batch.select(new int[] {64, 65}, 2, new int[] {1});
+        assertTrue(selected.getColumn(0).isNull(0));
+        assertEquals(65.0, selected.getColumn(0).getDouble(1), 0);
+    }
+
+    @Test public void testTypeMismatch() {
+        assertNull(ColumnarTupleBatch.fromRows(1, Arrays.asList(Arrays.asList(1L)), new Class<?>[] {DataTypeManager.DefaultDataClasses.INTEGER}));
+    }
+
+    @Test public void testSelect() {
+        ColumnarTupleBatch batch = ColumnarTupleBatch.fromRows(1, exampleRows(), TYPES);
+        ColumnarTupleBatch result = batch.select(new int[] {1, 2}, 2, new int[] {4, 0});
+        assertEquals(1, result.getBeginRow());
+        assertEquals(Arrays.asList(Arrays.asList(null, null), Arrays.asList("b", -1)), result.getTuples());
+    }
+
+}
@@ -214,6 +214,36 @@ public class TestBufferFrontedFileStoreCache {
         assertEquals(Integer.valueOf(5001), ce.getObject());
     }
 
+    @Test public void testMemoryMappedRead() throws Exception {
+        FileStorageManager fsm = TestFileStorageManager.getStorageManager(null, "mapped");
+        fsm.setMemoryMapped(true);
+        cache = new BufferFrontedFileStoreCache();
+        cache.cleanerRunning.set(true); //prevent async affects
+        cache.setMemoryBufferSpace(1<<15);
+        cache.setMaxStorageObjectSize(1<<15);
+        cache.setDirect(false);
+        cache.setStorageManager(new SplittableStorageManager(fsm));
+        cache.initialize();
+
+        Serializer<Integer> s = new SimpleSerializer();
+        WeakReference<? extends Serializer<?>> ref = new WeakReference<Serializer<?>>(s);
+        cache.createCacheGroup(s.getId());
+        for (int i = 0; i < 4; i++) {
+            add(cache, s, ref, i);
+        }
+        assertTrue(cache.getStorageWrites() > 0);
+
+        for (int i = 0; i < 4; i++) {
+            CacheEntry ce = get(cache, Long.valueOf(i), s);
+            assertEquals(Integer.valueOf(5000 + i), ce.getObject());
+        }
+        assertTrue(cache.getMappedStorageReads() > 0);
+        assertEquals(cache.getStorageReads(), cache.getMappedStorageReads());
+        assertTrue(fsm.getMappedBufferSpace() > 0);
+
+        cache.removeCacheGroup(s.getId());
+    }
+
     @Test public void testEvictionFails() throws Exception {
         cache = createLayeredCache(1<<15, 1<<15, false);
         BufferManagerImpl bmi = Mockito.mock(BufferManagerImpl.class);
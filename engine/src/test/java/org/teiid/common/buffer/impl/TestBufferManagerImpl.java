@@ -204,4 +204,24 @@ public class TestBufferManagerImpl {
         }
     }
 
+    @Test public void testMemoryHitAndEvictionCounts() throws Exception {
+        BufferManagerImpl bufferManager = new BufferManagerImpl();
+        bufferManager.setCache(new MemoryStorageManager());
+        bufferManager.setMaxReserveKB(0);
+        bufferManager.setUseWeakReferences(false);
+        bufferManager.initialize();
+        BatchManagerImpl batchManager = bufferManager.createBatchManager(1L, new Class<?>[] {Integer.class});
+        Long batch = batchManager.createManagedBatch(Arrays.asList(Arrays.asList(1)), null, false);
+        batchManager.getBatch(batch, true);
+        assertEquals(1, bufferManager.getMemoryHitCount());
+        assertEquals(0, bufferManager.getMemoryMissCount());
+        assertEquals(0, bufferManager.getEvictionCount());
+
+        bufferManager.doEvictions(Integer.MAX_VALUE, false, bufferManager.initialEvictionQueue);
+        assertEquals(1, bufferManager.getEvictionCount());
+        assertEquals(Arrays.asList(Arrays.asList(1)), batchManager.getBatch(batch, true));
+        assertEquals(1, bufferManager.getMemoryHitCount());
+        assertEquals(1, bufferManager.getMemoryMissCount());
+    }
+
 }
@@ -24,6 +24,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Random;
 
@@ -125,6 +126,42 @@ public class TestFileStorageManager {
         assertEquals(1000, sm.getUsedBufferSpace());
     }
 
+    @Test public void testMemoryMapped() throws Exception {
+        FileStorageManager sm = getStorageManager(null, null);
+        sm.setMemoryMapped(true);
+        FileStore store = sm.createFileStore("0");
+        assertNull(store.getBuffer(0, 10));
+        byte[] expectedBytes = writeBytes(store, 0);
+
+        byte[] bytesRead = new byte[2048];
+        store.readFully(0, bytesRead, 0, bytesRead.length);
+        assertArrayEquals(expectedBytes, bytesRead);
+        assertEquals(2048, sm.getMappedBufferSpace());
+
+        ByteBuffer view = store.getBuffer(1024, 1024);
+        assertTrue(view.isReadOnly());
+        assertEquals(1024, view.remaining());
+        view.get(bytesRead, 0, 1024);
+        assertArrayEquals(Arrays.copyOfRange(expectedBytes, 1024, 2048), Arrays.copyOf(bytesRead, 1024));
+        assertNull(store.getBuffer(1024, 2048));
+
+        //writes are visible through the mapping
+        byte[] moreBytes = writeBytes(store, 2048);
+        view = store.getBuffer(2048, 2048);
+        view.get(bytesRead);
+        assertArrayEquals(moreBytes, bytesRead);
+        assertEquals(4096, sm.getMappedBufferSpace());
+
+        store.setLength(1024);
+        assertEquals(0, sm.getMappedBufferSpace());
+        //the truncated region was unmapped, so it is mapped again
+        store.readFully(0, bytesRead, 0, 1024);
+        assertArrayEquals(Arrays.copyOf(expectedBytes, 1024), Arrays.copyOf(bytesRead, 1024));
+        assertEquals(1024, sm.getMappedBufferSpace());
+        store.remove();
+        assertEquals(0, sm.getMappedBufferSpace());
+    }
+
     @Test public void testFlush() throws Exception {
         FileStorageManager sm = getStorageManager(null, null);
         FileStore store = sm.createFileStore("0");
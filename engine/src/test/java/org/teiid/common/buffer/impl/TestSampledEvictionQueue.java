@@ -0,0 +1,68 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.common.buffer.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+import org.teiid.common.buffer.BaseCacheEntry;
+import org.teiid.common.buffer.CacheKey;
+
+public class TestSampledEvictionQueue {
+
+    @Test public void testTouchAndPoll() {
+        AtomicLong clock = new AtomicLong();
+        EvictionQueue<BaseCacheEntry> q = EvictionQueue.create(EvictionQueue.Policy.SAMPLED, clock);
+        BaseCacheEntry value = new BaseCacheEntry(new CacheKey(0L, 0L, 0L));
+        q.touch(value);
+        assertEquals(1, q.getSize());
+        clock.set(LrfuEvictionQueue.MIN_INTERVAL);
+        q.touch(value);
+        assertEquals(1, q.getSize());
+        assertEquals(LrfuEvictionQueue.MIN_INTERVAL, value.getKey().getLastAccess());
+        assertSame(value, q.firstEntry(true));
+        assertEquals(0, q.getSize());
+        assertNull(q.firstEntry(true));
+    }
+
+    @Test public void testScanResistance() {
+        AtomicLong clock = new AtomicLong();
+        EvictionQueue<BaseCacheEntry> q = EvictionQueue.create(EvictionQueue.Policy.SAMPLED, clock);
+        BaseCacheEntry[] hot = new BaseCacheEntry[4];
+        for (int i = 0; i < hot.length; i++) {
+            hot[i] = new BaseCacheEntry(new CacheKey((long)i, 0L, 0L));
+        }
+        //a scan of entries accessed only once, while the hot entries are still in use
+        for (int i = 0; i < SampledEvictionQueue.SAMPLE_SIZE * 2; i++) {
+            clock.addAndGet(LrfuEvictionQueue.MIN_INTERVAL);
+            q.touch(new BaseCacheEntry(new CacheKey((long)i + hot.length, 0L, 0L)));
+            for (BaseCacheEntry entry : hot) {
+                q.touch(entry);
+            }
+        }
+        for (int i = 0; i < SampledEvictionQueue.SAMPLE_SIZE * 2; i++) {
+            BaseCacheEntry evicted = q.firstEntry(true);
+            assertTrue(evicted.getId() >= hot.length);
+        }
+        assertEquals(hot.length, q.getSize());
+    }
+
+}
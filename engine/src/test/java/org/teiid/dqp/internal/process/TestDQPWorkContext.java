@@ -31,6 +31,7 @@ import org.teiid.adminapi.DataPolicy;
 import org.teiid.adminapi.impl.DataPolicyMetadata;
 import org.teiid.adminapi.impl.SessionMetadata;
 import org.teiid.adminapi.impl.VDBMetaData;
+import org.teiid.core.util.ApplicationInfo;
 import org.teiid.core.util.UnitTestUtil;
 import org.teiid.security.Credentials;
 import org.teiid.security.GSSResult;
@@ -157,4 +158,11 @@ public class TestDQPWorkContext {
         assertEquals(4, DQPWorkContext.Version.getVersion("11.0").getClientSerializationVersion());
         assertEquals(5, DQPWorkContext.Version.getVersion("11.2").getClientSerializationVersion());
     }
+
+    @Test public void testColumnarVersion() {
+        assertEquals(DQPWorkContext.Version.SEVENTEEN_0, DQPWorkContext.Version.getVersion(ApplicationInfo.getInstance().getReleaseNumber()));
+        assertEquals(DQPWorkContext.Version.SEVENTEEN_0, DQPWorkContext.Version.getVersion("17.0.0-SNAPSHOT"));
+        assertEquals(DQPWorkContext.Version.SEVENTEEN_0, DQPWorkContext.Version.getVersion("17.1.0"));
+        assertEquals(DQPWorkContext.Version.ELEVEN_2, DQPWorkContext.Version.getVersion("16.3.0"));
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.query.eval;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.query.metadata.TransformationMetadata;
+import org.teiid.query.parser.QueryParser;
+import org.teiid.query.resolver.util.ResolverUtil;
+import org.teiid.query.resolver.util.ResolverVisitor;
+import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.GroupSymbol;
+import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.CommandContext;
+
+@SuppressWarnings("nls")
+public class TestCompiledExpression {
+
+    private static final List<?>[] TUPLES = new List<?>[] {
+        Arrays.asList("a", 1, true, 1.5),
+        Arrays.asList("b", null, false, null),
+        Arrays.asList(null, 3, null, 0.0),
+        Arrays.asList("ab", -2, true, 2.0),
+    };
+
+    private Map<Expression, Integer> elements = new HashMap<Expression, Integer>();
+    private GroupSymbol group = new GroupSymbol("pm1.g1");
+
+    public TestCompiledExpression() throws Exception {
+        TransformationMetadata metadata = RealMetadataFactory.example1Cached();
+        ResolverUtil.resolveGroup(group, metadata);
+        List<ElementSymbol> symbols = ResolverUtil.resolveElementsInGroup(group, metadata);
+        for (int i = 0; i < symbols.size(); i++) {
+            elements.put(symbols.get(i), i);
+        }
+    }
+
+    private Expression resolve(Expression expr) throws Exception {
+        ResolverVisitor.resolveLanguageObject(expr, Arrays.asList(group), RealMetadataFactory.example1Cached());
+        return expr;
+    }
+
+    /**
+     * Evaluate against the interpreted and compiled forms and ensure they match
+     */
+    private CompiledExpression helpTestExpression(String sql, boolean fullyCompiled) throws Exception {
+        Expression expr = resolve(QueryParser.getQueryParser().parseExpression(sql));
+        CompiledExpression compiled = CompiledExpression.compile(expr, elements);
+        assertEquals(fullyCompiled, compiled.isFullyCompiled());
+        Evaluator eval = new Evaluator(elements, null, new CommandContext());
+        for (List<?> tuple : TUPLES) {
+            assertEquals(sql + " " + tuple, eval.evaluate(expr, tuple), compiled.evaluate(tuple, eval));
+        }
+        return compiled;
+    }
+
+    private void helpTestCriteria(String sql, boolean fullyCompiled) throws Exception {
+        Criteria crit = (Criteria)resolve(QueryParser.getQueryParser().parseCriteria(sql));
+        CompiledExpression compiled = CompiledExpression.compile(crit, elements);
+        assertEquals(fullyCompiled, compiled.isFullyCompiled());
+        Evaluator eval = new Evaluator(elements, null, new CommandContext());
+        for (List<?> tuple : TUPLES) {
+            assertEquals(sql + " " + tuple, eval.evaluateTVL(crit, tuple), compiled.evaluateTVL(tuple, eval));
+            assertEquals(sql + " " + tuple, eval.evaluate(crit, tuple), compiled.evaluateCriteria(tuple, eval));
+        }
+    }
+
+    @Test public void testFunctions() throws Exception {
+        helpTestExpression("concat(upper(e1), 'x')", true);
+        helpTestExpression("e2 + 1", true);
+        helpTestExpression("e4 * 2 + e2", true);
+        helpTestExpression("ifnull(e1, 'z')", true);
+        helpTestExpression("convert(e2, string)", true);
+        helpTestExpression("substring(e1, 1, 1)", true);
+    }
+
+    @Test public void testCase() throws Exception {
+        helpTestExpression("case e1 when 'a' then 1 when 'b' then 2 else e2 end", true);
+        helpTestExpression("case when e2 > 0 then e1 when e3 = true then 'y' end", true);
+    }
+
+    @Test public void testCriteriaAsExpression() throws Exception {
+        helpTestExpression("e2 > 1", true);
+    }
+
+    @Test public void testCriteria() throws Exception {
+        helpTestCriteria("e2 > 1", true);
+        helpTestCriteria("e1 = 'a' or e2 < 0", true);
+        helpTestCriteria("e3 = true and e4 >= 1.5", true);
+        helpTestCriteria("not (e2 = 3)", true);
+        helpTestCriteria("e1 is not null and concat(e1, e1) <> 'aa'", true);
+    }
+
+    @Test public void testFallback() throws Exception {
+        helpTestCriteria("e1 like 'a%'", false);
+        helpTestCriteria("e2 > 1 and e1 in ('a', 'b')", false);
+        helpTestExpression("concat(e1, cast(e2 in (1, 3) as string))", false);
+        helpTestExpression("array_length((e1, e2))", false);
+        helpTestExpression("case when e3 then e1 end", false);
+    }
+
+    @Test public void testEvaluationException() throws Exception {
+        Expression expr = resolve(QueryParser.getQueryParser().parseExpression("convert(e1, integer)"));
+        CompiledExpression compiled = CompiledExpression.compile(expr, elements);
+        try {
+            compiled.evaluate(TUPLES[0], new Evaluator(elements, null, new CommandContext()));
+            fail();
+        } catch (ExpressionEvaluationException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("TEIID30328"));
+        }
+    }
+
+}
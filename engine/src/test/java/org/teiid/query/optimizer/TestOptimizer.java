@@ -66,6 +66,7 @@ import org.teiid.query.processor.relational.DependentAccessNode;
 import org.teiid.query.processor.relational.DupRemoveNode;
 import org.teiid.query.processor.relational.EnhancedSortMergeJoinStrategy;
 import org.teiid.query.processor.relational.GroupingNode;
+import org.teiid.query.processor.relational.HashJoinStrategy;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.JoinStrategy;
 import org.teiid.query.processor.relational.MergeJoinStrategy;
@@ -402,6 +403,8 @@ public class TestOptimizer {
                 }
             } else if (strategy instanceof NestedTableJoinStrategy) {
                 updateCounts(NestedTableJoinStrategy.class, counts, types);
+            } else if (strategy instanceof HashJoinStrategy) {
+                updateCounts(HashJoinStrategy.class, counts, types);
             }
             if (((JoinNode)relationalNode).isDependent()) {
                 updateCounts(DependentJoin.class, counts, types);
@@ -2960,6 +2963,7 @@ public class TestOptimizer {
         ProcessorPlan plan = helpPlan(sql, metadata,
             null, capFinder,
             new String[] { "SELECT pm1.g1.e1 FROM pm1.g1", "SELECT pm1.g2.e1 FROM pm1.g2" }, SHOULD_SUCCEED); //$NON-NLS-1$ //$NON-NLS-2$
+        //neither side can be sorted at the source, so a hash join is used
         checkNodeTypes(plan, new int[] {
             2,      // Access
             0,      // DependentAccess
@@ -2968,7 +2972,7 @@ public class TestOptimizer {
             0,      // DupRemove
             0,      // Grouping
             0,      // NestedLoopJoinStrategy
-            1,      // MergeJoinStrategy
+            0,      // MergeJoinStrategy
             0,      // Null
             0,      // PlanExecution
             3,      // Project
@@ -2976,6 +2980,12 @@ public class TestOptimizer {
             0,      // Sort
             0       // UnionAll
         });
+        checkNodeTypes(plan, new int[] {1}, new Class[] {HashJoinStrategy.class});
+
+        CommandContext cc = new CommandContext();
+        cc.getOptions().setHashJoin(false);
+        plan = getPlan(helpGetCommand(sql, metadata), metadata, capFinder, null, true, cc);
+        checkNodeTypes(plan, new int[] {0, 1}, new Class[] {HashJoinStrategy.class, MergeJoinStrategy.class});
     }
 
     /** should be one dependent join */
@@ -2999,6 +3009,7 @@ public class TestOptimizer {
         ProcessorPlan plan = helpPlan(sql, metadata,
             null, capFinder,
             new String[] { "SELECT pm1.g1.e1 FROM pm1.g1", "SELECT pm1.g2.e1 FROM pm1.g2", "SELECT pm1.g3.e1 FROM pm1.g3" }, SHOULD_SUCCEED); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        checkNodeTypes(plan, new int[] {2}, new Class[] {HashJoinStrategy.class});
         checkNodeTypes(plan, new int[] {
             3,      // Access
             0,      // DependentAccess
@@ -3007,7 +3018,7 @@ public class TestOptimizer {
             0,      // DupRemove
             0,      // Grouping
             0,      // NestedLoopJoinStrategy
-            2,      // MergeJoinStrategy
+            0,      // MergeJoinStrategy
             0,      // Null
             0,      // PlanExecution
             1,      // Project
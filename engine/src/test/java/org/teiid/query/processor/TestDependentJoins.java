@@ -53,6 +53,7 @@ import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.FakeCapabilitiesFinder;
 import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.parser.QueryParser;
+import org.teiid.query.processor.relational.DependentCriteriaProcessor.DependentStrategy;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.RelationalPlan;
@@ -66,6 +67,8 @@ import org.teiid.translator.ExecutionFactory.NullOrder;
 @SuppressWarnings({"rawtypes", "unchecked", "nls"})
 public class TestDependentJoins {
 
+    private ProcessorPlan lastPlan;
+
     /**
      * @param sql
      * @return
@@ -961,6 +964,19 @@ public class TestDependentJoins {
 
         //note that the dependent join was performed
         assertEquals(4, new HashSet<String>(dataManager.getQueries()).size());
+        assertStrategy(DependentStrategy.IN_CRITERIA);
+    }
+
+    /*
+     * The runtime check is not performed by default
+     */
+    @Test public void testDependentJoinMaxQueriesDefault() throws Exception {
+        CommandContext context = createCommandContext();
+        assertEquals(0, context.getOptions().getDependentJoinMaxQueries());
+        FakeDataManager dataManager = helpTestBackoff(false, 1, 1000, context);
+
+        assertEquals(4, new HashSet<String>(dataManager.getQueries()).size());
+        assertStrategy(DependentStrategy.IN_CRITERIA);
     }
 
     /*
@@ -973,6 +989,24 @@ public class TestDependentJoins {
         assertEquals(4, new HashSet<String>(dataManager.getQueries()).size());
     }
 
+    /*
+     * Too many source queries would be required for the actual number of values - should back off at runtime
+     */
+    @Test public void testDependentJoinBackoffMaxQueries() throws Exception {
+        CommandContext context = createCommandContext();
+        context.getOptions().dependentJoinMaxQueries(1);
+        FakeDataManager dataManager = helpTestBackoff(false, 1, 1000, context);
+
+        //note that the dependent join was not actually performed
+        assertEquals(new HashSet<String>(Arrays.asList("SELECT pm6.g1.e1, pm6.g1.e2 FROM pm6.g1 ORDER BY pm6.g1.e1, pm6.g1.e2", "SELECT pm1.g1.e1, pm1.g1.e2 FROM pm1.g1")),
+                new HashSet<String>(dataManager.getQueries()));
+        assertStrategy(DependentStrategy.NONE);
+    }
+
+    private void assertStrategy(DependentStrategy strategy) {
+        assertTrue(lastPlan.getDescriptionProperties().toString(), lastPlan.getDescriptionProperties().toString().contains(AnalysisRecord.PROP_DEPENDENT_STRATEGY + ":" + strategy.name()));
+    }
+
     @Test public void testIssue1899() throws Exception {
         String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm3.g1 WHERE pm1.g1.e1=pm3.g1.e1"; //$NON-NLS-1$
 
@@ -1016,6 +1050,12 @@ public class TestDependentJoins {
     private FakeDataManager helpTestBackoff(boolean setNdv, int smallCardinality, int largeCardinality) throws Exception,
             QueryMetadataException, TeiidComponentException,
             TeiidProcessingException {
+        return helpTestBackoff(setNdv, smallCardinality, largeCardinality, createCommandContext());
+    }
+
+    private FakeDataManager helpTestBackoff(boolean setNdv, int smallCardinality, int largeCardinality, CommandContext context) throws Exception,
+            QueryMetadataException, TeiidComponentException,
+            TeiidProcessingException {
         // Create query
         String sql = "SELECT pm1.g1.e1 FROM pm1.g1, pm6.g1 WHERE pm1.g1.e1=pm6.g1.e1 and pm1.g1.e2=pm6.g1.e2"; //$NON-NLS-1$
 
@@ -1058,7 +1098,8 @@ public class TestDependentJoins {
         }, capFinder, ComparisonMode.EXACT_COMMAND_STRING);
 
         // Run query
-        TestProcessor.helpProcess(plan, dataManager, expected);
+        TestProcessor.helpProcess(plan, context, dataManager, expected);
+        lastPlan = plan;
         return dataManager;
     }
 
@@ -1208,6 +1249,8 @@ public class TestDependentJoins {
         // Run query
         TestProcessor.helpProcess(plan, dataManager, expected);
 
+        assertTrue(plan.getDescriptionProperties().toString().contains(AnalysisRecord.PROP_DEPENDENT_STRATEGY + ":PUSHDOWN"));
+
         Select s = (Select)dataManager.getPushdownCommands().get(1);
         assertEquals(1, s.getDependentValues().size());
         List<? extends List<?>> vals = s.getDependentValues().values().iterator().next();
@@ -1312,6 +1355,9 @@ public class TestDependentJoins {
         // Run query
         TestProcessor.helpProcess(plan, dataManager, expected);
 
+        //the values are over the max, so the source query is issued without them
+        assertTrue(plan.getDescriptionProperties().toString().contains(AnalysisRecord.PROP_DEPENDENT_STRATEGY + ":NONE"));
+
         Select s = (Select)dataManager.getPushdownCommands().get(1);
         assertNull(s.getDependentValues());
     }
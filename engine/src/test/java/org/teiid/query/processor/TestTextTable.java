@@ -22,6 +22,11 @@ import static org.junit.Assert.*;
 import static org.teiid.query.optimizer.TestOptimizer.*;
 import static org.teiid.query.processor.TestProcessor.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -44,7 +49,9 @@ import org.teiid.query.optimizer.capabilities.SourceCapabilities.Capability;
 import org.teiid.query.parser.QueryParser;
 import org.teiid.query.processor.relational.JoinNode;
 import org.teiid.query.processor.relational.NestedTableJoinStrategy;
+import org.teiid.query.processor.relational.RelationalNode;
 import org.teiid.query.processor.relational.RelationalPlan;
+import org.teiid.query.processor.relational.TextTableNode;
 import org.teiid.query.sql.lang.Command;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
@@ -410,6 +417,44 @@ public class TestTextTable {
         process(sql, expected);
     }
 
+    @Test public void testParallel() throws Exception {
+        File f = UnitTestUtil.getTestScratchFile("parallel-texttable.csv");
+        List<List<?>> expected = new ArrayList<List<?>>();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(f), StandardCharsets.UTF_8)) {
+            w.write("id,note\r\n");
+            for (int i = 0; i < 200; i++) {
+                String note = "plain " + i;
+                if (i % 7 == 0) {
+                    w.write(i + ",\"note\r\nline " + i + "\"\r\n");
+                    note = "note\nline " + i;
+                } else if (i % 5 == 0) {
+                    w.write(i + ",\"say \"\"hi\"\"\"\r\n");
+                    note = "say \"hi\"";
+                } else {
+                    w.write(i + "," + note + "\r\n");
+                }
+                expected.add(Arrays.asList(i, note, i + 1));
+            }
+        }
+        String sql = "SELECT * from texttable(? COLUMNS id integer, note string, ord for ordinality HEADER) x";
+
+        for (int parallelism : new int[] {1, 4}) {
+            Command command = helpParse(sql);
+            CommandContext cc = createCommandContext();
+            cc.getOptions().textTableParallelism(parallelism);
+            setParameterValues(Arrays.asList(new ClobType(new ClobImpl(new InputStreamFactory.FileInputStreamFactory(f), -1))), command, cc);
+            ProcessorPlan plan = helpGetPlan(command, RealMetadataFactory.example1Cached(), new DefaultCapabilitiesFinder(), cc);
+            RelationalNode node = ((RelationalPlan)plan).getRootNode();
+            while (!(node instanceof TextTableNode)) {
+                node = node.getChildren()[0];
+            }
+            assertEquals(parallelism, ((TextTableNode)node).getParallelism());
+            ((TextTableNode)node).setChunkSize(64);
+            helpProcess(plan, cc, new FakeDataManager(), expected.toArray(new List<?>[expected.size()]));
+        }
+        f.delete();
+    }
+
     public static void process(String sql, List<?>[] expectedResults) throws Exception {
         FakeDataManager dataManager = new FakeDataManager();
         sampleData1(dataManager);
@@ -0,0 +1,221 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.query.processor.relational;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.teiid.api.exception.query.ExpressionEvaluationException;
+import org.teiid.common.buffer.BlockedException;
+import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleBatch;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.function.FunctionDescriptor;
+import org.teiid.query.optimizer.TestOptimizer;
+import org.teiid.query.optimizer.capabilities.DefaultCapabilitiesFinder;
+import org.teiid.query.parser.QueryParser;
+import org.teiid.query.processor.FakeDataManager;
+import org.teiid.query.processor.ProcessorDataManager;
+import org.teiid.query.processor.ProcessorPlan;
+import org.teiid.query.processor.TestProcessor;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.ExpressionSymbol;
+import org.teiid.query.sql.symbol.Function;
+import org.teiid.query.unittest.RealMetadataFactory;
+import org.teiid.query.util.CommandContext;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TestExchangeNode {
+
+    private ExchangeNode helpSetupExchange(List elements, List[] data, List childElements, ProcessorDataManager dataMgr) {
+        BufferManager mgr = BufferManagerFactory.getTestBufferManager(1<<20, 8);
+        CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+
+        FakeRelationalNode dataNode = new FakeRelationalNode(2, data);
+        dataNode.setElements(childElements);
+        dataNode.initialize(context, mgr, null);
+
+        ExchangeNode exchangeNode = new ExchangeNode(1);
+        exchangeNode.setSelectSymbols(elements);
+        exchangeNode.setElements(elements);
+        exchangeNode.setParallelism(4);
+        exchangeNode.addChild(dataNode);
+        exchangeNode.initialize(context, mgr, dataMgr);
+
+        return exchangeNode;
+    }
+
+    private void helpTestExchange(List elements, List[] data, List childElements, List[] expected, ProcessorDataManager dataMgr) throws Exception {
+        ExchangeNode exchangeNode = helpSetupExchange(elements, data, childElements, dataMgr);
+
+        exchangeNode.open();
+
+        int currentRow = 1;
+        while(true) {
+            try {
+                TupleBatch batch = exchangeNode.nextBatch();
+                for(int row = currentRow; row <= batch.getEndRow(); row++) {
+                    assertEquals("Rows don't match at " + row, expected[row-1], batch.getTuple(row)); //$NON-NLS-1$
+                }
+                currentRow += batch.getRowCount();
+                if(batch.getTerminationFlag()) {
+                    break;
+                }
+            } catch(BlockedException e) {
+                // ignore and try again
+            }
+        }
+        assertEquals(expected.length + 1, currentRow);
+        exchangeNode.close();
+    }
+
+    private Function getFunction(String name, Expression arg, String value, Class<?> type) {
+        Function func = new Function(name, new Expression[] { arg, new Constant(value)});
+        FunctionDescriptor fd = RealMetadataFactory.SFM.getSystemFunctionLibrary().findFunction(name, new Class[] { DataTypeManager.DefaultDataClasses.STRING, DataTypeManager.DefaultDataClasses.STRING });
+        func.setFunctionDescriptor(fd);
+        func.setType(type);
+        return func;
+    }
+
+    @Test public void testParallelProjection() throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.STRING);
+        List elements = new ArrayList();
+        elements.add(es1);
+
+        ExpressionSymbol expr = new ExpressionSymbol("expr", getFunction("concat", es1, "abc", DataTypeManager.DefaultDataClasses.STRING)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        List projectElements = new ArrayList();
+        projectElements.add(es1);
+        projectElements.add(expr);
+
+        List[] data = new List[100];
+        List[] expected = new List[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = Arrays.asList(String.valueOf(i));
+            expected[i] = Arrays.asList(String.valueOf(i), i + "abc"); //$NON-NLS-1$
+        }
+
+        helpTestExchange(projectElements, data, elements, expected, null);
+    }
+
+    @Test public void testParallelProjectionFails() throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.STRING);
+        List elements = new ArrayList();
+        elements.add(es1);
+
+        ExpressionSymbol expr = new ExpressionSymbol("expr", getFunction("convert", es1, "integer", DataTypeManager.DefaultDataClasses.INTEGER)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        List projectElements = new ArrayList();
+        projectElements.add(expr);
+
+        List[] data = new List[50];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = Arrays.asList(i == 30 ? "x" : String.valueOf(i)); //$NON-NLS-1$
+        }
+
+        ExchangeNode exchangeNode = helpSetupExchange(projectElements, data, elements, null);
+        exchangeNode.open();
+        try {
+            while (true) {
+                try {
+                    if (exchangeNode.nextBatch().getTerminationFlag()) {
+                        break;
+                    }
+                } catch (BlockedException e) {
+                    // ignore and try again
+                }
+            }
+            fail("Expected error but test succeeded"); //$NON-NLS-1$
+        } catch (ExpressionEvaluationException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("TEIID30328")); //$NON-NLS-1$
+        } finally {
+            exchangeNode.close();
+        }
+    }
+
+    /**
+     * The lookup will block on the worker, so the batch should be evaluated serially
+     */
+    @Test public void testBlockedWorker() throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.STRING);
+        List elements = new ArrayList();
+        elements.add(es1);
+
+        Function func = new Function("lookup", new Expression[] { new Constant("pm1.g1"), new Constant("e2"), new Constant("e1"), es1 }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        FunctionDescriptor desc = RealMetadataFactory.SFM.getSystemFunctionLibrary().findFunction("lookup", new Class[] { String.class, String.class, String.class, String.class } ); //$NON-NLS-1$
+        func.setFunctionDescriptor(desc);
+        func.setType(DataTypeManager.DefaultDataClasses.STRING);
+
+        ExpressionSymbol expr = new ExpressionSymbol("expr", func); //$NON-NLS-1$
+        List projectElements = new ArrayList();
+        projectElements.add(expr);
+
+        List[] data = new List[] {
+            Arrays.asList(new Object[] { "1" }),  //$NON-NLS-1$
+            Arrays.asList(new Object[] { "2" }) }; //$NON-NLS-1$
+        List[] expected = new List[] {
+            Arrays.asList(new Object[] { "a" }),  //$NON-NLS-1$
+            Arrays.asList(new Object[] { "b" }) }; //$NON-NLS-1$
+
+        FakeDataManager dataMgr = new FakeDataManager();
+        dataMgr.setThrowBlocked(true);
+        Map valueMap = new HashMap();
+        valueMap.put("1", "a"); //$NON-NLS-1$ //$NON-NLS-2$
+        valueMap.put("2", "b"); //$NON-NLS-1$ //$NON-NLS-2$
+        dataMgr.defineCodeTable("pm1.g1", "e1", "e2", valueMap); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+        helpTestExchange(projectElements, data, elements, expected, dataMgr);
+    }
+
+    @Test public void testPlanning() throws Exception {
+        String sql = "SELECT concat(e1, 'x'), e2 + 1 FROM pm1.g1"; //$NON-NLS-1$
+
+        CommandContext cc = TestProcessor.createCommandContext();
+        ProcessorPlan plan = TestProcessor.helpGetPlan(QueryParser.getQueryParser().parseCommand(sql), RealMetadataFactory.example1Cached(), new DefaultCapabilitiesFinder(), cc);
+        TestOptimizer.checkNodeTypes(plan, new int[] {0}, new Class[] {ExchangeNode.class});
+
+        cc = TestProcessor.createCommandContext();
+        cc.getOptions().exchangeParallelism(4);
+        plan = TestProcessor.helpGetPlan(QueryParser.getQueryParser().parseCommand(sql), RealMetadataFactory.example1Cached(), new DefaultCapabilitiesFinder(), cc);
+        TestOptimizer.checkNodeTypes(plan, new int[] {1}, new Class[] {ExchangeNode.class});
+
+        List[] expected = new List[] {
+            Arrays.asList("ax", 1), //$NON-NLS-1$
+            Arrays.asList(null, 2),
+            Arrays.asList("ax", 4), //$NON-NLS-1$
+            Arrays.asList("cx", 2), //$NON-NLS-1$
+            Arrays.asList("bx", 3), //$NON-NLS-1$
+            Arrays.asList("ax", 1), //$NON-NLS-1$
+        };
+        FakeDataManager dataManager = new FakeDataManager();
+        TestProcessor.sampleData1(dataManager);
+        TestProcessor.helpProcess(plan, cc, dataManager, expected);
+    }
+
+}
@@ -24,6 +24,7 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
@@ -33,6 +34,7 @@ import org.teiid.api.exception.query.FunctionExecutionException;
 import org.teiid.client.plan.PlanNode;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
 import org.teiid.common.buffer.BufferManagerFactory;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.common.buffer.impl.BufferManagerImpl;
@@ -495,6 +497,126 @@ public class TestGroupingNode {
         return node;
     }
 
+    @Test public void testHashGrouping() throws Exception {
+        BufferManager mgr = BufferManagerFactory.getStandaloneBufferManager();
+
+        GroupingNode node = getHashGroupingNode();
+        CommandContext context = new CommandContext("pid", "test", null, null,  1);               //$NON-NLS-1$ //$NON-NLS-2$
+
+        List[] expected = new List[] {
+            Arrays.asList(new Object[] { null, new Integer(2), new Long(3) }),
+            Arrays.asList(new Object[] { new Integer(0), new Integer(1), new Long(4) }),
+            Arrays.asList(new Object[] { new Integer(1), new Integer(1), new Long(2) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(4), new Long(5) }),
+            Arrays.asList(new Object[] { new Integer(3), new Integer(1), new Long(0) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(3), new Long(5) }),
+            Arrays.asList(new Object[] { new Integer(5), new Integer(1), new Long(3) }),
+            Arrays.asList(new Object[] { new Integer(6), new Integer(2), new Long(7) })
+        };
+
+        helpProcessUnordered(mgr, node, context, expected, createTupleSource1());
+        assertTrue(node.getDescriptionProperties().toString().contains("Grouping Strategy:HASH")); //$NON-NLS-1$
+    }
+
+    @Test public void testHashGroupingSpill() throws Exception {
+        BufferManagerImpl mgr = BufferManagerFactory.createBufferManager();
+        mgr.setProcessorBatchSize(4);
+        //nothing beyond the forced reservation is available, so groups must spill
+        mgr.setMaxReserveKB(0);
+
+        GroupingNode node = getHashGroupingNode();
+        CommandContext context = new CommandContext("pid", "test", null, null,  1);               //$NON-NLS-1$ //$NON-NLS-2$
+
+        int groups = 500;
+        List[] data = new List[groups * 2];
+        List[] expected = new List[groups];
+        for (int i = 0; i < groups; i++) {
+            data[i] = Arrays.asList(i, 1);
+            data[i + groups] = Arrays.asList(i, i);
+            expected[i] = Arrays.asList(i, 2, Long.valueOf(i + 1));
+        }
+        FakeTupleSource dataSource = new FakeTupleSource(createTupleSource1().getSchema(), data);
+        helpProcessUnordered(mgr, node, context, expected, dataSource);
+    }
+
+    /**
+     * Reservations that succeed after a group has spilled must not admit the spilled group
+     */
+    @Test public void testHashGroupingIntermittentSpill() throws Exception {
+        BufferManagerImpl mgr = new BufferManagerImpl() {
+            int reservations;
+            @Override
+            public int reserveBuffers(int count, BufferReserveMode mode) {
+                if (mode == BufferReserveMode.NO_WAIT && reservations++ % 2 == 0) {
+                    return 0;
+                }
+                return super.reserveBuffers(count, mode);
+            }
+        };
+        BufferManagerFactory.initBufferManager(mgr);
+        mgr.setProcessorBatchSize(4);
+
+        GroupingNode node = getHashGroupingNode();
+        CommandContext context = new CommandContext("pid", "test", null, null,  1);               //$NON-NLS-1$ //$NON-NLS-2$
+
+        int groups = 200;
+        List[] data = new List[groups * 3];
+        List[] expected = new List[groups];
+        for (int i = 0; i < groups; i++) {
+            for (int j = 0; j < 3; j++) {
+                data[i + j * groups] = Arrays.asList(i, 1);
+            }
+            expected[i] = Arrays.asList(i, 3, Long.valueOf(3));
+        }
+        FakeTupleSource dataSource = new FakeTupleSource(createTupleSource1().getSchema(), data);
+        helpProcessUnordered(mgr, node, context, expected, dataSource);
+    }
+
+    private GroupingNode getHashGroupingNode() {
+        GroupingNode node = new GroupingNode(1);
+        List outputElements = new ArrayList();
+        ElementSymbol col1 = new ElementSymbol("col1"); //$NON-NLS-1$
+        col1.setType(Integer.class);
+        ElementSymbol col2 = new ElementSymbol("col2"); //$NON-NLS-1$
+        col2.setType(Integer.class);
+        outputElements.add(col1);
+        outputElements.add(new AggregateSymbol("COUNT", false, null)); //$NON-NLS-1$
+        outputElements.add(new AggregateSymbol("SUM", false, col2)); //$NON-NLS-1$
+        node.setElements(outputElements);
+
+        List groupingElements = new ArrayList();
+        groupingElements.add(col1);
+        node.setOrderBy(new OrderBy(groupingElements).getOrderByItems());
+        node.setHashGrouping(true);
+        return node;
+    }
+
+    private void helpProcessUnordered(BufferManager mgr, GroupingNode node,
+            CommandContext context, List[] expected, FakeTupleSource dataSource)
+            throws TeiidComponentException, TeiidProcessingException {
+        RelationalNode dataNode = new FakeRelationalNode(0, dataSource, mgr.getProcessorBatchSize());
+        dataNode.setElements(dataSource.getSchema());
+        node.addChild(dataNode);
+        node.initialize(context, mgr, null);
+        node.open();
+
+        List<List<?>> actual = new ArrayList<List<?>>();
+        while(true) {
+            try {
+                TupleBatch batch = node.nextBatch();
+                actual.addAll(batch.getTuples());
+                if(batch.getTerminationFlag()) {
+                    break;
+                }
+            } catch (BlockedException e) {
+                //ignore
+            }
+        }
+        node.close();
+        assertEquals(expected.length, actual.size());
+        assertEquals(new HashSet<Object>(Arrays.asList(expected)), new HashSet<Object>(actual));
+    }
+
     @Test public void testDescriptionProperties() {
         GroupingNode node = getExampleGroupingNode();
         SymbolMap outputMapping = new SymbolMap();
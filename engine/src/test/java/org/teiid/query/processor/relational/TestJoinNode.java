@@ -70,6 +70,7 @@ public class TestJoinNode {
 
     protected List[] expected;
     private List[] expectedReversed;
+    private boolean unordered;
 
     protected JoinNode join;
     protected JoinStrategy joinStrategy;
@@ -269,12 +270,20 @@ public class TestJoinNode {
             throws TeiidComponentException, TeiidProcessingException {
         join.open();
 
+        if (unordered) {
+            expectedResults = sort(expectedResults);
+        }
+        List<List<?>> actual = new ArrayList<List<?>>();
         int currentRow = 1;
         while(true) {
             try {
                 TupleBatch batch = join.nextBatch();
                 for(;currentRow <= batch.getEndRow(); currentRow++) {
                     List tuple = batch.getTuple(currentRow);
+                    if (unordered) {
+                        actual.add(tuple);
+                        continue;
+                    }
                     assertEquals("Rows don't match at " + currentRow, expectedResults[currentRow-1], tuple); //$NON-NLS-1$
                 }
                 if(batch.getTerminationFlag()) {
@@ -285,9 +294,113 @@ public class TestJoinNode {
             }
         }
         assertEquals(expectedResults.length, currentRow - 1);
+        if (unordered) {
+            assertEquals(Arrays.asList(expectedResults), Arrays.asList(sort(actual.toArray(new List[actual.size()]))));
+        }
         join.close();
     }
 
+    private static List[] sort(List[] tuples) {
+        List[] result = tuples.clone();
+        Arrays.sort(result, (a, b) -> a.toString().compareTo(b.toString()));
+        return result;
+    }
+
+    private void helpTestHashJoin(boolean buildLeft, int processingBytes) throws TeiidComponentException, TeiidProcessingException {
+        unordered = true;
+        for (int batchSize : new int[] {1, 10, 100}) {
+            helpCreateJoin();
+            HashJoinStrategy hjs = new HashJoinStrategy();
+            hjs.setBuildLeft(buildLeft);
+            this.joinStrategy = hjs;
+            this.join.setJoinStrategy(joinStrategy);
+            helpTestJoinDirect(expected, batchSize, processingBytes);
+        }
+    }
+
+    @Test public void testHashJoin() throws Exception {
+        joinType = JoinType.JOIN_INNER;
+        expected = new List[] {
+            Arrays.asList(new Object[] { new Integer(1), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) })
+        };
+        helpTestHashJoin(false, 100000);
+        helpTestHashJoin(true, 100000);
+    }
+
+    @Test public void testHashJoinLeftOuter() throws Exception {
+        joinType = JoinType.JOIN_LEFT_OUTER;
+        expected = new List[] {
+            Arrays.asList(new Object[] { new Integer(1), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(3), null }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(5), null }),
+            Arrays.asList(new Object[] { new Integer(10), null }),
+            Arrays.asList(new Object[] { new Integer(11), null }),
+            Arrays.asList(new Object[] { new Integer(11), null })
+        };
+        helpTestHashJoin(false, 100000);
+    }
+
+    @Test public void testHashJoinSemi() throws Exception {
+        joinType = JoinType.JOIN_SEMI;
+        expected = new List[] {
+            Arrays.asList(new Object[] { new Integer(1), new Integer(1) }),
+            Arrays.asList(new Object[] { new Integer(2), new Integer(2) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+            Arrays.asList(new Object[] { new Integer(4), new Integer(4) }),
+        };
+        helpTestHashJoin(false, 100000);
+    }
+
+    @Test public void testHashJoinAntiSemi() throws Exception {
+        joinType = JoinType.JOIN_ANTI_SEMI;
+        expected = new List[] {
+            Arrays.asList(new Object[] { new Integer(3), null }),
+            Arrays.asList(new Object[] { new Integer(5), null }),
+            Arrays.asList(new Object[] { new Integer(10), null }),
+            Arrays.asList(new Object[] { new Integer(11), null }),
+            Arrays.asList(new Object[] { new Integer(11), null })
+        };
+        helpTestHashJoin(false, 100000);
+    }
+
+    @Test public void testHashJoinSpill() throws Exception {
+        joinType = JoinType.JOIN_LEFT_OUTER;
+        int rows = 2000;
+        leftTuples = new List[rows];
+        rightTuples = new List[rows];
+        List<List<?>> results = new ArrayList<List<?>>();
+        for (int i = 0; i < rows; i++) {
+            leftTuples[i] = Arrays.asList(i);
+            //every fourth left value matches twice
+            rightTuples[i] = Arrays.asList((i/2)*4);
+        }
+        for (int i = 0; i < rows; i++) {
+            if (i % 4 == 0) {
+                results.add(Arrays.asList(i, i));
+                results.add(Arrays.asList(i, i));
+            } else {
+                results.add(Arrays.asList(i, null));
+            }
+        }
+        expected = results.toArray(new List[results.size()]);
+        //no reserve is available, so partitions must be spilled
+        helpTestHashJoin(false, 0);
+        HashJoinStrategy hjs = (HashJoinStrategy)this.join.getJoinStrategy();
+        assertFalse(hjs.getStatistics().toString(), hjs.getStatistics().contains("Spilled Partitions: 0")); //$NON-NLS-1$
+    }
+
     @Test public void testNoRows() throws Exception {
         leftTuples = new List[0];
         rightTuples = new List[0];
@@ -31,6 +31,7 @@ import org.teiid.api.exception.query.ExpressionEvaluationException;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
 import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.ColumnarTupleBatch;
 import org.teiid.common.buffer.TupleBatch;
 import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidProcessingException;
@@ -42,7 +43,9 @@ import org.teiid.query.processor.FakeDataManager;
 import org.teiid.query.processor.ProcessorDataManager;
 import org.teiid.query.processor.QueryProcessor;
 import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
 import org.teiid.query.sql.lang.Criteria;
+import org.teiid.query.sql.lang.IsNullCriteria;
 import org.teiid.query.sql.symbol.Constant;
 import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.sql.symbol.Expression;
@@ -274,4 +277,57 @@ public class TestSelectNode {
         helpTestSelect(elements, crit, data, childElements, dataMgr, expected);
 
     }
+    @Test public void testColumnarSelect() throws TeiidComponentException, TeiidProcessingException {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+
+        ElementSymbol es2 = new ElementSymbol("e2"); //$NON-NLS-1$
+        es2.setType(DataTypeManager.DefaultDataClasses.STRING);
+
+        List elements = Arrays.asList(es2, es1);
+        final List childElements = Arrays.asList(es1, es2);
+
+        Criteria crit = new CompoundCriteria(CompoundCriteria.AND, new CompareCriteria(es1, CompareCriteria.GE, new Constant(5)),
+                new IsNullCriteria(es2));
+        ((IsNullCriteria)((CompoundCriteria)crit).getCriteria(1)).setNegated(true);
+
+        final List[] data = new List[] {
+            Arrays.asList(1, "a"), //$NON-NLS-1$
+            Arrays.asList(5, null),
+            Arrays.asList(null, "b"), //$NON-NLS-1$
+            Arrays.asList(7, "c"), //$NON-NLS-1$
+        };
+
+        RelationalNode child = new RelationalNode(0) {
+            @Override
+            public Object clone() {
+                return null;
+            }
+
+            @Override
+            protected TupleBatch nextBatchDirect() throws BlockedException,
+                    TeiidComponentException, TeiidProcessingException {
+                TupleBatch batch = ColumnarTupleBatch.fromRows(1, Arrays.<List<?>>asList(data), new Class<?>[] {es1.getType(), es2.getType()});
+                batch.setTerminationFlag(true);
+                return batch;
+            }
+        };
+
+        BufferManager mgr = BufferManagerFactory.getStandaloneBufferManager();
+        CommandContext context = new CommandContext("pid", "test", null, null, 1);               //$NON-NLS-1$ //$NON-NLS-2$
+        child.setElements(childElements);
+        child.initialize(context, mgr, null);
+        SelectNode selectNode = new SelectNode(1);
+        selectNode.setCriteria(crit);
+        selectNode.setElements(elements);
+        selectNode.addChild(child);
+        selectNode.initialize(context, mgr, null);
+        selectNode.open();
+
+        TupleBatch batch = selectNode.nextBatch();
+        assertTrue(batch instanceof ColumnarTupleBatch);
+        assertTrue(batch.getTerminationFlag());
+        assertEquals(Arrays.asList(Arrays.asList("c", 7)), batch.getTuples()); //$NON-NLS-1$
+    }
+
 }
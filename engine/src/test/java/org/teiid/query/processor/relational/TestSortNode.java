@@ -26,10 +26,19 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.teiid.adminapi.impl.SessionMetadata;
 import org.teiid.common.buffer.BlockedException;
 import org.teiid.common.buffer.BufferManager;
+import org.teiid.common.buffer.BufferManager.BufferReserveMode;
 import org.teiid.common.buffer.BufferManager.TupleSourceType;
 import org.teiid.common.buffer.BufferManagerFactory;
 import org.teiid.common.buffer.TupleBatch;
@@ -40,6 +49,8 @@ import org.teiid.core.TeiidComponentException;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.types.DataTypeManager;
+import org.teiid.dqp.internal.process.FutureWork;
+import org.teiid.dqp.internal.process.RequestWorkItem;
 import org.teiid.language.SortSpecification.NullOrdering;
 import org.teiid.query.optimizer.TestOptimizer.ComparisonMode;
 import org.teiid.query.optimizer.TestOptimizer.DupRemoveSortNode;
@@ -55,7 +66,7 @@ import org.teiid.query.sql.symbol.ElementSymbol;
 import org.teiid.query.unittest.RealMetadataFactory;
 import org.teiid.query.util.CommandContext;
 
-@SuppressWarnings({"rawtypes", "nls"})
+@SuppressWarnings({"rawtypes", "nls", "unchecked"})
 public class TestSortNode {
 
     public static final int BATCH_SIZE = 100;
@@ -377,4 +388,92 @@ public class TestSortNode {
         assertNull(ts.nextTuple());
     }
 
+    @Test public void testParallelStableSort() throws Exception {
+        helpTestParallelSort(Mode.SORT, false);
+    }
+
+    @Test public void testParallelMerge() throws Exception {
+        helpTestParallelSort(Mode.SORT, true);
+    }
+
+    @Test public void testParallelDupRemoveMerge() throws Exception {
+        helpTestParallelSort(Mode.DUP_REMOVE, true);
+    }
+
+    private void helpTestParallelSort(Mode mode, boolean multiPass) throws Exception {
+        ElementSymbol es1 = new ElementSymbol("e1"); //$NON-NLS-1$
+        es1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        ElementSymbol es2 = new ElementSymbol("e2"); //$NON-NLS-1$
+        es2.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        //a small processing size with additional reserve, so that there are many sublists and parallel work
+        BufferManagerImpl bm = BufferManagerFactory.getTestBufferManager(1<<22, 16);
+        bm.setMaxProcessingKB(4);
+        TupleBuffer tsid = bm.createTupleBuffer(Arrays.asList(es1, es2), "test", TupleSourceType.PROCESSOR); //$NON-NLS-1$
+        int rows = 20000;
+        TreeSet<List<Integer>> distinct = new TreeSet<List<Integer>>(new ListNestedSortComparator(new int[] {0, 1}, true));
+        for (int i = 0; i < rows; i++) {
+            List<Integer> tuple = Arrays.asList((i * 7919) % 100, mode == Mode.SORT ? i : i % 7);
+            tsid.addTuple(tuple);
+            distinct.add(tuple);
+        }
+        tsid.close();
+        List<ElementSymbol> sortElements = mode == Mode.SORT ? Arrays.asList(es1) : Arrays.asList(es1, es2);
+        SortUtility su = new SortUtility(tsid.createIndexedTupleSource(), sortElements, Collections.nCopies(sortElements.size(), Boolean.TRUE), mode, bm, "test", tsid.getSchema()); //$NON-NLS-1$
+        su.setStableSort(true);
+        su.setParallelism(4);
+        if (multiPass) {
+            //hold the reserve while creating the sublists, so that a multi-pass merge is needed
+            int held = bm.reserveBuffers((int)bm.getReserveBatchBytes(), BufferReserveMode.FORCE);
+            List<TupleBuffer> sublists = su.onePassSort(false);
+            assertTrue(sublists.size() > 50);
+            bm.releaseBuffers(held);
+        }
+        //the work should be submitted as request work
+        final AtomicInteger submitted = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        RequestWorkItem workItem = Mockito.mock(RequestWorkItem.class);
+        Mockito.when(workItem.addRequestWork(Mockito.any(Callable.class))).thenAnswer(new Answer<FutureWork<?>>() {
+            @Override
+            public FutureWork<?> answer(InvocationOnMock invocation) throws Throwable {
+                submitted.incrementAndGet();
+                FutureWork<?> work = new FutureWork<Object>((Callable<Object>)invocation.getArguments()[0], 0);
+                executor.execute(work);
+                return work;
+            }
+        });
+        CommandContext cc = new CommandContext();
+        cc.setSession(new SessionMetadata());
+        cc.setWorkItem(workItem);
+        CommandContext.pushThreadLocalContext(cc);
+        TupleBuffer out = null;
+        try {
+            while (out == null) {
+                try {
+                    out = su.sort();
+                } catch (BlockedException e) {
+                    //time sliced
+                }
+            }
+        } finally {
+            CommandContext.popThreadLocalContext();
+            executor.shutdownNow();
+        }
+        assertTrue(submitted.get() > 0);
+        assertEquals(mode == Mode.SORT ? rows : distinct.size(), out.getRowCount());
+        TupleSource ts = out.createIndexedTupleSource();
+        List<?> previous = null;
+        for (List<?> tuple = ts.nextTuple(); tuple != null; tuple = ts.nextTuple()) {
+            if (previous != null) {
+                int compare = ((Integer)previous.get(0)).compareTo((Integer)tuple.get(0));
+                assertTrue(compare <= 0);
+                if (compare == 0) {
+                    //the original order should be preserved, or there should be no duplicates
+                    assertTrue(((Integer)previous.get(1)) < ((Integer)tuple.get(1)));
+                }
+            }
+            previous = tuple;
+        }
+        out.remove();
+    }
+
 }
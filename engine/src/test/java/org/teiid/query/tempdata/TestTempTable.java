@@ -0,0 +1,89 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.query.tempdata;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.teiid.common.buffer.BufferManagerFactory;
+import org.teiid.common.buffer.TupleSource;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.query.metadata.TempMetadataID;
+import org.teiid.query.processor.CollectionTupleSource;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.ElementSymbol;
+
+@SuppressWarnings("nls")
+public class TestTempTable {
+
+    private static List<?> query(TempTable table, ElementSymbol column, Object value) throws Exception {
+        TupleSource ts = table.createTupleSource(table.getColumns(), new CompareCriteria(column, CompareCriteria.EQ, new Constant(value)), null);
+        List<List<?>> result = new ArrayList<List<?>>();
+        List<?> tuple = null;
+        while ((tuple = ts.nextTuple()) != null) {
+            result.add(tuple);
+        }
+        ts.closeSource();
+        return result;
+    }
+
+    @Test public void testSecondaryIndexMaintenance() throws Exception {
+        ElementSymbol e1 = new ElementSymbol("e1");
+        e1.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        ElementSymbol e2 = new ElementSymbol("e2");
+        e2.setType(DataTypeManager.DefaultDataClasses.STRING);
+        ElementSymbol e3 = new ElementSymbol("e3");
+        e3.setType(DataTypeManager.DefaultDataClasses.INTEGER);
+        List<ElementSymbol> columns = new ArrayList<ElementSymbol>(Arrays.asList(e1, e2, e3));
+        TempTable table = new TempTable(new TempMetadataID("x", Collections.EMPTY_LIST), BufferManagerFactory.getStandaloneBufferManager(), columns, 1, "1");
+        table.insert(new CollectionTupleSource(Arrays.asList(Arrays.asList(1, "a", 10), Arrays.asList(2, "b", 20), Arrays.asList(3, "a", 30)).iterator()), columns, false, false, null);
+
+        table.addIndex(Arrays.asList(e2), false);
+        table.addIndex(Arrays.asList(e3), true);
+        assertEquals(Arrays.asList(Arrays.asList(e2), Arrays.asList(e3)), new ArrayList<List<ElementSymbol>>(table.getIndexColumns()));
+        assertEquals(Arrays.asList(Arrays.asList(1, "a", 10), Arrays.asList(3, "a", 30)), query(table, e2, "a"));
+
+        //matview row maintenance
+        table.updateTuple(Arrays.asList(3, "c", 31), false);
+        assertEquals(Arrays.asList(Arrays.asList(1, "a", 10)), query(table, e2, "a"));
+        assertEquals(Arrays.asList(Arrays.asList(3, "c", 31)), query(table, e2, "c"));
+        assertEquals(Collections.emptyList(), query(table, e3, 30));
+        assertEquals(Arrays.asList(Arrays.asList(3, "c", 31)), query(table, e3, 31));
+
+        table.updateTuple(Arrays.asList(2), true);
+        assertEquals(Collections.emptyList(), query(table, e3, 20));
+
+        //insert and delete
+        table.insert(new CollectionTupleSource(Arrays.asList(Arrays.asList(4, "a", 40)).iterator()), columns, false, false, null);
+        assertEquals(Arrays.asList(Arrays.asList(1, "a", 10), Arrays.asList(4, "a", 40)), query(table, e2, "a"));
+        table.delete(new CompareCriteria(e1, CompareCriteria.EQ, new Constant(1)));
+        assertEquals(Arrays.asList(Arrays.asList(4, "a", 40)), query(table, e2, "a"));
+        assertEquals(Collections.emptyList(), query(table, e3, 10));
+
+        table.truncate(true);
+        assertEquals(Collections.emptyList(), query(table, e2, "a"));
+    }
+
+}
@@ -31,6 +31,8 @@ public interface Client {
     public static final String INVALID_CHARACTER_REPLACEMENT = "invalid-xml10-character-replacement"; //$NON-NLS-1$
     public static final String BATCH_SIZE = "batch-size"; //$NON-NLS-1$
     public static final String SKIPTOKEN_TIME = "skiptoken-cache-time"; //$NON-NLS-1$
+    public static final String SKIPTOKEN_KEYSET = "skiptoken-keyset"; //$NON-NLS-1$
+    public static final String SKIPTOKEN_WINDOW_SIZE = "skiptoken-cache-window-size"; //$NON-NLS-1$
     public static final String CHARSET = "charset"; //$NON-NLS-1$
 
     VDBMetaData getVDB();
@@ -94,5 +94,6 @@ public class ODataPlugin {
         TEIID16060,
         TEIID16062,
         TEIID16063,
+        TEIID16064,
     }
 }
@@ -17,6 +17,7 @@
  */
 package org.teiid.olingo.service;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -28,9 +29,11 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -40,8 +43,12 @@ import java.util.concurrent.TimeoutException;
 
 import org.teiid.adminapi.VDB.Status;
 import org.teiid.adminapi.impl.VDBMetaData;
+import org.teiid.common.buffer.impl.SizeUtility;
+import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.types.DataTypeManager;
+import org.teiid.core.util.Base64;
 import org.teiid.core.util.PropertiesUtils;
 import org.teiid.jdbc.ConnectionImpl;
 import org.teiid.jdbc.ExecutionProperties;
@@ -50,7 +57,10 @@ import org.teiid.jdbc.PreparedStatementImpl;
 import org.teiid.jdbc.TeiidDriver;
 import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
+import org.teiid.metadata.Column;
+import org.teiid.metadata.KeyRecord;
 import org.teiid.metadata.MetadataStore;
+import org.teiid.metadata.Table;
 import org.teiid.net.TeiidURL;
 import org.teiid.odata.api.Client;
 import org.teiid.odata.api.CountResponse;
@@ -65,16 +75,28 @@ import org.teiid.query.QueryPlugin;
 import org.teiid.query.metadata.TransformationMetadata;
 import org.teiid.query.sql.lang.CacheHint;
 import org.teiid.query.sql.lang.Command;
+import org.teiid.query.sql.lang.CompareCriteria;
+import org.teiid.query.sql.lang.CompoundCriteria;
+import org.teiid.query.sql.lang.Criteria;
 import org.teiid.query.sql.lang.Limit;
+import org.teiid.query.sql.lang.OrderBy;
+import org.teiid.query.sql.lang.OrderByItem;
 import org.teiid.query.sql.lang.Query;
 import org.teiid.query.sql.symbol.Constant;
+import org.teiid.query.sql.symbol.ElementSymbol;
+import org.teiid.query.sql.symbol.Expression;
+import org.teiid.query.sql.symbol.GroupSymbol;
 import org.teiid.query.sql.symbol.Reference;
+import org.teiid.query.sql.util.SymbolMap;
 import org.teiid.query.sql.visitor.ReferenceCollectorVisitor;
 import org.teiid.translator.CacheDirective;
 import org.teiid.transport.LocalServerConnection;
 
 public class LocalClient implements Client {
     static final String DELIMITER = "," ; //$NON-NLS-1$
+    static final String KEYSET_PREFIX = "~" ; //$NON-NLS-1$
+    private static final int MAX_WINDOW_PAGES = 64;
+    private static final long DEFAULT_WINDOW_SIZE = 64 << 20;
 
     private volatile VDBMetaData vdb;
     private final String vdbName;
@@ -228,6 +250,14 @@ public class LocalClient implements Client {
             String nextOption, int pageSize, final QueryResponse response)  throws SQLException {
         boolean cache = pageSize > 0;
 
+        if (cache && !calculateTotalSize && skipOption == null && topOption == null && isKeysetPaging()) {
+            int[] keyIndexes = getKeysetIndexes(query);
+            if (keyIndexes != null) {
+                executeKeysetSQL(query, parameters, keyIndexes, nextOption, pageSize, response);
+                return;
+            }
+        }
+
         boolean getCount = false;
         getCount = calculateTotalSize;
         boolean skipAndTopApplied = false;
@@ -242,18 +272,26 @@ public class LocalClient implements Client {
 
         Integer toSkip = null;
         Integer savedEntityCount = null;
+        Integer windowPages = null;
         if (nextOption != null) {
             if (cache) {
-                StringTokenizer st = new StringTokenizer(nextOption, DELIMITER);
-                sessionId = st.nextToken();
-                if (!st.hasMoreTokens()) {
+                //sessionId,skip[,entityCount[,windowPages]] - the entity count may be empty
+                String[] parts = nextOption.split(DELIMITER, -1);
+                sessionId = parts[0];
+                if (parts.length < 2 || parts.length > 4) {
                     throw new TeiidRuntimeException(ODataPlugin.Util.gs(
                             ODataPlugin.Event.TEIID16062));
                 }
                 try {
-                    toSkip = Integer.parseInt(st.nextToken());
-                    if (st.hasMoreTokens()) {
-                        savedEntityCount = Integer.parseInt(st.nextToken());
+                    toSkip = Integer.parseInt(parts[1]);
+                    if (parts.length > 2 && !parts[2].isEmpty()) {
+                        savedEntityCount = Integer.parseInt(parts[2]);
+                    }
+                    if (parts.length > 3) {
+                        windowPages = Integer.parseInt(parts[3]);
+                        if (windowPages < 1 || windowPages > MAX_WINDOW_PAGES) {
+                            throw new NumberFormatException();
+                        }
                     }
                 } catch (NumberFormatException e) {
                     throw new TeiidRuntimeException(ODataPlugin.Util.gs(
@@ -266,13 +304,48 @@ public class LocalClient implements Client {
         int count = 0;
         int expectedEnd = 0;
 
-        if (!getCount && cache) {
+        boolean windowed = !getCount && cache;
+        boolean limited = query.getLimit() != null;
+        if (windowed) {
+            if (parameters == null) {
+                parameters = new ArrayList<>();
+            } else {
+                parameters = new ArrayList<>(parameters);
+            }
+            query.setLimit(new Limit(new Reference(parameters.size()), new Reference(parameters.size()+1)));
+        }
+
+        if (cache) {
+            CacheHint hint = new CacheHint();
+            hint.setTtl(getCacheTime());
+            hint.setScope(CacheDirective.Scope.USER);
+            query.setCacheHint(hint);
+        }
+
+        String sql = query.toString();
+        if (cache && !Boolean.valueOf(conn.getExecutionProperty(ExecutionProperties.RESULT_SET_CACHE_MODE))) {
+            //TODO: this means that prepared plan entries are not reused
+            sql += " /* "+ sessionId +" */"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        LogManager.logDetail(LogConstants.CTX_ODATA, "Teiid-Query:",sql); //$NON-NLS-1$
+
+        final PreparedStatement stmt = conn.prepareStatement(sql,
+                cache?ResultSet.TYPE_SCROLL_INSENSITIVE:ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+
+        if (windowed) {
             int offsetParam = 0;
             int limitParam = 0;
             //to prevent long initial requests, we want to
             //only work over windows of at most 64 pages
+            //that also fit within the cache window memory
             pageSize = Math.min(pageSize, 2<<24);
-            int resultWindow = pageSize<<6;
+            //the window is determined once for the first page and then carried by the token
+            //so that every page of the query uses the same windows
+            if (windowPages == null) {
+                windowPages = getWindowPages(stmt.getMetaData(), pageSize);
+            }
+            int resultWindow = pageSize * windowPages;
             int windows = 0;
 
             if (toSkip != null) {
@@ -282,38 +355,17 @@ public class LocalClient implements Client {
             }
             expectedEnd = count + resultWindow;
 
-            //TODO: apply limit/offset in a prepared statement
-            if (query.getLimit() != null) {
+            if (limited) {
                 offsetParam = count + (skipOption!=null?skipOption:0);
                 limitParam = Math.min(resultWindow, topOption!=null?topOption:Integer.MAX_VALUE);
             } else {
                 offsetParam = count;
                 limitParam = resultWindow;
             }
-            if (parameters == null) {
-                parameters = new ArrayList<>();
-            } else {
-                parameters = new ArrayList<>(parameters);
-            }
-            query.setLimit(new Limit(new Reference(parameters.size()), new Reference(parameters.size()+1)));
             parameters.add(new SQLParameter(offsetParam, Types.INTEGER));
             parameters.add(new SQLParameter(limitParam, Types.INTEGER));
         }
 
-        if (cache) {
-            CacheHint hint = new CacheHint();
-            hint.setTtl(getCacheTime());
-            hint.setScope(CacheDirective.Scope.USER);
-            query.setCacheHint(hint);
-        }
-
-        String sql = query.toString();
-        if (cache && !Boolean.valueOf(conn.getExecutionProperty(ExecutionProperties.RESULT_SET_CACHE_MODE))) {
-            //TODO: this means that prepared plan entries are not reused
-            sql += " /* "+ sessionId +" */"; //$NON-NLS-1$ //$NON-NLS-2$
-        }
-        LogManager.logDetail(LogConstants.CTX_ODATA, "Teiid-Query:",sql); //$NON-NLS-1$
-
         if (cache) {
             this.loadingKey = Arrays.asList(sql, parameters);
             Future<?> future = loading.get(this.loadingKey);
@@ -334,16 +386,7 @@ public class LocalClient implements Client {
             }
         }
 
-        final PreparedStatement stmt = conn.prepareStatement(sql,
-                cache?ResultSet.TYPE_SCROLL_INSENSITIVE:ResultSet.TYPE_FORWARD_ONLY,
-                ResultSet.CONCUR_READ_ONLY);
-        if (parameters!= null && !parameters.isEmpty()) {
-            List<Reference> references = ReferenceCollectorVisitor.getReferences(query);
-            for (int i = 0; i < references.size(); i++) {
-                int index = references.get(i).getIndex();
-                stmt.setObject(i+1, parameters.get(index).getValue(), parameters.get(index).getSqlType());
-            }
-        }
+        setParameters(stmt, query, parameters);
 
         final ResultSet rs = stmt.executeQuery();
 
@@ -412,10 +455,10 @@ public class LocalClient implements Client {
             long end = nextCount;
             if (getCount) {
                 if (end < Math.min(top, count)) {
-                    response.setNextToken(nextToken(cache, sessionId, end, entityCount));
+                    response.setNextToken(nextToken(cache, sessionId, end, entityCount, null));
                 }
             } else if (i > size || count == expectedEnd){
-                response.setNextToken(nextToken(cache, sessionId, end, null));
+                response.setNextToken(nextToken(cache, sessionId, end, null, windowPages));
                 this.loadingFinished = new CompletableFuture<>();
                 this.loading.put(loadingKey, loadingFinished);
                 this.toCache = rs;
@@ -423,11 +466,211 @@ public class LocalClient implements Client {
         }
     }
 
-    private String nextToken(boolean cache, String sessionid, long skip, Integer entityCount) {
+    private void setParameters(PreparedStatement stmt, Query query, List<SQLParameter> parameters) throws SQLException {
+        if (parameters!= null && !parameters.isEmpty()) {
+            List<Reference> references = ReferenceCollectorVisitor.getReferences(query);
+            for (int i = 0; i < references.size(); i++) {
+                int index = references.get(i).getIndex();
+                stmt.setObject(i+1, parameters.get(index).getValue(), parameters.get(index).getSqlType());
+            }
+        }
+    }
+
+    /**
+     * Determine the number of pages in a cached result window based upon the
+     * estimated row size so that the window is bounded by memory rather than
+     * just by row count.
+     */
+    private int getWindowPages(ResultSetMetaData metadata, int pageSize) throws SQLException {
+        if (metadata == null) {
+            return MAX_WINDOW_PAGES;
+        }
+        long rowSize = 0;
+        for (int i = 1; i <= metadata.getColumnCount(); i++) {
+            Class<?> type = DataTypeManager.getDataTypeClass(metadata.getColumnTypeName(i));
+            rowSize += SizeUtility.getSize(false, type);
+        }
+        long pages = getCacheWindowSize() / Math.max(1, rowSize * pageSize);
+        return (int)Math.max(1, Math.min(MAX_WINDOW_PAGES, pages));
+    }
+
+    private boolean isKeysetPaging() {
+        return PropertiesUtils.getBooleanProperty(this.properties, Client.SKIPTOKEN_KEYSET, false);
+    }
+
+    private long getCacheWindowSize() {
+        return PropertiesUtils.getLongProperty(this.properties, Client.SKIPTOKEN_WINDOW_SIZE, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Determine if the query is ordered by exactly the columns of the entity key
+     * and if so return the indexes of the key values in the select clause.
+     * @return the key indexes or null if keyset paging cannot be used
+     */
+    int[] getKeysetIndexes(Query query) {
+        OrderBy orderBy = query.getOrderBy();
+        if (orderBy == null || query.getGroupBy() != null || query.getLimit() != null || query.getSelect().isDistinct()) {
+            return null;
+        }
+        GroupSymbol group = null;
+        Set<String> names = new HashSet<String>();
+        List<Expression> projected = new ArrayList<Expression>();
+        for (Expression ex : query.getSelect().getSymbols()) {
+            projected.add(SymbolMap.getExpression(ex));
+        }
+        List<OrderByItem> items = orderBy.getOrderByItems();
+        int[] indexes = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Expression ex = items.get(i).getSymbol();
+            if (!(ex instanceof ElementSymbol)) {
+                return null;
+            }
+            ElementSymbol es = (ElementSymbol)ex;
+            if (group == null) {
+                group = es.getGroupSymbol();
+            } else if (!group.equals(es.getGroupSymbol())) {
+                return null;
+            }
+            indexes[i] = projected.indexOf(es);
+            if (indexes[i] < 0) {
+                return null;
+            }
+            names.add(es.getShortName());
+        }
+        if (group == null) {
+            return null;
+        }
+        try {
+            Table table = getVDB().getAttachment(TransformationMetadata.class).getGroupID(group.getNonCorrelationName());
+            KeyRecord key = ODataSchemaBuilder.getIdentifier(table);
+            if (key == null || key.getColumns().size() != names.size()) {
+                return null;
+            }
+            for (Column c : key.getColumns()) {
+                if (!names.contains(c.getName())) {
+                    return null;
+                }
+                //a null key value cannot be sought past
+                if (key.getType() != KeyRecord.Type.Primary && c.getNullType() != Column.NullType.No_Nulls) {
+                    return null;
+                }
+            }
+        } catch (TeiidException e) {
+            LogManager.logDetail(LogConstants.CTX_ODATA, e, "Could not determine the key for keyset paging"); //$NON-NLS-1$
+            return null;
+        }
+        return indexes;
+    }
+
+    /**
+     * Page by seeking past the key values of the last entity in the previous page.
+     * The query is ordered by the entity key, so the seek predicate may be pushed to
+     * the source or satisfied by an index and no result window needs to be cached.
+     */
+    private void executeKeysetSQL(Query query, List<SQLParameter> parameters,
+            int[] keyIndexes, String nextOption, int pageSize, QueryResponse response) throws SQLException {
+        if (parameters == null) {
+            parameters = new ArrayList<>();
+        } else {
+            parameters = new ArrayList<>(parameters);
+        }
+        OrderBy orderBy = query.getOrderBy();
+        if (nextOption != null) {
+            List<String> values = parseKeysetToken(nextOption, keyIndexes.length);
+            Criteria seek = null;
+            for (int i = 0; i < keyIndexes.length; i++) {
+                List<Criteria> crits = new ArrayList<Criteria>();
+                for (int j = 0; j <= i; j++) {
+                    OrderByItem item = orderBy.getOrderByItems().get(j);
+                    int op = CompareCriteria.EQ;
+                    if (j == i) {
+                        op = item.isAscending()?CompareCriteria.GT:CompareCriteria.LT;
+                    }
+                    crits.add(new CompareCriteria(item.getSymbol().clone(), op, new Reference(parameters.size())));
+                    parameters.add(new SQLParameter(values.get(j), Types.VARCHAR));
+                }
+                Criteria crit = Criteria.combineCriteria(crits);
+                if (seek == null) {
+                    seek = crit;
+                } else {
+                    seek = new CompoundCriteria(CompoundCriteria.OR, seek, crit);
+                }
+            }
+            query.setCriteria(Criteria.combineCriteria(query.getCriteria(), seek));
+        }
+        query.setLimit(new Limit(null, new Reference(parameters.size())));
+        parameters.add(new SQLParameter(pageSize + 1, Types.INTEGER));
+
+        String sql = query.toString();
+        LogManager.logDetail(LogConstants.CTX_ODATA, "Teiid-Query:",sql); //$NON-NLS-1$
+
+        final PreparedStatement stmt = getConnection().prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        setParameters(stmt, query, parameters);
+        final ResultSet rs = stmt.executeQuery();
+
+        int i = 0;
+        String[] lastKey = new String[keyIndexes.length];
+        while (rs.next()) {
+            if (++i > pageSize) {
+                response.setNextToken(keysetToken(lastKey));
+                break;
+            }
+            response.addRow(rs);
+            for (int j = 0; j < keyIndexes.length; j++) {
+                lastKey[j] = rs.getString(keyIndexes[j] + 1);
+                if (lastKey[j] == null) {
+                    throw new TeiidRuntimeException(ODataPlugin.Util.gs(
+                            ODataPlugin.Event.TEIID16064, rs.getMetaData().getColumnName(keyIndexes[j] + 1)));
+                }
+            }
+        }
+        response.setCount(Math.min(i, pageSize));
+        rs.close();
+        stmt.close();
+    }
+
+    private String keysetToken(String[] keyValues) {
+        StringBuilder token = new StringBuilder(KEYSET_PREFIX);
+        for (int i = 0; i < keyValues.length; i++) {
+            if (i > 0) {
+                token.append(DELIMITER);
+            }
+            token.append(Base64.encodeUrlSafe(keyValues[i].getBytes(StandardCharsets.UTF_8)));
+        }
+        return token.toString();
+    }
+
+    private List<String> parseKeysetToken(String nextOption, int keyCount) {
+        if (!nextOption.startsWith(KEYSET_PREFIX)) {
+            throw new TeiidRuntimeException(ODataPlugin.Util.gs(
+                    ODataPlugin.Event.TEIID16062));
+        }
+        List<String> values = new ArrayList<String>(keyCount);
+        StringTokenizer st = new StringTokenizer(nextOption.substring(KEYSET_PREFIX.length()), DELIMITER);
+        try {
+            while (st.hasMoreTokens()) {
+                values.add(new String(Base64.decodeUrlSafe(st.nextToken()), StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new TeiidRuntimeException(ODataPlugin.Util.gs(
+                    ODataPlugin.Event.TEIID16062));
+        }
+        if (values.size() != keyCount) {
+            throw new TeiidRuntimeException(ODataPlugin.Util.gs(
+                    ODataPlugin.Event.TEIID16062));
+        }
+        return values;
+    }
+
+    private String nextToken(boolean cache, String sessionid, long skip, Integer entityCount, Integer windowPages) {
         if (cache) {
             String token = sessionid+DELIMITER+String.valueOf(skip);
-            if (entityCount != null) {
-                token = token+DELIMITER+String.valueOf(entityCount);
+            if (entityCount != null || windowPages != null) {
+                token = token+DELIMITER+(entityCount != null?String.valueOf(entityCount):""); //$NON-NLS-1$
+            }
+            if (windowPages != null) {
+                token = token+DELIMITER+String.valueOf(windowPages);
             }
             return token;
         }
@@ -18,6 +18,7 @@
 package org.teiid.olingo;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.FileInputStream;
@@ -1141,6 +1142,68 @@ public class TestODataIntegration {
         assertTrue(response.getContentAsString(), response.getContentAsString().contains("TEIID16062"));
     }
 
+    @Test
+    public void testSkipTokenKeyset() throws Exception {
+        ModelMetaData mmd = new ModelMetaData();
+        mmd.setName("vw");
+        mmd.addSourceMetadata("ddl", "create view x (a string primary key, b integer) "
+                + "as select 'xyz', 123 union all select 'abc', 456 union all select 'def', 789;");
+        mmd.setModelType(Model.Type.VIRTUAL);
+        teiid.deployVDB("northwind", mmd);
+
+        Map<String, String> props = new HashMap<>();
+        props.put("batch-size", "2");
+        props.put("skiptoken-keyset", "true");
+        createContext("/odata4", props);
+
+        ContentResponse response = http.GET(baseURL + "/northwind/vw/x?$format=json");
+        assertEquals(200, response.getStatus());
+        String starts = "{\"@odata.context\":\""+baseURL+"/northwind/vw/$metadata#x\",\"value\":[{\"a\":\"abc\",\"b\":456},{\"a\":\"def\",\"b\":789}],"
+                + "\"@odata.nextLink\":\""+baseURL+"/northwind/vw/x?$format=json&$skiptoken=~";
+        assertTrue(response.getContentAsString(), response.getContentAsString().startsWith(starts));
+
+        JsonNode node = getJSONNode(response);
+        String nextLink = node.get("@odata.nextLink").asText();
+        response = http.GET(nextLink);
+        assertEquals(200, response.getStatus());
+        assertEquals("{\"@odata.context\":\""+baseURL+"/northwind/vw/$metadata#x\",\"value\":[{\"a\":\"xyz\",\"b\":123}]}",
+                response.getContentAsString());
+
+        //the token is not tied to the session
+        response = http.GET(nextLink);
+        assertEquals(200, response.getStatus());
+
+        //invalid
+        response = http.GET(baseURL + "/northwind/vw/x?$skiptoken=a");
+        assertEquals(500, response.getStatus());
+        assertTrue(response.getContentAsString(), response.getContentAsString().contains("TEIID16062"));
+    }
+
+    @Test
+    public void testSkipTokenKeysetNullableKey() throws Exception {
+        ModelMetaData mmd = new ModelMetaData();
+        mmd.setName("vw");
+        mmd.addSourceMetadata("ddl", "create view x (a string, b integer, unique (a)) "
+                + "as select 'xyz', 123 union all select 'abc', 456 union all select null, 789;");
+        mmd.setModelType(Model.Type.VIRTUAL);
+        teiid.deployVDB("northwind", mmd);
+
+        Map<String, String> props = new HashMap<>();
+        props.put("batch-size", "2");
+        props.put("skiptoken-keyset", "true");
+        createContext("/odata4", props);
+
+        //the unique key may be null, so the windowed paging is used instead
+        ContentResponse response = http.GET(baseURL + "/northwind/vw/x?$format=json");
+        assertEquals(200, response.getStatus());
+        JsonNode node = getJSONNode(response);
+        String nextLink = node.get("@odata.nextLink").asText();
+        assertFalse(nextLink, nextLink.contains("$skiptoken=~"));
+        response = http.GET(nextLink);
+        assertEquals(200, response.getStatus());
+        assertEquals(1, getJSONNode(response).get("value").size());
+    }
+
     @Test
     public void testSkipTokenNoSystemOptions() throws Exception {
         ModelMetaData mmd = new ModelMetaData();
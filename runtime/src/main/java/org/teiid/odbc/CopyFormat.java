@@ -0,0 +1,494 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.teiid.odbc;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.teiid.jdbc.TeiidSQLException;
+import org.teiid.runtime.RuntimePlugin;
+
+/**
+ * The options of a COPY TO STDOUT or COPY FROM STDIN and the parsing of the
+ * COPY FROM rows in the text, csv, or binary formats.
+ * <br>
+ * The parsing is stateful, so a new instance is needed for each COPY.
+ */
+public class CopyFormat {
+
+    public enum Format {
+        TEXT,
+        CSV,
+        BINARY
+    }
+
+    public static final byte[] BINARY_SIGNATURE = new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte)0xff, '\r', '\n', 0};
+    //the signature, flags, and header extension length
+    static final int BINARY_HEADER_LENGTH = BINARY_SIGNATURE.length + 8;
+
+    private Format format = Format.TEXT;
+    private Character delimiter;
+    private String nullString;
+    private boolean header;
+    private char quote = '"';
+    private Character escape;
+
+    //parsing state
+    private boolean headerPending;
+    private boolean binaryHeaderPending = true;
+    private boolean done;
+    private int rowCount;
+
+    /**
+     * Parse the options following the STDOUT or STDIN, which may be either
+     * the current parenthesized list or the legacy keyword form.
+     */
+    public static CopyFormat parse(String options) throws TeiidSQLException {
+        CopyFormat result = new CopyFormat();
+        if (options != null) {
+            List<String> tokens = tokenize(options);
+            int i = 0;
+            if (i < tokens.size() && tokens.get(i).equalsIgnoreCase("WITH")) { //$NON-NLS-1$
+                i++;
+            }
+            if (i < tokens.size() && tokens.get(i).equals("(")) { //$NON-NLS-1$
+                i = result.parseOptionList(tokens, i + 1, options);
+            } else {
+                i = result.parseLegacyOptions(tokens, i, options);
+            }
+            if (i < tokens.size()) {
+                throw invalidOption(options);
+            }
+        }
+        if (result.delimiter == null) {
+            result.delimiter = result.format == Format.CSV ? ',' : '\t';
+        }
+        if (result.nullString == null) {
+            result.nullString = result.format == Format.CSV ? "" : "\\N"; //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        if (result.escape == null) {
+            result.escape = result.quote;
+        }
+        char d = result.delimiter;
+        if (d == '\r' || d == '\n' || d == '\\' || d > 127 || (result.format == Format.CSV && (d == result.quote || d == result.escape))
+                || result.quote > 127 || result.escape > 127) {
+            throw invalidOption(options);
+        }
+        result.headerPending = result.header;
+        return result;
+    }
+
+    private int parseOptionList(List<String> tokens, int i, String options) throws TeiidSQLException {
+        while (i < tokens.size()) {
+            String name = tokens.get(i++);
+            String value = null;
+            if (i < tokens.size() && !tokens.get(i).equals(",") && !tokens.get(i).equals(")")) { //$NON-NLS-1$ //$NON-NLS-2$
+                value = tokens.get(i++);
+            }
+            if (name.equalsIgnoreCase("FORMAT") && value != null) { //$NON-NLS-1$
+                setFormat(value, options);
+            } else if (name.equalsIgnoreCase("HEADER")) { //$NON-NLS-1$
+                header = value == null || value.equalsIgnoreCase("true") || value.equalsIgnoreCase("on") || value.equals("1"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+            } else if (!setOption(name, value, options)) {
+                throw invalidOption(options);
+            }
+            if (i < tokens.size() && tokens.get(i).equals(",")) { //$NON-NLS-1$
+                i++;
+            } else if (i < tokens.size() && tokens.get(i).equals(")")) { //$NON-NLS-1$
+                return i + 1;
+            } else {
+                break;
+            }
+        }
+        throw invalidOption(options);
+    }
+
+    private int parseLegacyOptions(List<String> tokens, int i, String options) throws TeiidSQLException {
+        while (i < tokens.size()) {
+            String name = tokens.get(i++);
+            if (name.equalsIgnoreCase("BINARY")) { //$NON-NLS-1$
+                format = Format.BINARY;
+            } else if (name.equalsIgnoreCase("CSV")) { //$NON-NLS-1$
+                format = Format.CSV;
+            } else if (name.equalsIgnoreCase("HEADER")) { //$NON-NLS-1$
+                header = true;
+            } else {
+                if (i < tokens.size() && tokens.get(i).equalsIgnoreCase("AS")) { //$NON-NLS-1$
+                    i++;
+                }
+                if (i >= tokens.size() || !setOption(name, tokens.get(i++), options)) {
+                    throw invalidOption(options);
+                }
+            }
+        }
+        return i;
+    }
+
+    private void setFormat(String value, String options) throws TeiidSQLException {
+        try {
+            format = Format.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw invalidOption(options);
+        }
+    }
+
+    private boolean setOption(String name, String value, String options) throws TeiidSQLException {
+        if (value == null) {
+            return false;
+        }
+        if (name.equalsIgnoreCase("NULL")) { //$NON-NLS-1$
+            nullString = value;
+        } else if (name.equalsIgnoreCase("DELIMITER")) { //$NON-NLS-1$
+            delimiter = singleChar(value, options);
+        } else if (name.equalsIgnoreCase("QUOTE")) { //$NON-NLS-1$
+            quote = singleChar(value, options);
+        } else if (name.equalsIgnoreCase("ESCAPE")) { //$NON-NLS-1$
+            escape = singleChar(value, options);
+        } else if (name.equalsIgnoreCase("ENCODING")) { //$NON-NLS-1$
+            //the client encoding is always used
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static char singleChar(String value, String options) throws TeiidSQLException {
+        if (value.length() != 1) {
+            throw invalidOption(options);
+        }
+        return value.charAt(0);
+    }
+
+    private static TeiidSQLException invalidOption(String options) {
+        return new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40171, options));
+    }
+
+    /**
+     * Split into words, quoted strings (without the quotes), parens and commas
+     */
+    static List<String> tokenize(String options) throws TeiidSQLException {
+        List<String> result = new ArrayList<String>();
+        int i = 0;
+        while (i < options.length()) {
+            char c = options.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')' || c == ',') {
+                result.add(String.valueOf(c));
+                i++;
+            } else if (c == '\'' || ((c == 'E' || c == 'e') && i + 1 < options.length() && options.charAt(i + 1) == '\'')) {
+                boolean escaped = c != '\'';
+                if (escaped) {
+                    i++;
+                }
+                StringBuilder value = new StringBuilder();
+                i++;
+                while (true) {
+                    if (i >= options.length()) {
+                        throw invalidOption(options);
+                    }
+                    c = options.charAt(i++);
+                    if (c == '\'') {
+                        if (i < options.length() && options.charAt(i) == '\'') {
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else if (escaped && c == '\\' && i < options.length()) {
+                        c = unescape(options.charAt(i++));
+                    }
+                    value.append(c);
+                }
+                result.add(value.toString());
+            } else {
+                int start = i;
+                while (i < options.length() && !Character.isWhitespace(options.charAt(i))
+                        && "(),'".indexOf(options.charAt(i)) < 0) { //$NON-NLS-1$
+                    i++;
+                }
+                result.add(options.substring(start, i));
+            }
+        }
+        return result;
+    }
+
+    private static char unescape(char c) {
+        switch (c) {
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'v':
+            return 11;
+        default:
+            return c;
+        }
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public String getNullString() {
+        return nullString;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    public char getQuote() {
+        return quote;
+    }
+
+    public char getEscape() {
+        return escape;
+    }
+
+    public boolean isBinary() {
+        return format == Format.BINARY;
+    }
+
+    /**
+     * @return true if the end of the COPY FROM data has been read
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Parse the complete rows from the COPY FROM data.
+     * <br>
+     * Text and csv values are returned as Strings, binary values as the raw bytes.
+     * @param end true if there is no more data, so that a final line does not need to be terminated
+     * @return the number of bytes consumed
+     */
+    public int readRows(byte[] data, int offset, int length, Charset encoding, List<List<Object>> rows, boolean end) throws TeiidSQLException {
+        if (format == Format.BINARY) {
+            return readBinaryRows(data, offset, length, rows);
+        }
+        int pos = offset;
+        int limit = offset + length;
+        boolean inQuotes = false;
+        for (int i = offset; i < limit && !done; i++) {
+            byte b = data[i];
+            if (format == Format.CSV) {
+                if (inQuotes && b == escape && escape != quote && i + 1 < limit && data[i + 1] == quote) {
+                    i++;
+                    continue;
+                }
+                if (b == quote) {
+                    inQuotes = !inQuotes;
+                    continue;
+                }
+            }
+            if (b != '\n' || inQuotes) {
+                continue;
+            }
+            int lineEnd = i;
+            if (lineEnd > pos && data[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            readLine(new String(data, pos, lineEnd - pos, encoding), rows);
+            pos = i + 1;
+        }
+        if (end && pos < limit && !done) {
+            int lineEnd = limit;
+            if (data[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            readLine(new String(data, pos, lineEnd - pos, encoding), rows);
+            pos = limit;
+        }
+        return pos - offset;
+    }
+
+    private void readLine(String line, List<List<Object>> rows) throws TeiidSQLException {
+        if (line.equals("\\.")) { //$NON-NLS-1$
+            done = true;
+            return;
+        }
+        rowCount++;
+        if (headerPending) {
+            headerPending = false;
+            return;
+        }
+        if (format == Format.CSV) {
+            rows.add(parseCsv(line));
+        } else {
+            rows.add(parseText(line));
+        }
+    }
+
+    List<Object> parseText(String line) throws TeiidSQLException {
+        List<Object> result = new ArrayList<Object>();
+        StringBuilder value = new StringBuilder();
+        int start = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            if (i == line.length() || line.charAt(i) == delimiter) {
+                if (nullString.regionMatches(0, line, start, i - start) && nullString.length() == i - start) {
+                    result.add(null);
+                } else {
+                    result.add(value.toString());
+                }
+                value.setLength(0);
+                start = i + 1;
+                continue;
+            }
+            char c = line.charAt(i);
+            if (c != '\\' || i + 1 == line.length()) {
+                value.append(c);
+                continue;
+            }
+            c = line.charAt(++i);
+            if (c >= '0' && c <= '7') {
+                int val = c - '0';
+                for (int j = 0; j < 2 && i + 1 < line.length() && line.charAt(i + 1) >= '0' && line.charAt(i + 1) <= '7'; j++) {
+                    val = val * 8 + line.charAt(++i) - '0';
+                }
+                value.append((char)val);
+            } else if (c == 'x' && i + 1 < line.length() && Character.digit(line.charAt(i + 1), 16) >= 0) {
+                int val = Character.digit(line.charAt(++i), 16);
+                if (i + 1 < line.length() && Character.digit(line.charAt(i + 1), 16) >= 0) {
+                    val = val * 16 + Character.digit(line.charAt(++i), 16);
+                }
+                value.append((char)val);
+            } else {
+                value.append(unescape(c));
+            }
+        }
+        return result;
+    }
+
+    List<Object> parseCsv(String line) throws TeiidSQLException {
+        List<Object> result = new ArrayList<Object>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length() || line.charAt(i) == delimiter) {
+                String val = value.toString();
+                if (!quoted && val.equals(nullString)) {
+                    result.add(null);
+                } else {
+                    result.add(val);
+                }
+                if (i == line.length()) {
+                    break;
+                }
+                value.setLength(0);
+                quoted = false;
+                i++;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (c != quote) {
+                value.append(c);
+                continue;
+            }
+            quoted = true;
+            while (true) {
+                if (i == line.length()) {
+                    throw new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40172, rowCount, line));
+                }
+                c = line.charAt(i++);
+                if (c == escape && i < line.length() && (line.charAt(i) == quote || line.charAt(i) == escape) && (escape != quote || line.charAt(i) == quote)) {
+                    value.append(line.charAt(i++));
+                } else if (c == quote) {
+                    break;
+                } else {
+                    value.append(c);
+                }
+            }
+        }
+        return result;
+    }
+
+    private int readBinaryRows(byte[] data, int offset, int length, List<List<Object>> rows) throws TeiidSQLException {
+        int pos = offset;
+        int limit = offset + length;
+        if (binaryHeaderPending) {
+            if (length < BINARY_HEADER_LENGTH) {
+                return 0;
+            }
+            if (!Arrays.equals(BINARY_SIGNATURE, Arrays.copyOfRange(data, offset, offset + BINARY_SIGNATURE.length))) {
+                throw new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40172, 0, "header")); //$NON-NLS-1$
+            }
+            int extension = readInt(data, offset + BINARY_SIGNATURE.length + 4);
+            if (length < BINARY_HEADER_LENGTH + extension) {
+                return 0;
+            }
+            pos += BINARY_HEADER_LENGTH + extension;
+            binaryHeaderPending = false;
+        }
+        while (!done && pos + 2 <= limit) {
+            int fields = (short)(((data[pos] & 0xff) << 8) | (data[pos + 1] & 0xff));
+            if (fields == -1) {
+                done = true;
+                pos += 2;
+                break;
+            }
+            int i = pos + 2;
+            List<Object> row = new ArrayList<Object>(fields);
+            for (int field = 0; field < fields; field++) {
+                if (i + 4 > limit) {
+                    return pos - offset;
+                }
+                int fieldLength = readInt(data, i);
+                i += 4;
+                if (fieldLength == -1) {
+                    row.add(null);
+                    continue;
+                }
+                if (i + fieldLength > limit) {
+                    return pos - offset;
+                }
+                row.add(Arrays.copyOfRange(data, i, i + fieldLength));
+                i += fieldLength;
+            }
+            rowCount++;
+            rows.add(row);
+            pos = i;
+        }
+        return pos - offset;
+    }
+
+    private static int readInt(byte[] data, int pos) {
+        return ((data[pos] & 0xff) << 24) | ((data[pos + 1] & 0xff) << 16) | ((data[pos + 2] & 0xff) << 8) | (data[pos + 3] & 0xff);
+    }
+
+    /**
+     * @return the number of rows read, including the header
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+}
@@ -79,6 +79,15 @@ public interface ODBCClientRemote {
 
     void sendCommandComplete(String sql, Integer... count);
 
+    //    CopyOutResponse (B)
+    //    CopyData (F & B)
+    //    CopyDone (F & B)
+    //    CommandComplete (B)
+    void sendCopyOut(ResultSetImpl rs, List<PgColInfo> cols, CopyFormat format, ResultsFuture<Integer> result);
+
+    //    CopyInResponse (B)
+    void sendCopyInResponse(CopyFormat format, int columnCount);
+
     //    ReadyForQuery (B)
     void ready(boolean inTransaction, boolean failedTransaction);
 
@@ -89,6 +98,12 @@ public interface ODBCClientRemote {
 
     void flush();
 
+    /**
+     * Stop or resume reading from the client, used to apply backpressure
+     * while a COPY FROM STDIN batch is loaded
+     */
+    void setAutoRead(boolean autoRead);
+
     // FunctionCallResponse (B)
     void functionCallResponse(Object data, boolean binary);
 
@@ -103,11 +118,6 @@ public interface ODBCClientRemote {
 
     //    CloseComplete (B)
 
-    //    CopyData (F & B)
-    //    CopyDone (F & B)
-    //    CopyInResponse (B)
-    //    CopyOutResponse (B)
-
     //    NoticeResponse (B)
     //    NotificationResponse (B)
 
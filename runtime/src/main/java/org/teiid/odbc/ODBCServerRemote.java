@@ -61,10 +61,14 @@ public interface ODBCServerRemote {
 
     void cancel(int pid, int key);
 
-    //  unimplemented frontend messages
     //    CopyData (F & B)
+    void copyData(byte[] data, Charset charset);
+
     //    CopyDone (F & B)
+    void copyDone();
+
     //    CopyFail (F)
+    void copyFail(String msg);
 }
 
 
@@ -23,13 +23,18 @@ import static org.teiid.odbc.PGUtil.PG_TYPE_VARCHAR;
 import static org.teiid.odbc.PGUtil.convertType;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -74,6 +79,7 @@ import org.teiid.net.socket.AuthenticationType;
 import org.teiid.net.socket.SocketServerConnection;
 import org.teiid.odbc.ODBCClientRemote.CursorDirection;
 import org.teiid.odbc.PGUtil.PgColInfo;
+import org.teiid.query.sql.visitor.SQLStringVisitor;
 import org.teiid.runtime.RuntimePlugin;
 import org.teiid.security.GSSResult;
 import org.teiid.transport.LocalServerConnection;
@@ -88,6 +94,8 @@ import org.teiid.transport.pg.TimestampUtils;
 public class ODBCServerRemoteImpl implements ODBCServerRemote {
 
     private static final boolean HONOR_DECLARE_FETCH_TXN = PropertiesUtils.getHierarchicalProperty("org.teiid.honorDeclareFetchTxn", false, Boolean.class); //$NON-NLS-1$
+    private static final BigInteger NUMERIC_BASE = BigInteger.valueOf(10000);
+    private static final int COPY_BATCH_SIZE = PropertiesUtils.getHierarchicalProperty("org.teiid.odbc.copyBatchSize", 2048, Integer.class); //$NON-NLS-1$
 
     public static final String CONNECTION_PROPERTY_PREFIX = "connection."; //$NON-NLS-1$
     private static final String UNNAMED = ""; //$NON-NLS-1$
@@ -208,6 +216,8 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
     private static Pattern savepointPattern = Pattern.compile("SAVEPOINT\\s+(\\w+\\d?_*)", Pattern.DOTALL|Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
     private static Pattern rollbackPattern = Pattern.compile("ROLLBACK(\\s+to)?\\s+(\\w+\\d+_*)", Pattern.DOTALL|Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
 
+    private static Pattern copyPattern = Pattern.compile("COPY\\s+(?:\\((.*)\\)|([^\\s(]+)(?:\\s*\\(([^)]*)\\))?)\\s+(TO\\s+STDOUT|FROM\\s+STDIN)(?:\\s+(.*))?", Pattern.DOTALL|Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
+
     private static Pattern txnPattern = Pattern.compile("(BEGIN(?:\\s+READ\\s+ONLY)?|COMMIT|ROLLBACK)(\\s+(WORK|TRANSACTION))?", Pattern.DOTALL|Pattern.CASE_INSENSITIVE); //$NON-NLS-1$
 
     private TeiidDriver driver;
@@ -218,6 +228,7 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
     private boolean errorOccurred;
 
     private volatile ResultsFuture<Boolean> executionFuture;
+    private volatile CopyIn copyIn;
 
     // TODO: this is unbounded map; need to define some boundaries as to how many stmts each session can have
     private Map<String, Prepared> preparedMap = Collections.synchronizedMap(new HashMap<String, Prepared>());
@@ -596,6 +607,114 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
         });
     }
 
+    private void copyOut(final String sql, String query, final CopyFormat format, final ResultsFuture<Integer> completion) throws SQLException {
+        final StatementImpl stmt = connection.createStatement();
+        executionFuture = stmt.submitExecute(query, null);
+        this.executingStatement = stmt.getRequestIdentifier();
+        completion.addCompletionListener(new ResultsFuture.CompletionListener<Integer>() {
+            public void onCompletion(ResultsFuture<Integer> future) {
+                try {
+                    stmt.close();
+                } catch (SQLException e) {
+                    LogManager.logDetail(LogConstants.CTX_ODBC, e, "Error closing statement"); //$NON-NLS-1$
+                }
+            }
+        });
+        executionFuture.addCompletionListener(new ResultsFuture.CompletionListener<Boolean>() {
+            @Override
+            public void onCompletion(ResultsFuture<Boolean> future) {
+                executionFuture = null;
+                try {
+                    if (!future.get()) {
+                        throw new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40176, sql));
+                    }
+                    ResultSetImpl rs = stmt.getResultSet();
+                    client.sendCopyOut(rs, getPgColInfo(rs.getMetaData()), format, completion);
+                } catch (Throwable e) {
+                    if (!completion.isDone()) {
+                        completion.getResultsReceiver().exceptionOccurred(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Start a COPY FROM STDIN.  The rows are loaded with a batched insert as
+     * the CopyData messages arrive, which will use the bulk update support of
+     * the source when available.
+     */
+    private void copyIn(String table, String columns, CopyFormat format, final ResultsFuture<Integer> completion) throws SQLException {
+        PreparedStatementImpl stmt = this.connection.prepareStatement("SELECT " + columns + " FROM " + table); //$NON-NLS-1$ //$NON-NLS-2$
+        int[] types = null;
+        StringBuilder insert = new StringBuilder("INSERT INTO ").append(table).append(" ("); //$NON-NLS-1$ //$NON-NLS-2$
+        StringBuilder values = new StringBuilder(") VALUES ("); //$NON-NLS-1$
+        try {
+            ResultSetMetaData meta = stmt.getMetaData();
+            types = new int[meta.getColumnCount()];
+            for (int i = 0; i < types.length; i++) {
+                if (i > 0) {
+                    insert.append(", "); //$NON-NLS-1$
+                    values.append(", "); //$NON-NLS-1$
+                }
+                insert.append(SQLStringVisitor.escapeSinglePart(meta.getColumnName(i + 1)));
+                values.append('?');
+                types[i] = convertType(meta.getColumnType(i + 1), meta.getColumnTypeName(i + 1));
+            }
+        } finally {
+            stmt.close();
+        }
+        final PreparedStatementImpl insertStmt = this.connection.prepareStatement(insert.append(values).append(')').toString());
+        completion.addCompletionListener(new ResultsFuture.CompletionListener<Integer>() {
+            public void onCompletion(ResultsFuture<Integer> future) {
+                copyIn = null;
+                try {
+                    insertStmt.close();
+                } catch (SQLException e) {
+                    LogManager.logDetail(LogConstants.CTX_ODBC, e, "Error closing statement"); //$NON-NLS-1$
+                }
+            }
+        });
+        this.copyIn = new CopyIn(insertStmt, format, types, completion);
+        this.client.sendCopyInResponse(format, types.length);
+    }
+
+    @Override
+    public void copyData(byte[] data, Charset charset) {
+        CopyIn copy = this.copyIn;
+        if (copy == null) {
+            //per the protocol data outside of a copy is ignored
+            return;
+        }
+        try {
+            copy.read(data, charset, false);
+        } catch (Throwable e) {
+            copy.fail(e);
+        }
+    }
+
+    @Override
+    public void copyDone() {
+        CopyIn copy = this.copyIn;
+        if (copy == null) {
+            return;
+        }
+        try {
+            copy.done();
+        } catch (Throwable e) {
+            copy.fail(e);
+        }
+    }
+
+    @Override
+    public void copyFail(String msg) {
+        CopyIn copy = this.copyIn;
+        if (copy == null) {
+            return;
+        }
+        copy.fail(new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40174, msg)));
+    }
+
     private void sendUpdateCount(final String sql,
             final StatementImpl stmt) throws SQLException {
         String keyword = SqlUtil.getKeyword(sql);
@@ -667,6 +786,67 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
         return val;
     }
 
+    /**
+     * Read the binary numeric form - the digit count, weight, sign, and display scale
+     * followed by the base 10000 digits
+     */
+    private BigDecimal readNumeric(byte[] param) {
+        ByteBuffer buffer = ByteBuffer.wrap(param);
+        int digits = buffer.getShort();
+        int weight = buffer.getShort();
+        int sign = buffer.getShort() & 0xffff;
+        int scale = buffer.getShort();
+        if (sign == 0xc000) {
+            throw new NumberFormatException("NaN"); //$NON-NLS-1$
+        }
+        BigInteger unscaled = BigInteger.ZERO;
+        for (int i = 0; i < digits; i++) {
+            unscaled = unscaled.multiply(NUMERIC_BASE).add(BigInteger.valueOf(buffer.getShort()));
+        }
+        BigDecimal result = new BigDecimal(unscaled).scaleByPowerOfTen(4 * (weight - digits + 1)).setScale(scale, RoundingMode.HALF_UP);
+        if (sign == 0x4000) {
+            return result.negate();
+        }
+        return result;
+    }
+
+    /**
+     * Convert a binary format value to the object expected by the given type oid
+     */
+    private Object convertBinary(byte[] param, int oid, Charset encoding) {
+        switch (oid) {
+        case PGUtil.PG_TYPE_UNSPECIFIED:
+            //TODO: should infer type from the parameter metadata from the parse message
+            return param;
+        case PGUtil.PG_TYPE_BYTEA:
+            return param;
+        case PGUtil.PG_TYPE_BOOL:
+            return param.length > 0 && param[0] != 0;
+        case PGUtil.PG_TYPE_INT2:
+            return (short)readLong(param, 2);
+        case PGUtil.PG_TYPE_INT4:
+            return (int)readLong(param, 4);
+        case PGUtil.PG_TYPE_INT8:
+            return readLong(param, 8);
+        case PGUtil.PG_TYPE_FLOAT4:
+            return Float.intBitsToFloat((int)readLong(param, 4));
+        case PGUtil.PG_TYPE_FLOAT8:
+            return Double.longBitsToDouble(readLong(param, 8));
+        case PGUtil.PG_TYPE_NUMERIC:
+            return readNumeric(param);
+        case PGUtil.PG_TYPE_TIME:
+            //micro to millis
+            return TimestampUtils.convertToTime(readLong(param, 8)/1000, TimestampWithTimezone.getCalendar().getTimeZone());
+        case PGUtil.PG_TYPE_DATE:
+            return TimestampUtils.toDate(TimestampWithTimezone.getCalendar().getTimeZone(), (int)readLong(param, 4));
+        case PGUtil.PG_TYPE_TIMESTAMP_NO_TMZONE:
+            return TimestampUtils.toTimestamp(readLong(param, 8), TimestampWithTimezone.getCalendar().getTimeZone());
+        default:
+            //start with the string conversion
+            return new String(param, encoding);
+        }
+    }
+
     @Override
     public void bindParameters(String bindName, String prepareName, Object[] params, int resultCodeCount, short[] resultColumnFormat, Charset encoding) {
         // An unnamed portal is destroyed at the end of the transaction, or as soon as
@@ -703,43 +883,7 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
                 }
                 Object param = params[i];
                 if (param instanceof byte[] && prepared.paramType.length > i) {
-                    int oid = prepared.paramType[i];
-                    switch (oid) {
-                    case PGUtil.PG_TYPE_UNSPECIFIED:
-                        //TODO: should infer type from the parameter metadata from the parse message
-                        break;
-                    case PGUtil.PG_TYPE_BYTEA:
-                        break;
-                    case PGUtil.PG_TYPE_INT2:
-                        param = (short)readLong((byte[])param, 2);
-                        break;
-                    case PGUtil.PG_TYPE_INT4:
-                        param = (int)readLong((byte[])param, 4);
-                        break;
-                    case PGUtil.PG_TYPE_INT8:
-                        param = readLong((byte[])param, 8);
-                        break;
-                    case PGUtil.PG_TYPE_FLOAT4:
-                        param = Float.intBitsToFloat((int)readLong((byte[])param, 4));
-                        break;
-                    case PGUtil.PG_TYPE_FLOAT8:
-                        param = Double.longBitsToDouble(readLong((byte[])param, 8));
-                        break;
-                    case PGUtil.PG_TYPE_TIME:
-                        //micro to millis
-                        param = TimestampUtils.convertToTime(readLong((byte[])param, 8)/1000, TimestampWithTimezone.getCalendar().getTimeZone());
-                        break;
-                    case PGUtil.PG_TYPE_DATE:
-                        param = TimestampUtils.toDate(TimestampWithTimezone.getCalendar().getTimeZone(), (int)readLong((byte[])param, 4));
-                        break;
-                    case PGUtil.PG_TYPE_TIMESTAMP_NO_TMZONE:
-                        param = TimestampUtils.toTimestamp(readLong((byte[])param, 8), TimestampWithTimezone.getCalendar().getTimeZone());
-                        break;
-                    default:
-                        //start with the string conversion
-                        param = new String((byte[])param, encoding);
-                        break;
-                    }
+                    param = convertBinary((byte[])param, prepared.paramType[i], encoding);
                 }
                 stmt.setObject(i+1, param);
             }
@@ -1258,6 +1402,121 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
         return name;
     }
 
+    /**
+     * The state of an in progress COPY FROM STDIN
+     */
+    private final class CopyIn {
+        private final PreparedStatementImpl stmt;
+        private final CopyFormat format;
+        private final int[] types;
+        private final ResultsFuture<Integer> completion;
+        private byte[] pending = new byte[0];
+        private Charset charset;
+        private int batchCount;
+        private int rowCount;
+        private boolean done;
+        private ResultsFuture<Boolean> executing;
+
+        private CopyIn(PreparedStatementImpl stmt, CopyFormat format, int[] types, ResultsFuture<Integer> completion) {
+            this.stmt = stmt;
+            this.format = format;
+            this.types = types;
+            this.completion = completion;
+        }
+
+        /**
+         * Add the complete rows in the data to the batch, holding any
+         * partial row until the next message.
+         */
+        private synchronized void read(byte[] data, Charset encoding, boolean end) throws SQLException {
+            if (encoding != null) {
+                this.charset = encoding;
+            }
+            byte[] bytes = data;
+            if (pending.length > 0) {
+                bytes = new byte[pending.length + data.length];
+                System.arraycopy(pending, 0, bytes, 0, pending.length);
+                System.arraycopy(data, 0, bytes, pending.length, data.length);
+            }
+            List<List<Object>> rows = new ArrayList<List<Object>>();
+            int read = format.readRows(bytes, 0, bytes.length, charset, rows, end);
+            pending = Arrays.copyOfRange(bytes, read, bytes.length);
+            for (List<Object> row : rows) {
+                rowCount++;
+                if (row.size() != types.length) {
+                    throw new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40175, rowCount, row.size(), types.length));
+                }
+                for (int i = 0; i < types.length; i++) {
+                    Object value = row.get(i);
+                    if (value instanceof byte[]) {
+                        value = convertBinary((byte[])value, types[i], charset);
+                    }
+                    stmt.setObject(i + 1, value);
+                }
+                stmt.addBatch();
+                batchCount++;
+            }
+            next();
+        }
+
+        /**
+         * Called for CopyDone, the command completes once the remaining rows are loaded
+         */
+        private synchronized void done() throws SQLException {
+            read(new byte[0], null, true);
+            done = true;
+            next();
+        }
+
+        /**
+         * Submit the next batch if one is ready and none is executing, or
+         * complete the copy once all of the rows have been loaded.
+         */
+        private void next() throws SQLException {
+            if (executing != null || completion.isDone()) {
+                return;
+            }
+            if (batchCount >= COPY_BATCH_SIZE || (done && batchCount > 0)) {
+                submitBatch();
+            } else if (done) {
+                client.sendCommandComplete("COPY", rowCount); //$NON-NLS-1$
+                completion.getResultsReceiver().receiveResults(rowCount);
+            }
+        }
+
+        private void submitBatch() throws SQLException {
+            executing = stmt.submitExecuteBatch();
+            batchCount = 0;
+            //don't read from the client while the batch is loaded
+            //rows already received will still be added to the next batch
+            client.setAutoRead(false);
+            executing.addCompletionListener(new ResultsFuture.CompletionListener<Boolean>() {
+                @Override
+                public void onCompletion(ResultsFuture<Boolean> future) {
+                    synchronized (CopyIn.this) {
+                        executing = null;
+                        client.setAutoRead(true);
+                        try {
+                            future.get();
+                            next();
+                        } catch (ExecutionException e) {
+                            fail(e.getCause());
+                        } catch (Throwable e) {
+                            fail(e);
+                        }
+                    }
+                }
+            });
+        }
+
+        private void fail(Throwable e) {
+            copyIn = null;
+            if (!completion.isDone()) {
+                completion.getResultsReceiver().exceptionOccurred(e);
+            }
+        }
+    }
+
     private final class QueryWorkItem implements Runnable {
         private final ScriptReader reader;
         String sql;
@@ -1368,6 +1627,22 @@ public class ODBCServerRemoteImpl implements ODBCServerRemote {
                             client.sendCommandComplete("DEALLOCATE"); //$NON-NLS-1$
                             results.getResultsReceiver().receiveResults(1);
                         }
+                        else if ((m = copyPattern.matcher(sql)).matches()) {
+                            CopyFormat format = CopyFormat.parse(m.group(5));
+                            String columns = m.group(3) == null ? "*" : m.group(3); //$NON-NLS-1$
+                            if (m.group(4).toUpperCase().startsWith("TO")) { //$NON-NLS-1$
+                                String query = m.group(1);
+                                if (query == null) {
+                                    query = "SELECT " + columns + " FROM " + m.group(2); //$NON-NLS-1$ //$NON-NLS-2$
+                                }
+                                copyOut(sql, fixSQL(query), format, results);
+                            } else {
+                                if (m.group(1) != null) {
+                                    throw new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40176, sql));
+                                }
+                                copyIn(m.group(2), columns, format, results);
+                            }
+                        }
                         else {
                             sqlExecute(sql, results);
                         }
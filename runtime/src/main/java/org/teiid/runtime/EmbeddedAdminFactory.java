@@ -39,6 +39,11 @@ public class EmbeddedAdminFactory {
         stats.setMemoryUsedByActivePlansInKB(bufferService.getMemoryReservedByActivePlansKb());
         stats.setDiskWriteCount(bufferService.getDiskWriteCount());
         stats.setDiskReadCount(bufferService.getDiskReadCount());
+        stats.setMappedDiskReadCount(bufferService.getMappedDiskReadCount());
+        stats.setMappedDiskSpaceInMB(bufferService.getMappedDiskBufferSpaceMb());
+        stats.setEvictionCount(bufferService.getEvictionCount());
+        stats.setMemoryHitCount(bufferService.getMemoryHitCount());
+        stats.setMemoryMissCount(bufferService.getMemoryMissCount());
         stats.setCacheReadCount(bufferService.getStorageReadCount());
         stats.setCacheWriteCount(bufferService.getStorageWriteCount());
         stats.setDiskSpaceUsedInMB(bufferService.getUsedDiskBufferSpaceMb());
@@ -24,6 +24,7 @@ import java.util.List;
 import javax.transaction.TransactionManager;
 
 import org.teiid.cache.CacheFactory;
+import org.teiid.common.buffer.impl.EvictionQueue;
 import org.teiid.dqp.internal.process.DQPConfiguration;
 import org.teiid.dqp.internal.process.DataRolePolicyDecider;
 import org.teiid.dqp.internal.process.DefaultAuthorizationValidator;
@@ -35,6 +36,7 @@ import org.teiid.transport.SocketConfiguration;
 public class EmbeddedConfiguration extends DQPConfiguration {
 
     static final int DEFAULT_MAX_ASYNC_WORKERS = 10;
+    static final int DEFAULT_MAX_METADATA_LOAD_THREADS = 4;
     private SecurityHelper securityHelper;
     private String securityDomain;
     private TransactionManager transactionManager;
@@ -59,11 +61,15 @@ public class EmbeddedConfiguration extends DQPConfiguration {
     private long maxBufferSpace = -1;
     private long maxFileSize = -1;
     private boolean encryptFiles = false;
+    private boolean memoryMappedFiles = false;
+    private EvictionQueue.Policy evictionPolicy = EvictionQueue.Policy.LRFU;
     private int maxStorageObjectSize = -1;
     private boolean memoryBufferOffHeap = false;
     private int memoryBufferSpace = -1;
 
     private String nodeName;
+    private String metadataCacheDirectory;
+    private int maxMetadataLoadThreads = DEFAULT_MAX_METADATA_LOAD_THREADS;
 
     private AuthenticationType authenticationType;
 
@@ -261,6 +267,22 @@ public class EmbeddedConfiguration extends DQPConfiguration {
         this.encryptFiles = encryptFiles;
     }
 
+    public boolean isMemoryMappedFiles() {
+        return memoryMappedFiles;
+    }
+
+    public void setMemoryMappedFiles(boolean memoryMappedFiles) {
+        this.memoryMappedFiles = memoryMappedFiles;
+    }
+
+    public EvictionQueue.Policy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    public void setEvictionPolicy(EvictionQueue.Policy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
     @Deprecated
     public int getMaxStorageObjectSize() {
         return maxStorageObjectSize;
@@ -314,4 +336,32 @@ public class EmbeddedConfiguration extends DQPConfiguration {
     public void setAllowEnvFunction(boolean allowEnvFunction) {
         this.allowEnvFunction = allowEnvFunction;
     }
+
+    public String getMetadataCacheDirectory() {
+        return metadataCacheDirectory;
+    }
+
+    /**
+     * Set the directory used to cache the metadata of each model across restarts.
+     * Cached metadata is discarded if the vdb definition or resources change.  Use the
+     * cache-metadata vdb or model property set to false to exclude a vdb or model.
+     * If not set, metadata is not cached.
+     * @param metadataCacheDirectory
+     */
+    public void setMetadataCacheDirectory(String metadataCacheDirectory) {
+        this.metadataCacheDirectory = metadataCacheDirectory;
+    }
+
+    public int getMaxMetadataLoadThreads() {
+        return maxMetadataLoadThreads;
+    }
+
+    /**
+     * Set the maximum number of threads used to concurrently load the models
+     * of a vdb that is not loaded asynchronously.  1 loads the models serially.
+     * @param maxMetadataLoadThreads
+     */
+    public void setMaxMetadataLoadThreads(int maxMetadataLoadThreads) {
+        this.maxMetadataLoadThreads = maxMetadataLoadThreads;
+    }
 }
@@ -34,7 +34,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.stream.Collectors;
 
@@ -43,6 +46,7 @@ import javax.xml.stream.XMLStreamException;
 
 import org.teiid.PreParser;
 import org.teiid.adminapi.Admin;
+import org.teiid.adminapi.Model;
 import org.teiid.adminapi.VDB.Status;
 import org.teiid.adminapi.impl.ModelMetaData;
 import org.teiid.adminapi.impl.SessionMetadata;
@@ -59,6 +63,7 @@ import org.teiid.common.buffer.TupleBufferCache;
 import org.teiid.core.BundleUtil.Event;
 import org.teiid.core.TeiidException;
 import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.util.ExecutorUtils;
 import org.teiid.core.util.LRUCache;
 import org.teiid.core.util.NamedThreadFactory;
 import org.teiid.core.util.ObjectConverterUtil;
@@ -253,6 +258,41 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
         }
     }
 
+    /**
+     * Tracks the concurrent model loads of a blocking vdb deployment
+     */
+    private static class ConcurrentLoad {
+        private List<Future<?>> futures = new ArrayList<Future<?>>();
+
+        void await() throws TranslatorException {
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new TranslatorException(e);
+            } catch (ExecutionException e) {
+                cancel();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw new TranslatorException(cause);
+            }
+        }
+
+        private void cancel() {
+            for (Future<?> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
     protected DQPCore dqp = new DQPCore();
     /**
      * Custom vdb repository that will immediately throw exceptions for metadata validation errors
@@ -320,6 +360,8 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
     private SessionAwareCache<PreparedPlan> ppc;
     protected ArrayList<SocketListener> transports = new ArrayList<SocketListener>();
     protected ScheduledExecutorService scheduler;
+    private ExecutorService metadataLoadExecutor;
+    private MetadataFactoryCache metadataCache;
     protected MaterializationManager materializationMgr = null;
     private ShutDownListener shutdownListener = new ShutDownListener();
     private JMXService jmxService;
@@ -358,6 +400,12 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
         System.setProperty("jboss.node.name", config.getNodeName()==null?"localhost":config.getNodeName());
         this.cmr.setProvider(this);
         this.scheduler = Executors.newScheduledThreadPool(config.getMaxAsyncThreads(), new NamedThreadFactory("Asynch Worker")); //$NON-NLS-1$
+        if (config.getMaxMetadataLoadThreads() > 1) {
+            this.metadataLoadExecutor = ExecutorUtils.newFixedThreadPool(config.getMaxMetadataLoadThreads(), "Metadata Loader"); //$NON-NLS-1$
+        }
+        if (config.getMetadataCacheDirectory() != null) {
+            this.metadataCache = new MetadataFactoryCache(config.getMetadataCacheDirectory());
+        }
         this.replicator = config.getObjectReplicator();
         this.eventDistributorFactoryService = new EmbeddedEventDistributorFactoryService();
         //must be called after the replicator is set
@@ -510,6 +558,8 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
         if(config.getMaxFileSize() != -1)
             this.bufferService.setMaxFileSize(config.getMaxFileSize());
         this.bufferService.setEncryptFiles(config.isEncryptFiles());
+        this.bufferService.setMemoryMappedFiles(config.isMemoryMappedFiles());
+        this.bufferService.setEvictionPolicy(config.getEvictionPolicy());
         if(config.getMaxStorageObjectSize() != -1) {
             this.bufferService.setMaxStorageObjectSize(config.getMaxStorageObjectSize());
         }
@@ -875,16 +925,54 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
         return super.getMetadataRepository(repoType);
     }
 
+    @Override
+    protected void loadMetadata(VDBMetaData vdb, ConnectorManagerRepository cmr,
+            MetadataStore store, VDBResources vdbResources) throws TranslatorException {
+        if (metadataCache != null) {
+            try {
+                metadataCache.prepare(vdb, vdbResources);
+            } catch (IOException e) {
+                LogManager.logDetail(LogConstants.CTX_RUNTIME, e, "Could not compute the vdb digest, metadata will not be cached"); //$NON-NLS-1$
+            }
+        }
+        int toLoad = 0;
+        for (ModelMetaData model : vdb.getModelMetaDatas().values()) {
+            if (model.getModelType() == Model.Type.PHYSICAL || model.getModelType() == Model.Type.VIRTUAL) {
+                toLoad++;
+            }
+        }
+        if (metadataLoadExecutor == null || toLoad < 2 || Boolean.valueOf(vdb.getPropertyValue(ASYNC_LOAD))) {
+            super.loadMetadata(vdb, cmr, store, vdbResources);
+            return;
+        }
+        //submit all of the model loads, then wait for them to complete
+        ConcurrentLoad load = new ConcurrentLoad();
+        vdb.addAttachment(ConcurrentLoad.class, load);
+        try {
+            super.loadMetadata(vdb, cmr, store, vdbResources);
+        } finally {
+            vdb.removeAttachment(ConcurrentLoad.class);
+        }
+        load.await();
+        for (ModelMetaData model : vdb.getModelMetaDatas().values()) {
+            checkLoadException(model);
+        }
+    }
+
     @Override
     protected void cacheMetadataFactory(VDBMetaData vdb, ModelMetaData model,
             MetadataFactory schema) {
-        //not supported by embedded
+        if (metadataCache != null) {
+            metadataCache.put(vdb, model, schema);
+        }
     }
 
     @Override
     protected MetadataFactory getCachedMetadataFactory(VDBMetaData vdb,
             ModelMetaData model) {
-        //not supported by embedded
+        if (metadataCache != null) {
+            return metadataCache.get(vdb, model);
+        }
         return null;
     }
 
@@ -899,19 +987,41 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
     protected void runMetadataJob(VDBMetaData vdb, ModelMetaData model, Runnable job) throws TranslatorException {
         if (Boolean.valueOf(vdb.getPropertyValue(ASYNC_LOAD))) {
             this.scheduler.execute(job);
-        } else {
-            //blocking load, directly throw any associated exception
-            job.run();
-            Exception te = model.getAttachment(Exception.class);
-            if (te != null) {
-                if (te instanceof TranslatorException) {
-                    throw (TranslatorException)te;
-                }
-                if (te instanceof RuntimeException) {
-                    throw (RuntimeException)te;
+            return;
+        }
+        ConcurrentLoad load = vdb.getAttachment(ConcurrentLoad.class);
+        if (load != null) {
+            //exceptions are thrown once all models have loaded
+            final ClassLoader cl = Thread.currentThread().getContextClassLoader();
+            load.futures.add(this.metadataLoadExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    ClassLoader originalCL = Thread.currentThread().getContextClassLoader();
+                    Thread.currentThread().setContextClassLoader(cl);
+                    try {
+                        job.run();
+                    } finally {
+                        Thread.currentThread().setContextClassLoader(originalCL);
+                    }
                 }
-                throw new TranslatorException(te);
+            }));
+            return;
+        }
+        //blocking load, directly throw any associated exception
+        job.run();
+        checkLoadException(model);
+    }
+
+    private void checkLoadException(ModelMetaData model) throws TranslatorException {
+        Exception te = model.getAttachment(Exception.class);
+        if (te != null) {
+            if (te instanceof TranslatorException) {
+                throw (TranslatorException)te;
             }
+            if (te instanceof RuntimeException) {
+                throw (RuntimeException)te;
+            }
+            throw new TranslatorException(te);
         }
     }
 
@@ -939,6 +1049,9 @@ public class EmbeddedServer extends AbstractVDBDeployer implements EventDistribu
         this.shutdownListener.setShutdownInProgress(true);
         this.repo.removeListener(this.materializationMgr);
         this.scheduler.shutdownNow();
+        if (this.metadataLoadExecutor != null) {
+            this.metadataLoadExecutor.shutdownNow();
+        }
         for (SocketListener socket:this.transports) {
             socket.stop();
         }
@@ -183,6 +183,8 @@ public abstract class MaterializationManager implements VDBLifeCycleListener, No
                     String ttlStr = table.getProperty(MaterializationMetadataRepository.MATVIEW_TTL, false);
                     String pollingQuery = table.getProperty(MaterializationMetadataRepository.MATVIEW_POLLING_QUERY, false);
                     String pollingInterval = table.getProperty(MaterializationMetadataRepository.MATVIEW_POLLING_INTERVAL, false);
+                    //incremental views remain valid while the changes are applied
+                    final boolean incremental = table.getProperty(MaterializationMetadataRepository.MATVIEW_INCREMENTAL_COLUMN, false) != null;
 
                     if (ttlStr != null) {
                         ttl = Long.parseLong(ttlStr);
@@ -192,7 +194,7 @@ public abstract class MaterializationManager implements VDBLifeCycleListener, No
                             Future<?> f = getScheduledExecutorService().scheduleAtFixedRate(new Runnable() {
                                 @Override
                                 public void run() {
-                                    boolean invalidate = TempTableDataManager.shouldInvalidate(vdb);
+                                    boolean invalidate = !incremental && TempTableDataManager.shouldInvalidate(vdb);
                                     try {
                                         executeAsynchQuery(vdb, "call SYSADMIN.refreshMatView('" + table.getFullName().replaceAll("'", "''") + "', " + invalidate + ")"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
                                     } catch (SQLException e) {
@@ -226,7 +228,7 @@ public abstract class MaterializationManager implements VDBLifeCycleListener, No
                         Future<?> f = getScheduledExecutorService().scheduleAtFixedRate(new Runnable() {
                             @Override
                             public void run() {
-                                boolean invalidate = TempTableDataManager.shouldInvalidate(vdb);
+                                boolean invalidate = !incremental && TempTableDataManager.shouldInvalidate(vdb);
                                 try {
                                     executeAsynchQuery(vdb, String.format(sql,
                                             table.getParent().getName().replaceAll("'", "''"), //$NON-NLS-1$ //$NON-NLS-2$
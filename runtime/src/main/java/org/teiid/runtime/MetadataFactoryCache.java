@@ -0,0 +1,177 @@
+/*
+ * Copyright Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags and
+ * the COPYRIGHT.txt file distributed with this work.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.teiid.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.teiid.adminapi.impl.ModelMetaData;
+import org.teiid.adminapi.impl.VDBMetaData;
+import org.teiid.adminapi.impl.VDBMetadataParser;
+import org.teiid.core.TeiidRuntimeException;
+import org.teiid.core.util.ApplicationInfo;
+import org.teiid.core.util.FileUtils;
+import org.teiid.core.util.ObjectInputStreamWithClassloader;
+import org.teiid.core.util.PropertiesUtils;
+import org.teiid.logging.LogConstants;
+import org.teiid.logging.LogManager;
+import org.teiid.metadata.MetadataFactory;
+import org.teiid.query.metadata.VDBResources;
+
+/**
+ * An on disk cache of the {@link MetadataFactory} for each model of a vdb.
+ * <br>
+ * Each entry is stored with a digest of the vdb definition, the vdb resources and
+ * the Teiid version.  An entry with a different digest is treated as a miss, so changes to
+ * the vdb, including any DDL, cause the model to be reloaded from its sources.
+ * Changes to the sources themselves are not detected.
+ */
+class MetadataFactoryCache {
+
+    private static final String SUFFIX = ".ser"; //$NON-NLS-1$
+    private static final String CACHE_METADATA = "cache-metadata"; //$NON-NLS-1$
+
+    /**
+     * vdb attachment holding the digest of the deployment
+     */
+    private static class Digest {
+        String value;
+    }
+
+    private File directory;
+
+    MetadataFactoryCache(String directory) {
+        this.directory = new File(directory);
+    }
+
+    /**
+     * Compute the digest of the deployment prior to loading its models.
+     */
+    void prepare(VDBMetaData vdb, VDBResources resources) throws IOException {
+        MessageDigest md = null;
+        try {
+            md = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+        } catch (NoSuchAlgorithmException e) {
+            throw new TeiidRuntimeException(e);
+        }
+        md.update(ApplicationInfo.getInstance().getReleaseNumber().getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            VDBMetadataParser.marshall(vdb, baos);
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+        md.update(baos.toByteArray());
+        if (resources != null) {
+            byte[] buffer = new byte[1 << 13];
+            for (Map.Entry<String, VDBResources.Resource> entry : resources.getEntriesPlusVisibilities().entrySet()) {
+                md.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+                InputStream is = entry.getValue().openStream();
+                try {
+                    int read = 0;
+                    while ((read = is.read(buffer)) != -1) {
+                        md.update(buffer, 0, read);
+                    }
+                } finally {
+                    is.close();
+                }
+            }
+        }
+        Digest digest = new Digest();
+        digest.value = PropertiesUtils.toHex(md.digest());
+        vdb.addAttachment(Digest.class, digest);
+    }
+
+    MetadataFactory get(VDBMetaData vdb, ModelMetaData model) {
+        Digest digest = vdb.getAttachment(Digest.class);
+        if (digest == null || !isCached(vdb, model)) {
+            return null;
+        }
+        File file = getFile(vdb, model);
+        if (!file.exists()) {
+            return null;
+        }
+        ClassLoader cl = vdb.getAttachment(ClassLoader.class);
+        if (cl == null) {
+            cl = MetadataFactoryCache.class.getClassLoader();
+        }
+        try (ObjectInputStream ois = new ObjectInputStreamWithClassloader(new BufferedInputStream(new FileInputStream(file)), cl)) {
+            if (digest.value.equals(ois.readUTF())) {
+                return (MetadataFactory)ois.readObject();
+            }
+            LogManager.logDetail(LogConstants.CTX_RUNTIME, "Discarding stale cached metadata", file); //$NON-NLS-1$
+        } catch (Exception e) {
+            LogManager.logWarning(LogConstants.CTX_RUNTIME, e, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40177, file.getAbsolutePath()));
+        }
+        FileUtils.remove(file);
+        return null;
+    }
+
+    void put(VDBMetaData vdb, ModelMetaData model, MetadataFactory factory) {
+        Digest digest = vdb.getAttachment(Digest.class);
+        if (digest == null || !isCached(vdb, model)) {
+            return;
+        }
+        File file = getFile(vdb, model);
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+        try {
+            file.getParentFile().mkdirs();
+            try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                oos.writeUTF(digest.value);
+                oos.writeObject(factory);
+            }
+            //replace as a whole so that a partial write is never read
+            FileUtils.remove(file);
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not rename " + temp); //$NON-NLS-1$
+            }
+        } catch (Exception e) {
+            FileUtils.remove(temp);
+            LogManager.logWarning(LogConstants.CTX_RUNTIME, e, RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40178, vdb.getName(), vdb.getVersion(), model.getName()));
+        }
+    }
+
+    private boolean isCached(VDBMetaData vdb, ModelMetaData model) {
+        String prop = model.getPropertyValue(CACHE_METADATA);
+        if (prop == null) {
+            prop = vdb.getPropertyValue(CACHE_METADATA);
+        }
+        return prop == null || Boolean.valueOf(prop);
+    }
+
+    File getFile(VDBMetaData vdb, ModelMetaData model) {
+        String name = vdb.getName() + "_" + vdb.getVersion(); //$NON-NLS-1$
+        return new File(new File(directory, name), name + "_" + model.getName() + SUFFIX); //$NON-NLS-1$
+    }
+
+}
@@ -178,5 +178,13 @@ public class RuntimePlugin {
         TEIID50104,
         TEIID50036,
         TEIID40170,
+        TEIID40171,
+        TEIID40172,
+        TEIID40173,
+        TEIID40174,
+        TEIID40175,
+        TEIID40176,
+        TEIID40177,
+        TEIID40178,
     }
 }
@@ -28,6 +28,7 @@ import org.teiid.common.buffer.TupleBufferCache;
 import org.teiid.common.buffer.impl.BufferFrontedFileStoreCache;
 import org.teiid.common.buffer.impl.BufferManagerImpl;
 import org.teiid.common.buffer.impl.EncryptedStorageManager;
+import org.teiid.common.buffer.impl.EvictionQueue;
 import org.teiid.common.buffer.impl.FileStorageManager;
 import org.teiid.common.buffer.impl.MemoryStorageManager;
 import org.teiid.common.buffer.impl.SplittableStorageManager;
@@ -66,6 +67,7 @@ public class BufferServiceImpl implements BufferService, Serializable {
     //reserve / heap properties
     private int maxProcessingKb = BufferManager.DEFAULT_MAX_PROCESSING_KB;
     private int maxReservedHeapKb = BufferManager.DEFAULT_RESERVE_BUFFER_KB;
+    private EvictionQueue.Policy evictionPolicy = EvictionQueue.Policy.LRFU;
 
     //fixed memory properties
     private long fixedMemoryBufferSpaceMb = -1;
@@ -74,6 +76,7 @@ public class BufferServiceImpl implements BufferService, Serializable {
     //disk properties
     private File bufferDir;
     private boolean encryptFiles = false;
+    private boolean memoryMappedFiles = false;
     private int maxOpenFiles = FileStorageManager.DEFAULT_MAX_OPEN_FILES;
     private long maxFileSize = SplittableStorageManager.DEFAULT_MAX_FILESIZE; // 2GB
     private long maxDiskBufferSpace = FileStorageManager.DEFAULT_MAX_BUFFERSPACE>>20;
@@ -97,6 +100,7 @@ public class BufferServiceImpl implements BufferService, Serializable {
             this.bufferMgr.setMaxReserveKB(this.maxReservedHeapKb);
             this.bufferMgr.setMaxProcessingKB(this.maxProcessingKb);
             this.bufferMgr.setInlineLobs(inlineLobs);
+            this.bufferMgr.setEvictionPolicy(evictionPolicy);
             this.bufferMgr.setSessionService(sessionService);
             this.bufferMgr.initialize();
 
@@ -114,6 +118,7 @@ public class BufferServiceImpl implements BufferService, Serializable {
                 fsm.setStorageDirectory(bufferDir.getCanonicalPath());
                 fsm.setMaxOpenFiles(maxOpenFiles);
                 fsm.setMaxBufferSpace(maxDiskBufferSpace*MB);
+                fsm.setMemoryMapped(memoryMappedFiles);
                 SplittableStorageManager ssm = new SplittableStorageManager(fsm);
                 ssm.setMaxFileSize(maxFileSize);
                 StorageManager sm = ssm;
@@ -309,6 +314,20 @@ public class BufferServiceImpl implements BufferService, Serializable {
         return 0;
     }
 
+    public long getMappedDiskReadCount() {
+        if (fsc != null) {
+            return fsc.getMappedStorageReads();
+        }
+        return 0;
+    }
+
+    public long getMappedDiskBufferSpaceMb() {
+        if (fsm != null) {
+            return fsm.getMappedBufferSpace()/MB;
+        }
+        return 0;
+    }
+
     public long getDiskWriteCount() {
         if (fsc != null) {
             return fsc.getStorageWrites();
@@ -335,6 +354,18 @@ public class BufferServiceImpl implements BufferService, Serializable {
         return bufferMgr.getReadAttempts();
     }
 
+    public long getMemoryHitCount() {
+        return bufferMgr.getMemoryHitCount();
+    }
+
+    public long getMemoryMissCount() {
+        return bufferMgr.getMemoryMissCount();
+    }
+
+    public long getEvictionCount() {
+        return bufferMgr.getEvictionCount();
+    }
+
     public int getFixedMemoryBufferSpaceMb() {
         return (int)fixedMemoryBufferSpaceMb;
     }
@@ -355,6 +386,32 @@ public class BufferServiceImpl implements BufferService, Serializable {
         this.encryptFiles = encryptFiles;
     }
 
+    public boolean isMemoryMappedFiles() {
+        return memoryMappedFiles;
+    }
+
+    /**
+     * Read buffer files through memory mappings.  Batches read from disk are then
+     * deserialized directly from the mapping rather than copied into the memory buffer.
+     * <br>
+     * Mappings are released when the buffer files are truncated or removed.
+     */
+    public void setMemoryMappedFiles(boolean memoryMappedFiles) {
+        this.memoryMappedFiles = memoryMappedFiles;
+    }
+
+    public EvictionQueue.Policy getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Set the policy for selecting heap batches to evict.  SAMPLED avoids
+     * reordering a shared structure on every access.
+     */
+    public void setEvictionPolicy(EvictionQueue.Policy evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+    }
+
     public void setBufferManager(BufferManagerImpl bufferManager) {
         this.bufferMgr = bufferManager;
     }
@@ -102,8 +102,8 @@ public class ODBCClientInstance implements ChannelListener{
         if (msg instanceof PGRequest) {
             PGRequest request = (PGRequest)msg;
             synchronized (server) {
-                if (server.isExecuting()) {
-                    //queue until done
+                if (server.isExecuting() && !request.struct.methodName.startsWith("copy")) { //$NON-NLS-1$
+                    //queue until done, copy messages are for the executing COPY FROM STDIN
                     messageQueue.add(request);
                     return;
                 }
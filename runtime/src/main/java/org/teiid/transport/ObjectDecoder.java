@@ -18,10 +18,13 @@
 package org.teiid.transport;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.StreamCorruptedException;
+import java.nio.ByteOrder;
 import java.util.List;
 
 import org.teiid.common.buffer.FileStore;
@@ -30,6 +33,7 @@ import org.teiid.common.buffer.StorageManager;
 import org.teiid.core.types.InputStreamFactory.StreamFactoryReference;
 import org.teiid.core.types.Streamable;
 import org.teiid.core.util.ExternalizeUtil;
+import org.teiid.netty.handler.codec.serialization.BlockCodec;
 import org.teiid.netty.handler.codec.serialization.CompactObjectInputStream;
 import org.teiid.netty.handler.codec.serialization.ObjectEncoderOutputStream;
 import org.teiid.runtime.RuntimePlugin;
@@ -69,6 +73,7 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
     public static final long MAX_LOB_SIZE = 1L << 32;
 
     private final ClassLoader classLoader;
+    private final int maxObjectSize;
 
     private Object result;
     private int streamIndex;
@@ -79,6 +84,8 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
     private StreamCorruptedException error;
 
     private int streamDataToRead = -1;
+    private boolean compressedChunk;
+    private volatile boolean compressedChunks;
 
     private long maxLobSize = MAX_LOB_SIZE;
 
@@ -95,6 +102,7 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
     public ObjectDecoder(int maxObjectSize, long maxLobSize, ClassLoader classLoader, StorageManager storageManager) {
         super(maxObjectSize, 0, 4, 0, 4);
         this.classLoader = classLoader;
+        this.maxObjectSize = maxObjectSize;
         this.storageManager = storageManager;
         this.maxLobSize = maxLobSize;
     }
@@ -103,6 +111,8 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
     protected Object decode(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
         if (result == null) {
             ByteBuf frame = null;
+            boolean compressed = buffer.readableBytes() >= 4
+                    && (buffer.getByte(buffer.readerIndex()) & 0x80) != 0;
             try {
                 frame = (ByteBuf) super.decode(ctx, buffer);
             } catch (TooLongFrameException e) {
@@ -111,8 +121,14 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
             if (frame == null) {
                 return null;
             }
+            InputStream frameStream = null;
+            if (compressed) {
+                frameStream = decompressFrame(frame);
+            } else {
+                frameStream = new ByteBufInputStream(frame);
+            }
             CompactObjectInputStream cois = new CompactObjectInputStream(
-                    new ByteBufInputStream(frame), classLoader);
+                    frameStream, classLoader);
             result = cois.readObject();
             streams = ExternalizeUtil.readList(cois, StreamFactoryReference.class);
             streamIndex = 0;
@@ -124,6 +140,10 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
                     return null;
                 }
                 streamDataToRead = buffer.readUnsignedShort();
+                if (compressedChunks && (streamDataToRead & ObjectEncoderOutputStream.COMPRESSED_CHUNK) != 0) {
+                    streamDataToRead &= ObjectEncoderOutputStream.MAX_COMPRESSED_CHUNK_SIZE;
+                    compressedChunk = true;
+                }
             }
             if (stream == null) {
                 store = storageManager.createFileStore("temp-stream"); //$NON-NLS-1$
@@ -139,6 +159,31 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
                 streamDataToRead = -1;
                 continue;
             }
+            if (compressedChunk) {
+                //the whole chunk is needed to decompress
+                if (buffer.readableBytes() < streamDataToRead + 2) {
+                    return null;
+                }
+                int length = buffer.readUnsignedShort();
+                if (store.getLength() + length > maxLobSize) {
+                    if (error == null) {
+                        error = new StreamCorruptedException(
+                                "lob too big: " + (store.getLength() + length) + " (max: " + maxLobSize + ')'); //$NON-NLS-1$ //$NON-NLS-2$
+                    }
+                }
+                if (error == null) {
+                    byte[] bytes = new byte[streamDataToRead];
+                    buffer.readBytes(bytes);
+                    byte[] uncompressed = new byte[length];
+                    BlockCodec.decompress(bytes, 0, bytes.length, uncompressed, 0, length);
+                    this.stream.write(uncompressed);
+                } else {
+                    buffer.skipBytes(streamDataToRead);
+                }
+                compressedChunk = false;
+                streamDataToRead = -1;
+                continue;
+            }
             if (store.getLength() + streamDataToRead > maxLobSize) {
                 if (error == null) {
                     error = new StreamCorruptedException(
@@ -173,6 +218,32 @@ public class ObjectDecoder extends LengthFieldBasedFrameDecoder {
         return toReturn;
     }
 
+    private InputStream decompressFrame(ByteBuf frame) throws IOException {
+        int length = frame.readInt();
+        if (length <= 0 || length > maxObjectSize) {
+            throw new IOException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40166));
+        }
+        byte[] bytes = new byte[frame.readableBytes()];
+        frame.readBytes(bytes);
+        byte[] uncompressed = new byte[length];
+        BlockCodec.decompress(bytes, 0, bytes.length, uncompressed, 0, length);
+        return new ByteArrayInputStream(uncompressed);
+    }
+
+    /**
+     * Expect lob chunks that may be compressed.  Should only be set after
+     * compression has been agreed to with the client.
+     */
+    public void setCompressedChunks(boolean compressedChunks) {
+        this.compressedChunks = compressedChunks;
+    }
+
+    @Override
+    protected long getUnadjustedFrameLength(ByteBuf buf, int offset, int length, ByteOrder order) {
+        //ignore the compressed flag
+        return super.getUnadjustedFrameLength(buf, offset, length, order) & ~ObjectEncoderOutputStream.COMPRESSED_FRAME;
+    }
+
     @Override
     protected ByteBuf extractFrame(ChannelHandlerContext ctx, ByteBuf buffer, int index, int length) {
         return buffer.slice(index, length);
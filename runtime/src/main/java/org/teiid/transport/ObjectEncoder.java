@@ -21,10 +21,13 @@ package org.teiid.transport;
 import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.teiid.core.util.ExternalizeUtil;
+import org.teiid.netty.handler.codec.serialization.BlockCodec;
 import org.teiid.netty.handler.codec.serialization.CompactObjectOutputStream;
 import org.teiid.netty.handler.codec.serialization.ObjectDecoderInputStream;
+import org.teiid.netty.handler.codec.serialization.ObjectEncoderOutputStream;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -72,6 +75,10 @@ public class ObjectEncoder extends ChannelOutboundHandlerAdapter {
     private final int estimatedLength;
     private final boolean preferDirect;
 
+    private volatile int compressionThreshold = -1;
+    private AtomicLong uncompressedBytes;
+    private AtomicLong compressedBytes;
+
     /**
      * Creates a new encoder with the estimated length of 512 bytes.
      */
@@ -113,12 +120,21 @@ public class ObjectEncoder extends ChannelOutboundHandlerAdapter {
             oout.close();
 
             int endIdx = out.writerIndex();
-            out.setInt(startIdx, endIdx - startIdx - 4);
+            int length = endIdx - startIdx - 4;
+            out.setInt(startIdx, length);
+            int threshold = this.compressionThreshold;
+            if (threshold >= 0 && length >= threshold) {
+                compressFrame(out, startIdx, length);
+            }
 
             if (out.isReadable()) {
                 ctx.write(out, promise);
                 for (InputStream is : oout.getStreams()) {
-                    ctx.write(new AnonymousChunkedStream(new BufferedInputStream(is, CHUNK_SIZE)), promise);
+                    if (threshold >= 0) {
+                        ctx.write(new AnonymousChunkedStream(new BufferedInputStream(is, ObjectEncoderOutputStream.MAX_COMPRESSED_CHUNK_SIZE), this, threshold), promise);
+                    } else {
+                        ctx.write(new AnonymousChunkedStream(new BufferedInputStream(is, CHUNK_SIZE)), promise);
+                    }
                 }
             } else {
                 out.release();
@@ -135,6 +151,44 @@ public class ObjectEncoder extends ChannelOutboundHandlerAdapter {
         }
     }
 
+    /**
+     * Replace the frame with the compressed form if that is smaller
+     */
+    private void compressFrame(ByteBuf out, int startIdx, int length) {
+        byte[] bytes = new byte[length];
+        out.getBytes(startIdx + 4, bytes);
+        byte[] compressed = new byte[BlockCodec.maxCompressedLength(length)];
+        int compressedLength = BlockCodec.compress(bytes, 0, length, compressed, 0);
+        if (compressedLength + 4 >= length) {
+            return;
+        }
+        out.writerIndex(startIdx);
+        out.writeInt(ObjectEncoderOutputStream.COMPRESSED_FRAME | (compressedLength + 4));
+        out.writeInt(length);
+        out.writeBytes(compressed, 0, compressedLength);
+        recordCompression(length, compressedLength + 4);
+    }
+
+    void recordCompression(int length, int compressedLength) {
+        if (uncompressedBytes != null) {
+            uncompressedBytes.addAndGet(length);
+            compressedBytes.addAndGet(compressedLength);
+        }
+    }
+
+    /**
+     * Enable compression of messages and lob chunks at least as large as the threshold.
+     * Should only be set after the client has agreed to compression.
+     * @param threshold -1 to disable
+     * @param uncompressedBytes if not null, accumulates the original size of compressed messages
+     * @param compressedBytes if not null, accumulates the compressed size of messages
+     */
+    public void setCompressionThreshold(int threshold, AtomicLong uncompressedBytes, AtomicLong compressedBytes) {
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+        this.compressionThreshold = threshold;
+    }
+
     protected ByteBuf allocateBuffer(ChannelHandlerContext ctx,
             int estimatedSize, boolean preferDirect)
             throws Exception {
@@ -147,14 +201,35 @@ public class ObjectEncoder extends ChannelOutboundHandlerAdapter {
 
     static class AnonymousChunkedStream extends ChunkedStream {
 
+        private ObjectEncoder encoder;
+        private int compressionThreshold = -1;
+
         public AnonymousChunkedStream(InputStream in) {
             super(in, CHUNK_SIZE);
         }
 
+        /**
+         * A stream with chunks small enough to be flagged as compressed
+         */
+        AnonymousChunkedStream(InputStream in, ObjectEncoder encoder, int compressionThreshold) {
+            super(in, ObjectEncoderOutputStream.MAX_COMPRESSED_CHUNK_SIZE);
+            this.encoder = encoder;
+            this.compressionThreshold = compressionThreshold;
+        }
+
         @Override
         public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
             ByteBuf cb = super.readChunk(allocator);
             int length = cb.capacity();
+            if (compressionThreshold >= 0 && length >= compressionThreshold) {
+                ByteBuf compressed = compressChunk(cb, length);
+                if (compressed != null) {
+                    cb.release();
+                    cb = compressed;
+                    //exclude the uncompressed length
+                    length = ObjectEncoderOutputStream.COMPRESSED_CHUNK | (compressed.readableBytes() - 2);
+                }
+            }
             ByteBuf prefix = Unpooled.wrappedBuffer(new byte[2]);
             prefix.setShort(0, (short)length);
             if (isEndOfInput()) {
@@ -164,6 +239,24 @@ public class ObjectEncoder extends ChannelOutboundHandlerAdapter {
             return Unpooled.wrappedBuffer(prefix, cb);
         }
 
+        /**
+         * @return the uncompressed length followed by the compressed bytes, or null if
+         * compression does not reduce the size
+         */
+        private ByteBuf compressChunk(ByteBuf cb, int length) {
+            byte[] bytes = new byte[length];
+            cb.getBytes(cb.readerIndex(), bytes);
+            byte[] compressed = new byte[BlockCodec.maxCompressedLength(length) + 2];
+            int compressedLength = BlockCodec.compress(bytes, 0, length, compressed, 2);
+            if (compressedLength + 2 >= length) {
+                return null;
+            }
+            compressed[0] = (byte)(length >>> 8);
+            compressed[1] = (byte)length;
+            encoder.recordCompression(length, compressedLength + 2);
+            return Unpooled.wrappedBuffer(compressed, 0, compressedLength + 2);
+        }
+
     }
 
 }
@@ -29,6 +29,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.sql.Array;
 import java.sql.Blob;
@@ -57,6 +58,7 @@ import org.teiid.logging.LogConstants;
 import org.teiid.logging.LogManager;
 import org.teiid.logging.MessageLevel;
 import org.teiid.net.socket.ServiceInvocationStruct;
+import org.teiid.odbc.CopyFormat;
 import org.teiid.odbc.ODBCClientRemote;
 import org.teiid.odbc.ODBCClientRemote.CursorDirection;
 import org.teiid.odbc.PGUtil.PgColInfo;
@@ -67,6 +69,7 @@ import org.teiid.transport.pg.TimestampUtils;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -103,23 +106,155 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
         }
     }
 
+    /**
+     * Encodes a single value of the current row into the DataRow message
+     */
+    private interface ColumnEncoder {
+        /**
+         * @return true if the value was null
+         */
+        boolean encode(ResultSetImpl rs, List<?> row, int column) throws SQLException, IOException;
+    }
+
+    /**
+     * Encodes through the {@link ResultSet} getters, which handles all types
+     */
+    private final class ResultSetEncoder implements ColumnEncoder {
+        private final PgColInfo col;
+        private final boolean binary;
+
+        private ResultSetEncoder(PgColInfo col, boolean binary) {
+            this.col = col;
+            this.binary = binary;
+        }
+
+        @Override
+        public boolean encode(ResultSetImpl rs, List<?> row, int column)
+                throws SQLException, IOException {
+            if (binary) {
+                getBinaryContent(rs, col, column + 1);
+            } else {
+                getContent(rs, col, column + 1);
+            }
+            writer.flush();
+            return rs.wasNull();
+        }
+    }
+
+    /**
+     * Encodes numeric, boolean, and string values directly from the row values
+     * without going through the {@link ResultSet} getters or creating intermediate
+     * Strings for integral values.  Other values are delegated to the {@link ResultSetEncoder}.
+     */
+    private final class ValueEncoder implements ColumnEncoder {
+        private final int type;
+        private final boolean binary;
+        private final boolean ascii;
+        private final boolean utf8;
+        private final ResultSetEncoder fallback;
+
+        private ValueEncoder(PgColInfo col, boolean binary, boolean ascii) {
+            this.type = col.type;
+            this.binary = binary;
+            this.ascii = ascii;
+            this.utf8 = StandardCharsets.UTF_8.equals(encoding);
+            this.fallback = new ResultSetEncoder(col, binary);
+        }
+
+        @Override
+        public boolean encode(ResultSetImpl rs, List<?> row, int column)
+                throws SQLException, IOException {
+            Object value = row.get(column);
+            if (value == null) {
+                return true;
+            }
+            if (binary) {
+                if (type == PG_TYPE_BOOL && value instanceof Boolean) {
+                    dataOut.writeByte(((Boolean)value)?1:0);
+                    return false;
+                }
+                if (value instanceof Number) {
+                    Number n = (Number)value;
+                    switch (type) {
+                    case PG_TYPE_INT2:
+                        dataOut.writeShort(n.shortValue());
+                        return false;
+                    case PG_TYPE_INT4:
+                        dataOut.writeInt(n.intValue());
+                        return false;
+                    case PG_TYPE_INT8:
+                        dataOut.writeLong(n.longValue());
+                        return false;
+                    case PG_TYPE_FLOAT4:
+                        dataOut.writeInt(Float.floatToIntBits(n.floatValue()));
+                        return false;
+                    case PG_TYPE_FLOAT8:
+                        dataOut.writeLong(Double.doubleToLongBits(n.doubleValue()));
+                        return false;
+                    }
+                }
+                return fallback.encode(rs, row, column);
+            }
+            switch (type) {
+            case PG_TYPE_BOOL:
+                if (value instanceof Boolean) {
+                    dataOut.writeByte(((Boolean)value)?'t':'f');
+                    return false;
+                }
+                break;
+            case PG_TYPE_INT2:
+            case PG_TYPE_INT4:
+            case PG_TYPE_INT8:
+                if (ascii && (value instanceof Long || value instanceof Integer
+                        || value instanceof Short || value instanceof Byte)) {
+                    writeAscii(dataOut, ((Number)value).longValue());
+                    return false;
+                }
+                break;
+            case PG_TYPE_FLOAT4:
+            case PG_TYPE_FLOAT8:
+            case PG_TYPE_NUMERIC:
+                if (value instanceof Number) {
+                    writeText(value.toString());
+                    return false;
+                }
+                break;
+            case PG_TYPE_BPCHAR:
+            case PG_TYPE_VARCHAR:
+                if (value instanceof String || value instanceof Character) {
+                    writeText(value.toString());
+                    return false;
+                }
+                break;
+            }
+            return fallback.encode(rs, row, column);
+        }
+
+        private void writeText(String value) {
+            if (utf8) {
+                ByteBufUtil.writeUtf8(dataOut, value);
+            } else {
+                dataOut.writeCharSequence(value, encoding);
+            }
+        }
+    }
+
     private final class ResultsWorkItem implements Runnable {
-        private final List<PgColInfo> cols;
+        private final ColumnEncoder[] encoders;
         private final ResultSetImpl rs;
         private final ResultsFuture<Integer> result;
-        private final short[] resultColumnFormat;
         private int rows2Send;
         private int rowsSent = 0;
         private int rowsInBuffer = 0;
         String sql;
+        //if the rows are sent as COPY data
+        CopyFormat copyFormat;
 
-        private ResultsWorkItem(List<PgColInfo> cols, ResultSetImpl rs, ResultsFuture<Integer> result, int rows2Send, short[] resultColumnFormat) {
-            this.cols = cols;
+        private ResultsWorkItem(ColumnEncoder[] encoders, ResultSetImpl rs, ResultsFuture<Integer> result, int rows2Send) {
             this.rs = rs;
             this.result = result;
             this.rows2Send = rows2Send;
-            this.resultColumnFormat = resultColumnFormat;
-            initBuffer(maxBufferSize / 8);
+            this.encoders = encoders;
         }
 
         @Override
@@ -164,24 +299,32 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
             boolean processNext = true;
             try {
                 if (future.get()) {
-                    sendDataRow(rs, cols, resultColumnFormat);
-                    rowsSent++;
-                    rowsInBuffer++;
-                    boolean done = rowsSent == rows2Send;
-                    flushResults(done);
+                    boolean done = false;
+                    //encode the rest of the current batch without
+                    //going back through the asynch logic for each row
+                    do {
+                        if (dataOut == null) {
+                            initBuffer(maxBufferSize / 8);
+                        }
+                        if (copyFormat != null) {
+                            sendCopyData(rs, encoders, copyFormat);
+                        } else {
+                            sendDataRow(rs, encoders);
+                        }
+                        rowsSent++;
+                        rowsInBuffer++;
+                        done = rowsSent == rows2Send;
+                        flushResults(done);
+                    } while (!done && rs.available() > 0 && rs.next());
                     processNext = !done;
                     if (done) {
-                        if (sql != null) {
-                            sendCommandComplete(sql, rowsSent);
-                        }
-                        result.getResultsReceiver().receiveResults(rowsSent);
+                        complete();
                     }
                 } else {
-                    sendContents();
-                    if (sql != null) {
-                        sendCommandComplete(sql, rowsSent);
+                    if (dataOut != null) {
+                        sendContents();
                     }
-                    result.getResultsReceiver().receiveResults(rowsSent);
+                    complete();
                     processNext = false;
                 }
             } catch (Throwable t) {
@@ -191,16 +334,27 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
             return processNext;
         }
 
+        private void complete() {
+            if (copyFormat != null) {
+                sendCopyDone(copyFormat);
+            }
+            if (sql != null) {
+                sendCommandComplete(sql, rowsSent);
+            }
+            result.getResultsReceiver().receiveResults(rowsSent);
+        }
+
         private void flushResults(boolean force) {
             int avgRowsize = dataOut.writerIndex()/rowsInBuffer;
             if (force || (maxBufferSize - dataOut.writerIndex()) < (avgRowsize*2)) {
                 sendContents();
-                initBuffer(maxBufferSize / 8);
                 rowsInBuffer = 0;
             }
         }
     }
 
+    private static final byte[] LONG_MIN_VALUE = String.valueOf(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+
     public static final String DEFAULT_ENCODING = "UTF8";
     public static final String CLIENT_ENCODING = "client_encoding";
 
@@ -399,8 +553,11 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
                     break;
                 }
                 rowCount = 1;
+            } else {
+                //overlap the encoding of the current batch with the processing of the next
+                rs.enablePrefetch();
             }
-            r = new ResultsWorkItem(cols, rs, result, rowCount, resultColumnFormat);
+            r = new ResultsWorkItem(createEncoders(cols, resultColumnFormat), rs, result, rowCount);
             r.sql = sql;
             if (singleResult != null) {
                 ResultsFuture<Boolean> resultsFuture = new ResultsFuture<Boolean>();
@@ -414,6 +571,73 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
         }
     }
 
+    @Override
+    public void sendCopyOut(ResultSetImpl rs, List<PgColInfo> cols,
+            CopyFormat format, ResultsFuture<Integer> result) {
+        if (nextFuture != null) {
+            sendErrorResponse(new IllegalStateException("Pending results have not been sent")); //$NON-NLS-1$
+        }
+        try {
+            ColumnEncoder[] encoders = createCopyEncoders(cols, format);
+            sendCopyResponse('H', format, cols.size());
+            if (format.isBinary()) {
+                startMessage('d');
+                write(CopyFormat.BINARY_SIGNATURE);
+                //flags and header extension length
+                writeInt(0);
+                writeInt(0);
+                sendMessage();
+            } else if (format.isHeader()) {
+                startMessage('d');
+                for (int i = 0; i < cols.size(); i++) {
+                    if (i > 0) {
+                        write(format.getDelimiter());
+                    }
+                    int start = this.dataOut.writerIndex();
+                    write(cols.get(i).name.getBytes(this.encoding));
+                    escapeCopyValue(format, start);
+                }
+                write('\n');
+                sendMessage();
+            }
+            //overlap the encoding of the current batch with the processing of the next
+            rs.enablePrefetch();
+            ResultsWorkItem r = new ResultsWorkItem(encoders, rs, result, -1);
+            r.copyFormat = format;
+            r.sql = "COPY";
+            r.run();
+        } catch (SQLException e) {
+            result.getResultsReceiver().exceptionOccurred(e);
+        }
+    }
+
+    @Override
+    public void sendCopyInResponse(CopyFormat format, int columnCount) {
+        sendCopyResponse('G', format, columnCount);
+    }
+
+    private void sendCopyResponse(char type, CopyFormat format, int columnCount) {
+        startMessage(type);
+        int columnFormat = format.isBinary()?1:0;
+        write(columnFormat);
+        writeShort(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            writeShort(columnFormat);
+        }
+        sendMessage();
+    }
+
+    private void sendCopyDone(CopyFormat format) {
+        if (format.isBinary()) {
+            //file trailer
+            startMessage('d');
+            writeShort(-1);
+            sendMessage();
+        }
+        startMessage('c');
+        sendMessage();
+    }
+
     @Override
     public void statementClosed() {
         startMessage('3');
@@ -429,11 +653,16 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
 
     @Override
     public void flush() {
-        this.dataOut = null;
+        releaseBuffer();
         this.writer = null;
         this.ctx.flush();
     }
 
+    @Override
+    public void setAutoRead(boolean autoRead) {
+        this.ctx.channel().config().setAutoRead(autoRead);
+    }
+
     @Override
     public void emptyQueryReceived() {
         sendEmptyQueryResponse();
@@ -485,21 +714,43 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
         return tag;
     }
 
-    private void sendDataRow(ResultSet rs, List<PgColInfo> cols, short[] resultColumnFormat) throws SQLException, IOException {
+    private ColumnEncoder[] createEncoders(List<PgColInfo> cols, short[] resultColumnFormat) {
+        ColumnEncoder[] encoders = new ColumnEncoder[cols.size()];
+        //the encodings supported by pg are all ascii compatible, but check to be safe
+        boolean ascii = "0-9".equals(new String("0-9".getBytes(this.encoding), StandardCharsets.US_ASCII));
+        for (int i = 0; i < encoders.length; i++) {
+            PgColInfo col = cols.get(i);
+            boolean binary = isBinary(col.type)
+                    && !(resultColumnFormat==null || (resultColumnFormat.length==1?resultColumnFormat[0]==0:resultColumnFormat[i]==0));
+            switch (col.type) {
+            case PG_TYPE_BOOL:
+            case PG_TYPE_BPCHAR:
+            case PG_TYPE_VARCHAR:
+            case PG_TYPE_INT2:
+            case PG_TYPE_INT4:
+            case PG_TYPE_INT8:
+            case PG_TYPE_FLOAT4:
+            case PG_TYPE_FLOAT8:
+            case PG_TYPE_NUMERIC:
+                encoders[i] = new ValueEncoder(col, binary, ascii);
+                break;
+            default:
+                encoders[i] = new ResultSetEncoder(col, binary);
+                break;
+            }
+        }
+        return encoders;
+    }
+
+    private void sendDataRow(ResultSetImpl rs, ColumnEncoder[] encoders) throws SQLException, IOException {
         startMessage('D', -1);
         int lengthIndex = this.dataOut.writerIndex() - 4;
-        writeShort(cols.size());
-        for (int i = 0; i < cols.size(); i++) {
+        writeShort(encoders.length);
+        List<?> row = rs.getCurrentRecord();
+        for (int i = 0; i < encoders.length; i++) {
             int dataBytesIndex = this.dataOut.writerIndex();
             writeInt(-1);
-            if (!isBinary(cols.get(i).type)
-                    || (resultColumnFormat==null || (resultColumnFormat.length==1?resultColumnFormat[0]==0:resultColumnFormat[i]==0))) {
-                getContent(rs, cols.get(i), i+1);
-            } else {
-                getBinaryContent(rs, cols.get(i), i+1);
-            }
-            writer.flush();
-            if (!rs.wasNull()) {
+            if (!encoders[i].encode(rs, row, i)) {
                 int bytes = this.dataOut.writerIndex() - dataBytesIndex - 4;
                 this.dataOut.setInt(dataBytesIndex, bytes);
             }
@@ -507,6 +758,167 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
         this.dataOut.setInt(lengthIndex, this.dataOut.writerIndex() - lengthIndex);
     }
 
+    private ColumnEncoder[] createCopyEncoders(List<PgColInfo> cols, CopyFormat format) throws TeiidSQLException {
+        if (!format.isBinary()) {
+            return createEncoders(cols, null);
+        }
+        ColumnEncoder[] encoders = createEncoders(cols, new short[] {1});
+        for (int i = 0; i < encoders.length; i++) {
+            PgColInfo col = cols.get(i);
+            if (isBinary(col.type)) {
+                continue;
+            }
+            switch (col.type) {
+            case PG_TYPE_BOOL:
+                encoders[i] = new ValueEncoder(col, true, true);
+                break;
+            case PG_TYPE_BPCHAR:
+            case PG_TYPE_VARCHAR:
+            case PG_TYPE_TEXT:
+            case PG_TYPE_XML:
+            case PG_TYPE_JSON:
+                //the binary form is the same as the text
+                break;
+            default:
+                throw new TeiidSQLException(RuntimePlugin.Util.gs(RuntimePlugin.Event.TEIID40173, col.name, col.type));
+            }
+        }
+        return encoders;
+    }
+
+    /**
+     * Send the row as a single CopyData message
+     */
+    private void sendCopyData(ResultSetImpl rs, ColumnEncoder[] encoders, CopyFormat format) throws SQLException, IOException {
+        startMessage('d', -1);
+        int lengthIndex = this.dataOut.writerIndex() - 4;
+        List<?> row = rs.getCurrentRecord();
+        if (format.isBinary()) {
+            writeShort(encoders.length);
+            for (int i = 0; i < encoders.length; i++) {
+                int dataBytesIndex = this.dataOut.writerIndex();
+                writeInt(-1);
+                if (!encoders[i].encode(rs, row, i)) {
+                    int bytes = this.dataOut.writerIndex() - dataBytesIndex - 4;
+                    this.dataOut.setInt(dataBytesIndex, bytes);
+                }
+            }
+        } else {
+            for (int i = 0; i < encoders.length; i++) {
+                if (i > 0) {
+                    write(format.getDelimiter());
+                }
+                int start = this.dataOut.writerIndex();
+                if (encoders[i].encode(rs, row, i)) {
+                    this.dataOut.writerIndex(start);
+                    write(format.getNullString().getBytes(this.encoding));
+                } else {
+                    escapeCopyValue(format, start);
+                }
+            }
+            write('\n');
+        }
+        this.dataOut.setInt(lengthIndex, this.dataOut.writerIndex() - lengthIndex);
+    }
+
+    /**
+     * Escape or quote the text value written from the start index.
+     * The special characters are all ascii, so the encoded bytes may be scanned directly.
+     */
+    private void escapeCopyValue(CopyFormat format, int start) {
+        int end = this.dataOut.writerIndex();
+        boolean csv = format.getFormat() == CopyFormat.Format.CSV;
+        boolean special = false;
+        for (int i = start; i < end && !special; i++) {
+            byte b = this.dataOut.getByte(i);
+            if (csv) {
+                special = b == format.getDelimiter() || b == format.getQuote() || b == format.getEscape() || b == '\n' || b == '\r';
+            } else {
+                special = b == format.getDelimiter() || b == '\\' || (b >= 0 && b < ' ');
+            }
+        }
+        if (csv && !special) {
+            //quote values that would otherwise be read as null
+            byte[] nullBytes = format.getNullString().getBytes(this.encoding);
+            special = nullBytes.length == end - start && ByteBufUtil.equals(this.dataOut, start, Unpooled.wrappedBuffer(nullBytes), 0, nullBytes.length);
+        }
+        if (!special) {
+            return;
+        }
+        byte[] value = new byte[end - start];
+        this.dataOut.getBytes(start, value);
+        this.dataOut.writerIndex(start);
+        if (csv) {
+            write(format.getQuote());
+            for (byte b : value) {
+                if (b == format.getQuote() || b == format.getEscape()) {
+                    write(format.getEscape());
+                }
+                write(b);
+            }
+            write(format.getQuote());
+            return;
+        }
+        for (byte b : value) {
+            switch (b) {
+            case '\b':
+                write('\\');
+                write('b');
+                break;
+            case '\f':
+                write('\\');
+                write('f');
+                break;
+            case '\n':
+                write('\\');
+                write('n');
+                break;
+            case '\r':
+                write('\\');
+                write('r');
+                break;
+            case '\t':
+                write('\\');
+                write('t');
+                break;
+            case 11:
+                write('\\');
+                write('v');
+                break;
+            default:
+                if (b == '\\' || b == format.getDelimiter()) {
+                    write('\\');
+                }
+                write(b);
+            }
+        }
+    }
+
+    /**
+     * Write the decimal digits of the value without creating a String
+     */
+    static void writeAscii(ByteBuf buf, long value) {
+        if (value == Long.MIN_VALUE) {
+            buf.writeBytes(LONG_MIN_VALUE);
+            return;
+        }
+        if (value < 0) {
+            buf.writeByte('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        buf.ensureWritable(digits);
+        int index = buf.writerIndex();
+        for (int i = digits - 1; i >= 0; i--) {
+            buf.setByte(index + i, (int)('0' + value % 10));
+            value /= 10;
+        }
+        buf.writerIndex(index + digits);
+    }
+
     private void getBinaryContent(ResultSet rs, PgColInfo col, int column) throws SQLException, TeiidSQLException, IOException {
         switch (col.type) {
         case PG_TYPE_INT2:
@@ -985,11 +1397,21 @@ public class PgBackendProtocol extends ChannelOutboundHandlerAdapter implements
     }
 
     private void initBuffer(int estimatedLength) {
-        this.dataOut = Unpooled.buffer(estimatedLength).order(ByteOrder.BIG_ENDIAN);
+        //an existing buffer has not been sent and should be discarded
+        releaseBuffer();
+        this.dataOut = this.ctx.alloc().buffer(estimatedLength).order(ByteOrder.BIG_ENDIAN);
         ByteBufOutputStream cbos = new ByteBufOutputStream(this.dataOut);
         this.writer = new OutputStreamWriter(cbos, this.encoding);
     }
 
+    private void releaseBuffer() {
+        if (this.dataOut != null) {
+            this.dataOut.release();
+            this.dataOut = null;
+        }
+        this.writer = null;
+    }
+
     private void sendMessage() {
         int pos = this.dataOut.writerIndex();
         this.dataOut.setInt(1, pos - 1);
@@ -159,6 +159,12 @@ public class PgFrontendProtocol extends ByteToMessageDecoder {
             return buildFlush();
         case 'F':
             return buildFunctionCall(data);
+        case 'd':
+            return buildCopyData(data);
+        case 'c':
+            return buildCopyDone();
+        case 'f':
+            return buildCopyFail(data);
         default:
             return buildError();
         }
@@ -372,6 +378,21 @@ public class PgFrontendProtocol extends ByteToMessageDecoder {
         return message;
     }
 
+    private Object buildCopyData(NullTerminatedStringDataInputStream data) {
+        this.odbcProxy.copyData(data.getRawData(), this.pgBackendProtocol.getEncoding());
+        return message;
+    }
+
+    private Object buildCopyDone() {
+        this.odbcProxy.copyDone();
+        return message;
+    }
+
+    private Object buildCopyFail(NullTerminatedStringDataInputStream data) throws IOException {
+        this.odbcProxy.copyFail(data.readString());
+        return message;
+    }
+
     private byte[] readByteArray(NullTerminatedStringDataInputStream data) throws IOException {
         int length = data.readInt();
         if (length == -1) {
@@ -414,6 +435,10 @@ public class PgFrontendProtocol extends ByteToMessageDecoder {
         public byte[] readServiceToken() {
             return this.rawData;
         }
+
+        public byte[] getRawData() {
+            return this.rawData;
+        }
     }
 
     private static void trace(Object... msg) {
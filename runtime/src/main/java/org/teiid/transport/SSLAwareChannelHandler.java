@@ -83,6 +83,18 @@ public class SSLAwareChannelHandler extends ChannelDuplexHandler {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public void setCompressionThreshold(int threshold) {
+            ObjectDecoder decoder = channel.pipeline().get(ObjectDecoder.class);
+            if (decoder != null) {
+                decoder.setCompressedChunks(threshold >= 0);
+            }
+            ObjectEncoder encoder = channel.pipeline().get(ObjectEncoder.class);
+            if (encoder != null) {
+                encoder.setCompressionThreshold(threshold, uncompressedBytes, compressedBytes);
+            }
+        }
+
         public synchronized Future<?> write(Object msg) {
             //see https://github.com/netty/netty/issues/3887
             //    https://issues.jboss.org/browse/TEIID-5658
@@ -102,6 +114,8 @@ public class SSLAwareChannelHandler extends ChannelDuplexHandler {
     private Map<Channel, ChannelListener> listeners = new ConcurrentHashMap<Channel, ChannelListener>();
     private AtomicLong objectsRead = new AtomicLong(0);
     private AtomicLong objectsWritten = new AtomicLong(0);
+    private AtomicLong uncompressedBytes = new AtomicLong(0);
+    private AtomicLong compressedBytes = new AtomicLong(0);
     private volatile int maxChannels;
 
     private ChannelFutureListener completionListener = new ChannelFutureListener() {
@@ -201,6 +215,20 @@ public class SSLAwareChannelHandler extends ChannelDuplexHandler {
         return this.objectsWritten.get();
     }
 
+    /**
+     * @return the original size of messages and lob chunks sent compressed
+     */
+    public long getUncompressedBytes() {
+        return this.uncompressedBytes.get();
+    }
+
+    /**
+     * @return the compressed size of messages and lob chunks sent compressed
+     */
+    public long getCompressedBytes() {
+        return this.compressedBytes.get();
+    }
+
     public int getConnectedChannels() {
         return this.listeners.size();
     }
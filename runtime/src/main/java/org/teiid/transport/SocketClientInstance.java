@@ -24,6 +24,8 @@ import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.nio.channels.ClosedChannelException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSession;
@@ -59,12 +61,52 @@ import org.teiid.transport.ObjectEncoder.FailedWriteException;
  */
 public class SocketClientInstance implements ChannelListener, ClientInstance {
 
+    /**
+     * A logical connection sharing the socket with others.  It has its own session
+     * and exists only while it has a session.
+     */
+    private class LogicalClientInstance implements ClientInstance {
+        private DQPWorkContext logicalContext = new DQPWorkContext().local(false);
+
+        LogicalClientInstance() {
+            logicalContext.setSecurityHelper(workContext.getSecurityHelper());
+            logicalContext.setClientAddress(workContext.getClientAddress());
+            logicalContext.setClientHostname(workContext.getClientHostname());
+            logicalContext.setSSLSession(workContext.getSSLSession());
+            logicalContext.setClientVersion(workContext.getClientVersion());
+            logicalContext.setConnectionProfile(workContext.getConnectionProfile());
+        }
+
+        @Override
+        public void send(Message message, Serializable messageKey) {
+            SocketClientInstance.this.send(message, messageKey);
+        }
+
+        @Override
+        public void shutdown() throws CommunicationException {
+            SocketClientInstance.this.shutdown();
+        }
+
+        @Override
+        public Cryptor getCryptor() {
+            return cryptor;
+        }
+
+        @Override
+        public DQPWorkContext getWorkContext() {
+            return logicalContext;
+        }
+    }
+
     private final ObjectChannel objectSocket;
     private Cryptor cryptor;
     private ClientServiceRegistryImpl csr;
     private boolean usingEncryption;
     private DhKeyGenerator keyGen;
     private DQPWorkContext workContext = new DQPWorkContext().local(false);
+    private int compressionThreshold = -1;
+    private boolean multiplexed;
+    private Map<Integer, LogicalClientInstance> logicalInstances = new ConcurrentHashMap<Integer, LogicalClientInstance>();
 
     public SocketClientInstance(ObjectChannel objectSocket, ClientServiceRegistryImpl csr, boolean isClientEncryptionEnabled) {
         this.objectSocket = objectSocket;
@@ -157,6 +199,8 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
             this.workContext.setSSLSession(session);
         }
         handshake.setAuthType(csr.getAuthenticationType());
+        handshake.setCompressionThreshold(compressionThreshold);
+        handshake.setMultiplexed(true);
         if (usingEncryption) {
             keyGen = new DhKeyGenerator();
             byte[] publicKey;
@@ -177,8 +221,16 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
 
     @Override
     public void disconnected() {
-        if (workContext.getSessionId() != null) {
-            workContext.runInContext(new Runnable() {
+        logoff(workContext);
+        for (LogicalClientInstance logical : logicalInstances.values()) {
+            logoff(logical.getWorkContext());
+        }
+        logicalInstances.clear();
+    }
+
+    private void logoff(DQPWorkContext context) {
+        if (context.getSessionId() != null) {
+            context.runInContext(new Runnable() {
                 @Override
                 public void run() {
                     try {
@@ -220,6 +272,20 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
         } else {
             this.cryptor = new NullCryptor();
         }
+        if (this.compressionThreshold >= 0 && handshake.getCompressionThreshold() >= 0) {
+            LogManager.logDetail(LogConstants.CTX_TRANSPORT, "using compression with threshold", this.compressionThreshold); //$NON-NLS-1$
+            this.objectSocket.setCompressionThreshold(this.compressionThreshold);
+        }
+        this.multiplexed = handshake.isMultiplexed();
+    }
+
+    /**
+     * Set the size in bytes at or above which messages will be compressed
+     * if the client accepts compression.
+     * @param compressionThreshold -1 to not offer compression
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
     }
 
     public void receivedMessage(Object msg) throws CommunicationException {
@@ -234,12 +300,27 @@ public class SocketClientInstance implements ChannelListener, ClientInstance {
         if (LogManager.isMessageToBeRecorded(LogConstants.CTX_TRANSPORT, MessageLevel.DETAIL)) {
             LogManager.logDetail(LogConstants.CTX_TRANSPORT, "processing message:" + packet); //$NON-NLS-1$
         }
-        workContext.getSession().setLastPingTime(System.currentTimeMillis());
-        if (this.workContext.getSecurityHelper() != null) {
-            this.workContext.getSecurityHelper().clearSecurityContext();
+        ClientInstance instance = this;
+        int connectionId = packet.getConnectionId();
+        if (multiplexed && connectionId != 0) {
+            LogicalClientInstance logical = logicalInstances.get(connectionId);
+            if (logical == null) {
+                logical = new LogicalClientInstance();
+                logicalInstances.put(connectionId, logical);
+            }
+            instance = logical;
+        }
+        DQPWorkContext context = instance.getWorkContext();
+        context.getSession().setLastPingTime(System.currentTimeMillis());
+        if (context.getSecurityHelper() != null) {
+            context.getSecurityHelper().clearSecurityContext();
+        }
+        final ServerWorkItem work = new ServerWorkItem(instance, packet.getMessageKey(), packet, this.csr);
+        context.runInContext(work);
+        if (instance != this && context.getSessionId() == null) {
+            //logged off or failed to logon
+            logicalInstances.remove(connectionId);
         }
-        final ServerWorkItem work = new ServerWorkItem(this, packet.getMessageKey(), packet, this.csr);
-        this.workContext.runInContext(work);
     }
 
     public void shutdown() throws CommunicationException {
@@ -54,6 +54,7 @@ import io.netty.util.concurrent.Future;
  */
 public class SocketListener implements ChannelListenerFactory {
     private static final int DEFAULT_MAX_MESSAGE_SIZE = 1 << 21;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1 << 12;
 
     protected SSLAwareChannelHandler channelHandler;
     private Channel serverChannel;
@@ -63,6 +64,8 @@ public class SocketListener implements ChannelListenerFactory {
 
     private int maxMessageSize = PropertiesUtils.getHierarchicalProperty("org.teiid.maxMessageSize", DEFAULT_MAX_MESSAGE_SIZE, Integer.class); //$NON-NLS-1$
     private long maxLobSize = PropertiesUtils.getHierarchicalProperty("org.teiid.maxStreamingLobSize", ObjectDecoder.MAX_LOB_SIZE, Long.class); //$NON-NLS-1$
+    //offered to clients, which must also enable compression for it to be used
+    private int compressionThreshold = PropertiesUtils.getHierarchicalProperty("org.teiid.compressionThreshold", DEFAULT_COMPRESSION_THRESHOLD, Integer.class); //$NON-NLS-1$
 
     public SocketListener(InetSocketAddress address, SocketConfiguration config, ClientServiceRegistryImpl csr, StorageManager storageManager) {
         this(address, config.getInputBufferSize(), config.getOutputBufferSize(), config.getMaxSocketThreads(), config.getSSLConfiguration(), csr, storageManager);
@@ -159,6 +162,11 @@ public class SocketListener implements ChannelListenerFactory {
         stats.objectsWritten = this.channelHandler.getObjectsWritten();
         stats.sockets = this.channelHandler.getConnectedChannels();
         stats.maxSockets = this.channelHandler.getMaxConnectedChannels();
+        stats.bytesUncompressed = this.channelHandler.getUncompressedBytes();
+        stats.bytesCompressed = this.channelHandler.getCompressedBytes();
+        if (stats.bytesCompressed > 0) {
+            stats.compressionRatio = (double)stats.bytesUncompressed / stats.bytesCompressed;
+        }
         return stats;
     }
 
@@ -167,7 +175,13 @@ public class SocketListener implements ChannelListenerFactory {
     }
 
     public ChannelListener createChannelListener(ObjectChannel channel) {
-        return new SocketClientInstance(channel, csr, this.isClientEncryptionEnabled);
+        SocketClientInstance instance = new SocketClientInstance(channel, csr, this.isClientEncryptionEnabled);
+        instance.setCompressionThreshold(this.compressionThreshold);
+        return instance;
+    }
+
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
     }
 
     SSLAwareChannelHandler getChannelHandler() {
@@ -32,5 +32,12 @@ public class SocketListenerStats implements Serializable {
 
     public int sockets = 0;
     public int maxSockets = 0;
+
+    /**
+     * the original and sent size of messages and lob chunks that were compressed
+     */
+    public long bytesUncompressed = 0;
+    public long bytesCompressed = 0;
+    public double compressionRatio = 1;
 }
 
@@ -71,6 +71,7 @@ import org.teiid.core.types.ClobType;
 import org.teiid.core.types.DataTypeManager;
 import org.teiid.core.types.InputStreamFactory;
 import org.teiid.core.types.SQLXMLImpl;
+import org.teiid.core.util.FileUtils;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.SimpleMock;
 import org.teiid.core.util.UnitTestUtil;
@@ -783,6 +784,65 @@ public class TestEmbeddedServer {
         es.deployVDB(new ByteArrayInputStream("<vdb name=\"test\" version=\"1\"><model name=\"test\"><source/></model><translator name=\"foo\" type=\"h2\"></translator></vdb>".getBytes()));
     }
 
+    @Test public void testMetadataCache() throws Exception {
+        File dir = UnitTestUtil.getTestScratchFile("metadata-cache");
+        FileUtils.removeDirectoryAndChildren(dir);
+        final AtomicInteger loads = new AtomicInteger();
+        ExecutionFactory<Void, Void> ef = new ExecutionFactory<Void, Void>() {
+
+            @Override
+            public boolean isSourceRequiredForMetadata() {
+                return false;
+            }
+
+            @Override
+            public void getMetadata(MetadataFactory metadataFactory, Void conn)
+                    throws TranslatorException {
+                loads.incrementAndGet();
+                metadataFactory.addColumn("col", TypeFacility.RUNTIME_NAMES.STRING, metadataFactory.addTable("tbl"));
+            }
+        };
+
+        //loaded concurrently on the first deployment, then from the cache
+        deployCachedMetadata(dir, ef, "select a.col from a.tbl as a, b.tbl as b");
+        assertEquals(2, loads.get());
+        deployCachedMetadata(dir, ef, "select a.col from a.tbl as a, b.tbl as b");
+        assertEquals(2, loads.get());
+
+        //a change to the vdb invalidates the cache
+        deployCachedMetadata(dir, ef, "select b.col from a.tbl as a, b.tbl as b");
+        assertEquals(4, loads.get());
+
+        Connection c = es.getDriver().connect("jdbc:teiid:test", null);
+        ResultSet rs = c.createStatement().executeQuery("select * from v");
+        assertFalse(rs.next());
+    }
+
+    private void deployCachedMetadata(File dir, ExecutionFactory<Void, Void> ef, String view) throws Exception {
+        es.stop();
+        es = new EmbeddedServer();
+        EmbeddedConfiguration ec = new EmbeddedConfiguration();
+        ec.setUseDisk(false);
+        ec.setMetadataCacheDirectory(dir.getAbsolutePath());
+        es.start(ec);
+        es.addTranslator("y", ef);
+
+        ModelMetaData mmd = new ModelMetaData();
+        mmd.setName("a");
+        mmd.addSourceMapping("x", "y", null);
+
+        ModelMetaData mmd1 = new ModelMetaData();
+        mmd1.setName("b");
+        mmd1.addSourceMapping("x", "y", null);
+
+        ModelMetaData mmd2 = new ModelMetaData();
+        mmd2.setName("v");
+        mmd2.setModelType(Type.VIRTUAL);
+        mmd2.addSourceMetadata("ddl", "create view v as " + view);
+
+        es.deployVDB("test", mmd, mmd1, mmd2);
+    }
+
     @Test(expected=VirtualDatabaseException.class) public void testDeploymentError() throws Exception {
         EmbeddedConfiguration ec = new EmbeddedConfiguration();
         ec.setUseDisk(false);
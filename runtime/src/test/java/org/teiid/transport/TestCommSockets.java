@@ -44,6 +44,7 @@ import org.teiid.client.util.ResultsFuture;
 import org.teiid.client.util.ResultsFuture.CompletionListener;
 import org.teiid.common.buffer.BufferManagerFactory;
 import org.teiid.common.buffer.impl.MemoryStorageManager;
+import org.teiid.core.TeiidProcessingException;
 import org.teiid.core.crypto.NullCryptor;
 import org.teiid.core.util.ObjectConverterUtil;
 import org.teiid.core.util.UnitTestUtil;
@@ -124,6 +125,52 @@ public class TestCommSockets {
         assertEquals(6, storageManager.getRemoved());
     }
 
+    @Test public void testCompression() throws Exception {
+        Properties p = new Properties();
+        p.setProperty("org.teiid.sockets.compressionThreshold", "0");
+        System.setProperty("org.teiid.compressionThreshold", "0");
+        SocketServerConnection conn = null;
+        try {
+            conn = helpEstablishConnection(false, new SSLConfiguration(), p);
+        } finally {
+            System.clearProperty("org.teiid.compressionThreshold");
+        }
+        FakeService fs = conn.getService(FakeService.class);
+        assertEquals((1 << 17) + 50, fs.lobMethod(new ByteArrayInputStream(new byte[1 << 17]), new StringReader(new String(new char[50]))));
+        assertEquals("hello world", ObjectConverterUtil.convertToString(fs.getReader()));
+        try {
+            fs.exceptionMethod();
+            fail();
+        } catch (TeiidProcessingException e) {
+
+        }
+        SocketListenerStats stats = listener.getStats();
+        assertTrue(stats.bytesCompressed > 0);
+        assertTrue(stats.compressionRatio > 1);
+        conn.close();
+    }
+
+    @Test public void testMultiplexedConnections() throws Exception {
+        Properties p = new Properties();
+        p.setProperty(TeiidURL.CONNECTION.MULTIPLEX_CONNECTIONS, "true");
+        SocketServerConnection conn = helpEstablishConnection(false, new SSLConfiguration(), p);
+        SocketServerConnection conn1 = helpEstablishConnection(false, new SSLConfiguration(), p);
+        SocketListenerStats stats = listener.getStats();
+        assertEquals(1, stats.sockets);
+        assertEquals(2, service.getActiveSessionsCount());
+        FakeService fs = conn.getService(FakeService.class);
+        FakeService fs1 = conn1.getService(FakeService.class);
+        assertEquals((1 << 17) + 50, fs.lobMethod(new ByteArrayInputStream(new byte[1 << 17]), new StringReader(new String(new char[50]))));
+        assertEquals(150, fs1.lobMethod(new ByteArrayInputStream(new byte[100]), new StringReader(new String(new char[50]))));
+        conn.close();
+        assertEquals(1, service.getActiveSessionsCount());
+        assertEquals("hello world", ObjectConverterUtil.convertToString(fs1.getReader()));
+        conn1.close();
+        assertEquals(0, service.getActiveSessionsCount());
+        stats = listener.getStats();
+        assertEquals(1, stats.maxSockets);
+    }
+
     @Test public void testServerRemoteStreaming() throws Exception {
         SocketServerConnection conn = helpEstablishConnection(false);
         FakeService fs = conn.getService(FakeService.class);
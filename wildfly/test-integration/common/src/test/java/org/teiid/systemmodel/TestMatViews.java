@@ -665,6 +665,60 @@ public class TestMatViews {
         assertEquals("ax", rs.getString(1));
     }
 
+    @Test
+    public void testInternalIncrementalRefresh() throws Exception {
+        ModelMetaData mmd2 = new ModelMetaData();
+        mmd2.setName("m");
+        mmd2.setModelType(Type.PHYSICAL);
+        mmd2.addSourceMapping("x", "x", null);
+        mmd2.addSourceMetadata("DDL", "CREATE foreign TABLE t (col string, colx string, ver integer); "
+                + "CREATE VIEW v1 (col1 string, col2 string, ver integer, primary key (col1)) "
+                + "OPTIONS (MATERIALIZED true, \"teiid_rel:MATVIEW_INCREMENTAL_COLUMN\" 'ver') AS select col, colx, ver from t;");
+
+        HardCodedExecutionFactory hcef = new HardCodedExecutionFactory() {
+            @Override
+            public boolean supportsCompareCriteriaOrdered() {
+                return true;
+            }
+        };
+        hcef.addData("SELECT t.col, t.colx, t.ver FROM t", Arrays.asList(Arrays.asList("a", "ax", 1), Arrays.asList("b", "bx", 2)));
+        hcef.addData("SELECT t.col, t.colx, t.ver FROM t WHERE t.ver > 2", Arrays.asList(Arrays.asList("a", "ay", 3), Arrays.asList("c", "cx", 3)));
+        server.addTranslator("x", hcef);
+
+        server.deployVDB("comp", mmd2);
+
+        Connection c = server.getDriver().connect("jdbc:teiid:comp", null);
+
+        Statement s = c.createStatement();
+        ResultSet rs = s.executeQuery("select count(*) from v1");
+        rs.next();
+        assertEquals(2, rs.getInt(1));
+
+        //only the changed rows are applied
+        rs = s.executeQuery("select * from (call refreshMatView('m.v1', false)) p");
+        rs.next();
+        assertEquals(2, rs.getInt(1));
+
+        rs = s.executeQuery("select col1, col2 from v1 order by col1");
+        rs.next();
+        assertEquals("ay", rs.getString(2));
+        rs.next();
+        assertEquals("bx", rs.getString(2));
+        rs.next();
+        assertEquals("cx", rs.getString(2));
+        assertFalse(rs.next());
+
+        rs = s.executeQuery("select loadstate, valid from MatViews where name = 'v1'");
+        rs.next();
+        assertEquals("LOADED", rs.getString(1));
+        assertTrue(rs.getBoolean(2));
+
+        //an invalidating refresh performs a full load
+        rs = s.executeQuery("select * from (call refreshMatView('m.v1', true)) p");
+        rs.next();
+        assertEquals(2, rs.getInt(1));
+    }
+
     @Test
     public void testInternalPollingQuery() throws Exception {
         ModelMetaData mmd2 = new ModelMetaData();
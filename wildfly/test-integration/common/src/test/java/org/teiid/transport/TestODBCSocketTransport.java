@@ -25,6 +25,12 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.net.InetSocketAddress;
 import java.nio.charset.Charset;
 import java.sql.Array;
@@ -48,6 +54,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.postgresql.Driver;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.core.v3.ExtendedQueryExecutorImpl;
 import org.postgresql.util.PSQLException;
 import org.teiid.adminapi.Model.Type;
@@ -999,4 +1007,114 @@ public class TestODBCSocketTransport {
         TestMMDatabaseMetaData.compareResultSet(s.getResultSet());
     }
 
+    @Test public void testTextValues() throws Exception {
+        Statement s = conn.createStatement();
+        assertTrue(s.execute("select cast(-9223372036854775808 as long), cast(-12 as integer), cast(0 as short), cast(7 as byte), "
+                + "true, cast('c' as char), cast(1.5 as double), cast(-2.25 as bigdecimal), cast(null as integer), 'a\u00e9b' "
+                + "union all select 9223372036854775807, 2147483647, -32768, -128, false, null, null, null, 1, null"));
+        ResultSet rs = s.getResultSet();
+        assertTrue(rs.next());
+        assertEquals(Long.MIN_VALUE, rs.getLong(1));
+        assertEquals("-12", rs.getString(2));
+        assertEquals("0", rs.getString(3));
+        assertEquals(7, rs.getByte(4));
+        assertTrue(rs.getBoolean(5));
+        assertEquals("c", rs.getString(6));
+        assertEquals(1.5, rs.getDouble(7), 0);
+        assertEquals("-2.25", rs.getString(8));
+        assertNull(rs.getObject(9));
+        assertEquals("a\u00e9b", rs.getString(10));
+        assertTrue(rs.next());
+        assertEquals(Long.MAX_VALUE, rs.getLong(1));
+        assertEquals(Integer.MAX_VALUE, rs.getInt(2));
+        assertEquals(Short.MIN_VALUE, rs.getShort(3));
+        assertEquals(-128, rs.getByte(4));
+        assertFalse(rs.getBoolean(5));
+        assertNull(rs.getString(6));
+        assertNull(rs.getObject(7));
+        assertEquals(1, rs.getInt(9));
+        assertFalse(rs.next());
+    }
+
+    @Test public void testCopy() throws Exception {
+        Statement s = conn.createStatement();
+        assertFalse(s.execute("create local temporary table x (y string, z integer)"));
+        CopyManager cm = conn.unwrap(PGConnection.class).getCopyAPI();
+        long count = cm.copyIn("COPY x FROM STDIN", new StringReader("a\t1\nb\\tc\t\\N\n"));
+        assertEquals(2, count);
+        count = cm.copyIn("COPY x (z, y) FROM STDIN WITH (FORMAT csv, HEADER)", new StringReader("z,y\n3,\"d,e\"\n"));
+        assertEquals(1, count);
+        StringWriter writer = new StringWriter();
+        count = cm.copyOut("COPY (select * from x order by y) TO STDOUT", writer);
+        assertEquals(3, count);
+        assertEquals("a\t1\nb\\tc\t\\N\nd,e\t3\n", writer.toString());
+        writer = new StringWriter();
+        cm.copyOut("COPY x TO STDOUT CSV", writer);
+        assertTrue(writer.toString().contains("\"d,e\",3\n"));
+    }
+
+    @Test public void testCopyBinary() throws Exception {
+        Statement s = conn.createStatement();
+        assertFalse(s.execute("create local temporary table x (y string, z integer, n bigdecimal)"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.write("PGCOPY\n\377\r\n\0".getBytes("ISO-8859-1"));
+        out.writeInt(0);
+        out.writeInt(0);
+        //a, 1, 123.45
+        out.writeShort(3);
+        out.writeInt(1);
+        out.write('a');
+        out.writeInt(4);
+        out.writeInt(1);
+        out.writeInt(12);
+        out.writeShort(2);
+        out.writeShort(0);
+        out.writeShort(0);
+        out.writeShort(2);
+        out.writeShort(123);
+        out.writeShort(4500);
+        //null, 2, -0.5
+        out.writeShort(3);
+        out.writeInt(-1);
+        out.writeInt(4);
+        out.writeInt(2);
+        out.writeInt(10);
+        out.writeShort(1);
+        out.writeShort(-1);
+        out.writeShort(0x4000);
+        out.writeShort(1);
+        out.writeShort(5000);
+        out.writeShort(-1);
+        out.close();
+        CopyManager cm = conn.unwrap(PGConnection.class).getCopyAPI();
+        long count = cm.copyIn("COPY x FROM STDIN WITH (FORMAT binary)", new ByteArrayInputStream(baos.toByteArray()));
+        assertEquals(2, count);
+        ResultSet rs = s.executeQuery("select y, z, n from x order by z");
+        assertTrue(rs.next());
+        assertEquals("a", rs.getString(1));
+        assertEquals(1, rs.getInt(2));
+        assertEquals(new BigDecimal("123.45"), rs.getBigDecimal(3));
+        assertTrue(rs.next());
+        assertNull(rs.getString(1));
+        assertEquals(2, rs.getInt(2));
+        assertEquals(new BigDecimal("-0.5"), rs.getBigDecimal(3));
+        assertFalse(rs.next());
+    }
+
+    @Test public void testCopyMultipleBatches() throws Exception {
+        Statement s = conn.createStatement();
+        assertFalse(s.execute("create local temporary table x (y integer)"));
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            data.append(i).append('\n');
+        }
+        CopyManager cm = conn.unwrap(PGConnection.class).getCopyAPI();
+        long count = cm.copyIn("COPY x FROM STDIN", new StringReader(data.toString()));
+        assertEquals(5000, count);
+        ResultSet rs = s.executeQuery("select count(distinct y) from x");
+        assertTrue(rs.next());
+        assertEquals(5000, rs.getInt(1));
+    }
+
 }
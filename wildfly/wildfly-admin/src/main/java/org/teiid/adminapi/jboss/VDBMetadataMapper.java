@@ -1007,6 +1007,11 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
         private static final String MEMORY_IN_USE_BY_ACTIVE_PLANS = "total-memory-inuse-active-plans-kb";//$NON-NLS-1$
         private static final String DISK_WRITE_COUNT = "buffermgr-disk-write-count"; //$NON-NLS-1$
         private static final String DISK_READ_COUNT = "buffermgr-disk-read-count"; //$NON-NLS-1$
+        private static final String MAPPED_DISK_READ_COUNT = "buffermgr-mapped-disk-read-count"; //$NON-NLS-1$
+        private static final String MAPPED_DISK_SPACE = "buffermgr-mapped-diskspace-mb"; //$NON-NLS-1$
+        private static final String EVICTION_COUNT = "buffermgr-eviction-count"; //$NON-NLS-1$
+        private static final String MEMORY_HIT_COUNT = "buffermgr-memory-hit-count"; //$NON-NLS-1$
+        private static final String MEMORY_MISS_COUNT = "buffermgr-memory-miss-count"; //$NON-NLS-1$
         private static final String CACHE_WRITE_COUNT = "buffermgr-cache-write-count"; //$NON-NLS-1$
         private static final String CACHE_READ_COUNT = "buffermgr-cache-read-count"; //$NON-NLS-1$
         private static final String DISK_SPACE_USED = "buffermgr-diskspace-used-mb"; //$NON-NLS-1$
@@ -1025,6 +1030,11 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
             node.get(MEMORY_IN_USE_BY_ACTIVE_PLANS).set(object.getMemoryUsedByActivePlansInKB());
             node.get(DISK_WRITE_COUNT).set(object.getDiskWriteCount());
             node.get(DISK_READ_COUNT).set(object.getDiskReadCount());
+            node.get(MAPPED_DISK_READ_COUNT).set(object.getMappedDiskReadCount());
+            node.get(MAPPED_DISK_SPACE).set(object.getMappedDiskSpaceInMB());
+            node.get(EVICTION_COUNT).set(object.getEvictionCount());
+            node.get(MEMORY_HIT_COUNT).set(object.getMemoryHitCount());
+            node.get(MEMORY_MISS_COUNT).set(object.getMemoryMissCount());
             node.get(CACHE_WRITE_COUNT).set(object.getCacheWriteCount());
             node.get(CACHE_READ_COUNT).set(object.getCacheReadCount());
             node.get(DISK_SPACE_USED).set(object.getDiskSpaceUsedInMB());
@@ -1046,6 +1056,15 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
             stats.setMemoryUsedByActivePlansInKB(node.get(MEMORY_IN_USE_BY_ACTIVE_PLANS).asLong());
             stats.setDiskWriteCount(node.get(DISK_WRITE_COUNT).asLong());
             stats.setDiskReadCount(node.get(DISK_READ_COUNT).asLong());
+            if (node.has(MAPPED_DISK_READ_COUNT)) {
+                stats.setMappedDiskReadCount(node.get(MAPPED_DISK_READ_COUNT).asLong());
+                stats.setMappedDiskSpaceInMB(node.get(MAPPED_DISK_SPACE).asLong());
+            }
+            if (node.has(EVICTION_COUNT)) {
+                stats.setEvictionCount(node.get(EVICTION_COUNT).asLong());
+                stats.setMemoryHitCount(node.get(MEMORY_HIT_COUNT).asLong());
+                stats.setMemoryMissCount(node.get(MEMORY_MISS_COUNT).asLong());
+            }
             stats.setCacheReadCount(node.get(CACHE_READ_COUNT).asLong());
             stats.setCacheWriteCount(node.get(CACHE_WRITE_COUNT).asLong());
             stats.setDiskSpaceUsedInMB(node.get(DISK_SPACE_USED).asLong());
@@ -1064,6 +1083,11 @@ public class VDBMetadataMapper implements MetadataMapper<VDBMetaData> {
                     createAttribute(MEMORY_IN_USE_BY_ACTIVE_PLANS, ModelType.LONG, false),
                     createAttribute(DISK_WRITE_COUNT, ModelType.LONG, false),
                     createAttribute(DISK_READ_COUNT, ModelType.LONG, false),
+                    createAttribute(MAPPED_DISK_READ_COUNT, ModelType.LONG, false),
+                    createAttribute(MAPPED_DISK_SPACE, ModelType.LONG, false),
+                    createAttribute(EVICTION_COUNT, ModelType.LONG, false),
+                    createAttribute(MEMORY_HIT_COUNT, ModelType.LONG, false),
+                    createAttribute(MEMORY_MISS_COUNT, ModelType.LONG, false),
                     createAttribute(CACHE_READ_COUNT, ModelType.LONG, false),
                     createAttribute(CACHE_WRITE_COUNT, ModelType.LONG, false),
                     createAttribute(DISK_SPACE_USED, ModelType.LONG, false),